@@ -0,0 +1,9 @@
+-- pgbench script, see benchmark/claim-setup.sql.
+\set brand random(1, :brands)
+WITH claimed AS (
+    SELECT id FROM devices_claim
+    WHERE brand_id = :brand AND state = 1
+    LIMIT 1
+    FOR UPDATE
+)
+UPDATE devices_claim d SET state = 2 FROM claimed WHERE d.id = claimed.id;
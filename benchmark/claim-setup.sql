@@ -0,0 +1,39 @@
+-- Claim contention benchmark: FOR UPDATE SKIP LOCKED vs. plain FOR UPDATE.
+--
+-- Run against a scratch Postgres database (not the service database):
+--   psql -v rows=1000000 -f benchmark/claim-setup.sql
+--   pgbench -n -c 200 -j 8 -t 500 -D brands=4 -f benchmark/claim-skip-locked.sql
+--   psql -c "SELECT count(*) AS claimed FROM devices_claim WHERE state = 2"
+--
+-- then the same three commands with benchmark/claim-for-update.sql.
+--
+-- Each pgbench transaction claims one AVAILABLE device of a random brand,
+-- the way POST /devices/claim does. With only a few brands, hundreds of
+-- clients go after the same first rows. Plain FOR UPDATE queues them on
+-- those rows; once the holder commits, the waiter re-checks the row, finds
+-- it IN_USE and claims nothing. SKIP LOCKED moves on to the next free row.
+-- Compare pgbench latency and tps, and the claimed count against the
+-- 100000 transactions (200 clients x 500): every SKIP LOCKED transaction
+-- claims a device, the FOR UPDATE run leaves many empty-handed.
+
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+\set rows 1000000
+\endif
+
+DROP TABLE IF EXISTS devices_claim;
+
+CREATE TABLE devices_claim (
+    id       uuid     NOT NULL PRIMARY KEY,
+    brand_id integer  NOT NULL,
+    state    smallint NOT NULL
+);
+
+INSERT INTO devices_claim (id, brand_id, state)
+SELECT gen_random_uuid(), 1 + g % 4, 1
+FROM generate_series(1, :rows) g;
+
+CREATE INDEX devices_claim_brand_state_idx ON devices_claim (brand_id, state);
+
+VACUUM ANALYZE devices_claim;
@@ -0,0 +1,84 @@
+-- Row layout benchmark: varchar brand/state vs. dictionary key + smallint.
+--
+-- Run against a scratch Postgres database (not the service database):
+--   psql -v rows=10000000 -f benchmark/compact-layout.sql
+--
+-- Loads the same rows in both layouts, then reports table and index sizes
+-- and times a brand + state filter in each. In the wide layout the filter
+-- uses lower(brand); in the compact layout the brand resolves to its keys
+-- first.
+
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+\set rows 10000000
+\endif
+\timing on
+
+DROP TABLE IF EXISTS devices_wide;
+DROP TABLE IF EXISTS devices_compact;
+DROP TABLE IF EXISTS brands_bench;
+
+CREATE TABLE devices_wide (
+    id            uuid                        NOT NULL PRIMARY KEY,
+    name          varchar(255)                NOT NULL,
+    brand         varchar(255)                NOT NULL,
+    state         varchar(255)                NOT NULL,
+    creation_time timestamp(6) with time zone NOT NULL
+);
+
+CREATE TABLE brands_bench (
+    id        integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name      varchar(255) NOT NULL UNIQUE,
+    canonical varchar(255) NOT NULL
+);
+
+CREATE TABLE devices_compact (
+    id            uuid                        NOT NULL PRIMARY KEY,
+    name          varchar(255)                NOT NULL,
+    brand_id      integer                     NOT NULL REFERENCES brands_bench (id),
+    state         smallint                    NOT NULL,
+    creation_time timestamp(6) with time zone NOT NULL
+);
+
+INSERT INTO devices_wide (id, name, brand, state, creation_time)
+SELECT gen_random_uuid(),
+       'device-' || g,
+       (ARRAY ['Apple', 'Samsung', 'Google', 'Lenovo', 'Dell', 'Hewlett-Packard', 'Motorola'])[1 + g % 7],
+       (ARRAY ['AVAILABLE', 'IN_USE', 'INACTIVE'])[1 + g % 3],
+       now() - (g % 1000) * interval '1 hour'
+FROM generate_series(1, :rows) g;
+
+INSERT INTO brands_bench (name, canonical)
+SELECT DISTINCT brand, lower(brand) FROM devices_wide;
+
+INSERT INTO devices_compact (id, name, brand_id, state, creation_time)
+SELECT w.id, w.name, b.id,
+       CASE w.state WHEN 'AVAILABLE' THEN 1 WHEN 'IN_USE' THEN 2 ELSE 3 END,
+       w.creation_time
+FROM devices_wide w
+JOIN brands_bench b ON b.name = w.brand;
+
+CREATE INDEX devices_wide_brand_state_idx ON devices_wide (lower(brand), state);
+CREATE INDEX devices_compact_brand_state_idx ON devices_compact (brand_id, state);
+
+VACUUM ANALYZE devices_wide;
+VACUUM ANALYZE devices_compact;
+
+SELECT relname,
+       pg_size_pretty(pg_table_size(oid))   AS table_size,
+       pg_size_pretty(pg_indexes_size(oid)) AS index_size
+FROM pg_class
+WHERE relname IN ('devices_wide', 'devices_compact');
+
+SELECT indexrelname, pg_size_pretty(pg_relation_size(indexrelid)) AS size
+FROM pg_stat_user_indexes
+WHERE relname IN ('devices_wide', 'devices_compact');
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM devices_wide
+WHERE lower(brand) = 'hewlett-packard' AND state = 'IN_USE';
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM devices_compact
+WHERE brand_id IN (SELECT id FROM brands_bench WHERE canonical = 'hewlett-packard') AND state = 2;
@@ -0,0 +1,97 @@
+-- Range-query and vacuum benchmark: partitioned vs. unpartitioned devices.
+--
+-- Run against a scratch Postgres database (not the service database):
+--   psql -v rows=50000000 -f benchmark/partitioning.sql
+--
+-- Loads the same rows into devices_flat (a single heap) and devices_part
+-- (monthly partitions). The rows are spread over 36 months. The script then
+-- times a one-month range query, a filtered one-month query, and VACUUM
+-- after updating 5% of the rows. Compare the \timing output and the EXPLAIN
+-- plans. The partitioned plan should only scan the one matching partition.
+
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+\set rows 50000000
+\endif
+\timing on
+
+DROP TABLE IF EXISTS devices_flat;
+DROP TABLE IF EXISTS devices_part CASCADE;
+
+CREATE TABLE devices_flat (
+    id            uuid                        NOT NULL PRIMARY KEY,
+    name          varchar(255)                NOT NULL,
+    brand         varchar(255)                NOT NULL,
+    state         varchar(255)                NOT NULL,
+    creation_time timestamp(6) with time zone NOT NULL
+);
+
+CREATE TABLE devices_part (
+    id            uuid                        NOT NULL,
+    name          varchar(255)                NOT NULL,
+    brand         varchar(255)                NOT NULL,
+    state         varchar(255)                NOT NULL,
+    creation_time timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (id, creation_time)
+) PARTITION BY RANGE (creation_time);
+
+DO $$
+DECLARE
+    month date := date '2023-01-01';
+BEGIN
+    WHILE month < date '2026-01-01' LOOP
+        EXECUTE format(
+                'CREATE TABLE %I PARTITION OF devices_part FOR VALUES FROM (%L) TO (%L)',
+                'devices_part_' || to_char(month, 'YYYY_MM'),
+                month::timestamp AT TIME ZONE 'UTC',
+                (month + interval '1 month')::timestamp AT TIME ZONE 'UTC');
+        month := month + interval '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO devices_flat (id, name, brand, state, creation_time)
+SELECT gen_random_uuid(),
+       'device-' || g,
+       (ARRAY ['Apple', 'Samsung', 'Google', 'Lenovo', 'Dell'])[1 + g % 5],
+       (ARRAY ['AVAILABLE', 'IN_USE', 'INACTIVE'])[1 + g % 3],
+       timestamptz '2023-01-01 00:00:00+00' + (g::double precision / :rows) * interval '1095 days'
+FROM generate_series(1, :rows) g;
+
+INSERT INTO devices_part SELECT * FROM devices_flat;
+
+CREATE INDEX ON devices_flat (creation_time);
+CREATE INDEX ON devices_flat (lower(brand), state);
+CREATE INDEX ON devices_part (lower(brand), state);
+
+VACUUM ANALYZE devices_flat;
+VACUUM ANALYZE devices_part;
+
+-- 1. One month by creation time.
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM devices_flat
+WHERE creation_time >= '2025-06-01T00:00:00Z' AND creation_time < '2025-07-01T00:00:00Z';
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM devices_part
+WHERE creation_time >= '2025-06-01T00:00:00Z' AND creation_time < '2025-07-01T00:00:00Z';
+
+-- 2. One month, filtered by brand and state, first page.
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM devices_flat
+WHERE lower(brand) = 'apple' AND state = 'IN_USE'
+  AND creation_time >= '2025-06-01T00:00:00Z' AND creation_time < '2025-07-01T00:00:00Z'
+ORDER BY creation_time LIMIT 21;
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM devices_part
+WHERE lower(brand) = 'apple' AND state = 'IN_USE'
+  AND creation_time >= '2025-06-01T00:00:00Z' AND creation_time < '2025-07-01T00:00:00Z'
+ORDER BY creation_time LIMIT 21;
+
+-- 3. Vacuum after churn concentrated in recent months, as in production.
+UPDATE devices_flat SET state = 'INACTIVE'
+WHERE creation_time >= '2025-11-01T00:00:00Z' AND creation_time < '2025-12-01T00:00:00Z';
+UPDATE devices_part SET state = 'INACTIVE'
+WHERE creation_time >= '2025-11-01T00:00:00Z' AND creation_time < '2025-12-01T00:00:00Z';
+
+VACUUM (VERBOSE) devices_flat;
+VACUUM (VERBOSE) devices_part_2025_11;
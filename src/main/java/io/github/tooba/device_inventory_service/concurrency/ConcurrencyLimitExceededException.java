@@ -0,0 +1,17 @@
+package io.github.tooba.device_inventory_service.concurrency;
+
+import java.time.Duration;
+
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitExceededException(EndpointClass endpointClass, Duration retryAfter) {
+        super("Too many concurrent " + endpointClass.tag() + " requests, retry later");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
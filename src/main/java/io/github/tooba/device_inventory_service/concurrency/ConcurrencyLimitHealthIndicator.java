@@ -0,0 +1,39 @@
+package io.github.tooba.device_inventory_service.concurrency;
+
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reports OUT_OF_SERVICE while the limiter keeps shedding load over the
+ * readiness window so that the readiness probe lets the orchestrator shift
+ * traffic to other instances.
+ */
+public class ConcurrencyLimitHealthIndicator implements HealthIndicator {
+
+    private final ConcurrencyLimiterRegistry registry;
+
+    public ConcurrencyLimitHealthIndicator(ConcurrencyLimiterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Health health() {
+
+        Map<String, Object> details = new LinkedHashMap<>();
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            var limiter = registry.get(endpointClass);
+            details.put(endpointClass.tag(), Map.of(
+                    "limit", limiter.getLimit(),
+                    "inFlight", limiter.getInFlight()
+            ));
+        }
+
+        details.put("rejectionRatio", registry.rejectionRatio());
+
+        var builder = registry.isShedding() ? Health.outOfService() : Health.up();
+        return builder.withDetails(details).build();
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.tooba.device_inventory_service.concurrency;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String LIMITER_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".limiter";
+    private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+
+    private final ConcurrencyLimiterRegistry registry;
+
+    public ConcurrencyLimitInterceptor(ConcurrencyLimiterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+
+        EndpointClass endpointClass = EndpointClass.of(request);
+        AdaptiveConcurrencyLimiter limiter = registry.get(endpointClass);
+
+        if (!limiter.tryAcquire()) {
+            throw registry.reject(endpointClass);
+        }
+        registry.admit(endpointClass);
+
+        request.setAttribute(LIMITER_ATTRIBUTE, limiter);
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Object handler,
+            Exception ex
+    ) {
+        if (!(request.getAttribute(LIMITER_ATTRIBUTE) instanceof AdaptiveConcurrencyLimiter limiter)) {
+            return;
+        }
+
+        long start = (long) request.getAttribute(START_ATTRIBUTE);
+        boolean dropped = ex != null || response.getStatus() >= 500;
+
+        limiter.release(System.nanoTime() - start, dropped);
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.tooba.device_inventory_service.concurrency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("device.concurrency")
+public record ConcurrencyLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("20") int initialLimit,
+        @DefaultValue("4") int minLimit,
+        @DefaultValue("200") int maxLimit,
+        @DefaultValue("0.2") double smoothing,
+        @DefaultValue("1.5") double rttTolerance,
+        @DefaultValue("1s") Duration retryAfter,
+        @DefaultValue("10s") Duration readinessWindow,
+        @DefaultValue("0.2") double readinessRejectionRatio,
+        @DefaultValue("50") int readinessMinRejections
+) {}
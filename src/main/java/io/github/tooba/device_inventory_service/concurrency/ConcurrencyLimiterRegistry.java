@@ -0,0 +1,79 @@
+package io.github.tooba.device_inventory_service.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+public class ConcurrencyLimiterRegistry {
+
+    private final ConcurrencyLimitProperties properties;
+    private final Map<EndpointClass, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rejections = new EnumMap<>(EndpointClass.class);
+    private final RejectionWindow window;
+
+    public ConcurrencyLimiterRegistry(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    ConcurrencyLimiterRegistry(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.properties = properties;
+        this.window = new RejectionWindow(properties.readinessWindow(), nanoTime);
+
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            var limiter = new AdaptiveConcurrencyLimiter(
+                    properties.initialLimit(),
+                    properties.minLimit(),
+                    properties.maxLimit(),
+                    properties.smoothing(),
+                    properties.rttTolerance()
+            );
+            limiters.put(endpointClass, limiter);
+
+            Gauge.builder("device.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("endpoint.class", endpointClass.tag())
+                    .register(meterRegistry);
+            Gauge.builder("device.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Requests currently admitted by the limiter")
+                    .tag("endpoint.class", endpointClass.tag())
+                    .register(meterRegistry);
+            rejections.put(endpointClass, Counter.builder("device.concurrency.rejections")
+                    .description("Requests rejected because the concurrency limit was reached")
+                    .tag("endpoint.class", endpointClass.tag())
+                    .register(meterRegistry));
+        }
+    }
+
+    public AdaptiveConcurrencyLimiter get(EndpointClass endpointClass) {
+        return limiters.get(endpointClass);
+    }
+
+    public void admit(EndpointClass endpointClass) {
+        window.admitted();
+    }
+
+    public ConcurrencyLimitExceededException reject(EndpointClass endpointClass) {
+        rejections.get(endpointClass).increment();
+        window.rejected();
+        return new ConcurrencyLimitExceededException(endpointClass, properties.retryAfter());
+    }
+
+    /**
+     * Whether rejections over the readiness window are sustained: enough of
+     * them, and a large enough share of all requests. A short burst that the
+     * limiter absorbs does not take the instance out of rotation.
+     */
+    public boolean isShedding() {
+        var snapshot = window.snapshot();
+        return snapshot.rejected() >= properties.readinessMinRejections()
+                && snapshot.rejectionRatio() >= properties.readinessRejectionRatio();
+    }
+
+    public double rejectionRatio() {
+        return window.snapshot().rejectionRatio();
+    }
+}
@@ -0,0 +1,28 @@
+package io.github.tooba.device_inventory_service.concurrency;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+public enum EndpointClass {
+    READ,
+    WRITE,
+    EXPORT;
+
+    public static EndpointClass of(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (uri.contains("/export")) {
+            return EXPORT;
+        }
+        // POST only because the id list does not fit in a query string.
+        if (uri.endsWith("/devices/lookup")) {
+            return READ;
+        }
+        return switch (request.getMethod()) {
+            case "GET", "HEAD" -> READ;
+            default -> WRITE;
+        };
+    }
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
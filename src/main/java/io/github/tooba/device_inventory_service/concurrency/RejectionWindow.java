@@ -0,0 +1,92 @@
+package io.github.tooba.device_inventory_service.concurrency;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Admissions and rejections over a sliding window of one-second buckets.
+ * A bucket is reset lazily the first time it is used in a new second, so
+ * recording stays a counter increment on the request path.
+ */
+class RejectionWindow {
+
+    private static final long BUCKET_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Bucket[] buckets;
+    private final LongSupplier nanoTime;
+
+    RejectionWindow(Duration window, LongSupplier nanoTime) {
+        int size = (int) Math.max(1, window.toSeconds());
+        this.buckets = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.nanoTime = nanoTime;
+    }
+
+    void admitted() {
+        current().admitted.increment();
+    }
+
+    void rejected() {
+        current().rejected.increment();
+    }
+
+    /**
+     * Rejections in the window, and their share of all requests in it.
+     */
+    Snapshot snapshot() {
+
+        long slot = slot();
+        long admitted = 0;
+        long rejected = 0;
+
+        for (Bucket bucket : buckets) {
+            if (bucket.slot > slot - buckets.length) {
+                admitted += bucket.admitted.sum();
+                rejected += bucket.rejected.sum();
+            }
+        }
+        return new Snapshot(admitted, rejected);
+    }
+
+    private Bucket current() {
+
+        long slot = slot();
+        Bucket bucket = buckets[(int) Math.floorMod(slot, buckets.length)];
+
+        if (bucket.slot != slot) {
+            synchronized (bucket) {
+                if (bucket.slot != slot) {
+                    bucket.admitted.reset();
+                    bucket.rejected.reset();
+                    bucket.slot = slot;
+                }
+            }
+        }
+        return bucket;
+    }
+
+    private long slot() {
+        return Math.floorDiv(nanoTime.getAsLong(), BUCKET_NANOS);
+    }
+
+    record Snapshot(long admitted, long rejected) {
+
+        double rejectionRatio() {
+            long total = admitted + rejected;
+            return total == 0 ? 0 : (double) rejected / total;
+        }
+    }
+
+    private static final class Bucket {
+
+        // Long.MIN_VALUE never matches a real slot, so a fresh bucket counts
+        // as empty.
+        private volatile long slot = Long.MIN_VALUE;
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+    }
+}
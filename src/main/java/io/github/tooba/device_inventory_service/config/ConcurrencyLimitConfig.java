@@ -0,0 +1,35 @@
+package io.github.tooba.device_inventory_service.config;
+
+import io.github.tooba.device_inventory_service.concurrency.ConcurrencyLimitHealthIndicator;
+import io.github.tooba.device_inventory_service.concurrency.ConcurrencyLimitInterceptor;
+import io.github.tooba.device_inventory_service.concurrency.ConcurrencyLimitProperties;
+import io.github.tooba.device_inventory_service.concurrency.ConcurrencyLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "device.concurrency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public ConcurrencyLimiterRegistry concurrencyLimiterRegistry(
+            ConcurrencyLimitProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        return new ConcurrencyLimiterRegistry(properties, meterRegistry);
+    }
+
+    @Bean
+    public ConcurrencyLimitInterceptor concurrencyLimitInterceptor(ConcurrencyLimiterRegistry registry) {
+        return new ConcurrencyLimitInterceptor(registry);
+    }
+
+    @Bean
+    public ConcurrencyLimitHealthIndicator concurrencyLimitHealthIndicator(ConcurrencyLimiterRegistry registry) {
+        return new ConcurrencyLimitHealthIndicator(registry);
+    }
+}
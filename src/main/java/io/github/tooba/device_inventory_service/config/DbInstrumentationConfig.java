@@ -0,0 +1,74 @@
+package io.github.tooba.device_inventory_service.config;
+
+import io.github.tooba.device_inventory_service.instrumentation.ConnectionHolders;
+import io.github.tooba.device_inventory_service.instrumentation.ConnectionHoldersEndpoint;
+import io.github.tooba.device_inventory_service.instrumentation.DbInstrumentationProperties;
+import io.github.tooba.device_inventory_service.instrumentation.DeviceServiceJdbcAttribution;
+import io.github.tooba.device_inventory_service.instrumentation.InstrumentedDataSource;
+import io.github.tooba.device_inventory_service.instrumentation.JdbcInstrumentation;
+import io.github.tooba.device_inventory_service.instrumentation.JdbcTimingInterceptor;
+import io.github.tooba.device_inventory_service.tracing.DeviceTracer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+
+@Configuration
+@Profile("!in-memory")
+@EnableConfigurationProperties(DbInstrumentationProperties.class)
+@ConditionalOnProperty(prefix = "device.db-instrumentation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DbInstrumentationConfig {
+
+    // Static so that registering the post-processor does not instantiate this
+    // configuration early.
+    @Bean
+    public static BeanPostProcessor instrumentedDataSourcePostProcessor(
+            ObjectProvider<JdbcInstrumentation> instrumentation
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof InstrumentedDataSource)) {
+                    return new InstrumentedDataSource(dataSource, instrumentation.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public ConnectionHolders connectionHolders() {
+        return new ConnectionHolders(Clock.systemUTC());
+    }
+
+    @Bean
+    public JdbcInstrumentation jdbcInstrumentation(
+            MeterRegistry meterRegistry,
+            ConnectionHolders holders,
+            ObjectProvider<DeviceTracer> tracer
+    ) {
+        return new JdbcInstrumentation(meterRegistry, holders, tracer.getIfAvailable());
+    }
+
+    @Bean
+    public DeviceServiceJdbcAttribution deviceServiceJdbcAttribution() {
+        return new DeviceServiceJdbcAttribution();
+    }
+
+    @Bean
+    public JdbcTimingInterceptor jdbcTimingInterceptor(DbInstrumentationProperties properties) {
+        return new JdbcTimingInterceptor(properties.serverTiming());
+    }
+
+    @Bean
+    public ConnectionHoldersEndpoint connectionHoldersEndpoint(ConnectionHolders holders) {
+        return new ConnectionHoldersEndpoint(holders);
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.tooba.device_inventory_service.config;
+
+import io.github.tooba.device_inventory_service.degraded.DegradedReadProperties;
+import io.github.tooba.device_inventory_service.degraded.StaleReadInterceptor;
+import io.github.tooba.device_inventory_service.degraded.StaleReads;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Clock;
+
+@Configuration
+@Profile("!in-memory")
+@EnableConfigurationProperties(DegradedReadProperties.class)
+public class DegradedReadConfig {
+
+    @Bean
+    public StaleReads staleReads(DegradedReadProperties properties, MeterRegistry meterRegistry) {
+        return new StaleReads(properties, meterRegistry, Clock.systemUTC());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "device.degraded-reads", name = "enabled", havingValue = "true")
+    public StaleReadInterceptor staleReadInterceptor() {
+        return new StaleReadInterceptor();
+    }
+}
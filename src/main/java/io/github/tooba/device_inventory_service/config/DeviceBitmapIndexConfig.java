@@ -0,0 +1,28 @@
+package io.github.tooba.device_inventory_service.config;
+
+import io.github.tooba.device_inventory_service.index.DeviceBitmapIndex;
+import io.github.tooba.device_inventory_service.index.DeviceBitmapIndexEndpoint;
+import io.github.tooba.device_inventory_service.index.DeviceBitmapIndexProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+@Profile("!in-memory & !sharded")
+@EnableConfigurationProperties(DeviceBitmapIndexProperties.class)
+public class DeviceBitmapIndexConfig {
+
+    @Bean
+    public DeviceBitmapIndex deviceBitmapIndex(DeviceBitmapIndexProperties properties, JdbcTemplate jdbc) {
+        return new DeviceBitmapIndex(properties, jdbc);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "device.bitmap-index", name = "enabled", havingValue = "true")
+    public DeviceBitmapIndexEndpoint deviceBitmapIndexEndpoint(DeviceBitmapIndex index) {
+        return new DeviceBitmapIndexEndpoint(index);
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.tooba.device_inventory_service.config;
+
+import io.github.tooba.device_inventory_service.history.DeviceHistory;
+import io.github.tooba.device_inventory_service.history.DeviceHistoryProperties;
+import io.github.tooba.device_inventory_service.repository.BrandRepository;
+import io.github.tooba.device_inventory_service.repository.DeviceHistoryRepository;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@Profile("!in-memory & !sharded")
+@EnableConfigurationProperties(DeviceHistoryProperties.class)
+public class DeviceHistoryConfig {
+
+    @Bean
+    public DeviceHistory deviceHistory(
+            DeviceHistoryProperties properties,
+            DeviceHistoryRepository repo,
+            BrandRepository brands,
+            TransactionTemplate transactionTemplate
+    ) {
+        return new DeviceHistory(properties, repo, brands, transactionTemplate);
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.tooba.device_inventory_service.config;
+
+import io.github.tooba.device_inventory_service.lease.AdvisoryLockLeadership;
+import io.github.tooba.device_inventory_service.lease.DeviceLeaseProperties;
+import io.github.tooba.device_inventory_service.lease.DeviceLeaseSweeper;
+import io.github.tooba.device_inventory_service.lease.DeviceLeases;
+import io.github.tooba.device_inventory_service.lease.LeaseSweepLeadership;
+import io.github.tooba.device_inventory_service.repository.DeviceStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(DeviceLeaseProperties.class)
+public class DeviceLeaseConfig {
+
+    @Bean
+    public DeviceLeases deviceLeases(
+            DeviceLeaseProperties properties,
+            DeviceStore repo,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher events
+    ) {
+        return new DeviceLeases(properties, repo, transactionTemplate, events);
+    }
+
+    // Without a database (in-memory profile) there is only this node.
+    @Bean
+    public DeviceLeaseSweeper deviceLeaseSweeper(
+            DeviceLeaseProperties properties,
+            DeviceLeases leases,
+            ObjectProvider<DataSource> dataSource,
+            MeterRegistry meterRegistry
+    ) {
+        DataSource source = dataSource.getIfAvailable();
+        LeaseSweepLeadership leadership = source == null
+                ? LeaseSweepLeadership.SINGLE_NODE
+                : new AdvisoryLockLeadership(source, properties.advisoryLockKey());
+        return new DeviceLeaseSweeper(properties, leases, leadership, meterRegistry);
+    }
+}
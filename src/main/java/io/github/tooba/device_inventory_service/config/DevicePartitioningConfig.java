@@ -0,0 +1,33 @@
+package io.github.tooba.device_inventory_service.config;
+
+import io.github.tooba.device_inventory_service.partitioning.DevicePartitionManager;
+import io.github.tooba.device_inventory_service.partitioning.DevicePartitioningProperties;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
+
+@Configuration
+@Profile("!in-memory & !sharded")
+@EnableScheduling
+@EnableConfigurationProperties(DevicePartitioningProperties.class)
+@ConditionalOnProperty(prefix = "device.partitioning", name = "enabled", havingValue = "true")
+public class DevicePartitioningConfig {
+
+    @Bean
+    public DevicePartitionManager devicePartitionManager(
+            DevicePartitioningProperties properties,
+            JdbcTemplate jdbcTemplate,
+            EntityManagerFactory entityManagerFactory,
+            ApplicationEventPublisher events
+    ) {
+        return new DevicePartitionManager(properties, jdbcTemplate, entityManagerFactory, events, Clock.systemUTC());
+    }
+}
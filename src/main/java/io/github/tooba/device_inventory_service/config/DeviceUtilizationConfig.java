@@ -0,0 +1,27 @@
+package io.github.tooba.device_inventory_service.config;
+
+import io.github.tooba.device_inventory_service.utilization.DeviceUtilization;
+import io.github.tooba.device_inventory_service.utilization.DeviceUtilizationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+
+@Configuration
+@Profile("!in-memory & !sharded")
+@EnableConfigurationProperties(DeviceUtilizationProperties.class)
+public class DeviceUtilizationConfig {
+
+    @Bean
+    public DeviceUtilization deviceUtilization(
+            DeviceUtilizationProperties properties,
+            JdbcTemplate jdbc,
+            TransactionTemplate transactionTemplate
+    ) {
+        return new DeviceUtilization(properties, jdbc, transactionTemplate, Clock.systemUTC());
+    }
+}
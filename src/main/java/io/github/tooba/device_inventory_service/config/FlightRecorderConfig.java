@@ -0,0 +1,34 @@
+package io.github.tooba.device_inventory_service.config;
+
+import io.github.tooba.device_inventory_service.jfr.DeviceOperationRecorder;
+import io.github.tooba.device_inventory_service.jfr.FlightRecorderEndpoint;
+import io.github.tooba.device_inventory_service.jfr.FlightRecorderProperties;
+import io.github.tooba.device_inventory_service.jfr.FlightRecordings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(FlightRecorderProperties.class)
+public class FlightRecorderConfig {
+
+    // The events cost a single check while no recording has them enabled,
+    // including recordings started with -XX:StartFlightRecording or jcmd.
+    @Bean
+    public DeviceOperationRecorder deviceOperationRecorder() {
+        return new DeviceOperationRecorder();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "device.flight-recorder", name = "enabled", havingValue = "true")
+    public FlightRecordings flightRecordings(FlightRecorderProperties properties) {
+        return new FlightRecordings(properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "device.flight-recorder", name = "enabled", havingValue = "true")
+    public FlightRecorderEndpoint flightRecorderEndpoint(FlightRecordings recordings) {
+        return new FlightRecorderEndpoint(recordings);
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.tooba.device_inventory_service.config;
+
+import io.github.tooba.device_inventory_service.degraded.DegradedReadProperties;
+import io.github.tooba.device_inventory_service.degraded.StaleReads;
+import io.github.tooba.device_inventory_service.history.DeviceHistory;
+import io.github.tooba.device_inventory_service.history.DeviceHistoryProperties;
+import io.github.tooba.device_inventory_service.index.DeviceBitmapIndex;
+import io.github.tooba.device_inventory_service.index.DeviceBitmapIndexProperties;
+import io.github.tooba.device_inventory_service.repository.BrandRepository;
+import io.github.tooba.device_inventory_service.repository.DeviceStore;
+import io.github.tooba.device_inventory_service.repository.inmemory.InMemoryBrandRepository;
+import io.github.tooba.device_inventory_service.repository.inmemory.InMemoryDevicePersistence;
+import io.github.tooba.device_inventory_service.repository.inmemory.InMemoryDeviceRepository;
+import io.github.tooba.device_inventory_service.repository.inmemory.InMemoryDeviceStore;
+import io.github.tooba.device_inventory_service.repository.inmemory.InMemoryPersistenceProperties;
+import io.github.tooba.device_inventory_service.repository.inmemory.InMemoryTransactionManager;
+import io.github.tooba.device_inventory_service.utilization.DeviceUtilization;
+import io.github.tooba.device_inventory_service.utilization.DeviceUtilizationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Runs the service without a database. The {@code in-memory} profile also
+ * switches off the DataSource auto-configuration, and with it JPA.
+ */
+@Configuration
+@Profile("in-memory")
+@EnableConfigurationProperties(InMemoryPersistenceProperties.class)
+public class InMemoryStorageConfig {
+
+    @Bean
+    public InMemoryDeviceStore inMemoryDeviceStore() {
+        return new InMemoryDeviceStore();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "device.in-memory.persistence", name = "enabled", havingValue = "true")
+    public InMemoryDevicePersistence inMemoryDevicePersistence(
+            InMemoryPersistenceProperties properties,
+            InMemoryDeviceStore store
+    ) {
+        return new InMemoryDevicePersistence(properties, store);
+    }
+
+    @Bean
+    public DeviceStore deviceRepository(InMemoryDeviceStore store) {
+        return new InMemoryDeviceRepository(store);
+    }
+
+    @Bean
+    public BrandRepository brandRepository() {
+        return new InMemoryBrandRepository();
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(InMemoryDeviceStore store) {
+        return new InMemoryTransactionManager(store);
+    }
+
+    // Every listing is already served from memory.
+    @Bean
+    public DeviceBitmapIndex deviceBitmapIndex() {
+        return new DeviceBitmapIndex(new DeviceBitmapIndexProperties(false, 0), null);
+    }
+
+    // History lives in device_history only.
+    @Bean
+    public DeviceHistory deviceHistory() {
+        return new DeviceHistory(new DeviceHistoryProperties(false), null, null, null);
+    }
+
+    // Utilization rollups live in device_utilization only.
+    @Bean
+    public DeviceUtilization deviceUtilization() {
+        return new DeviceUtilization(
+                new DeviceUtilizationProperties(false, Duration.ZERO, Duration.ZERO, Duration.ZERO, 0),
+                null,
+                null,
+                Clock.systemUTC()
+        );
+    }
+
+    // The store never becomes unavailable.
+    @Bean
+    public StaleReads staleReads(MeterRegistry meterRegistry) {
+        return new StaleReads(
+                new DegradedReadProperties(false, Duration.ZERO, Duration.ZERO, 0, Duration.ZERO),
+                meterRegistry,
+                Clock.systemUTC()
+        );
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.tooba.device_inventory_service.config;
+
+import io.github.tooba.device_inventory_service.service.InventoryVersion;
+import io.github.tooba.device_inventory_service.service.caching.ListCachingProperties;
+import io.github.tooba.device_inventory_service.service.caching.ListVersions;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(ListCachingProperties.class)
+public class ListCachingConfig {
+
+    @Bean
+    public ListVersions listVersions(ListCachingProperties properties, InventoryVersion inventoryVersion) {
+        return new ListVersions(properties, inventoryVersion, Clock.systemUTC());
+    }
+}
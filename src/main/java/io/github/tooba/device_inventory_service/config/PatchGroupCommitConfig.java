@@ -0,0 +1,29 @@
+package io.github.tooba.device_inventory_service.config;
+
+import io.github.tooba.device_inventory_service.repository.BrandRepository;
+import io.github.tooba.device_inventory_service.repository.DeviceStore;
+import io.github.tooba.device_inventory_service.service.batch.PatchGroupCommitProperties;
+import io.github.tooba.device_inventory_service.service.batch.PatchGroupCommitter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableConfigurationProperties(PatchGroupCommitProperties.class)
+public class PatchGroupCommitConfig {
+
+    @Bean
+    public PatchGroupCommitter patchGroupCommitter(
+            PatchGroupCommitProperties properties,
+            DeviceStore repo,
+            BrandRepository brands,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher events,
+            MeterRegistry meterRegistry
+    ) {
+        return new PatchGroupCommitter(properties, repo, brands, transactionTemplate, events, meterRegistry);
+    }
+}
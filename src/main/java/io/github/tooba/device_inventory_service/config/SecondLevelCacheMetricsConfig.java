@@ -0,0 +1,103 @@
+package io.github.tooba.device_inventory_service.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Exposes Hibernate second-level cache region statistics. Hits, misses and
+ * puts come from Hibernate; evictions are only tracked by the JCache
+ * provider and are read from its statistics MBean.
+ * <p>
+ * Hibernate only collects statistics with
+ * {@code device.cache.statistics.enabled=true}, so the metrics are
+ * registered only then.
+ */
+@Configuration
+@Profile("!in-memory & !sharded")
+@ConditionalOnProperty(prefix = "device.cache.statistics", name = "enabled", havingValue = "true")
+public class SecondLevelCacheMetricsConfig {
+
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+            for (String region : statistics.getSecondLevelCacheRegionNames()) {
+                counter(registry, "device.cache.region.hits", region, statistics,
+                        s -> regionValue(s, region, CacheRegionStatistics::getHitCount));
+                counter(registry, "device.cache.region.misses", region, statistics,
+                        s -> regionValue(s, region, CacheRegionStatistics::getMissCount));
+                counter(registry, "device.cache.region.puts", region, statistics,
+                        s -> regionValue(s, region, CacheRegionStatistics::getPutCount));
+                FunctionCounter.builder("device.cache.region.evictions", region, SecondLevelCacheMetricsConfig::evictions)
+                        .tag("region", region)
+                        .register(registry);
+                Gauge.builder("device.cache.region.size", statistics,
+                                s -> regionValue(s, region, CacheRegionStatistics::getElementCountInMemory))
+                        .tag("region", region)
+                        .register(registry);
+            }
+        };
+    }
+
+    private static void counter(
+            MeterRegistry registry,
+            String name,
+            String region,
+            Statistics statistics,
+            ToDoubleFunction<Statistics> value
+    ) {
+        FunctionCounter.builder(name, statistics, value)
+                .tag("region", region)
+                .register(registry);
+    }
+
+    private static double regionValue(
+            Statistics statistics,
+            String region,
+            ToLongFunction<CacheRegionStatistics> value
+    ) {
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        return regionStatistics == null ? Double.NaN : value.applyAsLong(regionStatistics);
+    }
+
+    private static double evictions(String region) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Set<ObjectName> names = server.queryNames(
+                    new ObjectName("javax.cache:type=CacheStatistics,Cache=" + ObjectName.quote(region) + ",*"),
+                    null
+            );
+            if (names.isEmpty()) {
+                names = server.queryNames(
+                        new ObjectName("javax.cache:type=CacheStatistics,Cache=" + region + ",*"),
+                        null
+                );
+            }
+            double total = 0;
+            for (ObjectName name : names) {
+                total += ((Number) server.getAttribute(name, "CacheEvictions")).doubleValue();
+            }
+            return total;
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+}
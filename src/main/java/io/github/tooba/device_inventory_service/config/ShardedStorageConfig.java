@@ -0,0 +1,118 @@
+package io.github.tooba.device_inventory_service.config;
+
+import io.github.tooba.device_inventory_service.history.DeviceHistory;
+import io.github.tooba.device_inventory_service.history.DeviceHistoryProperties;
+import io.github.tooba.device_inventory_service.index.DeviceBitmapIndex;
+import io.github.tooba.device_inventory_service.index.DeviceBitmapIndexProperties;
+import io.github.tooba.device_inventory_service.instrumentation.InstrumentedDataSource;
+import io.github.tooba.device_inventory_service.instrumentation.JdbcInstrumentation;
+import io.github.tooba.device_inventory_service.repository.BrandRepository;
+import io.github.tooba.device_inventory_service.repository.DeviceStore;
+import io.github.tooba.device_inventory_service.repository.inmemory.InMemoryBrandRepository;
+import io.github.tooba.device_inventory_service.repository.sharded.Shard;
+import io.github.tooba.device_inventory_service.repository.sharded.ShardRebalancer;
+import io.github.tooba.device_inventory_service.repository.sharded.ShardRouter;
+import io.github.tooba.device_inventory_service.repository.sharded.ShardedDeviceRepository;
+import io.github.tooba.device_inventory_service.repository.sharded.ShardedDeviceStore;
+import io.github.tooba.device_inventory_service.repository.sharded.ShardedTransactionManager;
+import io.github.tooba.device_inventory_service.repository.sharded.ShardingProperties;
+import io.github.tooba.device_inventory_service.utilization.DeviceUtilization;
+import io.github.tooba.device_inventory_service.utilization.DeviceUtilizationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Spreads devices over several databases. Like {@code in-memory}, the
+ * {@code sharded} profile switches off the DataSource auto-configuration and
+ * with it JPA; the shards' pools are not beans, so nothing else picks them up.
+ */
+@Configuration
+@Profile("sharded")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardedStorageConfig {
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties properties, ObjectProvider<JdbcInstrumentation> instrumentation) {
+
+        JdbcInstrumentation jdbc = instrumentation.getIfAvailable();
+        UnaryOperator<DataSource> decorator = jdbc == null
+                ? UnaryOperator.identity()
+                : pool -> new InstrumentedDataSource(pool, jdbc);
+
+        List<Shard> shards = new ArrayList<>();
+        try {
+            for (ShardingProperties.Database database : properties.shards()) {
+                shards.add(new Shard(shards.size(), database, decorator));
+            }
+            return new ShardRouter(shards, properties.buckets());
+        } catch (RuntimeException ex) {
+            shards.forEach(Shard::close);
+            throw ex;
+        }
+    }
+
+    @Bean
+    public ShardedDeviceStore shardedDeviceStore(ShardRouter router) {
+        return new ShardedDeviceStore(router);
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(
+            ShardingProperties properties,
+            ShardRouter router,
+            MeterRegistry meterRegistry
+    ) {
+        return new ShardRebalancer(properties.rebalance(), router, meterRegistry);
+    }
+
+    @Bean
+    public DeviceStore deviceRepository(ShardedDeviceStore store) {
+        return new ShardedDeviceRepository(store);
+    }
+
+    // Brands are stored with each device; there is no dictionary to share.
+    @Bean
+    public BrandRepository brandRepository() {
+        return new InMemoryBrandRepository();
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(ShardedDeviceStore store) {
+        return new ShardedTransactionManager(store);
+    }
+
+    // The index is loaded from and kept in step with the devices table.
+    @Bean
+    public DeviceBitmapIndex deviceBitmapIndex() {
+        return new DeviceBitmapIndex(new DeviceBitmapIndexProperties(false, 0), null);
+    }
+
+    // History lives in device_history only.
+    @Bean
+    public DeviceHistory deviceHistory() {
+        return new DeviceHistory(new DeviceHistoryProperties(false), null, null, null);
+    }
+
+    // Utilization rollups live in device_utilization only.
+    @Bean
+    public DeviceUtilization deviceUtilization() {
+        return new DeviceUtilization(
+                new DeviceUtilizationProperties(false, Duration.ZERO, Duration.ZERO, Duration.ZERO, 0),
+                null,
+                null,
+                Clock.systemUTC()
+        );
+    }
+}
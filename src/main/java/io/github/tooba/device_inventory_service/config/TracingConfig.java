@@ -0,0 +1,66 @@
+package io.github.tooba.device_inventory_service.config;
+
+import io.github.tooba.device_inventory_service.tracing.DeviceServiceTracing;
+import io.github.tooba.device_inventory_service.tracing.DeviceTracer;
+import io.github.tooba.device_inventory_service.tracing.RepositoryTracing;
+import io.github.tooba.device_inventory_service.tracing.TraceExporter;
+import io.github.tooba.device_inventory_service.tracing.TracingInterceptor;
+import io.github.tooba.device_inventory_service.tracing.TracingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.function.SingletonSupplier;
+
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+@ConditionalOnProperty(prefix = "device.tracing", name = "enabled", havingValue = "true")
+public class TracingConfig {
+
+    // Static so that registering the post-processor does not instantiate this
+    // configuration early. Repositories are created before the tracer, which
+    // is looked up on first use.
+    @Bean
+    public static BeanPostProcessor repositoryTracingPostProcessor(ObjectProvider<DeviceTracer> tracer) {
+        RepositoryTracing tracing = new RepositoryTracing(SingletonSupplier.of(tracer::getObject));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor(tracing));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public TraceExporter traceExporter(
+            TracingProperties properties,
+            @Value("${spring.application.name:device-inventory-service}") String serviceName,
+            MeterRegistry meterRegistry
+    ) {
+        return new TraceExporter(properties, serviceName, meterRegistry);
+    }
+
+    @Bean
+    public DeviceTracer deviceTracer(TracingProperties properties, TraceExporter exporter, MeterRegistry meterRegistry) {
+        return new DeviceTracer(properties, exporter, meterRegistry);
+    }
+
+    @Bean
+    public TracingInterceptor tracingInterceptor(DeviceTracer tracer) {
+        return new TracingInterceptor(tracer);
+    }
+
+    @Bean
+    public DeviceServiceTracing deviceServiceTracing(DeviceTracer tracer) {
+        return new DeviceServiceTracing(tracer);
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.tooba.device_inventory_service.config;
+
+import io.github.tooba.device_inventory_service.concurrency.ConcurrencyLimitInterceptor;
+import io.github.tooba.device_inventory_service.constant.CountMode;
+import io.github.tooba.device_inventory_service.constant.DeviceField;
+import io.github.tooba.device_inventory_service.degraded.StaleReadInterceptor;
+import io.github.tooba.device_inventory_service.instrumentation.JdbcTimingInterceptor;
+import io.github.tooba.device_inventory_service.tracing.TracingInterceptor;
+import io.github.tooba.device_inventory_service.utilization.UtilizationResolution;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Locale;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<ConcurrencyLimitInterceptor> concurrencyLimitInterceptor;
+    private final ObjectProvider<JdbcTimingInterceptor> jdbcTimingInterceptor;
+    private final ObjectProvider<TracingInterceptor> tracingInterceptor;
+    private final ObjectProvider<StaleReadInterceptor> staleReadInterceptor;
+
+    public WebMvcConfig(
+            ObjectProvider<ConcurrencyLimitInterceptor> concurrencyLimitInterceptor,
+            ObjectProvider<JdbcTimingInterceptor> jdbcTimingInterceptor,
+            ObjectProvider<TracingInterceptor> tracingInterceptor,
+            ObjectProvider<StaleReadInterceptor> staleReadInterceptor
+    ) {
+        this.concurrencyLimitInterceptor = concurrencyLimitInterceptor;
+        this.jdbcTimingInterceptor = jdbcTimingInterceptor;
+        this.tracingInterceptor = tracingInterceptor;
+        this.staleReadInterceptor = staleReadInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Registered first, so a request rejected by the concurrency limit is
+        // still traced.
+        tracingInterceptor.ifAvailable(interceptor ->
+                registry.addInterceptor(interceptor).addPathPatterns("/devices", "/devices/**")
+        );
+        jdbcTimingInterceptor.ifAvailable(interceptor ->
+                registry.addInterceptor(interceptor).addPathPatterns("/devices", "/devices/**")
+        );
+        concurrencyLimitInterceptor.ifAvailable(interceptor ->
+                registry.addInterceptor(interceptor).addPathPatterns("/devices", "/devices/**")
+        );
+        staleReadInterceptor.ifAvailable(interceptor ->
+                registry.addInterceptor(interceptor).addPathPatterns("/devices", "/devices/**")
+        );
+    }
+
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        // Query options are documented in lowercase (?count=none, ?fields=id,state,
+        // ?resolution=day).
+        registry.addConverter(String.class, CountMode.class,
+                source -> CountMode.valueOf(source.trim().toUpperCase(Locale.ROOT)));
+        registry.addConverter(String.class, DeviceField.class, DeviceField::fromAttribute);
+        registry.addConverter(String.class, UtilizationResolution.class,
+                source -> UtilizationResolution.valueOf(source.trim().toUpperCase(Locale.ROOT)));
+    }
+}
@@ -0,0 +1,7 @@
+package io.github.tooba.device_inventory_service.constant;
+
+public enum CountMode {
+    NONE,
+    EXACT,
+    APPROX
+}
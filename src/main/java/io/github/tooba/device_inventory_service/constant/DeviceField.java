@@ -0,0 +1,32 @@
+package io.github.tooba.device_inventory_service.constant;
+
+import java.util.Arrays;
+
+public enum DeviceField {
+    ID("id"),
+    NAME("name"),
+    BRAND("brand"),
+    STATE("state"),
+    CREATION_TIME("creationTime");
+
+    private final String attribute;
+
+    DeviceField(String attribute) {
+        this.attribute = attribute;
+    }
+
+    /**
+     * Entity attribute name, which is also the JSON property name.
+     */
+    public String attribute() {
+        return attribute;
+    }
+
+    public static DeviceField fromAttribute(String value) {
+        String trimmed = value.trim();
+        return Arrays.stream(values())
+                .filter(field -> field.attribute.equalsIgnoreCase(trimmed))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown device field: " + trimmed));
+    }
+}
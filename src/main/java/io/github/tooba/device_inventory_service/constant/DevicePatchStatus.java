@@ -0,0 +1,8 @@
+package io.github.tooba.device_inventory_service.constant;
+
+public enum DevicePatchStatus {
+    PATCHED,
+    NOT_FOUND,
+    REJECTED,
+    NOT_APPLIED
+}
@@ -1,7 +1,27 @@
 package io.github.tooba.device_inventory_service.constant;
 
 public enum DeviceState {
-    AVAILABLE,
-    IN_USE,
-    INACTIVE
-}
\ No newline at end of file
+    AVAILABLE(1),
+    IN_USE(2),
+    INACTIVE(3);
+
+    // Stored code. Codes are part of the table layout: never renumber them.
+    private final short code;
+
+    DeviceState(int code) {
+        this.code = (short) code;
+    }
+
+    public short code() {
+        return code;
+    }
+
+    public static DeviceState fromCode(short code) {
+        for (DeviceState state : values()) {
+            if (state.code == code) {
+                return state;
+            }
+        }
+        throw new IllegalArgumentException("Unknown device state code: " + code);
+    }
+}
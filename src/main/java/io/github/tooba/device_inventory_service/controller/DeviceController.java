@@ -1,16 +1,35 @@
 package io.github.tooba.device_inventory_service.controller;
 
 
+import io.github.tooba.device_inventory_service.constant.CountMode;
+import io.github.tooba.device_inventory_service.constant.DeviceField;
 import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.controller.requestDto.ClaimDevicesRequest;
 import io.github.tooba.device_inventory_service.controller.requestDto.CreateDeviceRequest;
+import io.github.tooba.device_inventory_service.controller.requestDto.LookupDevicesRequest;
 import io.github.tooba.device_inventory_service.controller.requestDto.PatchDeviceRequest;
+import io.github.tooba.device_inventory_service.controller.requestDto.PatchDevicesRequest;
+import io.github.tooba.device_inventory_service.controller.requestDto.ReleaseDevicesRequest;
+import io.github.tooba.device_inventory_service.controller.requestDto.RenewLeaseRequest;
 import io.github.tooba.device_inventory_service.controller.requestDto.UpdateDeviceRequest;
+import io.github.tooba.device_inventory_service.controller.responseDto.DeviceClaimResponse;
+import io.github.tooba.device_inventory_service.controller.responseDto.DeviceHistoryPageResponse;
+import io.github.tooba.device_inventory_service.controller.responseDto.DeviceLeaseResponse;
+import io.github.tooba.device_inventory_service.controller.responseDto.DeviceLookupResponse;
+import io.github.tooba.device_inventory_service.controller.responseDto.DevicePageResponse;
+import io.github.tooba.device_inventory_service.controller.responseDto.DevicePatchResponse;
+import io.github.tooba.device_inventory_service.controller.responseDto.DeviceReleaseResponse;
 import io.github.tooba.device_inventory_service.controller.responseDto.DeviceResponse;
+import io.github.tooba.device_inventory_service.controller.responseDto.DeviceUtilizationResponse;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
 import io.github.tooba.device_inventory_service.service.DeviceService;
+import io.github.tooba.device_inventory_service.service.caching.ListVersions;
 import io.github.tooba.device_inventory_service.service.command.CreateDeviceCommand;
 import io.github.tooba.device_inventory_service.service.command.PatchDeviceCommand;
 import io.github.tooba.device_inventory_service.service.command.UpdateDeviceCommand;
+import io.github.tooba.device_inventory_service.service.result.DevicePatchResult;
 import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import io.github.tooba.device_inventory_service.utilization.UtilizationResolution;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -18,12 +37,21 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Tag(name = "Devices", description = "Device management operations")
@@ -31,10 +59,16 @@ import java.util.UUID;
 @RequestMapping("/devices")
 public class DeviceController {
 
+    private static final String FIELDS_DESCRIPTION =
+            "Comma-separated fields to return (id, name, brand, state, creationTime). " +
+                    "Only these columns are read; id is always included.";
+
     private final DeviceService service;
+    private final ListVersions listVersions;
 
-    public DeviceController(DeviceService service) {
+    public DeviceController(DeviceService service, ListVersions listVersions) {
         this.service = service;
+        this.listVersions = listVersions;
     }
 
     @PostMapping
@@ -101,22 +135,28 @@ public class DeviceController {
     })
     public DeviceResponse getById(
             @Parameter(description = "Device ID", required = true)
-            @PathVariable UUID id
+            @PathVariable UUID id,
+
+            @Parameter(description = FIELDS_DESCRIPTION)
+            @RequestParam(required = false) Set<DeviceField> fields
     ) {
-        DeviceResult result = service.getById(id);
+        DeviceResult result = service.getById(id, fields);
         return DeviceResponse.from(result);
     }
 
     @GetMapping
     @Operation(
             summary = "List devices",
-            description = "Retrieves devices with optional filtering by brand and state. " +
-                    "Supports pagination and sorting."
+            description = "Retrieves devices with optional filtering by brand, state and creation time. " +
+                    "Supports pagination and sorting. The total count can be exact, " +
+                    "estimated from planner statistics, or skipped entirely."
     )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Devices retrieved successfully")
+            @ApiResponse(responseCode = "200", description = "Devices retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = DevicePageResponse.Shape.class))),
+            @ApiResponse(responseCode = "304", description = "The listing has not changed since the given ETag")
     })
-    public Page<DeviceResponse> getAll(
+    public DevicePageResponse getAll(
             @Parameter(description = "Filter by brand")
             @RequestParam(required = false) String brand,
 
@@ -124,13 +164,189 @@ public class DeviceController {
                     schema = @Schema(implementation = DeviceState.class))
             @RequestParam(required = false) DeviceState state,
 
+            @Parameter(description = "Only devices created at or after this instant (ISO-8601)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdFrom,
+
+            @Parameter(description = "Only devices created before this instant (ISO-8601)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdTo,
+
+            @Parameter(description = "How to compute the total: exact (default), approx or none",
+                    schema = @Schema(allowableValues = {"exact", "approx", "none"}))
+            @RequestParam(defaultValue = "exact") CountMode count,
+
+            @Parameter(description = FIELDS_DESCRIPTION)
+            @RequestParam(required = false) Set<DeviceField> fields,
+
+            @Parameter(description = "List the devices as they were at this instant (ISO-8601), " +
+                    "from the change history. Results are ordered by id, without a total; " +
+                    "sort and count do not apply. Requires device history to be enabled.")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant asOf,
+
+            @Parameter(hidden = true)
+            Pageable pageable,
+
+            WebRequest webRequest,
+            HttpServletResponse response
+    ) {
+        DeviceFilter filter = new DeviceFilter(brand, state, createdFrom, createdTo);
+
+        // Listings as of an instant come from the history and carry no ETag.
+        String etag = asOf == null ? listVersions.etag(filter, pageable, count, fields) : null;
+        if (etag != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+        }
+
+        Slice<DeviceResult> resultPage = asOf != null
+                ? service.getAsOf(filter, asOf, pageable, fields)
+                : service.getAll(filter, pageable, count, fields);
+
+        return DevicePageResponse.from(resultPage);
+    }
+
+    @GetMapping("/{id}/history")
+    @Operation(
+            summary = "Get device history",
+            description = "Lists the recorded changes of a device, oldest first, optionally limited " +
+                    "to a time range. Deleted devices keep their history. Pages carry no total. " +
+                    "Requires device history to be enabled."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "History retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = DeviceHistoryPageResponse.class))),
+            @ApiResponse(responseCode = "422", description = "Device history is disabled")
+    })
+    public DeviceHistoryPageResponse getHistory(
+            @Parameter(description = "Device ID", required = true)
+            @PathVariable UUID id,
+
+            @Parameter(description = "Only changes recorded at or after this instant (ISO-8601)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+
+            @Parameter(description = "Only changes recorded before this instant (ISO-8601)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+
             @Parameter(hidden = true)
             Pageable pageable
     ) {
-        Page<DeviceResult> resultPage =
-                service.getAll(brand, state, pageable);
+        return DeviceHistoryPageResponse.from(service.getHistory(id, from, to, pageable));
+    }
+
+    @GetMapping("/utilization")
+    @Operation(
+            summary = "Device utilization per brand",
+            description = "Returns, per brand and time bucket, the device-seconds spent in each state " +
+                    "and the share spent IN_USE. Buckets overlapping [from, to) are returned whole. " +
+                    "Without a resolution, the finest one that covers the range is used. " +
+                    "Requires utilization rollups to be enabled."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Utilization retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = DeviceUtilizationResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Empty range, or too many buckets " +
+                    "at the requested resolution"),
+            @ApiResponse(responseCode = "422", description = "Rollups disabled, or range no longer kept " +
+                    "at the requested resolution")
+    })
+    public DeviceUtilizationResponse getUtilization(
+            @Parameter(description = "Only this brand (case-insensitive)")
+            @RequestParam(required = false) String brand,
+
+            @Parameter(description = "Start of the range (ISO-8601)", required = true)
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+
+            @Parameter(description = "End of the range (ISO-8601); defaults to now")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+
+            @Parameter(description = "Bucket size",
+                    schema = @Schema(implementation = UtilizationResolution.class))
+            @RequestParam(required = false) UtilizationResolution resolution
+    ) {
+        return DeviceUtilizationResponse.from(service.getUtilization(
+                brand,
+                from,
+                to == null ? Instant.now() : to,
+                resolution
+        ));
+    }
+
+    @PostMapping("/lookup")
+    @Operation(
+            summary = "Look up devices by ID",
+            description = "Resolves up to " + LookupDevicesRequest.MAX_IDS + " device IDs in one request. " +
+                    "Returns the devices found and the IDs that do not exist."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lookup completed",
+                    content = @Content(schema = @Schema(implementation = DeviceLookupResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Validation error")
+    })
+    public DeviceLookupResponse lookup(@Valid @RequestBody LookupDevicesRequest request) {
+        return DeviceLookupResponse.from(service.lookup(request.ids()));
+    }
+
+    @PostMapping("/claim")
+    @Operation(
+            summary = "Claim available devices",
+            description = "Atomically moves up to " + ClaimDevicesRequest.MAX_COUNT + " AVAILABLE devices, " +
+                    "optionally of one brand, to IN_USE and returns them. Concurrent claims never " +
+                    "receive the same device and do not wait for each other; an empty list means " +
+                    "no matching device was free. With leases enabled, the devices return to " +
+                    "AVAILABLE when the lease runs out."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Claim completed",
+                    content = @Content(schema = @Schema(implementation = DeviceClaimResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Validation error"),
+            @ApiResponse(responseCode = "422", description = "A lease was requested but leases are disabled")
+    })
+    public DeviceClaimResponse claim(@Valid @RequestBody ClaimDevicesRequest request) {
+        return DeviceClaimResponse.from(service.claim(request.brand(), request.count(), request.lease()));
+    }
+
+    @PostMapping("/{id}/lease")
+    @Operation(
+            summary = "Renew a device lease",
+            description = "Moves the lease expiry of an IN_USE device to now plus the given duration, " +
+                    "or the configured default. Requires leases to be enabled."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lease renewed",
+                    content = @Content(schema = @Schema(implementation = DeviceLeaseResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Validation error"),
+            @ApiResponse(responseCode = "404", description = "Device not found"),
+            @ApiResponse(responseCode = "422", description = "Device is not in use, or leases are disabled")
+    })
+    public DeviceLeaseResponse renewLease(
+            @Parameter(description = "Device ID", required = true)
+            @PathVariable UUID id,
+            @Valid @RequestBody(required = false) RenewLeaseRequest request
+    ) {
+        return DeviceLeaseResponse.from(service.renewLease(id, request == null ? null : request.duration()));
+    }
 
-        return resultPage.map(DeviceResponse::from);
+    @PostMapping("/release")
+    @Operation(
+            summary = "Release claimed devices",
+            description = "Moves the given IN_USE devices back to AVAILABLE. " +
+                    "IDs that do not exist or are not IN_USE are returned as not released."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Release completed",
+                    content = @Content(schema = @Schema(implementation = DeviceReleaseResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Validation error")
+    })
+    public DeviceReleaseResponse release(@Valid @RequestBody ReleaseDevicesRequest request) {
+        return DeviceReleaseResponse.from(service.release(request.ids()));
     }
 
     @PatchMapping("/{id}")
@@ -162,6 +378,41 @@ public class DeviceController {
         return DeviceResponse.from(result);
     }
 
+    @PatchMapping
+    @Operation(
+            summary = "Partially update several devices",
+            description = "Applies up to " + PatchDevicesRequest.MAX_DEVICES + " patches in one transaction, " +
+                    "with the same rules as patching a single device, and returns a result per patch. " +
+                    "By default a missing device or a rule violation rolls back every patch; " +
+                    "with partial set, the other patches are committed."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Patches applied",
+                    content = @Content(schema = @Schema(implementation = DevicePatchResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Validation error"),
+            @ApiResponse(responseCode = "409", description = "A device was modified concurrently; nothing was applied"),
+            @ApiResponse(responseCode = "422", description = "A patch failed and partial was not set; nothing was applied",
+                    content = @Content(schema = @Schema(implementation = DevicePatchResponse.class)))
+    })
+    public ResponseEntity<DevicePatchResponse> patchAll(@Valid @RequestBody PatchDevicesRequest request) {
+
+        List<PatchDeviceCommand> commands = request.devices().stream()
+                .map(item -> new PatchDeviceCommand(
+                        item.id(),
+                        item.name(),
+                        item.brand(),
+                        item.state()
+                ))
+                .toList();
+
+        DevicePatchResult result = service.patchAll(commands, request.partial());
+        HttpStatus status = request.partial() || result.allPatched()
+                ? HttpStatus.OK
+                : HttpStatus.UNPROCESSABLE_CONTENT;
+
+        return ResponseEntity.status(status).body(DevicePatchResponse.from(result));
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @Operation(
@@ -1,12 +1,20 @@
 package io.github.tooba.device_inventory_service.controller.advice;
 
+import io.github.tooba.device_inventory_service.concurrency.ConcurrencyLimitExceededException;
 import io.github.tooba.device_inventory_service.controller.responseDto.ErrorResponse;
+import io.github.tooba.device_inventory_service.entity.DeviceRuleViolationException;
+import io.github.tooba.device_inventory_service.jfr.DeviceRejectionEvent;
 import io.github.tooba.device_inventory_service.service.exception.DeviceNotFoundException;
+import io.github.tooba.device_inventory_service.service.exception.InvalidRequestException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.Instant;
 import java.util.Map;
@@ -32,31 +40,65 @@ public class GlobalExceptionHandler {
                         (existing, replacement) -> existing
                 ));
 
-        return new ErrorResponse(
+        return rejected(ex, new ErrorResponse(
                 "VALIDATION_ERROR",
                 "Request validation failed",
                 HttpStatus.BAD_REQUEST.value(),
                 request.getRequestURI(),
                 Instant.now(),
                 fieldErrors
-        );
+        ));
+    }
+
+    // 400 - Unparseable request parameters
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleTypeMismatch(
+            MethodArgumentTypeMismatchException ex,
+            HttpServletRequest request
+    ) {
+        return rejected(ex, new ErrorResponse(
+                "VALIDATION_ERROR",
+                "Request validation failed",
+                HttpStatus.BAD_REQUEST.value(),
+                request.getRequestURI(),
+                Instant.now(),
+                Map.of(ex.getName(), "Invalid value: " + ex.getValue())
+        ));
+    }
+
+    // 400 - Parameters that parse but cannot be served
+    @ExceptionHandler(InvalidRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleInvalidRequest(
+            InvalidRequestException ex,
+            HttpServletRequest request
+    ) {
+        return rejected(ex, new ErrorResponse(
+                "VALIDATION_ERROR",
+                "Request validation failed",
+                HttpStatus.BAD_REQUEST.value(),
+                request.getRequestURI(),
+                Instant.now(),
+                Map.of(ex.getParameter(), ex.getMessage())
+        ));
     }
 
     // 422 - Business Rule Violations
-    @ExceptionHandler(IllegalStateException.class)
+    @ExceptionHandler({IllegalStateException.class, DeviceRuleViolationException.class})
     @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
     public ErrorResponse handleBusiness(
-            IllegalStateException ex,
+            RuntimeException ex,
             HttpServletRequest request
     ) {
-        return new ErrorResponse(
+        return rejected(ex, new ErrorResponse(
                 "BUSINESS_RULE_VIOLATION",
                 ex.getMessage(),
                 HttpStatus.UNPROCESSABLE_ENTITY.value(),
                 request.getRequestURI(),
                 Instant.now(),
                 null
-        );
+        ));
     }
 
     // 409 - Conflict (e.g., unique constraint)
@@ -66,14 +108,51 @@ public class GlobalExceptionHandler {
             DataIntegrityViolationException ex,
             HttpServletRequest request
     ) {
-        return new ErrorResponse(
+        return rejected(ex, new ErrorResponse(
                 "RESOURCE_CONFLICT",
                 "Resource conflict occurred",
                 HttpStatus.CONFLICT.value(),
                 request.getRequestURI(),
                 Instant.now(),
                 null
-        );
+        ));
+    }
+
+    // 409 - Changed by a concurrent request
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleConcurrentModification(
+            OptimisticLockingFailureException ex,
+            HttpServletRequest request
+    ) {
+        return rejected(ex, new ErrorResponse(
+                "CONCURRENT_MODIFICATION",
+                "Resource was modified concurrently, retry the request",
+                HttpStatus.CONFLICT.value(),
+                request.getRequestURI(),
+                Instant.now(),
+                null
+        ));
+    }
+
+    // 503 - Load shedding
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleOverload(
+            ConcurrencyLimitExceededException ex,
+            HttpServletRequest request
+    ) {
+        var body = rejected(ex, new ErrorResponse(
+                "SERVICE_OVERLOADED",
+                ex.getMessage(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                request.getRequestURI(),
+                Instant.now(),
+                null
+        ));
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(body);
     }
 
     // 500 - Fallback
@@ -83,14 +162,14 @@ public class GlobalExceptionHandler {
             Exception ex,
             HttpServletRequest request
     ) {
-        return new ErrorResponse(
+        return rejected(ex, new ErrorResponse(
                 "INTERNAL_ERROR",
                 "An unexpected error occurred",
                 HttpStatus.INTERNAL_SERVER_ERROR.value(),
                 request.getRequestURI(),
                 Instant.now(),
                 null
-        );
+        ));
     }
     @ExceptionHandler(DeviceNotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
@@ -98,13 +177,20 @@ public class GlobalExceptionHandler {
             DeviceNotFoundException ex,
             HttpServletRequest request
     ) {
-        return new ErrorResponse(
+        return rejected(ex, new ErrorResponse(
                 "RESOURCE_NOT_FOUND",
                 ex.getMessage(),
                 HttpStatus.NOT_FOUND.value(),
                 request.getRequestURI(),
                 Instant.now(),
                 null
-        );
+        ));
+    }
+
+    // Lets Flight Recorder captures line rejections up with the rest of the
+    // recording.
+    private static ErrorResponse rejected(Exception ex, ErrorResponse body) {
+        DeviceRejectionEvent.commit(body.code(), body.status(), body.path(), ex);
+        return body;
     }
-}
\ No newline at end of file
+}
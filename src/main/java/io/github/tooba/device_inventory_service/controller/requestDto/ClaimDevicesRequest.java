@@ -0,0 +1,24 @@
+package io.github.tooba.device_inventory_service.controller.requestDto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.hibernate.validator.constraints.time.DurationMin;
+
+import java.time.Duration;
+
+public record ClaimDevicesRequest(
+        @Schema(description = "Only claim devices of this brand; any brand when omitted", example = "Apple")
+        String brand,
+        @Schema(description = "Number of devices to claim", example = "1",
+                minimum = "1", maximum = "" + ClaimDevicesRequest.MAX_COUNT)
+        @Min(1)
+        @Max(ClaimDevicesRequest.MAX_COUNT)
+        int count,
+        @Schema(description = "Lease duration (ISO-8601) when leases are enabled; the configured default when omitted",
+                example = "PT10M", type = "string")
+        @DurationMin(seconds = 1)
+        Duration lease
+) {
+    public static final int MAX_COUNT = 100;
+}
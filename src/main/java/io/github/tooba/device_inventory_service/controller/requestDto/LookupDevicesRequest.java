@@ -0,0 +1,23 @@
+package io.github.tooba.device_inventory_service.controller.requestDto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+public record LookupDevicesRequest(
+        @ArraySchema(
+                arraySchema = @Schema(description = "Device IDs to resolve"),
+                schema = @Schema(example = "550e8400-e29b-41d4-a716-446655440000"),
+                maxItems = LookupDevicesRequest.MAX_IDS
+        )
+        @NotEmpty
+        @Size(max = LookupDevicesRequest.MAX_IDS)
+        List<@NotNull UUID> ids
+) {
+    public static final int MAX_IDS = 1000;
+}
@@ -0,0 +1,52 @@
+package io.github.tooba.device_inventory_service.controller.requestDto;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Request payload for partially updating several devices at once")
+public record PatchDevicesRequest(
+        @ArraySchema(
+                arraySchema = @Schema(description = "Patches to apply, in order"),
+                maxItems = PatchDevicesRequest.MAX_DEVICES
+        )
+        @NotEmpty
+        @Size(max = PatchDevicesRequest.MAX_DEVICES)
+        List<@Valid @NotNull Item> devices,
+
+        @Schema(description = "Commit the patches that succeed and report the others. " +
+                "By default any failed patch rolls back the whole request.", example = "false")
+        boolean partial
+) {
+    // Loaded with a single query.
+    public static final int MAX_DEVICES = 500;
+
+    @Schema(description = "A device ID and the fields to change; fields left null remain unchanged")
+    public record Item(
+
+            @Schema(description = "Device ID", example = "550e8400-e29b-41d4-a716-446655440000")
+            @NotNull
+            UUID id,
+
+            @Schema(description = "Updated device name", example = "Galaxy S24", nullable = true)
+            String name,
+
+            @Schema(description = "Updated device brand", example = "Samsung", nullable = true)
+            String brand,
+
+            @Schema(
+                    description = "Updated device state",
+                    example = "INACTIVE",
+                    allowableValues = {"AVAILABLE", "IN_USE", "INACTIVE"},
+                    nullable = true
+            )
+            DeviceState state
+    ) {}
+}
@@ -0,0 +1,13 @@
+package io.github.tooba.device_inventory_service.controller.requestDto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.hibernate.validator.constraints.time.DurationMin;
+
+import java.time.Duration;
+
+public record RenewLeaseRequest(
+        @Schema(description = "New lease duration from now (ISO-8601); the configured default when omitted",
+                example = "PT10M", type = "string")
+        @DurationMin(seconds = 1)
+        Duration duration
+) {}
@@ -0,0 +1,25 @@
+package io.github.tooba.device_inventory_service.controller.responseDto;
+
+import io.github.tooba.device_inventory_service.service.result.DeviceClaimResult;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.List;
+
+@Schema(description = "Devices claimed by one request")
+public record DeviceClaimResponse(
+
+        @Schema(description = "Devices now IN_USE; fewer than requested when no more were available")
+        List<DeviceResponse> devices,
+
+        @Schema(description = "When the lease on the claimed devices runs out; absent when leases are disabled")
+        Instant leaseExpiresAt
+) {
+
+    public static DeviceClaimResponse from(DeviceClaimResult result) {
+        return new DeviceClaimResponse(
+                result.devices().stream().map(DeviceResponse::from).toList(),
+                result.leaseExpiresAt()
+        );
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.tooba.device_inventory_service.controller.responseDto;
+
+import io.github.tooba.device_inventory_service.service.result.DeviceHistoryResult;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * One page of a device's history, with the page fields of
+ * {@link DevicePageResponse} other than {@code empty}, {@code pageable} and
+ * {@code sort}. History pages never carry a total.
+ */
+@Schema(name = "DeviceHistoryPage", description = "One page of recorded changes")
+public record DeviceHistoryPageResponse(
+
+        @Schema(description = "Changes on this page, oldest first")
+        List<DeviceHistoryResponse> content,
+
+        @Schema(description = "Zero-based page number", example = "0")
+        int number,
+
+        @Schema(description = "Requested page size", example = "20")
+        int size,
+
+        @Schema(description = "Changes on this page", example = "20")
+        int numberOfElements,
+
+        @Schema(description = "Whether this is the first page")
+        boolean first,
+
+        @Schema(description = "Whether this is the last page")
+        boolean last
+) {
+
+    public static DeviceHistoryPageResponse from(Slice<DeviceHistoryResult> slice) {
+        return new DeviceHistoryPageResponse(
+                slice.map(DeviceHistoryResponse::from).getContent(),
+                slice.getNumber(),
+                slice.getSize(),
+                slice.getNumberOfElements(),
+                slice.isFirst(),
+                slice.isLast()
+        );
+    }
+}
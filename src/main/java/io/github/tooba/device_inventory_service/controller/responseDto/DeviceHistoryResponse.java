@@ -0,0 +1,41 @@
+package io.github.tooba.device_inventory_service.controller.responseDto;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangeType;
+import io.github.tooba.device_inventory_service.service.result.DeviceHistoryResult;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+@Schema(description = "One recorded change of a device, with the device as it was right after it")
+public record DeviceHistoryResponse(
+
+        @Schema(description = "When the change was committed (UTC)", example = "2025-06-01T10:15:30Z")
+        Instant recordedAt,
+
+        @Schema(description = "Kind of change", allowableValues = {"CREATED", "UPDATED", "DELETED"})
+        DeviceChangeType change,
+
+        @Schema(description = "Device name", example = "iPhone 15 Pro")
+        String name,
+
+        @Schema(description = "Device brand", example = "Apple")
+        String brand,
+
+        @Schema(
+                description = "Device state after the change",
+                allowableValues = {"AVAILABLE", "IN_USE", "INACTIVE"}
+        )
+        DeviceState state
+) {
+
+    public static DeviceHistoryResponse from(DeviceHistoryResult result) {
+        return new DeviceHistoryResponse(
+                result.recordedAt(),
+                result.change(),
+                result.name(),
+                result.brand(),
+                result.state()
+        );
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.tooba.device_inventory_service.controller.responseDto;
+
+import io.github.tooba.device_inventory_service.service.result.DeviceLeaseResult;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Schema(description = "Lease of an in-use device")
+public record DeviceLeaseResponse(
+
+        @Schema(description = "Device ID")
+        UUID id,
+
+        @Schema(description = "When the device returns to AVAILABLE unless the lease is renewed")
+        Instant expiresAt
+) {
+
+    public static DeviceLeaseResponse from(DeviceLeaseResult result) {
+        return new DeviceLeaseResponse(result.id(), result.expiresAt());
+    }
+}
@@ -0,0 +1,25 @@
+package io.github.tooba.device_inventory_service.controller.responseDto;
+
+import io.github.tooba.device_inventory_service.service.result.DeviceLookupResult;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Result of resolving a list of device IDs")
+public record DeviceLookupResponse(
+
+        @Schema(description = "Devices that were found, in request order")
+        List<DeviceResponse> devices,
+
+        @Schema(description = "Requested IDs that do not exist, in request order")
+        List<UUID> missing
+) {
+
+    public static DeviceLookupResponse from(DeviceLookupResult result) {
+        return new DeviceLookupResponse(
+                result.devices().stream().map(DeviceResponse::from).toList(),
+                result.missing()
+        );
+    }
+}
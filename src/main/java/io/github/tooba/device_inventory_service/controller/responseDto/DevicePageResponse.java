@@ -0,0 +1,196 @@
+package io.github.tooba.device_inventory_service.controller.responseDto;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueSerializer;
+import tools.jackson.databind.annotation.JsonSerialize;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One page of devices, in the JSON Spring Data's {@link Page} and
+ * {@link Slice} have always been written as.
+ * <p>
+ * Written field by field from the service results as they are iterated, so
+ * a page never exists a second time as a list of {@link DeviceResponse}s.
+ * Ids, states and timestamps go through the serializers Jackson is
+ * configured with, resolved once per page. {@link Shape} documents the
+ * resulting JSON.
+ */
+@JsonSerialize(using = DevicePageResponse.Writer.class)
+public record DevicePageResponse(Slice<DeviceResult> slice) {
+
+    public static DevicePageResponse from(Slice<DeviceResult> slice) {
+        return new DevicePageResponse(slice);
+    }
+
+    static final class Writer extends ValueSerializer<DevicePageResponse> {
+
+        // Properties in the order Jackson writes them for PageImpl/SliceImpl.
+        @Override
+        public void serialize(DevicePageResponse value, JsonGenerator gen, SerializationContext ctxt) {
+
+            Slice<DeviceResult> slice = value.slice();
+            Serializers serializers = new Serializers(ctxt);
+
+            gen.writeStartObject();
+            gen.writeName("content");
+            gen.writeStartArray(slice, slice.getNumberOfElements());
+            for (DeviceResult device : slice) {
+                writeDevice(device, gen, ctxt, serializers);
+            }
+            gen.writeEndArray();
+
+            gen.writeBooleanProperty("empty", slice.isEmpty());
+            gen.writeBooleanProperty("first", slice.isFirst());
+            gen.writeBooleanProperty("last", slice.isLast());
+            gen.writeNumberProperty("number", slice.getNumber());
+            gen.writeNumberProperty("numberOfElements", slice.getNumberOfElements());
+            gen.writeName("pageable");
+            writePageable(slice.getPageable(), gen);
+            gen.writeNumberProperty("size", slice.getSize());
+            gen.writeName("sort");
+            writeSort(slice.getSort(), gen);
+            if (slice instanceof Page<DeviceResult> page) {
+                gen.writeNumberProperty("totalElements", page.getTotalElements());
+                gen.writeNumberProperty("totalPages", page.getTotalPages());
+            }
+            gen.writeEndObject();
+        }
+
+        // Same JSON as DeviceResponse: fields left out by a ?fields= selection
+        // are omitted.
+        private static void writeDevice(
+                DeviceResult device,
+                JsonGenerator gen,
+                SerializationContext ctxt,
+                Serializers serializers
+        ) {
+            gen.writeStartObject();
+            if (device.id() != null) {
+                gen.writeName("id");
+                serializers.uuid.serialize(device.id(), gen, ctxt);
+            }
+            if (device.name() != null) {
+                gen.writeStringProperty("name", device.name());
+            }
+            if (device.brand() != null) {
+                gen.writeStringProperty("brand", device.brand());
+            }
+            if (device.state() != null) {
+                gen.writeName("state");
+                serializers.state.serialize(device.state(), gen, ctxt);
+            }
+            if (device.creationTime() != null) {
+                gen.writeName("creationTime");
+                serializers.instant.serialize(device.creationTime(), gen, ctxt);
+            }
+            gen.writeEndObject();
+        }
+
+        // An unpaged request has no offset or page number to report.
+        private static void writePageable(Pageable pageable, JsonGenerator gen) {
+            gen.writeStartObject();
+            if (pageable.isPaged()) {
+                gen.writeNumberProperty("offset", pageable.getOffset());
+                gen.writeNumberProperty("pageNumber", pageable.getPageNumber());
+                gen.writeNumberProperty("pageSize", pageable.getPageSize());
+            }
+            gen.writeBooleanProperty("paged", pageable.isPaged());
+            gen.writeName("sort");
+            writeSort(pageable.getSort(), gen);
+            gen.writeBooleanProperty("unpaged", pageable.isUnpaged());
+            gen.writeEndObject();
+        }
+
+        private static void writeSort(Sort sort, JsonGenerator gen) {
+            gen.writeStartObject();
+            gen.writeBooleanProperty("empty", sort.isEmpty());
+            gen.writeBooleanProperty("sorted", sort.isSorted());
+            gen.writeBooleanProperty("unsorted", sort.isUnsorted());
+            gen.writeEndObject();
+        }
+    }
+
+    private static final class Serializers {
+
+        private final ValueSerializer<Object> uuid;
+        private final ValueSerializer<Object> state;
+        private final ValueSerializer<Object> instant;
+
+        private Serializers(SerializationContext ctxt) {
+            this.uuid = ctxt.findTypedValueSerializer(UUID.class, true);
+            this.state = ctxt.findTypedValueSerializer(DeviceState.class, true);
+            this.instant = ctxt.findTypedValueSerializer(Instant.class, true);
+        }
+    }
+
+    @Schema(name = "DevicePage", description = "One page of devices")
+    public record Shape(
+
+            @Schema(description = "Devices on this page")
+            List<DeviceResponse> content,
+
+            @Schema(description = "Whether this page holds no devices")
+            boolean empty,
+
+            @Schema(description = "Whether this is the first page")
+            boolean first,
+
+            @Schema(description = "Whether this is the last page")
+            boolean last,
+
+            @Schema(description = "Zero-based page number", example = "0")
+            int number,
+
+            @Schema(description = "Devices on this page", example = "20")
+            int numberOfElements,
+
+            @Schema(description = "The page that was requested")
+            PageableShape pageable,
+
+            @Schema(description = "Requested page size", example = "20")
+            int size,
+
+            @Schema(description = "Whether the page is sorted")
+            SortShape sort,
+
+            @Schema(description = "Total matching devices; absent with count=none and for asOf listings",
+                    example = "1342")
+            Long totalElements,
+
+            @Schema(description = "Total pages; absent with count=none and for asOf listings", example = "68")
+            Integer totalPages
+    ) {}
+
+    @Schema(name = "DevicePageable", description = "The page that was requested")
+    public record PageableShape(
+
+            @Schema(description = "Devices before this page", example = "0")
+            long offset,
+
+            @Schema(description = "Zero-based page number", example = "0")
+            int pageNumber,
+
+            @Schema(description = "Requested page size", example = "20")
+            int pageSize,
+
+            boolean paged,
+
+            SortShape sort,
+
+            boolean unpaged
+    ) {}
+
+    @Schema(name = "DeviceSort", description = "Whether a sort was applied")
+    public record SortShape(boolean empty, boolean sorted, boolean unsorted) {}
+}
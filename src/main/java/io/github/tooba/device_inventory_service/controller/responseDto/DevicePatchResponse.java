@@ -0,0 +1,49 @@
+package io.github.tooba.device_inventory_service.controller.responseDto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.github.tooba.device_inventory_service.constant.DevicePatchStatus;
+import io.github.tooba.device_inventory_service.service.result.DevicePatchResult;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Per-device results of patching several devices")
+public record DevicePatchResponse(
+
+        @Schema(description = "One result per requested patch, in request order")
+        List<Item> results
+) {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Item(
+
+            @Schema(description = "Device ID", example = "550e8400-e29b-41d4-a716-446655440000")
+            UUID id,
+
+            @Schema(description = "PATCHED, NOT_FOUND, REJECTED by a domain rule, or NOT_APPLIED " +
+                    "because another patch in the request failed")
+            DevicePatchStatus status,
+
+            @Schema(description = "The device after the patch; only for PATCHED")
+            DeviceResponse device,
+
+            @Schema(description = "Why the patch was rejected; only for REJECTED",
+                    example = "Name cannot be updated while device is in use")
+            String message
+    ) {
+
+        static Item from(DevicePatchResult.Item item) {
+            return new Item(
+                    item.id(),
+                    item.status(),
+                    item.device() == null ? null : DeviceResponse.from(item.device()),
+                    item.message()
+            );
+        }
+    }
+
+    public static DevicePatchResponse from(DevicePatchResult result) {
+        return new DevicePatchResponse(result.items().stream().map(Item::from).toList());
+    }
+}
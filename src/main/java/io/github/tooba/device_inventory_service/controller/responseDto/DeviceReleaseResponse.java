@@ -0,0 +1,25 @@
+package io.github.tooba.device_inventory_service.controller.responseDto;
+
+import io.github.tooba.device_inventory_service.service.result.DeviceReleaseResult;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Result of releasing claimed devices")
+public record DeviceReleaseResponse(
+
+        @Schema(description = "Devices now AVAILABLE again, in request order")
+        List<DeviceResponse> released,
+
+        @Schema(description = "Requested IDs that do not exist or were not IN_USE, in request order")
+        List<UUID> notReleased
+) {
+
+    public static DeviceReleaseResponse from(DeviceReleaseResult result) {
+        return new DeviceReleaseResponse(
+                result.released().stream().map(DeviceResponse::from).toList(),
+                result.notReleased()
+        );
+    }
+}
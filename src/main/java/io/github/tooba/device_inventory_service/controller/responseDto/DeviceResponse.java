@@ -1,5 +1,6 @@
 package io.github.tooba.device_inventory_service.controller.responseDto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.github.tooba.device_inventory_service.constant.DeviceState;
 import io.github.tooba.device_inventory_service.service.result.DeviceResult;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -7,7 +8,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import java.time.Instant;
 import java.util.UUID;
 
+// Fields left out by a ?fields= selection are null and omitted.
 @Schema(description = "Represents a device in the inventory system")
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record DeviceResponse(
 
         @Schema(
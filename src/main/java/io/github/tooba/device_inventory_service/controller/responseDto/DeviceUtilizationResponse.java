@@ -0,0 +1,52 @@
+package io.github.tooba.device_inventory_service.controller.responseDto;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.service.result.DeviceUtilizationResult;
+import io.github.tooba.device_inventory_service.service.result.UtilizationBucket;
+import io.github.tooba.device_inventory_service.utilization.UtilizationResolution;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Schema(description = "Device utilization per brand and time bucket")
+public record DeviceUtilizationResponse(
+
+        @Schema(description = "Bucket size used", allowableValues = {"HOUR", "DAY", "WEEK"})
+        UtilizationResolution resolution,
+
+        @Schema(description = "Buckets ordered by brand, then start; buckets without devices are left out")
+        List<Bucket> buckets
+) {
+
+    public record Bucket(
+
+            @Schema(description = "Brand, lowercased", example = "apple")
+            String brand,
+
+            @Schema(description = "Bucket start (UTC)")
+            Instant start,
+
+            @Schema(description = "Bucket end (UTC); now for a bucket still running")
+            Instant end,
+
+            @Schema(description = "Device-seconds spent in each state")
+            Map<DeviceState, Long> seconds,
+
+            @Schema(description = "Share of device time spent IN_USE", example = "0.42")
+            double utilization
+    ) {
+
+        static Bucket from(UtilizationBucket bucket) {
+            return new Bucket(bucket.brand(), bucket.start(), bucket.end(), bucket.seconds(), bucket.utilization());
+        }
+    }
+
+    public static DeviceUtilizationResponse from(DeviceUtilizationResult result) {
+        return new DeviceUtilizationResponse(
+                result.resolution(),
+                result.buckets().stream().map(Bucket::from).toList()
+        );
+    }
+}
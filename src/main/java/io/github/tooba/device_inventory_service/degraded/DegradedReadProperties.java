@@ -0,0 +1,24 @@
+package io.github.tooba.device_inventory_service.degraded;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Serving device reads from their last known result while the database is
+ * unavailable or slower than {@code latencyBudget}.
+ * <p>
+ * Remembered results hold up to {@code maxDevices} devices in total, a
+ * lookup counting as one and a listing as its page size; none older than
+ * {@code maxStaleness} is served. While degraded, the database is probed
+ * at most once every {@code probeInterval}.
+ */
+@ConfigurationProperties("device.degraded-reads")
+public record DegradedReadProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("500ms") Duration latencyBudget,
+        @DefaultValue("5m") Duration maxStaleness,
+        @DefaultValue("100000") int maxDevices,
+        @DefaultValue("2s") Duration probeInterval
+) {}
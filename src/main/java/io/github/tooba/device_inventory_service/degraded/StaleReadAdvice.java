@@ -0,0 +1,52 @@
+package io.github.tooba.device_inventory_service.degraded;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Marks a response built from remembered results with {@code Age}, the
+ * seconds since the oldest of them was loaded, and
+ * {@code Warning: 110 - "Response is Stale"}.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(prefix = "device.degraded-reads", name = "enabled", havingValue = "true")
+public class StaleReadAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    private final Clock clock = Clock.systemUTC();
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+            Object body,
+            MethodParameter returnType,
+            MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request,
+            ServerHttpResponse response
+    ) {
+        Instant since = StaleReads.servedSince();
+        if (since != null) {
+            long age = Math.max(0, Duration.between(since, clock.instant()).toSeconds());
+            response.getHeaders().set(HttpHeaders.AGE, Long.toString(age));
+            response.getHeaders().set(HttpHeaders.WARNING, STALE_WARNING);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,28 @@
+package io.github.tooba.device_inventory_service.degraded;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Scopes the record of stale results served on the request thread to a
+ * single request. {@link StaleReadAdvice} turns it into response headers.
+ */
+public class StaleReadInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        StaleReads.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Object handler,
+            Exception ex
+    ) {
+        StaleReads.reset();
+    }
+}
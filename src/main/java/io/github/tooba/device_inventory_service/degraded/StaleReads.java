@@ -0,0 +1,316 @@
+package io.github.tooba.device_inventory_service.degraded;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.tooba.device_inventory_service.constant.DeviceField;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangeType;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Slice;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Last known results of device reads, served while the database is down or
+ * slow.
+ * <p>
+ * Every successful read is remembered under its operation and key. A read
+ * that fails because the database cannot be reached, or that takes longer
+ * than {@code latencyBudget}, switches the node to degraded mode. While
+ * degraded, a read with a remembered result no older than
+ * {@code maxStaleness} returns it at once and schedules a revalidation of
+ * that key on a background thread. Only one revalidation runs at a time,
+ * and after a failed one the next waits {@code probeInterval}. The first
+ * read or revalidation that completes within the budget ends degraded mode.
+ * Reads without a usable result still go to the database.
+ * <p>
+ * A device written on this node replaces its remembered lookup after commit,
+ * and its remembered field selections stop being served, so the node never
+ * serves a device older than its own last write. Listings are only bounded
+ * by {@code maxStaleness}.
+ */
+public class StaleReads implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(StaleReads.class);
+
+    public static final String GET_BY_ID = "getById";
+    public static final String GET_BY_ID_FIELDS = "getByIdFields";
+
+    // When the oldest stale result served on the request thread was loaded.
+    private static final ThreadLocal<Instant> SERVED_SINCE = new ThreadLocal<>();
+
+    private final DegradedReadProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    private final Cache<Key, Entry> entries;
+    // When this node last wrote each device; older field selections are not served.
+    private final Cache<UUID, Instant> written;
+    private final ConcurrentMap<String, Counter> staleServed = new ConcurrentHashMap<>();
+    private final AtomicBoolean degraded = new AtomicBoolean();
+    private final AtomicBoolean probing = new AtomicBoolean();
+
+    private volatile Instant nextProbe = Instant.MIN;
+    private volatile ExecutorService executor;
+
+    public StaleReads(DegradedReadProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        // Weighed by the devices a result holds, so a few large pages cannot
+        // crowd out many lookups unnoticed.
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(properties.maxDevices())
+                .weigher((Key key, Entry entry) -> entry.weight())
+                .build();
+        // A selection remembered before the write is unusable by age once
+        // maxStaleness has passed, so the write need not be kept longer.
+        this.written = Caffeine.newBuilder()
+                .expireAfterWrite(properties.maxStaleness())
+                .build();
+
+        if (properties.enabled()) {
+            Gauge.builder("device.reads.degraded", degraded, flag -> flag.get() ? 1 : 0)
+                    .description("1 while device reads are served from their last known results")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * When the oldest stale result served to the current request was loaded,
+     * or {@code null} if everything came from the database.
+     */
+    public static Instant servedSince() {
+        return SERVED_SINCE.get();
+    }
+
+    public static void reset() {
+        SERVED_SINCE.remove();
+    }
+
+    public boolean isDegraded() {
+        return degraded.get();
+    }
+
+    public <T> T read(String operation, Object key, Supplier<T> loader) {
+
+        if (!properties.enabled()) {
+            return loader.get();
+        }
+
+        var entryKey = new Key(operation, key);
+
+        if (degraded.get()) {
+            Entry entry = usable(entryKey);
+            if (entry != null) {
+                revalidate(entryKey, loader);
+                return serve(operation, entry);
+            }
+        }
+
+        long started = System.nanoTime();
+        T value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException ex) {
+            if (!unavailable(ex)) {
+                throw ex;
+            }
+            degrade(ex.toString());
+            Entry entry = usable(entryKey);
+            if (entry == null) {
+                throw ex;
+            }
+            return serve(operation, entry);
+        }
+
+        remember(entryKey, value);
+        settle(System.nanoTime() - started);
+        return value;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+
+        if (!properties.enabled()) {
+            return;
+        }
+
+        written.put(event.device().id(), clock.instant());
+
+        var key = new Key(GET_BY_ID, event.device().id());
+        if (event.type() == DeviceChangeType.DELETED) {
+            entries.invalidate(key);
+        } else {
+            remember(key, event.device());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        executor = Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().name("device-stale-read-revalidator").daemon(true).factory()
+        );
+    }
+
+    @Override
+    public void stop() {
+        ExecutorService running = executor;
+        if (running == null) {
+            return;
+        }
+        executor = null;
+        running.shutdownNow();
+        try {
+            running.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    private void revalidate(Key key, Supplier<?> loader) {
+
+        ExecutorService running = executor;
+        if (running == null || clock.instant().isBefore(nextProbe) || !probing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            running.execute(() -> probe(key, loader));
+        } catch (RejectedExecutionException ex) {
+            probing.set(false);
+        }
+    }
+
+    private void probe(Key key, Supplier<?> loader) {
+
+        long started = System.nanoTime();
+        try {
+            remember(key, loader.get());
+            settle(System.nanoTime() - started);
+        } catch (RuntimeException ex) {
+            if (unavailable(ex)) {
+                nextProbe = clock.instant().plus(properties.probeInterval());
+            } else {
+                // The database answered; the key itself is gone or invalid.
+                entries.invalidate(key);
+                recover();
+            }
+        } finally {
+            probing.set(false);
+        }
+    }
+
+    private void settle(long elapsedNanos) {
+        if (elapsedNanos > properties.latencyBudget().toNanos()) {
+            degrade("read took " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms");
+        } else {
+            recover();
+        }
+    }
+
+    private void degrade(String reason) {
+        nextProbe = clock.instant().plus(properties.probeInterval());
+        if (degraded.compareAndSet(false, true)) {
+            log.warn("Serving device reads from their last known results: {}", reason);
+        }
+    }
+
+    private void recover() {
+        if (degraded.compareAndSet(true, false)) {
+            log.info("Database recovered, serving device reads from it again");
+        }
+    }
+
+    private Entry usable(Key key) {
+
+        Entry entry = entries.getIfPresent(key);
+
+        Instant oldest = clock.instant().minus(properties.maxStaleness());
+        if (entry == null || entry.loadedAt().isBefore(oldest)) {
+            return null;
+        }
+
+        if (key.key() instanceof Fields fields) {
+            Instant write = written.getIfPresent(fields.id());
+            if (write != null && !entry.loadedAt().isAfter(write)) {
+                return null;
+            }
+        }
+        return entry;
+    }
+
+    private void remember(Key key, Object value) {
+        entries.put(key, new Entry(value, clock.instant()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T serve(String operation, Entry entry) {
+
+        Instant since = SERVED_SINCE.get();
+        if (since == null || entry.loadedAt().isBefore(since)) {
+            SERVED_SINCE.set(entry.loadedAt());
+        }
+
+        staleServed.computeIfAbsent(operation, op -> Counter.builder("device.reads.stale")
+                .description("Device reads answered from a remembered result")
+                .tag("operation", op)
+                .register(meterRegistry)
+        ).increment();
+
+        return (T) entry.value();
+    }
+
+    // Failures that say nothing about the request itself, only that the
+    // database could not answer it right now.
+    private static boolean unavailable(RuntimeException ex) {
+        return ex instanceof DataAccessResourceFailureException
+                || ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof CannotCreateTransactionException;
+    }
+
+    /**
+     * Key of a {@link #GET_BY_ID_FIELDS} read.
+     */
+    public record Fields(UUID id, Set<DeviceField> fields) {}
+
+    private record Key(String operation, Object key) {}
+
+    private record Entry(Object value, Instant loadedAt) {
+
+        int weight() {
+            return value instanceof Slice<?> slice ? slice.getNumberOfElements() + 1 : 1;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.tooba.device_inventory_service.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
+import java.util.Locale;
+
+/**
+ * Brand dictionary entry: one row per distinct spelling, so that devices
+ * keep returning the brand exactly as it was written. {@code canonical} is
+ * the lowercase form that brand filters match on.
+ * <p>
+ * Entries are never changed once written, so they are cached by key and by
+ * spelling.
+ */
+@Entity
+@Table(name = "brands", indexes = @Index(name = "brands_canonical_idx", columnList = "canonical"))
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+@NaturalIdCache
+public class Brand {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @NaturalId
+    @Column(nullable = false, unique = true)
+    private String name;
+
+    @Column(nullable = false)
+    private String canonical;
+
+    protected Brand() {}
+
+    private Brand(String name) {
+        this.name = name;
+        this.canonical = canonical(name);
+    }
+
+    /**
+     * A spelling that is not bound to its dictionary entry yet; see
+     * {@link Device#resolveBrand}.
+     */
+    public static Brand named(String name) {
+        return new Brand(name);
+    }
+
+    public static String canonical(String brand) {
+        return brand.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public Integer getId() { return id; }
+    public String getName() { return name; }
+    public String getCanonical() { return canonical; }
+}
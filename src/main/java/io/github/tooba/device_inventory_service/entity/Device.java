@@ -1,12 +1,26 @@
 package io.github.tooba.device_inventory_service.entity;
 
 import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.converter.DeviceStateConverter;
+import io.github.tooba.device_inventory_service.entity.converter.SmallIntCodeJdbcType;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.JdbcType;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
+import java.util.function.Function;
 
 @Entity
-@Table(name = "devices")
+// (state, id) covers ?fields=id,state listings filtered by state.
+@Table(name = "devices", indexes = {
+        @Index(name = "devices_brand_state_idx", columnList = "brand_id, state"),
+        @Index(name = "devices_state_id_idx", columnList = "state, id"),
+        @Index(name = "devices_lease_expires_idx", columnList = "lease_expires_at")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Device {
 
     @Id
@@ -16,67 +30,116 @@ public class Device {
     @Column(nullable = false)
     private String name;
 
-    @Column(nullable = false)
-    private String brand;
+    // Stored as a dictionary key; the API still sees the brand as written.
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "brand_id", nullable = false)
+    private Brand brand;
 
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = DeviceStateConverter.class)
+    @JdbcType(SmallIntCodeJdbcType.class)
     @Column(nullable = false)
     private DeviceState state;
 
     @Column(nullable = false, updatable = false)
     private Instant creationTime;
 
+    // Only set while IN_USE, and only when leases are enabled.
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
     protected Device() {}
 
     public Device(String name, String brand, DeviceState state) {
         this.name = name;
-        this.brand = brand;
+        this.brand = Brand.named(brand);
         this.state = state;
     }
 
     @PrePersist
     void onCreate() {
-        if (creationTime == null) creationTime = Instant.now();
+        // The column keeps microseconds; the response to the create must
+        // match what later reads return.
+        if (creationTime == null) creationTime = Instant.now().truncatedTo(ChronoUnit.MICROS);
         if (state == null) state = DeviceState.AVAILABLE;
     }
 
     public UUID getId() { return id; }
     public String getName() { return name; }
-    public String getBrand() { return brand; }
+    public String getBrand() { return brand.getName(); }
     public DeviceState getState() { return state; }
     public Instant getCreationTime() { return creationTime; }
+    public Instant getLeaseExpiresAt() { return leaseExpiresAt; }
 
     public static Device create(String name, String brand, DeviceState state) {
         return new Device(name, brand, state);
     }
 
+    /**
+     * Rebuilds an already stored device, for storage that does not go
+     * through JPA.
+     */
+    public static Device restore(UUID id, String name, String brand, DeviceState state, Instant creationTime) {
+        return restore(id, name, brand, state, creationTime, null);
+    }
+
+    public static Device restore(
+            UUID id,
+            String name,
+            String brand,
+            DeviceState state,
+            Instant creationTime,
+            Instant leaseExpiresAt
+    ) {
+        Device device = new Device(name, brand, state);
+        device.id = id;
+        device.creationTime = creationTime;
+        device.leaseExpiresAt = leaseExpiresAt;
+        return device;
+    }
+
     public void update(String name, String brand, DeviceState newState) {
+        DeviceRuleViolation violation = tryUpdate(name, brand, newState);
+        if (violation != null) {
+            throw violation.exception();
+        }
+    }
 
-        if (this.state == DeviceState.IN_USE) {
-            if (!this.name.equals(name) || !this.brand.equals(brand)) {
-                throw new IllegalStateException(
-                        "Name and brand cannot be updated while device is in use"
-                );
-            }
+    public void patch(String name, String brand, DeviceState newState) {
+        DeviceRuleViolation violation = tryPatch(name, brand, newState);
+        if (violation != null) {
+            throw violation.exception();
+        }
+    }
+
+    /**
+     * Applies a full update if {@link DeviceRules} allow it.
+     *
+     * @return the violated rule, or {@code null} once the update is applied
+     */
+    public DeviceRuleViolation tryUpdate(String name, String brand, DeviceState newState) {
+
+        DeviceRuleViolation violation = DeviceRules.checkUpdate(this, name, brand, newState);
+        if (violation != null) {
+            return violation;
         }
 
         this.name = name;
-        this.brand = brand;
+        rename(brand);
         this.state = newState;
+        dropLeaseUnlessInUse();
+        return null;
     }
-    public void patch(String name, String brand, DeviceState newState) {
 
-        if (this.state == DeviceState.IN_USE) {
-            if (name != null && !this.name.equals(name)) {
-                throw new IllegalStateException(
-                        "Name cannot be updated while device is in use"
-                );
-            }
-            if (brand != null && !this.brand.equals(brand)) {
-                throw new IllegalStateException(
-                        "Brand cannot be updated while device is in use"
-                );
-            }
+    /**
+     * Applies a partial update if {@link DeviceRules} allow it.
+     *
+     * @return the violated rule, or {@code null} once the patch is applied
+     */
+    public DeviceRuleViolation tryPatch(String name, String brand, DeviceState newState) {
+
+        DeviceRuleViolation violation = DeviceRules.checkPatch(this, name, brand, newState);
+        if (violation != null) {
+            return violation;
         }
 
         if (name != null && !name.isBlank()) {
@@ -84,11 +147,55 @@ public class Device {
         }
 
         if (brand != null && !brand.isBlank()) {
-            this.brand = brand.trim();
+            rename(brand.trim());
         }
 
         if (newState != null) {
             this.state = newState;
+            dropLeaseUnlessInUse();
+        }
+        return null;
+    }
+
+    /**
+     * Sets when the lease of an IN_USE device runs out; a renewal simply
+     * moves the expiry.
+     *
+     * @return the violated rule, or {@code null} once the lease is set
+     */
+    public DeviceRuleViolation tryLease(Instant expiresAt) {
+
+        if (state != DeviceState.IN_USE) {
+            return DeviceRuleViolation.LEASE_NOT_HELD;
+        }
+
+        this.leaseExpiresAt = expiresAt;
+        return null;
+    }
+
+    /**
+     * Binds a brand spelling set since the last call to its dictionary
+     * entry. JPA storage must call this before the device is flushed.
+     */
+    public void resolveBrand(Function<String, Brand> dictionary) {
+        if (brand.getId() == null) {
+            brand = dictionary.apply(brand.getName());
+        }
+    }
+
+    public boolean isLeaseExpired(Instant now) {
+        return state == DeviceState.IN_USE && leaseExpiresAt != null && !leaseExpiresAt.isAfter(now);
+    }
+
+    private void rename(String newBrand) {
+        if (!brand.getName().equals(newBrand)) {
+            brand = Brand.named(newBrand);
+        }
+    }
+
+    private void dropLeaseUnlessInUse() {
+        if (state != DeviceState.IN_USE) {
+            leaseExpiresAt = null;
         }
     }
 }
\ No newline at end of file
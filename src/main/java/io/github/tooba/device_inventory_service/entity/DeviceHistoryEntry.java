@@ -0,0 +1,91 @@
+package io.github.tooba.device_inventory_service.entity;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.converter.DeviceChangeTypeConverter;
+import io.github.tooba.device_inventory_service.entity.converter.DeviceStateConverter;
+import io.github.tooba.device_inventory_service.entity.converter.SmallIntCodeJdbcType;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangeType;
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcType;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One change of a device, as it looked right after the change. Rows are
+ * only ever inserted.
+ */
+@Entity
+// (device_id, recorded_at) serves both the per-device history and the
+// latest-entry lookup behind point-in-time listings.
+@Table(name = "device_history", indexes = {
+        @Index(name = "device_history_device_idx", columnList = "device_id, recorded_at")
+})
+public class DeviceHistoryEntry {
+
+    // Pooled sequence: ids for a whole insert batch come from one round trip.
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "device_history_seq")
+    @SequenceGenerator(name = "device_history_seq", sequenceName = "device_history_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "device_id", nullable = false, updatable = false)
+    private UUID deviceId;
+
+    @Column(name = "recorded_at", nullable = false, updatable = false)
+    private Instant recordedAt;
+
+    @Convert(converter = DeviceChangeTypeConverter.class)
+    @JdbcType(SmallIntCodeJdbcType.class)
+    @Column(name = "change_type", nullable = false, updatable = false)
+    private DeviceChangeType change;
+
+    @Column(nullable = false, updatable = false)
+    private String name;
+
+    // No foreign key: it would cost every insert a lookup in brands.
+    @ManyToOne(optional = false)
+    @JoinColumn(
+            name = "brand_id",
+            nullable = false,
+            updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT)
+    )
+    private Brand brand;
+
+    @Convert(converter = DeviceStateConverter.class)
+    @JdbcType(SmallIntCodeJdbcType.class)
+    @Column(nullable = false, updatable = false)
+    private DeviceState state;
+
+    @Column(nullable = false, updatable = false)
+    private Instant creationTime;
+
+    protected DeviceHistoryEntry() {}
+
+    public static DeviceHistoryEntry of(DeviceChangeType change, DeviceResult device, Brand brand, Instant recordedAt) {
+        DeviceHistoryEntry entry = new DeviceHistoryEntry();
+        entry.deviceId = device.id();
+        entry.recordedAt = recordedAt;
+        entry.change = change;
+        entry.name = device.name();
+        entry.brand = brand;
+        entry.state = device.state();
+        entry.creationTime = device.creationTime();
+        return entry;
+    }
+
+    public Long getId() { return id; }
+    public UUID getDeviceId() { return deviceId; }
+    public Instant getRecordedAt() { return recordedAt; }
+    public DeviceChangeType getChange() { return change; }
+    public String getName() { return name; }
+    public String getBrand() { return brand.getName(); }
+    public DeviceState getState() { return state; }
+    public Instant getCreationTime() { return creationTime; }
+
+    public DeviceResult toDeviceResult() {
+        return new DeviceResult(deviceId, name, brand.getName(), state, creationTime);
+    }
+}
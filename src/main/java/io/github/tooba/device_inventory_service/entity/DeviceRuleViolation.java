@@ -0,0 +1,30 @@
+package io.github.tooba.device_inventory_service.entity;
+
+/**
+ * Why a device change was rejected. Each violation carries one preallocated,
+ * stackless exception for the places that must throw.
+ */
+public enum DeviceRuleViolation {
+    NAME_AND_BRAND_LOCKED("Name and brand cannot be updated while device is in use"),
+    NAME_LOCKED("Name cannot be updated while device is in use"),
+    BRAND_LOCKED("Brand cannot be updated while device is in use"),
+    TRANSITION_NOT_ALLOWED("State transition is not allowed"),
+    DELETE_IN_USE("In-use devices cannot be deleted"),
+    LEASE_NOT_HELD("Only in-use devices hold a lease");
+
+    private final String message;
+    private final DeviceRuleViolationException exception;
+
+    DeviceRuleViolation(String message) {
+        this.message = message;
+        this.exception = new DeviceRuleViolationException(this, message);
+    }
+
+    public String message() {
+        return message;
+    }
+
+    public DeviceRuleViolationException exception() {
+        return exception;
+    }
+}
@@ -0,0 +1,25 @@
+package io.github.tooba.device_inventory_service.entity;
+
+/**
+ * Thrown for a {@link DeviceRuleViolation}. There is a single shared instance
+ * per violation, and it never records a stack trace: rejecting a request
+ * costs no more than returning the violation.
+ * <p>
+ * Because the instance is shared by every request, it is immutable:
+ * suppression is disabled, so {@code addSuppressed} is ignored, and the
+ * cause is fixed to {@code null} by the constructor, so {@code initCause}
+ * fails.
+ */
+public final class DeviceRuleViolationException extends RuntimeException {
+
+    private final transient DeviceRuleViolation violation;
+
+    DeviceRuleViolationException(DeviceRuleViolation violation, String message) {
+        super(message, null, false, false);
+        this.violation = violation;
+    }
+
+    public DeviceRuleViolation violation() {
+        return violation;
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.tooba.device_inventory_service.entity;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Device rules as data: the allowed state transitions, and which fields and
+ * operations a state locks. Checks return a {@link DeviceRuleViolation}, or
+ * {@code null} when the change is allowed; none of them throws.
+ */
+public final class DeviceRules {
+
+    // Every transition is currently allowed; restrict them here.
+    private static final Map<DeviceState, Set<DeviceState>> TRANSITIONS = new EnumMap<>(Map.of(
+            DeviceState.AVAILABLE, EnumSet.allOf(DeviceState.class),
+            DeviceState.IN_USE, EnumSet.allOf(DeviceState.class),
+            DeviceState.INACTIVE, EnumSet.allOf(DeviceState.class)
+    ));
+
+    private static final Set<DeviceState> LOCKS_NAME_AND_BRAND = EnumSet.of(DeviceState.IN_USE);
+    private static final Set<DeviceState> BLOCKS_DELETE = EnumSet.of(DeviceState.IN_USE);
+
+    private DeviceRules() {
+    }
+
+    public static boolean canTransition(DeviceState from, DeviceState to) {
+        return TRANSITIONS.get(from).contains(to);
+    }
+
+    /**
+     * Full update: {@code name} and {@code brand} are compared as given.
+     */
+    static DeviceRuleViolation checkUpdate(Device device, String name, String brand, DeviceState newState) {
+
+        if (LOCKS_NAME_AND_BRAND.contains(device.getState())
+                && (!device.getName().equals(name) || !device.getBrand().equals(brand))) {
+            return DeviceRuleViolation.NAME_AND_BRAND_LOCKED;
+        }
+
+        return checkTransition(device, newState);
+    }
+
+    /**
+     * Partial update: {@code null} leaves a field unchanged.
+     */
+    static DeviceRuleViolation checkPatch(Device device, String name, String brand, DeviceState newState) {
+
+        if (LOCKS_NAME_AND_BRAND.contains(device.getState())) {
+            if (name != null && !device.getName().equals(name)) {
+                return DeviceRuleViolation.NAME_LOCKED;
+            }
+            if (brand != null && !device.getBrand().equals(brand)) {
+                return DeviceRuleViolation.BRAND_LOCKED;
+            }
+        }
+
+        return checkTransition(device, newState);
+    }
+
+    public static DeviceRuleViolation checkDelete(Device device) {
+        return BLOCKS_DELETE.contains(device.getState()) ? DeviceRuleViolation.DELETE_IN_USE : null;
+    }
+
+    private static DeviceRuleViolation checkTransition(Device device, DeviceState newState) {
+        return newState == null || device.getState() == null || canTransition(device.getState(), newState)
+                ? null
+                : DeviceRuleViolation.TRANSITION_NOT_ALLOWED;
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.tooba.device_inventory_service.entity.converter;
+
+import io.github.tooba.device_inventory_service.service.event.DeviceChangeType;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter
+public class DeviceChangeTypeConverter implements AttributeConverter<DeviceChangeType, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(DeviceChangeType type) {
+        return type == null ? null : type.code();
+    }
+
+    @Override
+    public DeviceChangeType convertToEntityAttribute(Short code) {
+        return code == null ? null : DeviceChangeType.fromCode(code);
+    }
+}
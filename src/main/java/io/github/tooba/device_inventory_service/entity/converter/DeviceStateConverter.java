@@ -0,0 +1,19 @@
+package io.github.tooba.device_inventory_service.entity.converter;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter
+public class DeviceStateConverter implements AttributeConverter<DeviceState, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(DeviceState state) {
+        return state == null ? null : state.code();
+    }
+
+    @Override
+    public DeviceState convertToEntityAttribute(Short code) {
+        return code == null ? null : DeviceState.fromCode(code);
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.tooba.device_inventory_service.entity.converter;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.type.descriptor.converter.spi.BasicValueConverter;
+import org.hibernate.type.descriptor.java.JavaType;
+import org.hibernate.type.descriptor.jdbc.SmallIntJdbcType;
+
+/**
+ * {@code smallint} column holding the code of an enum through one of the
+ * converters here. The generated check constraint is the range of the codes
+ * rather than Hibernate's default list of them: H2 binds IN-list checks to
+ * the session that created the table, and rejects every row once that
+ * session is closed.
+ */
+public class SmallIntCodeJdbcType extends SmallIntJdbcType {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public String getCheckCondition(
+            String columnName,
+            JavaType<?> javaType,
+            BasicValueConverter<?, ?> converter,
+            Dialect dialect
+    ) {
+
+        Object[] constants = javaType.getJavaTypeClass().getEnumConstants();
+        if (constants == null || converter == null) {
+            return null;
+        }
+
+        var codes = (BasicValueConverter<Object, Number>) converter;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (Object constant : constants) {
+            long code = codes.toRelationalValue(constant).longValue();
+            min = Math.min(min, code);
+            max = Math.max(max, code);
+        }
+        return dialect.getCheckCondition(columnName, min, max);
+    }
+}
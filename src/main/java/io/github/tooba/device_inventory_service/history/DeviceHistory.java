@@ -0,0 +1,127 @@
+package io.github.tooba.device_inventory_service.history;
+
+import io.github.tooba.device_inventory_service.entity.DeviceHistoryEntry;
+import io.github.tooba.device_inventory_service.repository.BrandRepository;
+import io.github.tooba.device_inventory_service.repository.DeviceHistoryRepository;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangedEvent;
+import io.github.tooba.device_inventory_service.service.result.DeviceHistoryResult;
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Records every {@link DeviceChangedEvent} in {@code device_history} and
+ * answers history and point-in-time queries from it.
+ * <p>
+ * Entries are persisted just before the writing transaction commits, so a
+ * change and its history entry are durable together or not at all.
+ * Hibernate flushes all entries of a transaction, including a whole group
+ * commit batch, as one JDBC batch.
+ * <p>
+ * When history is first enabled, every existing device is recorded as
+ * created at that moment, so point-in-time queries cover devices that never
+ * change afterwards. Nothing is known about earlier instants, and queries
+ * before the first entry are rejected.
+ */
+public class DeviceHistory {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceHistory.class);
+
+    private final DeviceHistoryProperties properties;
+    private final DeviceHistoryRepository repo;
+    private final BrandRepository brands;
+    private final TransactionOperations transactions;
+
+    // Entries are never removed, so once known the start stays put.
+    private volatile Instant start;
+
+    public DeviceHistory(
+            DeviceHistoryProperties properties,
+            DeviceHistoryRepository repo,
+            BrandRepository brands,
+            TransactionOperations transactions
+    ) {
+        this.properties = properties;
+        this.repo = repo;
+        this.brands = brands;
+        this.transactions = transactions;
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+
+        if (!properties.enabled()) {
+            return;
+        }
+
+        // Microsecond precision, as stored.
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        DeviceResult device = event.device();
+        repo.save(DeviceHistoryEntry.of(event.type(), device, brands.resolve(device.brand()), now));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+
+        if (!properties.enabled()) {
+            return;
+        }
+
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        Integer seeded = transactions.execute(status -> repo.seed(now));
+        if (seeded != null && seeded > 0) {
+            log.info("Seeded device history with {} existing devices", seeded);
+        }
+    }
+
+    public Slice<DeviceHistoryResult> findByDevice(UUID id, Instant from, Instant to, Pageable pageable) {
+        requireEnabled();
+        return repo.findByDevice(id, from, to, pageable).map(DeviceHistoryResult::from);
+    }
+
+    public Slice<DeviceResult> findAsOf(
+            Instant asOf,
+            DeviceFilter filter,
+            Collection<Integer> brandKeys,
+            Pageable pageable
+    ) {
+        requireEnabled();
+        Instant first = start();
+        if (first != null && asOf.isBefore(first)) {
+            throw new IllegalStateException("Device history starts at " + first);
+        }
+        return repo.findAsOf(asOf, filter, brandKeys, pageable).map(DeviceHistoryEntry::toDeviceResult);
+    }
+
+    private Instant start() {
+        Instant known = start;
+        if (known == null) {
+            known = repo.findStart();
+            start = known;
+        }
+        return known;
+    }
+
+    private void requireEnabled() {
+        if (!properties.enabled()) {
+            throw new IllegalStateException("Device history is not enabled");
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.tooba.device_inventory_service.history;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Append-only history of device changes in {@code device_history}.
+ * <p>
+ * Database storage only. On PostgreSQL the table should be converted with
+ * {@code db/history/partition-device-history.sql} before history is
+ * enabled; partition maintenance then keeps its monthly partitions ahead
+ * of the clock.
+ */
+@ConfigurationProperties("device.history")
+public record DeviceHistoryProperties(
+        @DefaultValue("false") boolean enabled
+) {}
@@ -0,0 +1,10 @@
+package io.github.tooba.device_inventory_service.index;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One page of index matches: the exact number of matching devices, and the
+ * ids on the requested page in index order.
+ */
+public record BitmapIndexPage(long total, List<UUID> ids) {}
@@ -0,0 +1,417 @@
+package io.github.tooba.device_inventory_service.index;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.Brand;
+import io.github.tooba.device_inventory_service.partitioning.DevicePartitionsArchivedEvent;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangedEvent;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmaps per {@link DeviceState} and per canonical brand, over
+ * dense device ordinals.
+ * <p>
+ * A brand/state filter becomes a bitmap intersection. That gives the exact
+ * match count and the ids of one page without touching the database; the
+ * caller only hydrates those ids.
+ * <p>
+ * The index is fed from committed {@link DeviceChangedEvent}s. Events of
+ * two transactions can arrive in either order, so an event only names the
+ * device: its current brand and state are read back from the table, one
+ * device at a time, and the last read wins. A rebuild reads the table into
+ * a fresh snapshot while the rows read in the meantime are queued, then
+ * replays the queue and swaps the snapshot in. Deleted ordinals are not
+ * reused until the next rebuild.
+ * <p>
+ * Only events committed on this node reach the index, so it is meant for
+ * single-node deployments. Archived partitions leave the table without
+ * events; the index is rebuilt after each archive run.
+ */
+public class DeviceBitmapIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceBitmapIndex.class);
+
+    private static final String SCAN = """
+            SELECT d.id, d.state, b.canonical
+            FROM devices d
+            JOIN brands b ON b.id = d.brand_id
+            """;
+
+    private static final String CURRENT = SCAN + "WHERE d.id = ?";
+
+    private static final int STRIPES = 64;
+
+    private final DeviceBitmapIndexProperties properties;
+    private final JdbcTemplate jdbc;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // Reading a device back and applying it happen under its stripe, so a
+    // later read of the same device is never overtaken by an earlier one.
+    private final Object[] stripes = new Object[STRIPES];
+
+    // Guarded by lock. Non-null while a rebuild is collecting rows.
+    private List<Current> pending;
+    private Snapshot snapshot;
+
+    private volatile Duration lastRebuildDuration;
+    private volatile Instant lastRebuildAt;
+
+    public DeviceBitmapIndex(DeviceBitmapIndexProperties properties, JdbcTemplate jdbc) {
+        this.properties = properties;
+        this.jdbc = jdbc;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return snapshot != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Matches for the given filter, skipping {@code offset} matches and
+     * returning at most {@code limit} ids. Empty while the index is disabled
+     * or not yet built.
+     */
+    public Optional<BitmapIndexPage> find(String brand, DeviceState state, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            if (snapshot == null) {
+                return Optional.empty();
+            }
+            return Optional.of(snapshot.find(brand, state, offset, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        if (!isEnabled() || !isTracking()) {
+            return;
+        }
+
+        UUID id = event.device().id();
+        synchronized (stripes[Math.floorMod(id.hashCode(), STRIPES)]) {
+            List<Current> rows = jdbc.query(CURRENT, DeviceBitmapIndex::current, id);
+            Current current = rows.isEmpty() ? Current.deleted(id) : rows.getFirst();
+
+            lock.writeLock().lock();
+            try {
+                if (pending != null) {
+                    pending.add(current);
+                }
+                if (snapshot != null) {
+                    snapshot.apply(current);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Before the first rebuild starts, the scan will see whatever committed.
+    private boolean isTracking() {
+        lock.readLock().lock();
+        try {
+            return snapshot != null || pending != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (isEnabled()) {
+            Thread.ofVirtual().name("device-bitmap-index-rebuild").start(this::rebuild);
+        }
+    }
+
+    @EventListener(DevicePartitionsArchivedEvent.class)
+    public void onPartitionsArchived() {
+        if (isEnabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds the index from the database. Returns false if a rebuild is
+     * already running.
+     */
+    public boolean rebuild() {
+
+        if (!isEnabled() || !rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            lock.writeLock().lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            long started = System.nanoTime();
+            Snapshot fresh = new Snapshot();
+
+            jdbc.query(connection -> {
+                var statement = connection.prepareStatement(SCAN);
+                statement.setFetchSize(properties.rebuildFetchSize());
+                return statement;
+            }, rs -> {
+                fresh.apply(current(rs, 0));
+            });
+
+            lock.writeLock().lock();
+            try {
+                pending.forEach(fresh::apply);
+                pending = null;
+                fresh.optimize();
+                snapshot = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            lastRebuildDuration = Duration.ofNanos(System.nanoTime() - started);
+            lastRebuildAt = Instant.now();
+            log.info("Device bitmap index rebuilt: {} devices in {} ms",
+                    fresh.size(), lastRebuildDuration.toMillis());
+            return true;
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.warn("Device bitmap index rebuild failed", ex);
+            return false;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    public Stats stats() {
+        lock.readLock().lock();
+        try {
+            long devices = snapshot == null ? 0 : snapshot.size();
+            long memory = snapshot == null ? 0 : snapshot.estimatedMemoryBytes();
+            return new Stats(
+                    isEnabled(),
+                    snapshot != null,
+                    rebuilding.get(),
+                    devices,
+                    snapshot == null ? 0 : snapshot.brandCount(),
+                    memory,
+                    devices == 0 ? 0 : memory * 1_000_000 / devices,
+                    lastRebuildDuration == null ? null : lastRebuildDuration.toMillis(),
+                    lastRebuildAt
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public record Stats(
+            boolean enabled,
+            boolean ready,
+            boolean rebuilding,
+            long devices,
+            int brands,
+            long memoryBytes,
+            long memoryBytesPerMillionDevices,
+            Long lastRebuildMillis,
+            Instant lastRebuildAt
+    ) {}
+
+    private static Current current(ResultSet rs, int rowNum) throws SQLException {
+        return new Current(rs.getObject(1, UUID.class), DeviceState.fromCode(rs.getShort(2)), rs.getString(3));
+    }
+
+    /**
+     * A device as last read from the table; {@code state} is null once it
+     * is gone.
+     */
+    private record Current(UUID id, DeviceState state, String canonicalBrand) {
+
+        static Current deleted(UUID id) {
+            return new Current(id, null, null);
+        }
+    }
+
+    /**
+     * Not thread-safe; every access happens under the index lock.
+     */
+    private static final class Snapshot {
+
+        // Rough per-device cost of the id <-> ordinal mapping: the UUID, the
+        // boxed ordinal and the hash map node, plus the ordinal array slots.
+        private static final long MAPPING_BYTES_PER_DEVICE = 32 + 16 + 48 + 4 + 1 + 4;
+
+        private final RoaringBitmap live = new RoaringBitmap();
+        private final Map<DeviceState, RoaringBitmap> byState = new EnumMap<>(DeviceState.class);
+        private final Map<String, RoaringBitmap> byBrand = new HashMap<>();
+        private final Map<UUID, Integer> ordinals = new HashMap<>();
+
+        private UUID[] ids = new UUID[1024];
+        private DeviceState[] states = new DeviceState[1024];
+        private String[] brands = new String[1024];
+        private int nextOrdinal;
+
+        Snapshot() {
+            for (DeviceState state : DeviceState.values()) {
+                byState.put(state, new RoaringBitmap());
+            }
+        }
+
+        void apply(Current current) {
+            if (current.state() == null) {
+                remove(current.id());
+            } else {
+                put(current.id(), current.state(), current.canonicalBrand());
+            }
+        }
+
+        void put(UUID id, DeviceState state, String canonicalBrand) {
+
+            Integer existing = ordinals.get(id);
+            int ordinal;
+
+            if (existing == null) {
+                ordinal = nextOrdinal++;
+                ensureCapacity(ordinal);
+                ordinals.put(id, ordinal);
+                ids[ordinal] = id;
+                live.add(ordinal);
+            } else {
+                ordinal = existing;
+                byState.get(states[ordinal]).remove(ordinal);
+                brandBitmap(brands[ordinal]).remove(ordinal);
+            }
+
+            states[ordinal] = state;
+            brands[ordinal] = canonicalBrand;
+            byState.get(state).add(ordinal);
+            brandBitmap(canonicalBrand).add(ordinal);
+        }
+
+        void remove(UUID id) {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal == null) {
+                return;
+            }
+            live.remove(ordinal);
+            byState.get(states[ordinal]).remove(ordinal);
+            brandBitmap(brands[ordinal]).remove(ordinal);
+            ids[ordinal] = null;
+            states[ordinal] = null;
+            brands[ordinal] = null;
+        }
+
+        BitmapIndexPage find(String brand, DeviceState state, long offset, int limit) {
+
+            RoaringBitmap matches = live;
+            if (brand != null) {
+                RoaringBitmap brandMatches = byBrand.get(Brand.canonical(brand));
+                if (brandMatches == null) {
+                    return new BitmapIndexPage(0, List.of());
+                }
+                matches = brandMatches;
+            }
+            if (state != null) {
+                matches = RoaringBitmap.and(matches, byState.get(state));
+            }
+
+            long total = matches.getLongCardinality();
+            if (offset >= total || limit <= 0) {
+                return new BitmapIndexPage(total, List.of());
+            }
+
+            List<UUID> page = new ArrayList<>((int) Math.min(limit, total - offset));
+            PeekableIntIterator iterator = matches.getIntIterator();
+            if (offset > 0) {
+                // select() finds the offset-th match without walking the ones before it.
+                iterator.advanceIfNeeded(matches.select((int) offset));
+            }
+            while (iterator.hasNext() && page.size() < limit) {
+                page.add(ids[iterator.next()]);
+            }
+
+            return new BitmapIndexPage(total, page);
+        }
+
+        void optimize() {
+            live.runOptimize();
+            byState.values().forEach(RoaringBitmap::runOptimize);
+            byBrand.values().forEach(RoaringBitmap::runOptimize);
+        }
+
+        int size() {
+            return ordinals.size();
+        }
+
+        int brandCount() {
+            return (int) byBrand.values().stream().filter(bitmap -> !bitmap.isEmpty()).count();
+        }
+
+        long estimatedMemoryBytes() {
+            long bitmaps = live.getLongSizeInBytes();
+            for (RoaringBitmap bitmap : byState.values()) {
+                bitmaps += bitmap.getLongSizeInBytes();
+            }
+            for (RoaringBitmap bitmap : byBrand.values()) {
+                bitmaps += bitmap.getLongSizeInBytes();
+            }
+            return bitmaps + (long) ids.length * (4 + 4 + 4) + (long) ordinals.size() * MAPPING_BYTES_PER_DEVICE;
+        }
+
+        private RoaringBitmap brandBitmap(String canonicalBrand) {
+            return byBrand.computeIfAbsent(canonicalBrand, key -> new RoaringBitmap());
+        }
+
+        private void ensureCapacity(int ordinal) {
+            if (ordinal < ids.length) {
+                return;
+            }
+            int capacity = Math.max(ordinal + 1, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            states = Arrays.copyOf(states, capacity);
+            brands = Arrays.copyOf(brands, capacity);
+        }
+    }
+}
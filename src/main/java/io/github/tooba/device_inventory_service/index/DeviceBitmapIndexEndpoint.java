@@ -0,0 +1,32 @@
+package io.github.tooba.device_inventory_service.index;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.Map;
+
+/**
+ * Exposes the bitmap index footprint and rebuild timing, and lets operators
+ * trigger a rebuild.
+ */
+@Endpoint(id = "bitmapindex")
+public class DeviceBitmapIndexEndpoint {
+
+    private final DeviceBitmapIndex index;
+
+    public DeviceBitmapIndexEndpoint(DeviceBitmapIndex index) {
+        this.index = index;
+    }
+
+    @ReadOperation
+    public DeviceBitmapIndex.Stats stats() {
+        return index.stats();
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        boolean rebuilt = index.rebuild();
+        return Map.of("rebuilt", rebuilt, "stats", index.stats());
+    }
+}
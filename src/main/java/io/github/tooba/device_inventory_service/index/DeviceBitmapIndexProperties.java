@@ -0,0 +1,17 @@
+package io.github.tooba.device_inventory_service.index;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * In-memory bitmap index over device brand and state.
+ * <p>
+ * The index is rebuilt from the database at startup and kept current from
+ * committed writes. Until the first rebuild completes, listings go to the
+ * database as usual.
+ */
+@ConfigurationProperties("device.bitmap-index")
+public record DeviceBitmapIndexProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10000") int rebuildFetchSize
+) {}
@@ -0,0 +1,89 @@
+package io.github.tooba.device_inventory_service.instrumentation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connections currently checked out of the pool, with who took them and when.
+ * A holder that keeps growing points at a long transaction; the lease
+ * sweeper's advisory-lock connection is the one expected long holder.
+ */
+public class ConnectionHolders {
+
+    private final Clock clock;
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<Long, Holder> holders = new ConcurrentHashMap<>();
+
+    public ConnectionHolders(Clock clock) {
+        this.clock = clock;
+    }
+
+    long register() {
+        long id = ids.incrementAndGet();
+        holders.put(id, new Holder(
+                Thread.currentThread().getName(),
+                JdbcTimings.endpoint(),
+                JdbcTimings.method(),
+                clock.instant(),
+                System.nanoTime()
+        ));
+        return id;
+    }
+
+    void release(long id) {
+        holders.remove(id);
+    }
+
+    /**
+     * Current holders, longest first.
+     */
+    public List<ConnectionHolder> snapshot() {
+        long now = System.nanoTime();
+        return holders.values().stream()
+                .map(holder -> holder.view(now))
+                .sorted(Comparator.comparingLong(ConnectionHolder::heldMillis).reversed())
+                .toList();
+    }
+
+    public int count() {
+        return holders.size();
+    }
+
+    public double longestHeldSeconds() {
+        long now = System.nanoTime();
+        return holders.values().stream()
+                .mapToLong(holder -> now - holder.acquiredNanos())
+                .max()
+                .orElse(0) / 1e9;
+    }
+
+    public record ConnectionHolder(
+            String thread,
+            String endpoint,
+            String method,
+            Instant acquiredAt,
+            long heldMillis
+    ) {}
+
+    private record Holder(
+            String thread,
+            String endpoint,
+            String method,
+            Instant acquiredAt,
+            long acquiredNanos
+    ) {
+
+        ConnectionHolder view(long now) {
+            return new ConnectionHolder(
+                    thread, endpoint, method, acquiredAt,
+                    TimeUnit.NANOSECONDS.toMillis(now - acquiredNanos)
+            );
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package io.github.tooba.device_inventory_service.instrumentation;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * Lists the connections currently checked out of the pool, longest held
+ * first, to spot long transactions.
+ */
+@Endpoint(id = "connections")
+public class ConnectionHoldersEndpoint {
+
+    private final ConnectionHolders holders;
+
+    public ConnectionHoldersEndpoint(ConnectionHolders holders) {
+        this.holders = holders;
+    }
+
+    @ReadOperation
+    public Snapshot holders() {
+        List<ConnectionHolders.ConnectionHolder> current = holders.snapshot();
+        return new Snapshot(current.size(), current);
+    }
+
+    public record Snapshot(int held, List<ConnectionHolders.ConnectionHolder> holders) {}
+}
@@ -0,0 +1,10 @@
+package io.github.tooba.device_inventory_service.instrumentation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("device.db-instrumentation")
+public record DbInstrumentationProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("false") boolean serverTiming
+) {}
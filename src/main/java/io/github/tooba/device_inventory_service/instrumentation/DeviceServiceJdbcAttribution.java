@@ -0,0 +1,26 @@
+package io.github.tooba.device_inventory_service.instrumentation;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Tags JDBC work with the {@code DeviceService} method that caused it.
+ * Runs outside the transaction, so the flush at commit is attributed too.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DeviceServiceJdbcAttribution {
+
+    @Around("execution(public * io.github.tooba.device_inventory_service.service.DeviceService.*(..))")
+    public Object attribute(ProceedingJoinPoint joinPoint) throws Throwable {
+        String previous = JdbcTimings.enterMethod("DeviceService." + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            JdbcTimings.exitMethod(previous);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package io.github.tooba.device_inventory_service.instrumentation;
+
+import io.github.tooba.device_inventory_service.tracing.Span;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Wraps the pooled {@link DataSource} so every connection reports how long it
+ * took to obtain, and every statement how long it took to execute and how
+ * long its result set stayed open.
+ * <p>
+ * Result mapping is measured from the statement returning until the result
+ * set is closed: row fetching plus entity hydration on the calling thread.
+ * A traced statement's span covers the same interval and carries its SQL and
+ * row count.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private static final Set<String> STATEMENT_FACTORIES = Set.of(
+            "createStatement", "prepareStatement", "prepareCall"
+    );
+
+    private static final Set<String> EXECUTIONS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate",
+            "executeBatch", "executeLargeBatch"
+    );
+
+    private static final Set<String> RESULT_SETS = Set.of(
+            "executeQuery", "getResultSet", "getGeneratedKeys"
+    );
+
+    private final JdbcInstrumentation instrumentation;
+
+    public InstrumentedDataSource(DataSource target, JdbcInstrumentation instrumentation) {
+        super(target);
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection();
+        return instrument(connection, start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection(username, password);
+        return instrument(connection, start);
+    }
+
+    private Connection instrument(Connection connection, long start) {
+        instrumentation.acquired(System.nanoTime() - start);
+        long holder = instrumentation.holders().register();
+        return proxy(Connection.class, new ConnectionHandler(connection, holder));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(
+                InstrumentedDataSource.class.getClassLoader(), new Class<?>[]{type}, handler
+        );
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Handles identity on the proxy itself so the pool and transaction
+     * managers can compare and hash the connections they are handed.
+     */
+    private abstract static class Handler implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> handle(proxy, method, args);
+            };
+        }
+
+        abstract Object handle(Object proxy, Method method, Object[] args) throws Throwable;
+    }
+
+    private final class ConnectionHandler extends Handler {
+
+        private final Connection target;
+        private final long holder;
+        private boolean released;
+
+        ConnectionHandler(Connection target, long holder) {
+            this.target = target;
+            this.holder = holder;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+
+            if (method.getName().equals("close") && !released) {
+                released = true;
+                instrumentation.holders().release(holder);
+            }
+
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+
+            if (result instanceof Statement statement && STATEMENT_FACTORIES.contains(method.getName())) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                return proxy(method.getReturnType(), new StatementHandler(statement, (Connection) proxy, sql));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler extends Handler {
+
+        private final Statement target;
+        private final Connection connection;
+        private final String sql;
+        private ResultSetHandler open;
+
+        StatementHandler(Statement target, Connection connection, String sql) {
+            this.target = target;
+            this.connection = connection;
+            this.sql = sql;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+
+            String name = method.getName();
+            if (name.equals("getConnection")) {
+                return connection;
+            }
+            if (name.equals("close")) {
+                finishResultSet();
+            }
+
+            if (!EXECUTIONS.contains(name)) {
+                Object result = InstrumentedDataSource.invoke(target, method, args);
+                if (result instanceof ResultSet resultSet && RESULT_SETS.contains(name)) {
+                    return openResultSet(resultSet, proxy, Span.NOOP);
+                }
+                return result;
+            }
+
+            finishResultSet();
+            Span span = instrumentation.statementStarted(
+                    args != null && args.length > 0 && args[0] instanceof String text ? text : sql
+            );
+
+            Object result;
+            long start = System.nanoTime();
+            try {
+                result = InstrumentedDataSource.invoke(target, method, args);
+            } catch (Throwable ex) {
+                span.recordException(ex).end();
+                throw ex;
+            } finally {
+                instrumentation.queried(System.nanoTime() - start);
+            }
+
+            // A query's span stays open while its rows are read.
+            if (result instanceof ResultSet resultSet) {
+                return openResultSet(resultSet, proxy, span);
+            }
+            span.setAttribute("db.response.affected_rows", affectedRows(result));
+            if (result instanceof int[] || result instanceof long[]) {
+                span.setAttribute("db.operation.batch.size", Array.getLength(result));
+            }
+            span.end();
+            return result;
+        }
+
+        private Object openResultSet(ResultSet resultSet, Object proxy, Span span) {
+            finishResultSet();
+            open = new ResultSetHandler(resultSet, (Statement) proxy, span);
+            return proxy(ResultSet.class, open);
+        }
+
+        private static Long affectedRows(Object result) {
+            return switch (result) {
+                case Integer count -> (long) count;
+                case Long count -> count;
+                case int[] counts -> Arrays.stream(counts).asLongStream().filter(count -> count > 0).sum();
+                case long[] counts -> Arrays.stream(counts).filter(count -> count > 0).sum();
+                case null, default -> null;
+            };
+        }
+
+        // Closing or re-executing a statement closes its result set without
+        // going through the proxy.
+        private void finishResultSet() {
+            if (open != null) {
+                open.finish();
+                open = null;
+            }
+        }
+    }
+
+    private final class ResultSetHandler extends Handler {
+
+        private final ResultSet target;
+        private final Statement statement;
+        private final Span span;
+        private final long start = System.nanoTime();
+        private long rows;
+        private boolean finished;
+
+        ResultSetHandler(ResultSet target, Statement statement, Span span) {
+            this.target = target;
+            this.statement = statement;
+            this.span = span;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("getStatement")) {
+                return statement;
+            }
+            if (name.equals("close")) {
+                finish();
+            }
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            if (name.equals("next") && Boolean.TRUE.equals(result)) {
+                rows++;
+            }
+            return result;
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                instrumentation.mapped(System.nanoTime() - start);
+                span.setAttribute("db.response.returned_rows", rows).end();
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.tooba.device_inventory_service.instrumentation;
+
+import io.github.tooba.device_inventory_service.tracing.DeviceTracer;
+import io.github.tooba.device_inventory_service.tracing.Span;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records where connection time goes — waiting for the pool, executing
+ * statements, reading result sets — tagged with the endpoint and
+ * {@code DeviceService} method that spent it. With tracing enabled, each
+ * statement also becomes a span.
+ */
+public class JdbcInstrumentation {
+
+    static final String ACQUIRE = "db.connection.acquire";
+    static final String QUERY = "db.query";
+    static final String MAPPING = "db.result.mapping";
+
+    private final MeterRegistry meterRegistry;
+    private final ConnectionHolders holders;
+    private final DeviceTracer tracer;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    // tracer is null while tracing is disabled.
+    public JdbcInstrumentation(MeterRegistry meterRegistry, ConnectionHolders holders, DeviceTracer tracer) {
+        this.meterRegistry = meterRegistry;
+        this.holders = holders;
+        this.tracer = tracer;
+
+        Gauge.builder("db.connections.held", holders, ConnectionHolders::count)
+                .description("Connections currently checked out of the pool")
+                .register(meterRegistry);
+        Gauge.builder("db.connections.held.longest", holders, ConnectionHolders::longestHeldSeconds)
+                .description("How long the longest current holder has had its connection")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    ConnectionHolders holders() {
+        return holders;
+    }
+
+    Span statementStarted(String sql) {
+        return tracer == null ? Span.NOOP : tracer.startStatement(sql);
+    }
+
+    void acquired(long nanos) {
+        timer(ACQUIRE).record(nanos, TimeUnit.NANOSECONDS);
+        JdbcTimings.Request request = JdbcTimings.current();
+        if (request != null) {
+            request.acquired(nanos);
+        }
+    }
+
+    void queried(long nanos) {
+        timer(QUERY).record(nanos, TimeUnit.NANOSECONDS);
+        JdbcTimings.Request request = JdbcTimings.current();
+        if (request != null) {
+            request.queried(nanos);
+        }
+    }
+
+    void mapped(long nanos) {
+        timer(MAPPING).record(nanos, TimeUnit.NANOSECONDS);
+        JdbcTimings.Request request = JdbcTimings.current();
+        if (request != null) {
+            request.mapped(nanos);
+        }
+    }
+
+    private Timer timer(String name) {
+        return timers.computeIfAbsent(
+                new TimerKey(name, JdbcTimings.endpoint(), JdbcTimings.method()),
+                key -> Timer.builder(key.name())
+                        .tag("endpoint", key.endpoint())
+                        .tag("method", key.method())
+                        .register(meterRegistry)
+        );
+    }
+
+    private record TimerKey(String name, String endpoint, String method) {}
+}
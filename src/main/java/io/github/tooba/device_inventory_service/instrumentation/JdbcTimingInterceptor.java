@@ -0,0 +1,56 @@
+package io.github.tooba.device_inventory_service.instrumentation;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Attributes JDBC work on the request thread to the matched endpoint pattern
+ * and, when enabled, reports it in a {@code Server-Timing} header.
+ * <p>
+ * Responses with a body are committed before {@link #postHandle} runs, so
+ * {@link ServerTimingAdvice} writes the header for those; this covers
+ * bodiless ones such as {@code 204 No Content}.
+ */
+public class JdbcTimingInterceptor implements HandlerInterceptor {
+
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private final boolean serverTiming;
+
+    public JdbcTimingInterceptor(boolean serverTiming) {
+        this.serverTiming = serverTiming;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        JdbcTimings.begin(request.getMethod() + " " + (pattern == null ? request.getRequestURI() : pattern));
+        return true;
+    }
+
+    @Override
+    public void postHandle(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Object handler,
+            ModelAndView modelAndView
+    ) {
+        JdbcTimings.Request timings = JdbcTimings.current();
+        if (serverTiming && timings != null && !timings.isEmpty() && !response.isCommitted()) {
+            response.setHeader(SERVER_TIMING, timings.serverTiming());
+        }
+    }
+
+    @Override
+    public void afterCompletion(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Object handler,
+            Exception ex
+    ) {
+        JdbcTimings.end();
+    }
+}
@@ -0,0 +1,115 @@
+package io.github.tooba.device_inventory_service.instrumentation;
+
+import java.util.Locale;
+
+/**
+ * Per-thread attribution for JDBC work: the endpoint of the request being
+ * served and the {@code DeviceService} method currently executing, plus the
+ * time the request has spent on connections so far.
+ * <p>
+ * Work outside a request (lease sweeper, rollup flusher, group committer) is
+ * attributed to {@value #NONE}.
+ */
+public final class JdbcTimings {
+
+    public static final String NONE = "none";
+
+    private static final ThreadLocal<Request> REQUEST = new ThreadLocal<>();
+    private static final ThreadLocal<String> METHOD = new ThreadLocal<>();
+
+    private JdbcTimings() {
+    }
+
+    static void begin(String endpoint) {
+        REQUEST.set(new Request(endpoint));
+    }
+
+    static void end() {
+        REQUEST.remove();
+    }
+
+    static Request current() {
+        return REQUEST.get();
+    }
+
+    static String endpoint() {
+        Request request = REQUEST.get();
+        return request == null ? NONE : request.endpoint;
+    }
+
+    static String method() {
+        String method = METHOD.get();
+        return method == null ? NONE : method;
+    }
+
+    /**
+     * Attributes JDBC work on this thread to {@code method} and returns the
+     * previous attribution, to be handed back to {@link #exitMethod}.
+     */
+    static String enterMethod(String method) {
+        String previous = METHOD.get();
+        METHOD.set(method);
+        return previous;
+    }
+
+    static void exitMethod(String previous) {
+        if (previous == null) {
+            METHOD.remove();
+        } else {
+            METHOD.set(previous);
+        }
+    }
+
+    /**
+     * Connection time accumulated by one request. Only the request thread
+     * touches it.
+     */
+    static final class Request {
+
+        private final String endpoint;
+        private long acquireNanos;
+        private long queryNanos;
+        private long mappingNanos;
+        private int connections;
+        private int queries;
+
+        private Request(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        void acquired(long nanos) {
+            acquireNanos += nanos;
+            connections++;
+        }
+
+        void queried(long nanos) {
+            queryNanos += nanos;
+            queries++;
+        }
+
+        void mapped(long nanos) {
+            mappingNanos += nanos;
+        }
+
+        boolean isEmpty() {
+            return connections == 0;
+        }
+
+        /**
+         * Renders the accumulated time as a {@code Server-Timing} header value.
+         */
+        String serverTiming() {
+            return String.format(Locale.ROOT,
+                    "db-acquire;dur=%.3f;desc=\"%d connections\", "
+                            + "db-query;dur=%.3f;desc=\"%d statements\", "
+                            + "db-mapping;dur=%.3f",
+                    millis(acquireNanos), connections,
+                    millis(queryNanos), queries,
+                    millis(mappingNanos));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.tooba.device_inventory_service.instrumentation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Writes the {@code Server-Timing} header just before a response body is
+ * serialized, while headers can still be changed. Error bodies written by
+ * the exception handlers get it too.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(prefix = "device.db-instrumentation", name = "server-timing", havingValue = "true")
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+            Object body,
+            MethodParameter returnType,
+            MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request,
+            ServerHttpResponse response
+    ) {
+        JdbcTimings.Request timings = JdbcTimings.current();
+        if (timings != null && !timings.isEmpty()) {
+            response.getHeaders().set(JdbcTimingInterceptor.SERVER_TIMING, timings.serverTiming());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.tooba.device_inventory_service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One {@code DeviceService} call. Its duration spans the whole call,
+ * including the commit, so GC pauses, monitor waits and socket reads
+ * recorded on the same thread can be matched against it.
+ */
+@Name("io.github.tooba.device.Operation")
+@Label("Device Operation")
+@Category({"Device Inventory"})
+@Description("A DeviceService call")
+@StackTrace(false)
+class DeviceOperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Device Id Hash")
+    @Description("Hash of the device id the call is about, 0 when it is not about one device")
+    long deviceIdHash;
+
+    @Label("Rows")
+    @Description("Devices returned or changed, -1 when not known")
+    int rows;
+
+    @Label("Outcome")
+    @Description("success, or the simple name of the exception thrown")
+    String outcome;
+}
@@ -0,0 +1,89 @@
+package io.github.tooba.device_inventory_service.jfr;
+
+import io.github.tooba.device_inventory_service.service.command.PatchDeviceCommand;
+import io.github.tooba.device_inventory_service.service.command.UpdateDeviceCommand;
+import io.github.tooba.device_inventory_service.service.result.DeviceClaimResult;
+import io.github.tooba.device_inventory_service.service.result.DeviceLeaseResult;
+import io.github.tooba.device_inventory_service.service.result.DeviceLookupResult;
+import io.github.tooba.device_inventory_service.service.result.DeviceReleaseResult;
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Emits a {@link DeviceOperationEvent} for every {@code DeviceService} call
+ * while a recording has the event enabled. Runs outside the transaction, so
+ * the commit is part of the event.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DeviceOperationRecorder {
+
+    @Around("execution(public * io.github.tooba.device_inventory_service.service.DeviceService.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+
+        DeviceOperationEvent event = new DeviceOperationEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        event.begin();
+        event.operation = joinPoint.getSignature().getName();
+        event.deviceIdHash = deviceIdHash(joinPoint.getArgs());
+        try {
+            Object result = joinPoint.proceed();
+            event.rows = rows(result);
+            event.outcome = "success";
+            return result;
+        } catch (Throwable ex) {
+            event.rows = -1;
+            event.outcome = ex.getClass().getSimpleName();
+            throw ex;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private static long deviceIdHash(Object[] args) {
+        UUID id = args.length == 0 ? null : switch (args[0]) {
+            case UUID uuid -> uuid;
+            case UpdateDeviceCommand command -> command.id();
+            case PatchDeviceCommand command -> command.id();
+            case null, default -> null;
+        };
+        return id == null ? 0 : hash(id);
+    }
+
+    // Correlates the events of one device without putting its id in the
+    // recording (MurmurHash3 finalizer).
+    private static long hash(UUID id) {
+        long h = id.getMostSignificantBits() * 31 + id.getLeastSignificantBits();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int rows(Object result) {
+        return switch (result) {
+            case DeviceResult ignored -> 1;
+            case DeviceLeaseResult ignored -> 1;
+            case Slice<?> slice -> slice.getNumberOfElements();
+            case Collection<?> collection -> collection.size();
+            case DeviceLookupResult lookup -> lookup.devices().size();
+            case DeviceClaimResult claim -> claim.devices().size();
+            case DeviceReleaseResult release -> release.released().size();
+            case null -> -1;
+            default -> -1;
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.tooba.device_inventory_service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A request answered with an error response by the exception handler.
+ */
+@Name("io.github.tooba.device.Rejection")
+@Label("Device Request Rejection")
+@Category({"Device Inventory"})
+@Description("A request answered with an error response")
+@StackTrace(false)
+public class DeviceRejectionEvent extends Event {
+
+    @Label("Error Code")
+    String code;
+
+    @Label("Status")
+    int status;
+
+    @Label("Path")
+    String path;
+
+    @Label("Exception")
+    String exception;
+
+    /**
+     * Records a rejection when a running recording has the event enabled;
+     * otherwise costs a single check.
+     */
+    public static void commit(String code, int status, String path, Throwable ex) {
+        DeviceRejectionEvent event = new DeviceRejectionEvent();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.code = code;
+        event.status = status;
+        event.path = path;
+        event.exception = ex.getClass().getName();
+        event.commit();
+    }
+}
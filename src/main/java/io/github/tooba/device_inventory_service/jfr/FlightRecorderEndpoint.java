@@ -0,0 +1,67 @@
+package io.github.tooba.device_inventory_service.jfr;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Starts, stops, dumps and discards Flight Recorder recordings.
+ * <ul>
+ *     <li>{@code GET /actuator/flightrecorder} lists them.</li>
+ *     <li>{@code POST /actuator/flightrecorder} with {@code name} and an
+ *     optional {@code duration} starts one.</li>
+ *     <li>{@code POST /actuator/flightrecorder/{name}} stops one.</li>
+ *     <li>{@code GET /actuator/flightrecorder/{name}} downloads its data.</li>
+ *     <li>{@code DELETE /actuator/flightrecorder/{name}} discards it.</li>
+ * </ul>
+ */
+@Endpoint(id = "flightrecorder")
+public class FlightRecorderEndpoint {
+
+    private final FlightRecordings recordings;
+
+    public FlightRecorderEndpoint(FlightRecordings recordings) {
+        this.recordings = recordings;
+    }
+
+    @ReadOperation
+    public List<FlightRecordings.RecordingInfo> recordings() {
+        return recordings.list();
+    }
+
+    @WriteOperation
+    public FlightRecordings.RecordingInfo start(String name, @Nullable Duration duration) {
+        try {
+            return recordings.start(name, duration);
+        } catch (IllegalArgumentException | IllegalStateException ex) {
+            throw new InvalidEndpointRequestException(ex.getMessage(), ex.getMessage());
+        }
+    }
+
+    // A null result is answered with 404.
+    @WriteOperation
+    public FlightRecordings.RecordingInfo stop(@Selector String name) {
+        return recordings.stop(name).orElse(null);
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public Resource dump(@Selector String name) {
+        return recordings.dump(name)
+                .<Resource>map(FileSystemResource::new)
+                .orElse(null);
+    }
+
+    @DeleteOperation
+    public boolean close(@Selector String name) {
+        return recordings.close(name);
+    }
+}
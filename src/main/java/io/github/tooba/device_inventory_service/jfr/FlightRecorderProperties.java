@@ -0,0 +1,18 @@
+package io.github.tooba.device_inventory_service.jfr;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties("device.flight-recorder")
+public record FlightRecorderProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("default") String settings,
+        @DefaultValue("1h") Duration maxAge,
+        @DefaultValue("250MB") DataSize maxSize,
+        @DefaultValue("4") int maxRecordings,
+        @DefaultValue("${java.io.tmpdir}/device-jfr") Path dumpDirectory
+) {}
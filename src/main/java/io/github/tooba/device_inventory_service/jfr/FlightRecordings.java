@@ -0,0 +1,147 @@
+package io.github.tooba.device_inventory_service.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Flight Recorder recordings started on demand, by name.
+ * <p>
+ * Recordings use the JDK's {@code default} settings unless configured
+ * otherwise: the profile meant to stay on in production, at around one
+ * percent overhead. The device events are enabled by every settings file.
+ * Each recording keeps at most {@code max-age} and {@code max-size} of data
+ * on disk.
+ */
+public class FlightRecordings {
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final FlightRecorderProperties properties;
+    private final Map<String, Recording> recordings = new ConcurrentHashMap<>();
+
+    public FlightRecordings(FlightRecorderProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Starts a recording. With a duration it stops by itself and keeps its
+     * data for dumping; without one it runs until stopped.
+     */
+    public synchronized RecordingInfo start(String name, Duration duration) {
+
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Recording names may only contain letters, digits, '.', '_' and '-'");
+        }
+        Recording existing = recordings.get(name);
+        if (existing != null && existing.getState() != RecordingState.CLOSED) {
+            throw new IllegalStateException("Recording " + name + " already exists");
+        }
+        recordings.values().removeIf(recording -> recording.getState() == RecordingState.CLOSED);
+        if (recordings.size() >= properties.maxRecordings()) {
+            throw new IllegalStateException("At most " + properties.maxRecordings() + " recordings can exist");
+        }
+
+        Recording recording = new Recording(configuration().getSettings());
+        recording.setName(name);
+        recording.setToDisk(true);
+        recording.setMaxAge(properties.maxAge());
+        recording.setMaxSize(properties.maxSize().toBytes());
+        if (duration != null) {
+            recording.setDuration(duration);
+        }
+        recording.start();
+
+        recordings.put(name, recording);
+        return RecordingInfo.of(recording);
+    }
+
+    public Optional<RecordingInfo> stop(String name) {
+        return find(name).map(recording -> {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            return RecordingInfo.of(recording);
+        });
+    }
+
+    /**
+     * Writes what a recording holds so far to {@code <dump-directory>/<name>.jfr},
+     * replacing the previous dump of that recording. A running recording
+     * keeps running.
+     */
+    public Optional<Path> dump(String name) {
+        return find(name).map(recording -> {
+            try {
+                Files.createDirectories(properties.dumpDirectory());
+                Path file = properties.dumpDirectory().resolve(name + ".jfr");
+                recording.dump(file);
+                return file;
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to dump recording " + name, ex);
+            }
+        });
+    }
+
+    public boolean close(String name) {
+        Recording recording = recordings.remove(name);
+        if (recording == null) {
+            return false;
+        }
+        recording.close();
+        return true;
+    }
+
+    public List<RecordingInfo> list() {
+        return recordings.values().stream()
+                .map(RecordingInfo::of)
+                .toList();
+    }
+
+    private Optional<Recording> find(String name) {
+        return Optional.ofNullable(recordings.get(name))
+                .filter(recording -> recording.getState() != RecordingState.CLOSED);
+    }
+
+    private Configuration configuration() {
+        try {
+            return Configuration.getConfiguration(properties.settings());
+        } catch (IOException | ParseException ex) {
+            throw new IllegalStateException("Unknown Flight Recorder settings " + properties.settings(), ex);
+        }
+    }
+
+    public record RecordingInfo(
+            long id,
+            String name,
+            String state,
+            Instant startTime,
+            Instant stopTime,
+            long sizeBytes
+    ) {
+
+        static RecordingInfo of(Recording recording) {
+            return new RecordingInfo(
+                    recording.getId(),
+                    recording.getName(),
+                    recording.getState().name(),
+                    recording.getStartTime(),
+                    recording.getStopTime(),
+                    recording.getSize()
+            );
+        }
+    }
+}
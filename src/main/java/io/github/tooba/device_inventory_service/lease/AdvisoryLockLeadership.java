@@ -0,0 +1,115 @@
+package io.github.tooba.device_inventory_service.lease;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Sweeping leadership through a session-level Postgres advisory lock.
+ * <p>
+ * The leader keeps one connection out of the pool for as long as it leads;
+ * the lock lives exactly as long as that session. If the node dies or the
+ * connection breaks, Postgres releases the lock and the next node to try
+ * takes over. On any other database every node leads.
+ */
+public class AdvisoryLockLeadership implements LeaseSweepLeadership {
+
+    private static final Logger log = LoggerFactory.getLogger(AdvisoryLockLeadership.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource dataSource;
+    private final long key;
+
+    private Connection connection;
+    private Boolean postgres;
+
+    public AdvisoryLockLeadership(DataSource dataSource, long key) {
+        this.dataSource = dataSource;
+        this.key = key;
+    }
+
+    @Override
+    public synchronized boolean acquire() {
+
+        try {
+            if (connection != null) {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    return true;
+                }
+                log.warn("Lost the lease sweeper lock connection");
+                closeConnection();
+            }
+
+            Connection candidate = dataSource.getConnection();
+            if (postgres == null) {
+                postgres = "PostgreSQL".equalsIgnoreCase(candidate.getMetaData().getDatabaseProductName());
+            }
+            if (!postgres) {
+                candidate.close();
+                return true;
+            }
+
+            if (tryLock(candidate)) {
+                log.info("This node now sweeps expired device leases");
+                connection = candidate;
+                return true;
+            }
+            candidate.close();
+            return false;
+
+        } catch (SQLException ex) {
+            log.warn("Could not acquire the lease sweeper lock", ex);
+            closeConnection();
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized void release() {
+
+        if (connection == null) {
+            return;
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            statement.setLong(1, key);
+            statement.execute();
+        } catch (SQLException ex) {
+            // Returned to the pool, the session would keep the lock: end it instead.
+            log.debug("Could not release the lease sweeper lock; aborting its session", ex);
+            try {
+                connection.abort(Runnable::run);
+            } catch (SQLException abortFailure) {
+                log.debug("Failed to abort the lease sweeper lock connection", abortFailure);
+            }
+        }
+        closeConnection();
+    }
+
+    private boolean tryLock(Connection candidate) throws SQLException {
+        try (PreparedStatement statement = candidate.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            statement.setLong(1, key);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    private void closeConnection() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ex) {
+            log.debug("Failed to close the lease sweeper lock connection", ex);
+        }
+        connection = null;
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.tooba.device_inventory_service.lease;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Leases for IN_USE devices.
+ * <p>
+ * A device that becomes IN_USE gets a lease of {@code defaultDuration}
+ * unless the caller asked for another one, capped at {@code maxDuration}.
+ * One node at a time sweeps expired leases: every {@code tick} it returns
+ * due devices to AVAILABLE, at most {@code batchSize} per transaction. Every
+ * {@code refillInterval} it reloads the leases due before the next refill
+ * from the database and sweeps anything overdue, so leases granted on
+ * other nodes are picked up too.
+ */
+@ConfigurationProperties("device.lease")
+public record DeviceLeaseProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("5m") Duration defaultDuration,
+        @DefaultValue("1h") Duration maxDuration,
+        @DefaultValue("1s") Duration tick,
+        @DefaultValue("30s") Duration refillInterval,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("20") int maxBatchesPerTick,
+        @DefaultValue("4242") long advisoryLockKey
+) {}
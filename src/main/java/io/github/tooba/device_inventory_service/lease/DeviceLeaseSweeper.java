@@ -0,0 +1,210 @@
+package io.github.tooba.device_inventory_service.lease;
+
+import io.github.tooba.device_inventory_service.repository.LeaseExpiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Returns devices with an expired lease to AVAILABLE.
+ * <p>
+ * Leases due before the next refill wait in a {@link TimingWheel}: the ones
+ * granted on this node as they commit, all others loaded from the indexed
+ * {@code lease_expires_at} column on every refill. Each tick expires what
+ * the wheel reports due, in batches of {@code batchSize}; each refill also
+ * sweeps anything overdue straight from the column, which covers leases the
+ * wheel never saw. Only the node holding the {@link LeaseSweepLeadership}
+ * does any of this.
+ */
+public class DeviceLeaseSweeper implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceLeaseSweeper.class);
+
+    private final DeviceLeaseProperties properties;
+    private final DeviceLeases leases;
+    private final LeaseSweepLeadership leadership;
+    private final Queue<LeaseExpiry> granted = new ConcurrentLinkedQueue<>();
+
+    private final Counter expired;
+    private final Timer lag;
+    private final Timer sweepTime;
+
+    private volatile ScheduledExecutorService executor;
+    private volatile boolean leader;
+    private volatile int tracked;
+
+    // Owned by the sweeper thread.
+    private TimingWheel<UUID> wheel;
+    private Instant nextRefill;
+
+    public DeviceLeaseSweeper(
+            DeviceLeaseProperties properties,
+            DeviceLeases leases,
+            LeaseSweepLeadership leadership,
+            MeterRegistry meterRegistry
+    ) {
+        this.properties = properties;
+        this.leases = leases;
+        this.leadership = leadership;
+
+        this.expired = Counter.builder("device.lease.expired")
+                .description("Device leases expired by the sweeper")
+                .register(meterRegistry);
+        this.lag = Timer.builder("device.lease.sweep.lag")
+                .description("Time between a lease running out and the sweeper releasing the device")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.sweepTime = Timer.builder("device.lease.sweep")
+                .description("Duration of sweeper ticks that expired leases")
+                .register(meterRegistry);
+        Gauge.builder("device.lease.tracked", this, sweeper -> sweeper.tracked)
+                .description("Leases waiting in the sweeper's timing wheel")
+                .register(meterRegistry);
+        Gauge.builder("device.lease.leader", this, sweeper -> sweeper.leader ? 1 : 0)
+                .description("1 while this node sweeps expired leases")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        leases.trackWith(this::track);
+        executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("device-lease-sweeper").daemon(true).factory()
+        );
+        long tickMillis = Math.max(1, properties.tick().toMillis());
+        executor.scheduleWithFixedDelay(this::tick, 0, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService running = executor;
+        if (running == null) {
+            return;
+        }
+        executor = null;
+        running.shutdown();
+        try {
+            running.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        leadership.release();
+        leader = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    void track(LeaseExpiry lease) {
+        if (leader) {
+            granted.add(lease);
+        }
+    }
+
+    private void tick() {
+        try {
+            sweep(Instant.now());
+        } catch (RuntimeException ex) {
+            log.warn("Device lease sweep failed", ex);
+        }
+    }
+
+    /**
+     * One sweeper step at {@code now}.
+     *
+     * @return the number of leases expired
+     */
+    int sweep(Instant now) {
+
+        if (!leadership.acquire()) {
+            if (leader) {
+                log.info("This node no longer sweeps expired device leases");
+                leader = false;
+                wheel = null;
+                granted.clear();
+                tracked = 0;
+            }
+            return 0;
+        }
+
+        if (!leader) {
+            wheel = new TimingWheel<>(properties.tick(), now);
+            nextRefill = now;
+            leader = true;
+        }
+
+        // Anything due after the next refill is loaded by that refill.
+        Instant horizon = nextRefill.plus(properties.tick());
+        for (LeaseExpiry lease; (lease = granted.poll()) != null; ) {
+            if (lease.expiresAt().isBefore(horizon)) {
+                wheel.schedule(lease.id(), lease.expiresAt());
+            }
+        }
+
+        boolean refill = !now.isBefore(nextRefill);
+        if (refill) {
+            nextRefill = now.plus(properties.refillInterval());
+            List<LeaseExpiry> upcoming = leases.findExpiringBefore(
+                    nextRefill.plus(properties.tick()),
+                    properties.batchSize() * properties.maxBatchesPerTick()
+            );
+            upcoming.forEach(lease -> wheel.schedule(lease.id(), lease.expiresAt()));
+        }
+
+        List<UUID> due = wheel.advance(now);
+        tracked = wheel.size();
+        if (due.isEmpty() && !refill) {
+            return 0;
+        }
+
+        long started = System.nanoTime();
+        int count = 0;
+
+        for (int from = 0; from < due.size(); from += properties.batchSize()) {
+            List<UUID> batch = due.subList(from, Math.min(due.size(), from + properties.batchSize()));
+            count += record(leases.expire(batch, now), now);
+        }
+
+        if (refill) {
+            for (int batches = 0; batches < properties.maxBatchesPerTick(); batches++) {
+                int swept = record(leases.expireOverdue(now, properties.batchSize()), now);
+                count += swept;
+                if (swept < properties.batchSize()) {
+                    break;
+                }
+            }
+        }
+
+        if (count > 0) {
+            sweepTime.record(Duration.ofNanos(System.nanoTime() - started));
+        }
+        return count;
+    }
+
+    private int record(List<LeaseExpiry> released, Instant now) {
+        for (LeaseExpiry lease : released) {
+            lag.record(Duration.between(lease.expiresAt(), now));
+        }
+        expired.increment(released.size());
+        return released.size();
+    }
+}
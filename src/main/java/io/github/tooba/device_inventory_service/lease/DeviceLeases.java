@@ -0,0 +1,159 @@
+package io.github.tooba.device_inventory_service.lease;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.Device;
+import io.github.tooba.device_inventory_service.repository.DeviceStore;
+import io.github.tooba.device_inventory_service.repository.LeaseExpiry;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangeType;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangedEvent;
+import io.github.tooba.device_inventory_service.service.event.DeviceLeaseRenewedEvent;
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Lease bookkeeping for IN_USE devices.
+ * <p>
+ * Every write path publishes a {@link DeviceChangedEvent}; just before such
+ * a transaction commits, a device that is IN_USE without a lease gets the
+ * default one. Leaving IN_USE drops the lease in {@link Device} itself.
+ * Renewals only publish a {@link DeviceLeaseRenewedEvent}.
+ * Expiring a lease is a regular state change to AVAILABLE, with its event,
+ * applied to rows locked with SKIP LOCKED so that a concurrent renewal or
+ * release simply wins.
+ */
+public class DeviceLeases {
+
+    private final DeviceLeaseProperties properties;
+    private final DeviceStore repo;
+    private final TransactionOperations transactions;
+    private final ApplicationEventPublisher events;
+
+    private volatile Consumer<LeaseExpiry> tracker = lease -> {};
+
+    public DeviceLeases(
+            DeviceLeaseProperties properties,
+            DeviceStore repo,
+            TransactionOperations transactions,
+            ApplicationEventPublisher events
+    ) {
+        this.properties = properties;
+        this.repo = repo;
+        this.transactions = transactions;
+        this.events = events;
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * When a lease taken at {@code now} for {@code requested} runs out; the
+     * default duration when {@code null}, never longer than the maximum.
+     * Microsecond precision, as stored.
+     */
+    public Instant expiry(Instant now, Duration requested) {
+
+        Duration duration = requested == null ? properties.defaultDuration() : requested;
+        if (duration.compareTo(properties.maxDuration()) > 0) {
+            duration = properties.maxDuration();
+        }
+
+        return now.plus(duration).truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /**
+     * Receives every lease granted or renewed, once its transaction has
+     * committed.
+     */
+    void trackWith(Consumer<LeaseExpiry> tracker) {
+        this.tracker = tracker;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+
+        if (!properties.enabled()
+                || event.type() == DeviceChangeType.DELETED
+                || event.device().state() != DeviceState.IN_USE) {
+            return;
+        }
+
+        // Already loaded by the writer: served from the open transaction.
+        Device device = repo.findById(event.device().id()).orElse(null);
+        if (device == null || device.getState() != DeviceState.IN_USE) {
+            return;
+        }
+
+        if (device.getLeaseExpiresAt() == null) {
+            device.tryLease(expiry(Instant.now(), null));
+        }
+
+        LeaseExpiry lease = new LeaseExpiry(device.getId(), device.getLeaseExpiresAt());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                tracker.accept(lease);
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onLeaseRenewed(DeviceLeaseRenewedEvent event) {
+        tracker.accept(new LeaseExpiry(event.id(), event.leaseExpiresAt()));
+    }
+
+    /**
+     * Returns those of {@code ids} whose lease expired at {@code now} to
+     * AVAILABLE, in one transaction.
+     *
+     * @return the leases that were expired
+     */
+    List<LeaseExpiry> expire(Collection<UUID> ids, Instant now) {
+        List<UUID> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        return transactions.execute(status -> release(repo.lockExpiredLeases(distinct, now)));
+    }
+
+    /**
+     * Returns up to {@code limit} devices whose lease expired at {@code now}
+     * to AVAILABLE, oldest expiry first, in one transaction.
+     *
+     * @return the leases that were expired
+     */
+    List<LeaseExpiry> expireOverdue(Instant now, int limit) {
+        return transactions.execute(status -> release(repo.lockExpiredLeases(now, limit)));
+    }
+
+    List<LeaseExpiry> findExpiringBefore(Instant deadline, int limit) {
+        return transactions.execute(status -> repo.findLeasesExpiringBefore(deadline, limit));
+    }
+
+    private List<LeaseExpiry> release(List<Device> devices) {
+
+        List<LeaseExpiry> expired = new ArrayList<>(devices.size());
+        for (Device device : devices) {
+            Instant expiresAt = device.getLeaseExpiresAt();
+            DeviceResult previous = DeviceResult.from(device);
+            if (device.tryPatch(null, null, DeviceState.AVAILABLE) != null) {
+                continue;
+            }
+            events.publishEvent(DeviceChangedEvent.updated(previous, DeviceResult.from(device)));
+            expired.add(new LeaseExpiry(device.getId(), expiresAt));
+        }
+        return expired;
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.tooba.device_inventory_service.lease;
+
+/**
+ * Decides which node sweeps expired leases.
+ */
+public interface LeaseSweepLeadership {
+
+    /**
+     * For a node that runs alone.
+     */
+    LeaseSweepLeadership SINGLE_NODE = new LeaseSweepLeadership() {
+
+        @Override
+        public boolean acquire() {
+            return true;
+        }
+
+        @Override
+        public void release() {
+        }
+    };
+
+    /**
+     * Becomes or stays the sweeping node if possible. Called before every
+     * sweep; must not block.
+     *
+     * @return whether this node should sweep now
+     */
+    boolean acquire();
+
+    void release();
+}
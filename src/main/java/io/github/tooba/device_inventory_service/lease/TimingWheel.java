@@ -0,0 +1,125 @@
+package io.github.tooba.device_inventory_service.lease;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel. Level 0 has one bucket per tick; each bucket of
+ * level {@code n} spans {@code SLOTS^n} ticks. An entry waits on the coarsest
+ * level that still tells its deadline apart from the current tick, and moves
+ * down a level each time the wheel reaches its bucket, so scheduling and
+ * expiring cost O(1) per entry regardless of how many are pending.
+ * <p>
+ * Not thread-safe: the wheel belongs to the sweeper thread.
+ */
+final class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final List<List<ArrayDeque<Entry<T>>>> levels = new ArrayList<>(LEVELS);
+    private final List<T> overdue = new ArrayList<>();
+
+    private long currentTick;
+    private int size;
+
+    TimingWheel(Duration tick, Instant start) {
+        this.tickMillis = Math.max(1, tick.toMillis());
+        this.currentTick = Math.floorDiv(start.toEpochMilli(), tickMillis);
+        for (int level = 0; level < LEVELS; level++) {
+            List<ArrayDeque<Entry<T>>> buckets = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                buckets.add(new ArrayDeque<>());
+            }
+            levels.add(buckets);
+        }
+    }
+
+    /**
+     * Schedules {@code item} for the first tick at or after {@code deadline}.
+     * A deadline already passed is returned by the next {@link #advance}.
+     *
+     * @return false when the deadline lies beyond what the wheel can hold
+     */
+    boolean schedule(T item, Instant deadline) {
+
+        long deadlineTick = Math.floorDiv(deadline.toEpochMilli() + tickMillis - 1, tickMillis);
+        if (deadlineTick - currentTick >= 1L << (SLOT_BITS * LEVELS)) {
+            return false;
+        }
+
+        place(new Entry<>(item, deadlineTick));
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves the wheel to {@code now} and returns the items that came due.
+     */
+    List<T> advance(Instant now) {
+
+        List<T> due = new ArrayList<>();
+
+        long targetTick = Math.floorDiv(now.toEpochMilli(), tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            ArrayDeque<Entry<T>> bucket = levels.get(0).get((int) (currentTick & MASK));
+            for (Entry<T> entry : bucket) {
+                due.add(entry.item());
+            }
+            bucket.clear();
+        }
+
+        // Scheduled late, or cascaded right onto the current tick.
+        due.addAll(overdue);
+        overdue.clear();
+
+        size -= due.size();
+        return due;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // When the tick crosses a bucket boundary of a coarser level, that
+    // bucket's entries are spread over the finer levels.
+    private void cascade() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            int shift = SLOT_BITS * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                continue;
+            }
+            ArrayDeque<Entry<T>> bucket = levels.get(level).get((int) ((currentTick >>> shift) & MASK));
+            List<Entry<T>> entries = new ArrayList<>(bucket);
+            bucket.clear();
+            entries.forEach(this::place);
+        }
+    }
+
+    private void place(Entry<T> entry) {
+
+        long delta = entry.deadlineTick() - currentTick;
+        if (delta <= 0) {
+            overdue.add(entry.item());
+            return;
+        }
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+
+        int slot = (int) ((entry.deadlineTick() >>> (SLOT_BITS * level)) & MASK);
+        levels.get(level).get(slot).add(entry);
+    }
+
+    private record Entry<T>(T item, long deadlineTick) {}
+}
@@ -0,0 +1,185 @@
+package io.github.tooba.device_inventory_service.partitioning;
+
+import io.github.tooba.device_inventory_service.entity.Device;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of {@code devices} ahead of the clock and,
+ * when a retention is configured, archives expired ones. When {@code device_history} is partitioned too,
+ * its partitions are kept ahead as well but never archived: a point-in-time
+ * query needs the latest entry of every device, however old.
+ * <p>
+ * Statements run outside any transaction: {@code DETACH PARTITION ... CONCURRENTLY}
+ * is not allowed inside a transaction block, and each DDL statement should
+ * hold its lock only briefly. Every step is idempotent, so several instances
+ * may run the same schedule.
+ */
+public class DevicePartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(DevicePartitionManager.class);
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private static final String IS_PARTITIONED = """
+            SELECT EXISTS (
+                SELECT 1 FROM pg_partitioned_table pt
+                JOIN pg_class c ON c.oid = pt.partrelid
+                WHERE c.oid = 'devices'::regclass
+            )
+            """;
+
+    private static final String IS_HISTORY_PARTITIONED = """
+            SELECT EXISTS (
+                SELECT 1 FROM pg_partitioned_table pt
+                WHERE pt.partrelid = to_regclass('device_history')
+            )
+            """;
+
+    private static final String LIST_PARTITIONS = """
+            SELECT c.relname, i.inhdetachpending
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'devices'::regclass
+            """;
+
+    private final DevicePartitioningProperties properties;
+    private final JdbcTemplate jdbc;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher events;
+    private final Clock clock;
+
+    public DevicePartitionManager(
+            DevicePartitioningProperties properties,
+            JdbcTemplate jdbc,
+            EntityManagerFactory entityManagerFactory,
+            ApplicationEventPublisher events,
+            Clock clock
+    ) {
+        if (!IDENTIFIER.matcher(properties.archiveSchema()).matches()) {
+            throw new IllegalArgumentException("Invalid archive schema name: " + properties.archiveSchema());
+        }
+        if (properties.monthsAhead() < 0
+                || (properties.retentionMonths() != null && properties.retentionMonths() < 1)) {
+            throw new IllegalArgumentException("monthsAhead must be >= 0 and retentionMonths, if set, >= 1");
+        }
+        this.properties = properties;
+        this.jdbc = jdbc;
+        this.entityManagerFactory = entityManagerFactory;
+        this.events = events;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${device.partitioning.cron:0 0 3 * * *}", zone = "UTC")
+    public void maintain() {
+
+        if (!Boolean.TRUE.equals(jdbc.queryForObject(IS_PARTITIONED, Boolean.class))) {
+            log.warn("Table devices is not partitioned; run db/partitioning/partition-devices.sql first");
+            return;
+        }
+
+        YearMonth current = YearMonth.now(clock.withZone(ZoneOffset.UTC));
+
+        for (int i = 0; i <= properties.monthsAhead(); i++) {
+            createIfMissing(new MonthlyPartition(current.plusMonths(i)));
+        }
+
+        // Without a retention nothing is archived; a detach already under way
+        // is still finished, since the partition is half gone either way.
+        YearMonth oldestKept = properties.retentionMonths() == null
+                ? null
+                : current.minusMonths(properties.retentionMonths());
+        List<String> archived = new ArrayList<>();
+
+        for (PartitionRow row : listPartitions()) {
+            if (row.detachPending()) {
+                // A previous concurrent detach was interrupted.
+                if (finishDetach(row.name())) {
+                    archived.add(row.name());
+                }
+                continue;
+            }
+            MonthlyPartition partition = MonthlyPartition.parse(row.name()).orElse(null);
+            if (partition != null && oldestKept != null
+                    && partition.month().isBefore(oldestKept) && archive(partition.name())) {
+                archived.add(partition.name());
+            }
+        }
+
+        if (!archived.isEmpty()) {
+            // Detached rows are gone from devices without any entity event.
+            entityManagerFactory.getCache().evict(Device.class);
+            events.publishEvent(new DevicePartitionsArchivedEvent(List.copyOf(archived)));
+        }
+
+        if (Boolean.TRUE.equals(jdbc.queryForObject(IS_HISTORY_PARTITIONED, Boolean.class))) {
+            for (int i = 0; i <= properties.monthsAhead(); i++) {
+                createIfMissing(new MonthlyPartition("device_history", current.plusMonths(i)));
+            }
+        }
+    }
+
+    private void createIfMissing(MonthlyPartition partition) {
+        try {
+            jdbc.execute("CREATE TABLE IF NOT EXISTS " + partition.name()
+                    + " PARTITION OF " + partition.table() + " FOR VALUES FROM ('" + partition.from()
+                    + "') TO ('" + partition.to() + "')");
+        } catch (DataAccessException ex) {
+            log.warn("Could not create partition {}", partition.name(), ex);
+        }
+    }
+
+    private boolean archive(String partition) {
+        try {
+            jdbc.execute("ALTER TABLE devices DETACH PARTITION " + partition + " CONCURRENTLY");
+            moveToArchive(partition);
+            return true;
+        } catch (DataAccessException ex) {
+            log.warn("Could not archive partition {}", partition, ex);
+            return false;
+        }
+    }
+
+    private boolean finishDetach(String partition) {
+        try {
+            jdbc.execute("ALTER TABLE devices DETACH PARTITION " + partition + " FINALIZE");
+            moveToArchive(partition);
+            return true;
+        } catch (DataAccessException ex) {
+            log.warn("Could not finalize detach of partition {}", partition, ex);
+            return false;
+        }
+    }
+
+    private void moveToArchive(String partition) {
+        jdbc.execute("CREATE SCHEMA IF NOT EXISTS " + properties.archiveSchema());
+        jdbc.execute("ALTER TABLE " + partition + " SET SCHEMA " + properties.archiveSchema());
+        log.info("Archived partition {} to schema {}", partition, properties.archiveSchema());
+    }
+
+    private List<PartitionRow> listPartitions() {
+        return jdbc.query(LIST_PARTITIONS, (rs, rowNum) ->
+                new PartitionRow(rs.getString(1), rs.getBoolean(2)));
+    }
+
+    private record PartitionRow(String name, boolean detachPending) {}
+}
@@ -0,0 +1,26 @@
+package io.github.tooba.device_inventory_service.partitioning;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Maintenance of the monthly partitions of {@code devices}.
+ * <p>
+ * Requires the table to have been converted with
+ * {@code db/partitioning/partition-devices.sql}. Partitions are created
+ * {@code monthsAhead} months in advance.
+ * <p>
+ * Archiving is opt-in. Only when {@code retentionMonths} is set are
+ * partitions older than that detached and moved to {@code archiveSchema},
+ * where they can be dumped and dropped without touching the live table.
+ * Partitions follow {@code creation_time}, so archiving removes devices by
+ * age alone, whatever their state.
+ */
+@ConfigurationProperties("device.partitioning")
+public record DevicePartitioningProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("3") int monthsAhead,
+        Integer retentionMonths,
+        @DefaultValue("device_archive") String archiveSchema,
+        @DefaultValue("0 0 3 * * *") String cron
+) {}
@@ -0,0 +1,10 @@
+package io.github.tooba.device_inventory_service.partitioning;
+
+import java.util.List;
+
+/**
+ * Published after partitions were detached from {@code devices}. Their rows
+ * left the table without any {@code DeviceChangedEvent}, so anything built
+ * from those events has to be rebuilt.
+ */
+public record DevicePartitionsArchivedEvent(List<String> partitions) {}
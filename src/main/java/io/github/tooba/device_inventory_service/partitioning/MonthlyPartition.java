@@ -0,0 +1,45 @@
+package io.github.tooba.device_inventory_service.partitioning;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One monthly range partition of {@code table} ({@code devices} unless
+ * given), named {@code <table>_pYYYY_MM} and covering {@code [from, to)}
+ * in UTC.
+ */
+public record MonthlyPartition(String table, YearMonth month) {
+
+    private static final Pattern NAME = Pattern.compile("devices_p(\\d{4})_(\\d{2})");
+
+    public MonthlyPartition(YearMonth month) {
+        this("devices", month);
+    }
+
+    public static Optional<MonthlyPartition> parse(String tableName) {
+        Matcher matcher = NAME.matcher(tableName);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        return Optional.of(new MonthlyPartition(YearMonth.of(
+                Integer.parseInt(matcher.group(1)),
+                Integer.parseInt(matcher.group(2))
+        )));
+    }
+
+    public String name() {
+        return "%s_p%04d_%02d".formatted(table, month.getYear(), month.getMonthValue());
+    }
+
+    public Instant from() {
+        return month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+    }
+
+    public Instant to() {
+        return month.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.tooba.device_inventory_service.repository;
+
+import io.github.tooba.device_inventory_service.entity.Brand;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+
+public interface BrandRepository extends Repository<Brand, Integer>, BrandRepositoryCustom {
+
+    @Query("select b.id from Brand b where b.canonical = :canonical")
+    List<Integer> findKeysByCanonical(String canonical);
+}
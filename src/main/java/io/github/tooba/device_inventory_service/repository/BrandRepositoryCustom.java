@@ -0,0 +1,17 @@
+package io.github.tooba.device_inventory_service.repository;
+
+import io.github.tooba.device_inventory_service.entity.Brand;
+
+public interface BrandRepositoryCustom {
+
+    /**
+     * The dictionary entry for a brand spelling, registered in the current
+     * transaction if it is new. A spelling registered concurrently by
+     * another transaction is waited for rather than duplicated; a spelling
+     * registered here rolls back with the transaction.
+     * <p>
+     * Does not flush the persistence context, so it can be called while an
+     * entity still refers to an unresolved {@link Brand#named} entry.
+     */
+    Brand resolve(String name);
+}
@@ -0,0 +1,108 @@
+package io.github.tooba.device_inventory_service.repository;
+
+import io.github.tooba.device_inventory_service.entity.Brand;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class BrandRepositoryCustomImpl implements BrandRepositoryCustom {
+
+    private static final String REGISTER_POSTGRES = """
+            INSERT INTO brands (name, canonical) VALUES (?, ?)
+            ON CONFLICT (name) DO NOTHING
+            """;
+
+    // Without ON CONFLICT a concurrent registration of the same spelling
+    // fails the transaction on the unique constraint instead.
+    private static final String REGISTER_PORTABLE = """
+            INSERT INTO brands (name, canonical)
+            SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM brands WHERE name = ?)
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbc;
+    private volatile Boolean postgres;
+
+    BrandRepositoryCustomImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public Brand resolve(String name) {
+
+        Brand brand = find(name);
+        if (brand != null) {
+            return brand;
+        }
+
+        // Plain JDBC on the transaction's connection: a native query would
+        // flush the session first and invalidate every cache region.
+        String canonical = Brand.canonical(name);
+        int registered = isPostgres()
+                ? jdbc.update(REGISTER_POSTGRES, name, canonical)
+                : jdbc.update(REGISTER_PORTABLE, name, canonical, name);
+        if (registered > 0) {
+            evictOnRollback();
+        }
+
+        // The entry may be this transaction's own insert, which must not reach
+        // the second-level cache before it commits.
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.GET);
+        try {
+            brand = find(name);
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+        if (brand == null) {
+            throw new IllegalStateException("Brand was not registered: " + name);
+        }
+        return brand;
+    }
+
+    // Anything this transaction loaded may have cached the entry it is
+    // about to roll back. Rollbacks after a registration are rare and the
+    // dictionary is small, so the whole of it is dropped.
+    private void evictOnRollback() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        org.hibernate.Cache cache = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getCache();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    cache.evictEntityData(Brand.class);
+                    cache.evictNaturalIdData(Brand.class);
+                }
+            }
+        });
+    }
+
+    // Natural-id lookups go through the persistence context and the
+    // second-level cache before they reach the database.
+    private Brand find(String name) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Brand.class)
+                .load(name);
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbc.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
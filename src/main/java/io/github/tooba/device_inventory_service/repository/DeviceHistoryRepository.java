@@ -0,0 +1,9 @@
+package io.github.tooba.device_inventory_service.repository;
+
+import io.github.tooba.device_inventory_service.entity.DeviceHistoryEntry;
+import org.springframework.data.repository.Repository;
+
+public interface DeviceHistoryRepository extends Repository<DeviceHistoryEntry, Long>, DeviceHistoryRepositoryCustom {
+
+    DeviceHistoryEntry save(DeviceHistoryEntry entry);
+}
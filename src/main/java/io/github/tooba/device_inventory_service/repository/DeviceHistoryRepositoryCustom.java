@@ -0,0 +1,50 @@
+package io.github.tooba.device_inventory_service.repository;
+
+import io.github.tooba.device_inventory_service.entity.DeviceHistoryEntry;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+
+public interface DeviceHistoryRepositoryCustom {
+
+    /**
+     * Changes of one device recorded in {@code [from, to)}, oldest first.
+     * Either bound may be {@code null}. Reads {@code size + 1} rows instead
+     * of counting.
+     */
+    Slice<DeviceHistoryEntry> findByDevice(UUID deviceId, Instant from, Instant to, Pageable pageable);
+
+    /**
+     * For every device that existed at {@code asOf}, its latest entry up to
+     * that instant, ordered by device id and filtered on the state the
+     * device had then. {@code brandKeys} is the brand filter already
+     * resolved to dictionary keys ({@code null} for none).
+     * <p>
+     * On PostgreSQL the device ids are walked with a loose index scan and
+     * each device costs one index probe, so the query does not slow down
+     * as the number of entries per device grows.
+     */
+    Slice<DeviceHistoryEntry> findAsOf(
+            Instant asOf,
+            DeviceFilter filter,
+            Collection<Integer> brandKeys,
+            Pageable pageable
+    );
+
+    /**
+     * The earliest recorded entry, or {@code null} while there are none.
+     */
+    Instant findStart();
+
+    /**
+     * Records every current device as created at {@code recordedAt}, with
+     * one {@code INSERT ... SELECT}, unless there are entries already.
+     *
+     * @return the number of entries written
+     */
+    int seed(Instant recordedAt);
+}
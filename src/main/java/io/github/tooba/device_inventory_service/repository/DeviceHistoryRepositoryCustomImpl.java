@@ -0,0 +1,247 @@
+package io.github.tooba.device_inventory_service.repository;
+
+import io.github.tooba.device_inventory_service.entity.DeviceHistoryEntry;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+class DeviceHistoryRepositoryCustomImpl implements DeviceHistoryRepositoryCustom {
+
+    // The recursive part jumps from one device id to the next through the
+    // (device_id, recorded_at) index; the lateral part then reads a single
+    // entry per device from the same index.
+    private static final String AS_OF = """
+            WITH RECURSIVE ids (device_id) AS (
+                (SELECT device_id FROM device_history ORDER BY device_id LIMIT 1)
+                UNION ALL
+                SELECT (SELECT h.device_id FROM device_history h
+                        WHERE h.device_id > ids.device_id
+                        ORDER BY h.device_id LIMIT 1)
+                FROM ids
+                WHERE ids.device_id IS NOT NULL
+            )
+            SELECT latest.*
+            FROM ids
+            CROSS JOIN LATERAL (
+                SELECT h.* FROM device_history h
+                WHERE h.device_id = ids.device_id AND h.recorded_at <= :asOf
+                ORDER BY h.recorded_at DESC, h.id DESC
+                LIMIT 1
+            ) latest
+            WHERE %s
+            ORDER BY latest.device_id
+            """;
+
+    private static final String SEED = """
+            INSERT INTO device_history (id, device_id, recorded_at, change_type, name, brand_id, state, creation_time)
+            SELECT %s, d.id, :recordedAt, :change, d.name, d.brand_id, d.state, d.creation_time
+            FROM devices d
+            WHERE NOT EXISTS (SELECT 1 FROM device_history)
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbc;
+    private volatile Boolean postgres;
+
+    DeviceHistoryRepositoryCustomImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public Slice<DeviceHistoryEntry> findByDevice(UUID deviceId, Instant from, Instant to, Pageable pageable) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DeviceHistoryEntry> query = cb.createQuery(DeviceHistoryEntry.class);
+        Root<DeviceHistoryEntry> root = query.from(DeviceHistoryEntry.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(root.get("deviceId"), deviceId));
+        if (from != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("recordedAt"), from));
+        }
+        if (to != null) {
+            predicates.add(cb.lessThan(root.get("recordedAt"), to));
+        }
+
+        query.where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(root.get("recordedAt")), cb.asc(root.get("id")));
+
+        return slice(entityManager.createQuery(query), pageable);
+    }
+
+    @Override
+    public Slice<DeviceHistoryEntry> findAsOf(
+            Instant asOf,
+            DeviceFilter filter,
+            Collection<Integer> brandKeys,
+            Pageable pageable
+    ) {
+
+        if (brandKeys != null && brandKeys.isEmpty()) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+
+        return isPostgres()
+                ? findAsOfNative(asOf, filter, brandKeys, pageable)
+                : findAsOfPortable(asOf, filter, brandKeys, pageable);
+    }
+
+    private Slice<DeviceHistoryEntry> findAsOfNative(
+            Instant asOf,
+            DeviceFilter filter,
+            Collection<Integer> brandKeys,
+            Pageable pageable
+    ) {
+
+        Map<String, Object> params = new LinkedHashMap<>();
+        List<String> conditions = new ArrayList<>();
+
+        params.put("asOf", asOf);
+        conditions.add("latest.change_type <> " + DeviceChangeType.DELETED.code());
+        if (brandKeys != null) {
+            conditions.add("latest.brand_id IN (:brandKeys)");
+        }
+        if (filter.state() != null) {
+            conditions.add("latest.state = :state");
+            params.put("state", filter.state().code());
+        }
+        if (filter.createdFrom() != null) {
+            conditions.add("latest.creation_time >= :createdFrom");
+            params.put("createdFrom", filter.createdFrom());
+        }
+        if (filter.createdTo() != null) {
+            conditions.add("latest.creation_time < :createdTo");
+            params.put("createdTo", filter.createdTo());
+        }
+
+        NativeQuery<DeviceHistoryEntry> query = entityManager.unwrap(Session.class).createNativeQuery(
+                AS_OF.formatted(String.join(" AND ", conditions)),
+                DeviceHistoryEntry.class
+        );
+        params.forEach(query::setParameter);
+        if (brandKeys != null) {
+            query.setParameterList("brandKeys", brandKeys);
+        }
+
+        return slice(query, pageable);
+    }
+
+    // Latest entry per device as an anti-join: no newer entry up to asOf.
+    // Correct everywhere, but it reads every entry up to asOf.
+    private Slice<DeviceHistoryEntry> findAsOfPortable(
+            Instant asOf,
+            DeviceFilter filter,
+            Collection<Integer> brandKeys,
+            Pageable pageable
+    ) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DeviceHistoryEntry> query = cb.createQuery(DeviceHistoryEntry.class);
+        Root<DeviceHistoryEntry> root = query.from(DeviceHistoryEntry.class);
+
+        Subquery<Long> newer = query.subquery(Long.class);
+        Root<DeviceHistoryEntry> other = newer.from(DeviceHistoryEntry.class);
+        Path<Instant> recordedAt = root.get("recordedAt");
+        Path<Instant> otherRecordedAt = other.get("recordedAt");
+        newer.select(other.get("id")).where(
+                cb.equal(other.get("deviceId"), root.get("deviceId")),
+                cb.lessThanOrEqualTo(otherRecordedAt, asOf),
+                cb.or(
+                        cb.greaterThan(otherRecordedAt, recordedAt),
+                        cb.and(
+                                cb.equal(otherRecordedAt, recordedAt),
+                                cb.greaterThan(other.<Long>get("id"), root.<Long>get("id"))
+                        )
+                )
+        );
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.lessThanOrEqualTo(recordedAt, asOf));
+        predicates.add(cb.not(cb.exists(newer)));
+        predicates.add(cb.notEqual(root.get("change"), DeviceChangeType.DELETED));
+        if (brandKeys != null) {
+            predicates.add(root.get("brand").get("id").in(brandKeys));
+        }
+        if (filter.state() != null) {
+            predicates.add(cb.equal(root.get("state"), filter.state()));
+        }
+        if (filter.createdFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("creationTime"), filter.createdFrom()));
+        }
+        if (filter.createdTo() != null) {
+            predicates.add(cb.lessThan(root.get("creationTime"), filter.createdTo()));
+        }
+
+        query.where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(root.get("deviceId")));
+
+        return slice(entityManager.createQuery(query), pageable);
+    }
+
+    @Override
+    public Instant findStart() {
+        return entityManager.createQuery("SELECT min(h.recordedAt) FROM DeviceHistoryEntry h", Instant.class)
+                .getSingleResult();
+    }
+
+    @Override
+    public int seed(Instant recordedAt) {
+        // Ids are drawn straight from the sequence; each value is the top of
+        // a block Hibernate's pooled optimizer never hands out itself.
+        String nextId = isPostgres() ? "nextval('device_history_seq')" : "NEXT VALUE FOR device_history_seq";
+        return entityManager.createNativeQuery(SEED.formatted(nextId))
+                .setParameter("recordedAt", recordedAt)
+                .setParameter("change", DeviceChangeType.CREATED.code())
+                .executeUpdate();
+    }
+
+    private static <T> Slice<T> slice(TypedQuery<T> query, Pageable pageable) {
+
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(query.getResultList(), pageable, false);
+        }
+
+        List<T> rows = query
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbc.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
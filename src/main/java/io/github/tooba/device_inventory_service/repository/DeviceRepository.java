@@ -1,9 +1,48 @@
 package io.github.tooba.device_inventory_service.repository;
 
 import io.github.tooba.device_inventory_service.entity.Device;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilterSpecification;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
-public interface DeviceRepository extends JpaRepository<Device, UUID>, JpaSpecificationExecutor<Device> {}
\ No newline at end of file
+public interface DeviceRepository
+        extends JpaRepository<Device, UUID>, JpaSpecificationExecutor<Device>, DeviceRepositoryCustom, DeviceStore {
+
+    // Declared by both CrudRepository and DeviceStore; redeclared so calls
+    // through this interface are not ambiguous.
+    @Override
+    <S extends Device> S save(S entity);
+
+    @Override
+    Optional<Device> findById(UUID id);
+
+    @Override
+    List<Device> findAllById(Iterable<UUID> ids);
+
+    @Override
+    void delete(Device entity);
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Page<Device> findAll(Specification<Device> spec, Pageable pageable);
+
+    @Override
+    default Page<Device> findAll(DeviceFilterSpecification spec, Pageable pageable) {
+        return findAll((Specification<Device>) spec, pageable);
+    }
+
+    @Override
+    default long count(DeviceFilterSpecification spec) {
+        return count((Specification<Device>) spec);
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.tooba.device_inventory_service.repository;
+
+import io.github.tooba.device_inventory_service.constant.DeviceField;
+import io.github.tooba.device_inventory_service.entity.Device;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilterSpecification;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+
+public interface DeviceRepositoryCustom {
+
+    /**
+     * Reads one page without counting: fetches {@code size + 1} rows and uses
+     * the extra row only to tell whether a next page exists.
+     */
+    Slice<Device> findSlice(DeviceFilterSpecification spec, Pageable pageable);
+
+    /**
+     * Like {@link #findSlice}, but selects only the given columns. Each tuple
+     * element is aliased with {@link DeviceField#attribute()}.
+     */
+    Slice<Tuple> findProjectedSlice(DeviceFilterSpecification spec, Pageable pageable, Set<DeviceField> fields);
+
+    Optional<Tuple> findProjectedById(UUID id, Set<DeviceField> fields);
+
+    /**
+     * Loads the given ids in request order, with {@code null} for ids that do
+     * not exist. Entities already in the second-level cache are served from
+     * it; the rest are read in chunks with one query per chunk.
+     */
+    List<Device> findAllInOrder(List<UUID> ids);
+
+    /**
+     * Locks up to {@code limit} matching devices for the current transaction
+     * ({@code FOR UPDATE SKIP LOCKED}). Rows already locked by another
+     * transaction are skipped instead of waited for, so concurrent callers
+     * each get different devices.
+     */
+    List<Device> lockClaimable(DeviceFilterSpecification spec, int limit);
+
+    /**
+     * Locks those of {@code ids} whose lease had expired at {@code now},
+     * skipping rows locked by other transactions.
+     */
+    List<Device> lockExpiredLeases(Collection<UUID> ids, Instant now);
+
+    /**
+     * Locks up to {@code limit} devices whose lease had expired at
+     * {@code now}, oldest expiry first, skipping rows locked by other
+     * transactions.
+     */
+    List<Device> lockExpiredLeases(Instant now, int limit);
+
+    /**
+     * Leases that run out before {@code deadline}, soonest first.
+     */
+    List<LeaseExpiry> findLeasesExpiringBefore(Instant deadline, int limit);
+
+    /**
+     * Estimates the number of matching devices from planner statistics.
+     * Empty when the database cannot provide an estimate.
+     */
+    OptionalLong estimateCount(DeviceFilter filter);
+}
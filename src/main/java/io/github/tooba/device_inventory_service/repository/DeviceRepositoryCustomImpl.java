@@ -0,0 +1,299 @@
+package io.github.tooba.device_inventory_service.repository;
+
+import io.github.tooba.device_inventory_service.constant.DeviceField;
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.Brand;
+import io.github.tooba.device_inventory_service.entity.Device;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilterSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.Session;
+import org.hibernate.Timeouts;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+class DeviceRepositoryCustomImpl implements DeviceRepositoryCustom {
+
+    // A partitioned parent has no storage of its own, so its estimate is the
+    // sum over the partitions that have statistics.
+    private static final String RELTUPLES = """
+            SELECT CASE WHEN p.relkind = 'p'
+                        THEN (SELECT coalesce(sum(c.reltuples) FILTER (WHERE c.reltuples >= 0), -1)
+                              FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                              WHERE i.inhparent = p.oid)
+                        ELSE p.reltuples
+                   END::bigint
+            FROM pg_class p
+            WHERE p.oid = 'devices'::regclass
+            """;
+
+    // Keeps bind parameters and the IN-list / array size of a single query bounded.
+    private static final int LOOKUP_CHUNK_SIZE = 500;
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\"\\s*:\\s*(\\d+)");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbc;
+    private volatile Boolean postgres;
+
+    DeviceRepositoryCustomImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public Slice<Device> findSlice(DeviceFilterSpecification spec, Pageable pageable) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Device> query = cb.createQuery(Device.class);
+        Root<Device> root = query.from(Device.class);
+
+        applyFilterAndSort(query, root, cb, spec, pageable);
+
+        TypedQuery<Device> typedQuery = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_CACHEABLE, true);
+
+        return slice(typedQuery, pageable);
+    }
+
+    @Override
+    public Slice<Tuple> findProjectedSlice(DeviceFilterSpecification spec, Pageable pageable, Set<DeviceField> fields) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Device> root = query.from(Device.class);
+
+        query.select(cb.tuple(selections(root, fields)));
+        applyFilterAndSort(query, root, cb, spec, pageable);
+
+        return slice(entityManager.createQuery(query), pageable);
+    }
+
+    @Override
+    public Optional<Tuple> findProjectedById(UUID id, Set<DeviceField> fields) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Device> root = query.from(Device.class);
+
+        query.select(cb.tuple(selections(root, fields)))
+                .where(cb.equal(root.get("id"), id));
+
+        return entityManager.createQuery(query).getResultStream().findFirst();
+    }
+
+    @Override
+    public List<Device> findAllInOrder(List<UUID> ids) {
+
+        Session session = entityManager.unwrap(Session.class);
+        List<Device> devices = new ArrayList<>(ids.size());
+
+        for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<UUID> chunk = ids.subList(from, Math.min(ids.size(), from + LOOKUP_CHUNK_SIZE));
+            devices.addAll(session.findMultiple(Device.class, chunk));
+        }
+
+        return devices;
+    }
+
+    @Override
+    public List<Device> lockClaimable(DeviceFilterSpecification spec, int limit) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Device> query = cb.createQuery(Device.class);
+        Root<Device> root = query.from(Device.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        return skipLocked(entityManager.createQuery(query))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Device> lockExpiredLeases(Collection<UUID> ids, Instant now) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Device> query = cb.createQuery(Device.class);
+        Root<Device> root = query.from(Device.class);
+
+        query.where(leaseExpired(root, cb, now), root.get("id").in(ids));
+
+        return skipLocked(entityManager.createQuery(query)).getResultList();
+    }
+
+    @Override
+    public List<Device> lockExpiredLeases(Instant now, int limit) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Device> query = cb.createQuery(Device.class);
+        Root<Device> root = query.from(Device.class);
+
+        query.where(leaseExpired(root, cb, now))
+                .orderBy(cb.asc(root.get("leaseExpiresAt")));
+
+        return skipLocked(entityManager.createQuery(query))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<LeaseExpiry> findLeasesExpiringBefore(Instant deadline, int limit) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<LeaseExpiry> query = cb.createQuery(LeaseExpiry.class);
+        Root<Device> root = query.from(Device.class);
+
+        query.select(cb.construct(LeaseExpiry.class, root.get("id"), root.get("leaseExpiresAt")))
+                .where(
+                        cb.equal(root.get("state"), DeviceState.IN_USE),
+                        cb.lessThan(root.<Instant>get("leaseExpiresAt"), deadline)
+                )
+                .orderBy(cb.asc(root.get("leaseExpiresAt")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static Predicate leaseExpired(Root<Device> root, CriteriaBuilder cb, Instant now) {
+        return cb.and(
+                cb.equal(root.get("state"), DeviceState.IN_USE),
+                cb.lessThanOrEqualTo(root.<Instant>get("leaseExpiresAt"), now)
+        );
+    }
+
+    // FOR UPDATE SKIP LOCKED. Locked reads go to the database, never to the
+    // second-level cache.
+    private static <T> TypedQuery<T> skipLocked(TypedQuery<T> query) {
+        return query
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(SpecHints.HINT_SPEC_LOCK_TIMEOUT, Timeouts.SKIP_LOCKED_MILLI);
+    }
+
+    // brand is selected as its spelling, under the field name.
+    private static List<Selection<?>> selections(Root<Device> root, Set<DeviceField> fields) {
+        return fields.stream()
+                .<Selection<?>>map(field -> (field == DeviceField.BRAND
+                        ? root.get("brand").get("name")
+                        : root.get(field.attribute())).alias(field.attribute()))
+                .toList();
+    }
+
+    private static void applyFilterAndSort(
+            CriteriaQuery<?> query,
+            Root<Device> root,
+            CriteriaBuilder cb,
+            Specification<Device> spec,
+            Pageable pageable
+    ) {
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+    }
+
+    private static <T> Slice<T> slice(TypedQuery<T> query, Pageable pageable) {
+
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(query.getResultList(), pageable, false);
+        }
+
+        List<T> rows = query
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    public OptionalLong estimateCount(DeviceFilter filter) {
+
+        if (!isPostgres()) {
+            return OptionalLong.empty();
+        }
+
+        if (filter.equals(DeviceFilter.of(null, null))) {
+            Long reltuples = jdbc.queryForObject(RELTUPLES, Long.class);
+            // -1 means the table has never been vacuumed or analyzed.
+            return reltuples == null || reltuples < 0
+                    ? OptionalLong.empty()
+                    : OptionalLong.of(reltuples);
+        }
+
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (filter.brand() != null) {
+            conditions.add("brand_id IN (SELECT id FROM brands WHERE canonical = ?)");
+            args.add(Brand.canonical(filter.brand()));
+        }
+        if (filter.state() != null) {
+            conditions.add("state = ?");
+            args.add(filter.state().code());
+        }
+        if (filter.createdFrom() != null) {
+            conditions.add("creation_time >= ?");
+            args.add(Timestamp.from(filter.createdFrom()));
+        }
+        if (filter.createdTo() != null) {
+            conditions.add("creation_time < ?");
+            args.add(Timestamp.from(filter.createdTo()));
+        }
+
+        String plan = jdbc.queryForObject(
+                "EXPLAIN (FORMAT JSON) SELECT 1 FROM devices WHERE " + String.join(" AND ", conditions),
+                String.class,
+                args.toArray()
+        );
+
+        Matcher matcher = PLAN_ROWS.matcher(plan == null ? "" : plan);
+        return matcher.find()
+                ? OptionalLong.of(Long.parseLong(matcher.group(1)))
+                : OptionalLong.empty();
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbc.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
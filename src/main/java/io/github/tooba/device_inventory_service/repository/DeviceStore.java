@@ -0,0 +1,36 @@
+package io.github.tooba.device_inventory_service.repository;
+
+import io.github.tooba.device_inventory_service.entity.Device;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilterSpecification;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * What the services need from device storage. {@link DeviceRepository}
+ * implements it on top of JPA; the {@code in-memory} and {@code sharded}
+ * profiles provide their own implementations.
+ * <p>
+ * Filters are always built from a {@link DeviceFilterSpecification}, so
+ * storage without a query engine can evaluate them too.
+ */
+public interface DeviceStore extends DeviceRepositoryCustom {
+
+    <S extends Device> S save(S entity);
+
+    Optional<Device> findById(UUID id);
+
+    /**
+     * The devices that exist among {@code ids}, in no particular order.
+     */
+    List<Device> findAllById(Iterable<UUID> ids);
+
+    Page<Device> findAll(DeviceFilterSpecification spec, Pageable pageable);
+
+    long count(DeviceFilterSpecification spec);
+
+    void delete(Device entity);
+}
@@ -0,0 +1,6 @@
+package io.github.tooba.device_inventory_service.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record LeaseExpiry(UUID id, Instant expiresAt) {}
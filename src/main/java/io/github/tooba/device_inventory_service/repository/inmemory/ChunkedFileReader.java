@@ -0,0 +1,101 @@
+package io.github.tooba.device_inventory_service.repository.inmemory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.Function;
+
+/**
+ * Reads a range of a file front to back through one heap buffer that is
+ * refilled as it drains, so snapshots and journals of any size can be read
+ * without mapping them. The buffer only grows when a single value does not
+ * fit.
+ */
+final class ChunkedFileReader {
+
+    static final int CHUNK_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final long end;
+
+    private ByteBuffer buffer;
+    // File position of the byte after the last one in the buffer.
+    private long filled;
+
+    ChunkedFileReader(FileChannel channel, long start, long end) {
+        this.channel = channel;
+        this.end = end;
+        this.filled = start;
+        this.buffer = ByteBuffer.allocate(CHUNK_SIZE).flip();
+    }
+
+    /**
+     * File position of the next unread byte.
+     */
+    long position() {
+        return filled - buffer.remaining();
+    }
+
+    /**
+     * Bytes left in the range.
+     */
+    long remaining() {
+        return end - position();
+    }
+
+    /**
+     * The next {@code length} bytes, as a buffer that is only valid until
+     * the next call.
+     */
+    ByteBuffer next(int length) throws IOException {
+        ensure(length);
+        ByteBuffer slice = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+    /**
+     * Decodes the next value, refilling the buffer whenever {@code decoder}
+     * runs out of bytes.
+     */
+    <T> T next(Function<ByteBuffer, T> decoder) throws IOException {
+        while (true) {
+            int start = buffer.position();
+            try {
+                return decoder.apply(buffer);
+            } catch (BufferUnderflowException ex) {
+                buffer.position(start);
+                ensure(buffer.remaining() + 1);
+            }
+        }
+    }
+
+    // Makes at least length bytes available, or fails at the end of the range.
+    private void ensure(int length) throws IOException {
+
+        if (buffer.remaining() >= length) {
+            return;
+        }
+        if (length > remaining()) {
+            throw new EOFException("Unexpected end of file at " + position());
+        }
+
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocate(Math.max(length, buffer.capacity() * 2)).put(buffer);
+        } else {
+            buffer.compact();
+        }
+
+        while (buffer.position() < length) {
+            int limit = (int) Math.min(buffer.capacity(), buffer.position() + end - filled);
+            int read = channel.read(buffer.limit(limit), filled);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of file at " + filled);
+            }
+            filled += read;
+        }
+        buffer.flip();
+    }
+}
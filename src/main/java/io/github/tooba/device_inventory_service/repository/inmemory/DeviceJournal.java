@@ -0,0 +1,279 @@
+package io.github.tooba.device_inventory_service.repository.inmemory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of committed change sets since the last snapshot. One
+ * record per change set:
+ * <pre>
+ * payload length (int) | CRC32C of payload (int) | entry count (int) | entries...
+ * </pre>
+ * An entry is {@code PUT_LEASED} followed by a row, or {@code DELETE}
+ * followed by an id. {@code PUT} entries, whose rows have no lease field,
+ * are only read from journals written before leases existed. A record torn by a crash fails its checksum and is dropped on replay,
+ * together with everything after it.
+ * <p>
+ * Appends are group-committed: a caller that finds no write in progress
+ * writes every record queued so far and forces them to disk once, while
+ * callers that arrive in the meantime queue theirs for the next round. Each
+ * caller returns once its own record is on disk.
+ * <p>
+ * A failed round is cut off again, so the records appended after it are
+ * not lost behind a torn one; every caller in the round gets the failure.
+ * If that fails too, the journal refuses every further append and the store
+ * stays read-only.
+ */
+final class DeviceJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceJournal.class);
+
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte PUT_LEASED = 3;
+
+    private final FileChannel channel;
+    private final boolean sync;
+
+    // Guards the queue and the writing flag; never held during I/O.
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition written = lock.newCondition();
+    private List<Pending> queue = new ArrayList<>();
+    private boolean writing;
+
+    // Only touched by the caller that is writing.
+    private IOException failure;
+
+    DeviceJournal(FileChannel channel, boolean sync) {
+        this.channel = channel;
+        this.sync = sync;
+    }
+
+    static DeviceJournal open(Path file, boolean sync) throws IOException {
+        return new DeviceJournal(
+                FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND),
+                sync
+        );
+    }
+
+    /**
+     * Returns once the change set is on disk, or throws if it is not.
+     */
+    void append(Map<UUID, InMemoryDeviceStore.Row> writes) {
+
+        Pending pending = new Pending(encode(writes));
+        List<Pending> batch;
+
+        lock.lock();
+        try {
+            queue.add(pending);
+            while (writing && !pending.done) {
+                written.awaitUninterruptibly();
+            }
+            if (pending.done) {
+                pending.rethrow();
+                return;
+            }
+            writing = true;
+            batch = queue;
+            queue = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+
+        RuntimeException outcome = write(batch);
+
+        lock.lock();
+        try {
+            for (Pending done : batch) {
+                done.failure = outcome;
+                done.done = true;
+            }
+            writing = false;
+            written.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        pending.rethrow();
+    }
+
+    private static ByteBuffer encode(Map<UUID, InMemoryDeviceStore.Row> writes) {
+
+        int payloadSize = Integer.BYTES;
+        for (InMemoryDeviceStore.Row row : writes.values()) {
+            payloadSize += 1 + (row == null ? 16 : DeviceRowCodec.size(row));
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payloadSize);
+        record.putInt(payloadSize).putInt(0).putInt(writes.size());
+        writes.forEach((id, row) -> {
+            if (row == null) {
+                record.put(DELETE);
+                DeviceRowCodec.writeId(record, id);
+            } else {
+                record.put(PUT_LEASED);
+                DeviceRowCodec.write(record, row);
+            }
+        });
+
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), RECORD_HEADER_SIZE, payloadSize);
+        record.putInt(Integer.BYTES, (int) crc.getValue());
+        return record.flip();
+    }
+
+    // Writes one round and forces it once; null when it reached the disk.
+    private RuntimeException write(List<Pending> batch) {
+
+        if (failure != null) {
+            return new UncheckedIOException("The device journal is read-only after a failed append", failure);
+        }
+
+        long start;
+        try {
+            start = channel.size();
+        } catch (IOException ex) {
+            return new UncheckedIOException("Failed to append to the device journal", ex);
+        }
+
+        try {
+            for (Pending pending : batch) {
+                while (pending.record.hasRemaining()) {
+                    channel.write(pending.record);
+                }
+            }
+            if (sync) {
+                channel.force(false);
+            }
+            return null;
+        } catch (IOException ex) {
+            discard(start, ex);
+            return new UncheckedIOException("Failed to append to the device journal", ex);
+        }
+    }
+
+    // Removes whatever part of a failed record reached the file.
+    private void discard(long start, IOException cause) {
+        try {
+            channel.truncate(start);
+            if (sync) {
+                channel.force(false);
+            }
+        } catch (IOException ex) {
+            cause.addSuppressed(ex);
+            failure = cause;
+            log.error("Could not cut a failed record off the device journal; refusing further changes", ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static final class Pending {
+
+        private final ByteBuffer record;
+
+        // Guarded by the journal lock.
+        private boolean done;
+        private RuntimeException failure;
+
+        Pending(ByteBuffer record) {
+            this.record = record;
+        }
+
+        void rethrow() {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Hands every intact change set to {@code sink} in order, and truncates
+     * the file after the last intact record.
+     *
+     * @return the number of change sets replayed
+     */
+    static long replay(Path file, Consumer<Map<UUID, InMemoryDeviceStore.Row>> sink) throws IOException {
+
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        long records = 0;
+        long valid = 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            long size = channel.size();
+            ChunkedFileReader reader = new ChunkedFileReader(channel, 0, size);
+
+            while (reader.remaining() >= RECORD_HEADER_SIZE) {
+                ByteBuffer header = reader.next(RECORD_HEADER_SIZE);
+                int payloadSize = header.getInt();
+                int checksum = header.getInt();
+                if (payloadSize < Integer.BYTES || payloadSize > reader.remaining()) {
+                    break;
+                }
+
+                ByteBuffer payload = reader.next(payloadSize);
+                CRC32C crc = new CRC32C();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+
+                sink.accept(decode(payload));
+                valid = reader.position();
+                records++;
+            }
+
+            if (valid < size) {
+                log.warn("Dropping {} bytes of incomplete journal records from {}", size - valid, file);
+                channel.truncate(valid);
+            }
+        }
+
+        return records;
+    }
+
+    private static Map<UUID, InMemoryDeviceStore.Row> decode(ByteBuffer payload) {
+
+        int entries = payload.getInt();
+        Map<UUID, InMemoryDeviceStore.Row> writes = new HashMap<>(entries * 2);
+
+        for (int i = 0; i < entries; i++) {
+            byte type = payload.get();
+            if (type == DELETE) {
+                writes.put(DeviceRowCodec.readId(payload), null);
+            } else {
+                InMemoryDeviceStore.Row row = DeviceRowCodec.read(payload, type != PUT);
+                writes.put(row.id(), row);
+            }
+        }
+
+        return writes;
+    }
+}
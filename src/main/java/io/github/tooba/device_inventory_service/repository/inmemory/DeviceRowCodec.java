@@ -0,0 +1,76 @@
+package io.github.tooba.device_inventory_service.repository.inmemory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Binary layout of one {@link InMemoryDeviceStore.Row}, shared by snapshots
+ * and the journal:
+ * <pre>
+ * id (2 x long) | state (short) | creation time, epoch micros (long)
+ * | lease expiry, epoch micros (long) | sequence (long) | version (long)
+ * | name | brand
+ * </pre>
+ * Strings are an {@code int} byte length followed by UTF-8 bytes. Rows
+ * written before leases existed lack the lease field.
+ */
+final class DeviceRowCodec {
+
+    private static final int FIXED_SIZE = 16 + 2 + 8 + 8 + 8 + 8;
+
+    private DeviceRowCodec() {
+    }
+
+    static int size(InMemoryDeviceStore.Row row) {
+        return FIXED_SIZE + stringSize(row.name()) + stringSize(row.brand());
+    }
+
+    static void write(ByteBuffer buffer, InMemoryDeviceStore.Row row) {
+        writeId(buffer, row.id());
+        buffer.putShort(row.state());
+        buffer.putLong(row.creationMicros());
+        buffer.putLong(row.leaseMicros());
+        buffer.putLong(row.sequence());
+        buffer.putLong(row.version());
+        writeString(buffer, row.name());
+        writeString(buffer, row.brand());
+    }
+
+    static InMemoryDeviceStore.Row read(ByteBuffer buffer, boolean withLease) {
+        UUID id = readId(buffer);
+        short state = buffer.getShort();
+        long creationMicros = buffer.getLong();
+        long leaseMicros = withLease ? buffer.getLong() : InMemoryDeviceStore.Row.NO_LEASE;
+        long sequence = buffer.getLong();
+        long version = buffer.getLong();
+        String name = readString(buffer);
+        String brand = readString(buffer);
+        return new InMemoryDeviceStore.Row(id, name, brand, state, creationMicros, leaseMicros, sequence, version);
+    }
+
+    static void writeId(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+    }
+
+    static UUID readId(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static int stringSize(String value) {
+        return Integer.BYTES + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,118 @@
+package io.github.tooba.device_inventory_service.repository.inmemory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Snapshot of all device rows:
+ * <pre>
+ * magic (int) | format (int) | row count (long) | rows... | CRC32C of all preceding bytes (int)
+ * </pre>
+ * A snapshot is written to a temporary file and renamed into place once it
+ * is on disk, so a crash never leaves a partial snapshot behind. Both ways
+ * go through a buffer of {@link ChunkedFileReader#CHUNK_SIZE}, so a snapshot
+ * has no size limit.
+ */
+final class DeviceSnapshotFile {
+
+    private static final int MAGIC = 0x44455653; // "DEVS"
+    private static final int FORMAT = 2;
+    // Format 1 rows have no lease field.
+    private static final int FORMAT_WITHOUT_LEASES = 1;
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    private DeviceSnapshotFile() {
+    }
+
+    static void write(Path file, Collection<InMemoryDeviceStore.Row> rows) throws IOException {
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            CRC32C crc = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocate(ChunkedFileReader.CHUNK_SIZE);
+            buffer.putInt(MAGIC).putInt(FORMAT).putLong(rows.size());
+
+            for (InMemoryDeviceStore.Row row : rows) {
+                int size = DeviceRowCodec.size(row);
+                if (buffer.remaining() < size) {
+                    drain(channel, buffer, crc);
+                    if (buffer.capacity() < size) {
+                        buffer = ByteBuffer.allocate(size);
+                    }
+                }
+                DeviceRowCodec.write(buffer, row);
+            }
+            drain(channel, buffer, crc);
+
+            buffer.putInt((int) crc.getValue()).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Verifies the checksum, then hands every row to {@code sink}.
+     *
+     * @return the number of rows read
+     */
+    static long read(Path file, Consumer<InMemoryDeviceStore.Row> sink) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            long size = channel.size();
+            if (size < HEADER_SIZE + Integer.BYTES) {
+                throw new IOException("Snapshot " + file + " is truncated");
+            }
+            long end = size - Integer.BYTES;
+
+            CRC32C crc = new CRC32C();
+            ChunkedFileReader content = new ChunkedFileReader(channel, 0, size);
+            while (content.position() < end) {
+                crc.update(content.next((int) Math.min(ChunkedFileReader.CHUNK_SIZE, end - content.position())));
+            }
+            if ((int) crc.getValue() != content.next(Integer.BYTES).getInt()) {
+                throw new IOException("Snapshot " + file + " failed its checksum");
+            }
+
+            ChunkedFileReader reader = new ChunkedFileReader(channel, 0, end);
+            ByteBuffer header = reader.next(HEADER_SIZE);
+            int magic = header.getInt();
+            int format = header.getInt();
+            if (magic != MAGIC || (format != FORMAT && format != FORMAT_WITHOUT_LEASES)) {
+                throw new IOException("Snapshot " + file + " has an unknown format");
+            }
+            boolean withLease = format == FORMAT;
+
+            long count = header.getLong();
+            for (long i = 0; i < count; i++) {
+                sink.accept(reader.next(rows -> DeviceRowCodec.read(rows, withLease)));
+            }
+            return count;
+        }
+    }
+
+    // Writes out what the buffer holds, adding it to the checksum.
+    private static void drain(FileChannel channel, ByteBuffer buffer, CRC32C crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.tooba.device_inventory_service.repository.inmemory;
+
+import io.github.tooba.device_inventory_service.constant.DeviceField;
+import io.github.tooba.device_inventory_service.entity.Device;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Projection of a device onto the selected fields, aliased like the
+ * tuple selection of the JPA repository.
+ */
+public final class DeviceTuple implements Tuple {
+
+    private final List<DeviceField> fields;
+    private final Object[] values;
+
+    public DeviceTuple(Device device, Iterable<DeviceField> selected) {
+        this.fields = new ArrayList<>();
+        selected.forEach(fields::add);
+        this.values = fields.stream().map(field -> value(device, field)).toArray();
+    }
+
+    @Override
+    public <X> X get(TupleElement<X> element) {
+        return get(element.getAlias(), element.getJavaType());
+    }
+
+    @Override
+    public <X> X get(String alias, Class<X> type) {
+        return type.cast(get(alias));
+    }
+
+    @Override
+    public Object get(String alias) {
+        int index = fields.indexOf(DeviceField.fromAttribute(alias));
+        if (index < 0) {
+            throw new IllegalArgumentException("Field not selected: " + alias);
+        }
+        return values[index];
+    }
+
+    @Override
+    public <X> X get(int i, Class<X> type) {
+        return type.cast(get(i));
+    }
+
+    @Override
+    public Object get(int i) {
+        return values[i];
+    }
+
+    @Override
+    public Object[] toArray() {
+        return values.clone();
+    }
+
+    @Override
+    public List<TupleElement<?>> getElements() {
+        return fields.stream()
+                .<TupleElement<?>>map(field -> new Element(field.attribute(), values[fields.indexOf(field)]))
+                .toList();
+    }
+
+    private static Object value(Device device, DeviceField field) {
+        return switch (field) {
+            case ID -> device.getId();
+            case NAME -> device.getName();
+            case BRAND -> device.getBrand();
+            case STATE -> device.getState();
+            case CREATION_TIME -> device.getCreationTime();
+        };
+    }
+
+    private record Element(String alias, Object value) implements TupleElement<Object> {
+
+        @Override
+        public Class<?> getJavaType() {
+            return value == null ? Object.class : value.getClass();
+        }
+
+        @Override
+        public String getAlias() {
+            return alias;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.tooba.device_inventory_service.repository.inmemory;
+
+import io.github.tooba.device_inventory_service.entity.Brand;
+import io.github.tooba.device_inventory_service.repository.BrandRepository;
+
+import java.util.List;
+
+/**
+ * The in-memory store keeps brands as written and filters on their
+ * canonical form directly, so there are no dictionary keys to resolve.
+ */
+public class InMemoryBrandRepository implements BrandRepository {
+
+    @Override
+    public List<Integer> findKeysByCanonical(String canonical) {
+        return List.of();
+    }
+
+    @Override
+    public Brand resolve(String name) {
+        return Brand.named(name);
+    }
+}
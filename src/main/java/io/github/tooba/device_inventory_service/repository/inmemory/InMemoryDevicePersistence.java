@@ -0,0 +1,187 @@
+package io.github.tooba.device_inventory_service.repository.inmemory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@link InMemoryDeviceStore} across restarts.
+ * <p>
+ * Files come in generations: {@code snapshot-N.bin} holds every device at the
+ * moment {@code journal-N.log} was started, and the journal holds every
+ * change set committed after that. On startup the newest snapshot is mapped
+ * and loaded, then the journals from its generation on are replayed. A new
+ * snapshot starts the next generation, and removes the older files once it
+ * is on disk.
+ * <p>
+ * Starts before the web server, so no request sees a partially loaded store,
+ * and writes a final snapshot when the application stops.
+ */
+public class InMemoryDevicePersistence implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryDevicePersistence.class);
+
+    private static final Pattern FILE_NAME = Pattern.compile("(snapshot|journal)-(\\d+)\\.(bin|log)");
+
+    private final InMemoryPersistenceProperties properties;
+    private final InMemoryDeviceStore store;
+
+    private ScheduledExecutorService scheduler;
+    private volatile DeviceJournal journal;
+    private long generation;
+    private volatile boolean running;
+
+    public InMemoryDevicePersistence(InMemoryPersistenceProperties properties, InMemoryDeviceStore store) {
+        this.properties = properties;
+        this.store = store;
+    }
+
+    @Override
+    public void start() {
+        try {
+            load();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to load devices from " + properties.directory(), ex);
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("device-snapshot")
+                .daemon(true)
+                .factory());
+        long interval = properties.snapshotInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, interval, interval, TimeUnit.MILLISECONDS);
+
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdownNow();
+        try {
+            snapshot();
+            journal.close();
+        } catch (IOException ex) {
+            log.warn("Failed to write the final device snapshot", ex);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * Writes a snapshot and starts a new journal generation.
+     */
+    public synchronized void snapshot() throws IOException {
+
+        long next = generation + 1;
+        Path nextJournal = file("journal", next);
+
+        List<InMemoryDeviceStore.Row> rows = store.checkpoint(() -> {
+            try {
+                DeviceJournal previous = journal;
+                journal = DeviceJournal.open(nextJournal, properties.syncJournal());
+                previous.close();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        generation = next;
+
+        long started = System.nanoTime();
+        DeviceSnapshotFile.write(file("snapshot", next), rows);
+        log.info("Wrote snapshot of {} devices in {} ms",
+                rows.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        deleteGenerationsBefore(next);
+    }
+
+    private void load() throws IOException {
+
+        Files.createDirectories(properties.directory());
+        long started = System.nanoTime();
+
+        OptionalLong snapshot = latest("snapshot");
+        long first = snapshot.orElse(0);
+        long devices = 0;
+        if (snapshot.isPresent()) {
+            devices = DeviceSnapshotFile.read(file("snapshot", first), store::restore);
+        }
+
+        long changeSets = 0;
+        long last = Math.max(first, latest("journal").orElse(0));
+        for (long g = first; g <= last; g++) {
+            changeSets += DeviceJournal.replay(file("journal", g), store::restore);
+        }
+
+        generation = last;
+        journal = DeviceJournal.open(file("journal", last), properties.syncJournal());
+        store.attach(this::append);
+
+        log.info("Loaded {} devices from snapshot {} and {} journaled change sets in {} ms",
+                devices, first, changeSets, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    // Called under the store's checkpoint lock, shared; the journal swap
+    // holds it exclusively.
+    private void append(Map<UUID, InMemoryDeviceStore.Row> writes) {
+        journal.append(writes);
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Failed to write device snapshot", ex);
+        }
+    }
+
+    private OptionalLong latest(String kind) throws IOException {
+        try (Stream<Path> files = Files.list(properties.directory())) {
+            return files.map(path -> FILE_NAME.matcher(path.getFileName().toString()))
+                    .filter(matcher -> matcher.matches() && matcher.group(1).equals(kind))
+                    .mapToLong(matcher -> Long.parseLong(matcher.group(2)))
+                    .max();
+        }
+    }
+
+    private void deleteGenerationsBefore(long keep) throws IOException {
+        try (Stream<Path> files = Files.list(properties.directory())) {
+            for (Path path : files.toList()) {
+                Matcher matcher = FILE_NAME.matcher(path.getFileName().toString());
+                if (matcher.matches() && Long.parseLong(matcher.group(2)) < keep) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private Path file(String kind, long generation) {
+        return properties.directory().resolve(kind + "-" + generation + (kind.equals("snapshot") ? ".bin" : ".log"));
+    }
+}
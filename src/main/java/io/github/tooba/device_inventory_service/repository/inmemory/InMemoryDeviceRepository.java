@@ -0,0 +1,223 @@
+package io.github.tooba.device_inventory_service.repository.inmemory;
+
+import io.github.tooba.device_inventory_service.constant.DeviceField;
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.Device;
+import io.github.tooba.device_inventory_service.repository.DeviceStore;
+import io.github.tooba.device_inventory_service.repository.LeaseExpiry;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilterSpecification;
+import jakarta.persistence.Tuple;
+import org.springframework.data.core.PropertyReferenceException;
+import org.springframework.data.core.TypeInformation;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link DeviceStore} backed by {@link InMemoryDeviceStore}.
+ * <p>
+ * Filters are evaluated through {@link DeviceFilterSpecification#matches}.
+ * Sorting accepts the same properties as the JPA repository.
+ */
+public class InMemoryDeviceRepository implements DeviceStore {
+
+    private final InMemoryDeviceStore store;
+
+    public InMemoryDeviceRepository(InMemoryDeviceStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public <S extends Device> S save(S entity) {
+        return store.save(entity);
+    }
+
+    @Override
+    public Optional<Device> findById(UUID id) {
+        return Optional.ofNullable(store.find(id));
+    }
+
+    @Override
+    public List<Device> findAllById(Iterable<UUID> ids) {
+        return StreamSupport.stream(ids.spliterator(), false)
+                .map(store::find)
+                .filter(device -> device != null)
+                .toList();
+    }
+
+    @Override
+    public List<Device> findAllInOrder(List<UUID> ids) {
+        List<Device> devices = new ArrayList<>(ids.size());
+        ids.forEach(id -> devices.add(store.find(id)));
+        return devices;
+    }
+
+    @Override
+    public void delete(Device entity) {
+        store.delete(entity.getId());
+    }
+
+    @Override
+    public Page<Device> findAll(DeviceFilterSpecification spec, Pageable pageable) {
+
+        if (pageable.isUnpaged()) {
+            List<Device> all = query(spec, pageable.getSort()).toList();
+            return PageableExecutionUtils.getPage(all, pageable, all::size);
+        }
+
+        List<Device> content = query(spec, pageable.getSort())
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public long count(DeviceFilterSpecification spec) {
+        return query(spec, Sort.unsorted()).count();
+    }
+
+    @Override
+    public Slice<Device> findSlice(DeviceFilterSpecification spec, Pageable pageable) {
+        return slice(query(spec, pageable.getSort()), pageable);
+    }
+
+    @Override
+    public Slice<Tuple> findProjectedSlice(DeviceFilterSpecification spec, Pageable pageable, Set<DeviceField> fields) {
+        return findSlice(spec, pageable).map(device -> new DeviceTuple(device, fields));
+    }
+
+    @Override
+    public Optional<Tuple> findProjectedById(UUID id, Set<DeviceField> fields) {
+        return findById(id).map(device -> new DeviceTuple(device, fields));
+    }
+
+    // Rows claimed by another open transaction are passed over. A locked row
+    // is read again, since it may have changed between the scan and the lock.
+    @Override
+    public List<Device> lockClaimable(DeviceFilterSpecification spec, int limit) {
+        return query(spec, Sort.unsorted())
+                .map(Device::getId)
+                .filter(store::tryLock)
+                .map(store::find)
+                .filter(device -> device != null && spec.matches(device))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public List<Device> lockExpiredLeases(Collection<UUID> ids, Instant now) {
+        return ids.stream()
+                .filter(store::tryLock)
+                .map(store::find)
+                .filter(device -> device != null && device.isLeaseExpired(now))
+                .toList();
+    }
+
+    @Override
+    public List<Device> lockExpiredLeases(Instant now, int limit) {
+        return store.scan()
+                .map(InMemoryDeviceStore.Entry::device)
+                .filter(device -> device.isLeaseExpired(now))
+                .sorted(Comparator.comparing(Device::getLeaseExpiresAt))
+                .map(Device::getId)
+                .filter(store::tryLock)
+                .map(store::find)
+                .filter(device -> device != null && device.isLeaseExpired(now))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public List<LeaseExpiry> findLeasesExpiringBefore(Instant deadline, int limit) {
+        return store.scan()
+                .map(InMemoryDeviceStore.Entry::device)
+                .filter(device -> device.getState() == DeviceState.IN_USE
+                        && device.getLeaseExpiresAt() != null
+                        && device.getLeaseExpiresAt().isBefore(deadline))
+                .sorted(Comparator.comparing(Device::getLeaseExpiresAt))
+                .limit(limit)
+                .map(device -> new LeaseExpiry(device.getId(), device.getLeaseExpiresAt()))
+                .toList();
+    }
+
+    // Counting is a scan either way; the exact figure costs no more than an estimate would.
+    @Override
+    public OptionalLong estimateCount(DeviceFilter filter) {
+        return OptionalLong.of(count(filter.toSpecification()));
+    }
+
+    private Stream<Device> query(DeviceFilterSpecification spec, Sort sort) {
+        return store.scan()
+                .filter(entry -> spec.matches(entry.device()))
+                .sorted(comparator(sort))
+                .map(InMemoryDeviceStore.Entry::device);
+    }
+
+    // Ties keep insertion order, so pages stay stable.
+    private static Comparator<InMemoryDeviceStore.Entry> comparator(Sort sort) {
+
+        Comparator<InMemoryDeviceStore.Entry> comparator = null;
+
+        for (Sort.Order order : sort) {
+            Comparator<Device> property = property(order.getProperty());
+            if (order.isDescending()) {
+                property = property.reversed();
+            }
+            Comparator<InMemoryDeviceStore.Entry> next =
+                    Comparator.comparing(InMemoryDeviceStore.Entry::device, property);
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+
+        Comparator<InMemoryDeviceStore.Entry> insertionOrder =
+                Comparator.comparingLong(InMemoryDeviceStore.Entry::sequence);
+        return comparator == null ? insertionOrder : comparator.thenComparing(insertionOrder);
+    }
+
+    private static Comparator<Device> property(String property) {
+        return switch (property) {
+            // UUID.compareTo is signed; the database orders ids as unsigned bytes.
+            case "id" -> Comparator.comparing(device -> device.getId().toString());
+            case "name" -> Comparator.comparing(Device::getName);
+            case "brand", "brand.name" -> Comparator.comparing(Device::getBrand);
+            case "state" -> Comparator.comparingInt(device -> device.getState().code());
+            case "creationTime" -> Comparator.comparing(Device::getCreationTime);
+            default -> throw new PropertyReferenceException(
+                    property, TypeInformation.of(Device.class), List.of());
+        };
+    }
+
+    private static <T> Slice<T> slice(Stream<T> matches, Pageable pageable) {
+
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(matches.toList(), pageable, false);
+        }
+
+        List<T> rows = matches
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1L)
+                .toList();
+
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+}
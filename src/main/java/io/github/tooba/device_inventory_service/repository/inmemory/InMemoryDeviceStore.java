@@ -0,0 +1,484 @@
+package io.github.tooba.device_inventory_service.repository.inmemory;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.Device;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Devices held in memory, as immutable rows of mostly primitive fields.
+ * <p>
+ * Reads are lock-free. A transaction works like a persistence context: the
+ * devices it loads are tracked, and on commit every changed device is written
+ * back under the striped locks of the affected ids. A device that another
+ * transaction changed in the meantime fails the commit, so a rule checked by
+ * {@link Device#update} or {@link Device#patch} always held for the row that
+ * is replaced. Outside a transaction every write is applied immediately.
+ * <p>
+ * Every applied change set is first handed to the {@link ChangeLog}. Change
+ * sets of the same device are logged in the order they become visible, as
+ * the stripe locks of its id are held throughout; change sets of other
+ * devices are logged concurrently. Without a log, nothing but the stripe
+ * locks is taken.
+ */
+public class InMemoryDeviceStore {
+
+    private static final int STRIPES = 64;
+    private static final long ABSENT = -1;
+
+    private final ConcurrentHashMap<UUID, Row> rows = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Ids locked by open transactions, see tryLock.
+    private final Set<UUID> rowLocks = ConcurrentHashMap.newKeySet();
+
+    // Shared by every logged change set from logging until it is visible,
+    // exclusive for a checkpoint, so a checkpoint never copies the rows
+    // between the two.
+    private final ReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private volatile ChangeLog changeLog = ChangeLog.NONE;
+
+    public InMemoryDeviceStore() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * A stored device. {@code sequence} is the insertion order, which is also
+     * the order of unsorted listings. {@code leaseMicros} is
+     * {@link #NO_LEASE} when the device holds no lease.
+     */
+    record Row(
+            UUID id,
+            String name,
+            String brand,
+            short state,
+            long creationMicros,
+            long leaseMicros,
+            long sequence,
+            long version
+    ) {
+
+        static final long NO_LEASE = Long.MIN_VALUE;
+
+        static Row of(Device device, long sequence, long version) {
+            Instant creationTime = device.getCreationTime();
+            Instant leaseExpiresAt = device.getLeaseExpiresAt();
+            return new Row(
+                    device.getId(),
+                    device.getName(),
+                    device.getBrand(),
+                    device.getState().code(),
+                    ChronoUnit.MICROS.between(Instant.EPOCH, creationTime),
+                    leaseExpiresAt == null ? NO_LEASE : ChronoUnit.MICROS.between(Instant.EPOCH, leaseExpiresAt),
+                    sequence,
+                    version
+            );
+        }
+
+        Device toDevice() {
+            return Device.restore(
+                    id,
+                    name,
+                    brand,
+                    DeviceState.fromCode(state),
+                    Instant.EPOCH.plus(creationMicros, ChronoUnit.MICROS),
+                    leaseMicros == NO_LEASE ? null : Instant.EPOCH.plus(leaseMicros, ChronoUnit.MICROS)
+            );
+        }
+
+        boolean sameContent(Row other) {
+            return name.equals(other.name)
+                    && brand.equals(other.brand)
+                    && state == other.state
+                    && creationMicros == other.creationMicros
+                    && leaseMicros == other.leaseMicros;
+        }
+    }
+
+    /**
+     * Receives each change set before it is applied. A {@code null} row is a
+     * delete. Throwing fails the write and leaves the store unchanged.
+     */
+    interface ChangeLog {
+
+        ChangeLog NONE = writes -> {};
+
+        void append(Map<UUID, Row> writes);
+    }
+
+    /**
+     * A visible device together with its insertion order.
+     */
+    record Entry(long sequence, Device device) {}
+
+    /**
+     * Per-transaction state: loaded devices with the row each was read from,
+     * new devices and removed ids.
+     */
+    static final class Transaction {
+
+        private final boolean readOnly;
+        private final Map<UUID, Device> managed = new LinkedHashMap<>();
+        private final Map<UUID, Row> originals = new HashMap<>();
+        private final Map<UUID, Long> inserted = new HashMap<>();
+        private final Set<UUID> removed = new HashSet<>();
+        private final Set<UUID> locked = new HashSet<>();
+        private boolean rollbackOnly;
+
+        Transaction(boolean readOnly) {
+            this.readOnly = readOnly;
+        }
+
+        boolean isRollbackOnly() {
+            return rollbackOnly;
+        }
+
+        void setRollbackOnly() {
+            rollbackOnly = true;
+        }
+    }
+
+    Transaction begin(boolean readOnly) {
+        return new Transaction(readOnly);
+    }
+
+    Transaction current() {
+        return (Transaction) TransactionSynchronizationManager.getResource(this);
+    }
+
+    Device find(UUID id) {
+
+        Transaction tx = current();
+        if (tx == null) {
+            Row row = rows.get(id);
+            return row == null ? null : row.toDevice();
+        }
+
+        if (tx.removed.contains(id)) {
+            return null;
+        }
+        Device device = tx.managed.get(id);
+        if (device != null) {
+            return device;
+        }
+
+        Row row = rows.get(id);
+        if (row == null) {
+            return null;
+        }
+        device = row.toDevice();
+        tx.managed.put(id, device);
+        tx.originals.put(id, row);
+        return device;
+    }
+
+    /**
+     * Locks {@code id} until the current transaction ends. Returns false when
+     * another transaction holds the lock; nobody ever waits for one. Only
+     * other lockers see these locks, plain writes rely on the commit check.
+     */
+    boolean tryLock(UUID id) {
+
+        Transaction tx = current();
+        if (tx == null) {
+            throw new IllegalStateException("Row locks need a transaction");
+        }
+
+        if (tx.locked.contains(id)) {
+            return true;
+        }
+        if (!rowLocks.add(id)) {
+            return false;
+        }
+        tx.locked.add(id);
+        return true;
+    }
+
+    /**
+     * Releases the row locks of a finished transaction.
+     */
+    void end(Transaction tx) {
+        rowLocks.removeAll(tx.locked);
+        tx.locked.clear();
+    }
+
+    Stream<Entry> scan() {
+
+        Transaction tx = current();
+        if (tx == null) {
+            return rows.values().stream().map(row -> new Entry(row.sequence(), row.toDevice()));
+        }
+
+        Stream<Entry> committed = rows.values().stream()
+                .filter(row -> !tx.removed.contains(row.id()) && !tx.inserted.containsKey(row.id()))
+                .map(row -> new Entry(row.sequence(), tx.managed.getOrDefault(row.id(), row.toDevice())));
+        Stream<Entry> pending = tx.inserted.entrySet().stream()
+                .filter(inserted -> !tx.removed.contains(inserted.getKey()))
+                .map(inserted -> new Entry(inserted.getValue(), tx.managed.get(inserted.getKey())));
+
+        return Stream.concat(committed, pending);
+    }
+
+    long size() {
+        Transaction tx = current();
+        return tx == null ? rows.size() : scan().count();
+    }
+
+    <S extends Device> S save(S entity) {
+
+        S device = entity.getId() == null ? withIdentity(entity) : entity;
+        UUID id = device.getId();
+
+        Transaction tx = current();
+        if (tx == null) {
+            ReentrantLock lock = stripe(id);
+            lock.lock();
+            try {
+                Row current = rows.get(id);
+                apply(Map.of(id, Row.of(
+                        device,
+                        current == null ? sequence.incrementAndGet() : current.sequence(),
+                        current == null ? 0 : current.version() + 1
+                )));
+            } finally {
+                lock.unlock();
+            }
+            return device;
+        }
+
+        tx.removed.remove(id);
+        if (tx.managed.get(id) != device) {
+            if (!tx.managed.containsKey(id) && !tx.originals.containsKey(id)) {
+                Row current = rows.get(id);
+                if (current == null) {
+                    tx.inserted.put(id, sequence.incrementAndGet());
+                } else {
+                    // Detached instance of a stored device: written as is,
+                    // as long as nobody changes the row before commit.
+                    tx.originals.put(id, current);
+                }
+            }
+            tx.managed.put(id, device);
+        }
+        return device;
+    }
+
+    void delete(UUID id) {
+
+        Transaction tx = current();
+        if (tx == null) {
+            ReentrantLock lock = stripe(id);
+            lock.lock();
+            try {
+                if (rows.containsKey(id)) {
+                    apply(Collections.singletonMap(id, null));
+                }
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+
+        if (tx.inserted.remove(id) != null) {
+            tx.managed.remove(id);
+            return;
+        }
+        if (!tx.originals.containsKey(id)) {
+            Row current = rows.get(id);
+            if (current == null) {
+                return;
+            }
+            tx.originals.put(id, current);
+        }
+        tx.managed.remove(id);
+        tx.removed.add(id);
+    }
+
+    /**
+     * Writes every change of the transaction, or none of them.
+     */
+    void commit(Transaction tx) {
+
+        if (tx.readOnly) {
+            return;
+        }
+
+        Map<UUID, Row> writes = new LinkedHashMap<>();
+        for (Map.Entry<UUID, Device> managed : tx.managed.entrySet()) {
+            UUID id = managed.getKey();
+            Row original = tx.originals.get(id);
+            Row written = Row.of(
+                    managed.getValue(),
+                    original == null ? tx.inserted.get(id) : original.sequence(),
+                    original == null ? 0 : original.version() + 1
+            );
+            if (original == null || !original.sameContent(written)) {
+                writes.put(id, written);
+            }
+        }
+        tx.removed.forEach(id -> writes.put(id, null));
+
+        if (writes.isEmpty()) {
+            return;
+        }
+
+        List<ReentrantLock> locks = lockAll(writes.keySet());
+        try {
+            for (UUID id : writes.keySet()) {
+                Row original = tx.originals.get(id);
+                Row current = rows.get(id);
+                long expected = original == null ? ABSENT : original.version();
+                long actual = current == null ? ABSENT : current.version();
+                if (expected == actual) {
+                    continue;
+                }
+                if (original == null) {
+                    throw new DuplicateKeyException("Device already exists with id: " + id);
+                }
+                throw new ObjectOptimisticLockingFailureException(Device.class, id);
+            }
+
+            apply(writes);
+        } finally {
+            locks.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    /**
+     * Starts handing change sets to {@code log}.
+     */
+    void attach(ChangeLog log) {
+        checkpointLock.writeLock().lock();
+        try {
+            changeLog = log;
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies changes read back from persistent storage, without logging them.
+     */
+    void restore(Map<UUID, Row> writes) {
+        checkpointLock.writeLock().lock();
+        try {
+            put(writes);
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads one snapshot row. Only used while the store is not serving yet,
+     * so it skips the locking that {@link #restore(Map)} does.
+     */
+    void restore(Row row) {
+        rows.put(row.id(), row);
+        if (row.sequence() > sequence.get()) {
+            sequence.set(row.sequence());
+        }
+    }
+
+    /**
+     * Runs {@code rotate} and copies all rows without any change in between,
+     * so the copy holds exactly the changes logged before the rotation.
+     */
+    List<Row> checkpoint(Runnable rotate) {
+        checkpointLock.writeLock().lock();
+        try {
+            rotate.run();
+            return List.copyOf(rows.values());
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    // Called with the stripe locks of every written id held.
+    private void apply(Map<UUID, Row> writes) {
+
+        ChangeLog log = changeLog;
+        if (log == ChangeLog.NONE) {
+            put(writes);
+            return;
+        }
+
+        checkpointLock.readLock().lock();
+        try {
+            changeLog.append(writes);
+            put(writes);
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    private void put(Map<UUID, Row> writes) {
+        writes.forEach((id, row) -> {
+            if (row == null) {
+                rows.remove(id);
+            } else {
+                rows.put(id, row);
+                sequence.accumulateAndGet(row.sequence(), Math::max);
+            }
+        });
+    }
+
+    // What the id generator and @PrePersist do for JPA. Creation times keep
+    // the microsecond precision of the database column.
+    @SuppressWarnings("unchecked")
+    private static <S extends Device> S withIdentity(S device) {
+        return (S) Device.restore(
+                UUID.randomUUID(),
+                device.getName(),
+                device.getBrand(),
+                device.getState() == null ? DeviceState.AVAILABLE : device.getState(),
+                Instant.now().truncatedTo(ChronoUnit.MICROS),
+                device.getLeaseExpiresAt()
+        );
+    }
+
+    // Stripes are always taken in index order, so concurrent commits cannot
+    // deadlock on each other.
+    private List<ReentrantLock> lockAll(Set<UUID> ids) {
+
+        Set<Integer> indexes = new TreeSet<>();
+        ids.forEach(id -> indexes.add(stripeIndex(id)));
+
+        List<ReentrantLock> locked = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            stripes[index].lock();
+            locked.add(stripes[index]);
+        }
+        return locked;
+    }
+
+    private ReentrantLock stripe(UUID id) {
+        return stripes[stripeIndex(id)];
+    }
+
+    private static int stripeIndex(UUID id) {
+        return (id.hashCode() & Integer.MAX_VALUE) % STRIPES;
+    }
+}
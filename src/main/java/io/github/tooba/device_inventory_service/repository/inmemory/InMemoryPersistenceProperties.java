@@ -0,0 +1,22 @@
+package io.github.tooba.device_inventory_service.repository.inmemory;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Snapshot-and-journal persistence for the in-memory storage engine.
+ * <p>
+ * {@code syncJournal} forces every journal record to disk before the commit
+ * returns. Without it a crash can lose the last commits the operating system
+ * had not written yet, but never leaves the store inconsistent.
+ */
+@ConfigurationProperties("device.in-memory.persistence")
+public record InMemoryPersistenceProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("data/in-memory") Path directory,
+        @DefaultValue("10m") Duration snapshotInterval,
+        @DefaultValue("true") boolean syncJournal
+) {}
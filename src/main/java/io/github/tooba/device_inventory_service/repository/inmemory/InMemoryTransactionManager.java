@@ -0,0 +1,92 @@
+package io.github.tooba.device_inventory_service.repository.inmemory;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transaction manager for {@link InMemoryDeviceStore}. Changes become visible
+ * to other threads only on commit; a rollback discards them.
+ * Transaction synchronization works as with JPA, so after-commit listeners
+ * run unchanged.
+ */
+public class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+
+    private final InMemoryDeviceStore store;
+
+    public InMemoryTransactionManager(InMemoryDeviceStore store) {
+        this.store = store;
+    }
+
+    @Override
+    protected Object doGetTransaction() {
+        return new TransactionObject(store.current());
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((TransactionObject) transaction).transaction != null;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        InMemoryDeviceStore.Transaction tx = store.begin(definition.isReadOnly());
+        ((TransactionObject) transaction).transaction = tx;
+        TransactionSynchronizationManager.bindResource(store, tx);
+    }
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        ((TransactionObject) transaction).transaction = null;
+        return TransactionSynchronizationManager.unbindResource(store);
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        TransactionSynchronizationManager.bindResource(store, suspendedResources);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        store.commit(((TransactionObject) status.getTransaction()).transaction);
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        // Nothing was written yet.
+    }
+
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        ((TransactionObject) status.getTransaction()).transaction.setRollbackOnly();
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        InMemoryDeviceStore.Transaction tx = ((TransactionObject) transaction).transaction;
+        if (tx != null) {
+            store.end(tx);
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(store);
+    }
+
+    private static final class TransactionObject implements SmartTransactionObject {
+
+        private InMemoryDeviceStore.Transaction transaction;
+
+        TransactionObject(InMemoryDeviceStore.Transaction transaction) {
+            this.transaction = transaction;
+        }
+
+        @Override
+        public boolean isRollbackOnly() {
+            return transaction != null && transaction.isRollbackOnly();
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
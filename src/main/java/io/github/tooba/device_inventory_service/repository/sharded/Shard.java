@@ -0,0 +1,101 @@
+package io.github.tooba.device_inventory_service.repository.sharded;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.UnaryOperator;
+
+/**
+ * One database of the sharded storage engine, with its own connection pool.
+ */
+public final class Shard implements AutoCloseable {
+
+    private final int index;
+    private final HikariDataSource pool;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactions;
+    private final ShardDialect dialect;
+
+    /**
+     * Opens the pool of shard {@code index}. {@code decorator} wraps the pool,
+     * for example to instrument its connections.
+     */
+    public Shard(int index, ShardingProperties.Database database, UnaryOperator<DataSource> decorator) {
+
+        this.index = index;
+        this.pool = new HikariDataSource();
+        pool.setPoolName("shard-" + index);
+        pool.setJdbcUrl(database.url());
+        pool.setUsername(database.username());
+        pool.setPassword(database.password());
+        pool.setMaximumPoolSize(database.poolSize());
+
+        this.dataSource = decorator.apply(pool);
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        try {
+            this.dialect = jdbc.execute((ConnectionCallback<ShardDialect>) ShardDialect::of);
+        } catch (RuntimeException ex) {
+            pool.close();
+            throw ex;
+        }
+    }
+
+    public int index() {
+        return index;
+    }
+
+    ShardDialect dialect() {
+        return dialect;
+    }
+
+    /**
+     * Statements that run on their own, or inside {@link #transactions()}.
+     */
+    JdbcTemplate jdbc() {
+        return jdbc;
+    }
+
+    TransactionTemplate transactions() {
+        return transactions;
+    }
+
+    /**
+     * A connection for a transaction that spans several shards; the caller
+     * commits and closes it.
+     */
+    Connection open() {
+        try {
+            Connection connection = dataSource.getConnection();
+            connection.setAutoCommit(false);
+            return connection;
+        } catch (SQLException ex) {
+            throw new CannotGetJdbcConnectionException("Failed to obtain a connection to shard " + index, ex);
+        }
+    }
+
+    DataAccessException translate(String task, String sql, SQLException ex) {
+        DataAccessException translated = jdbc.getExceptionTranslator().translate(task + " on shard " + index, sql, ex);
+        return translated != null ? translated : new UncategorizedSQLException(task, sql, ex);
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    @Override
+    public String toString() {
+        return "shard-" + index;
+    }
+}
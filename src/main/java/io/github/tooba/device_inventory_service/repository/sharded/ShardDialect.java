@@ -0,0 +1,123 @@
+package io.github.tooba.device_inventory_service.repository.sharded;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Comparator;
+
+/**
+ * The SQL that differs between the databases a shard can run on. Production
+ * shards are Postgres; H2 shards keep the engine testable without Docker.
+ */
+enum ShardDialect {
+
+    POSTGRES {
+        @Override
+        String shareLock() {
+            return " FOR SHARE";
+        }
+
+        @Override
+        String text(String column) {
+            return column + " COLLATE \"C\"";
+        }
+
+        // COLLATE "C" compares UTF-8 bytes, which is code point order.
+        @Override
+        Comparator<String> textOrder() {
+            return ShardDialect::compareCodePoints;
+        }
+
+        @Override
+        String upsertDevice() {
+            return "INSERT INTO shard_devices (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"
+                    + " ON CONFLICT (id) DO UPDATE SET bucket = EXCLUDED.bucket, name = EXCLUDED.name,"
+                    + " brand = EXCLUDED.brand, brand_canonical = EXCLUDED.brand_canonical,"
+                    + " state = EXCLUDED.state, creation_time = EXCLUDED.creation_time,"
+                    + " lease_expires_at = EXCLUDED.lease_expires_at, version = EXCLUDED.version";
+        }
+
+        @Override
+        String claimBucket() {
+            return "INSERT INTO shard_buckets (bucket) VALUES (?) ON CONFLICT DO NOTHING";
+        }
+    },
+
+    H2 {
+        // H2 has no shared row locks.
+        @Override
+        String shareLock() {
+            return " FOR UPDATE";
+        }
+
+        @Override
+        String text(String column) {
+            return column;
+        }
+
+        @Override
+        Comparator<String> textOrder() {
+            return String::compareTo;
+        }
+
+        @Override
+        String upsertDevice() {
+            return "MERGE INTO shard_devices (" + COLUMNS + ") KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        }
+
+        @Override
+        String claimBucket() {
+            return "MERGE INTO shard_buckets (bucket) KEY (bucket) VALUES (?)";
+        }
+    };
+
+    static final String COLUMNS =
+            "id, bucket, name, brand, brand_canonical, state, creation_time, lease_expires_at, version";
+
+    static ShardDialect of(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName();
+        return switch (product) {
+            case "PostgreSQL" -> POSTGRES;
+            case "H2" -> H2;
+            default -> throw new IllegalStateException("Unsupported shard database: " + product);
+        };
+    }
+
+    /**
+     * Row lock that keeps the locked rows from being deleted, but not other
+     * transactions from taking the same lock.
+     */
+    abstract String shareLock();
+
+    /**
+     * {@code column} in an ORDER BY, compared the way {@link #textOrder()}
+     * compares its values.
+     */
+    abstract String text(String column);
+
+    abstract Comparator<String> textOrder();
+
+    /**
+     * Inserts or overwrites one device, binding {@link #COLUMNS} in order.
+     */
+    abstract String upsertDevice();
+
+    /**
+     * Records ownership of one bucket, unless the shard already owns it.
+     */
+    abstract String claimBucket();
+
+    private static int compareCodePoints(String left, String right) {
+        int i = 0;
+        int j = 0;
+        while (i < left.length() && j < right.length()) {
+            int l = left.codePointAt(i);
+            int r = right.codePointAt(j);
+            if (l != r) {
+                return Integer.compare(l, r);
+            }
+            i += Character.charCount(l);
+            j += Character.charCount(r);
+        }
+        return Integer.compare(left.length() - i, right.length() - j);
+    }
+}
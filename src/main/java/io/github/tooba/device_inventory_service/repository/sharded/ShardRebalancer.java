@@ -0,0 +1,249 @@
+package io.github.tooba.device_inventory_service.repository.sharded;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves buckets between shards until every shard owns about the same number,
+ * which is how a newly added shard fills up while the service keeps running.
+ * <p>
+ * A bucket is moved in two steps. Its rows are first copied to the target
+ * while writers carry on. Then, in one transaction on the source, its
+ * ownership row is deleted, which waits for the writers holding a shared lock
+ * on it and blocks new ones; the rows changed since the copy are copied
+ * again, the target records ownership and commits, and the source deletes
+ * its rows and commits. Blocked writers then find the bucket gone and retry
+ * on the target, so writes to a bucket pause only for that second step.
+ * Between the two commits both shards own the bucket for a moment; readers
+ * keep using the shard they knew.
+ * <p>
+ * Several nodes may rebalance at once: the source's ownership row is deleted
+ * by exactly one of them, and copies into a shard are serialized by a lock on
+ * its {@code shard_settings} row. Shards can only be added; removing one
+ * would need its buckets moved off first, which this does not do.
+ */
+public class ShardRebalancer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private final ShardingProperties.Rebalance properties;
+    private final ShardRouter router;
+
+    private final Counter movedBuckets;
+    private final Counter movedRows;
+
+    private volatile ScheduledExecutorService executor;
+
+    public ShardRebalancer(ShardingProperties.Rebalance properties, ShardRouter router, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.router = router;
+
+        this.movedBuckets = Counter.builder("device.sharding.buckets.moved")
+                .description("Buckets moved to another shard by the rebalancer")
+                .register(meterRegistry);
+        this.movedRows = Counter.builder("device.sharding.rows.moved")
+                .description("Device rows copied to another shard by the rebalancer")
+                .register(meterRegistry);
+        for (Shard shard : router.shards()) {
+            Gauge.builder("device.sharding.buckets", router, r -> r.ownership().get(shard.index()).size())
+                    .description("Buckets owned by the shard")
+                    .tag("shard", String.valueOf(shard.index()))
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled() || router.shards().size() < 2) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("device-shard-rebalancer").daemon(true).factory()
+        );
+        long intervalMillis = Math.max(1, properties.interval().toMillis());
+        executor.scheduleWithFixedDelay(this::tick, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService running = executor;
+        if (running == null) {
+            return;
+        }
+        executor = null;
+        running.shutdownNow();
+        try {
+            running.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    private void tick() {
+        try {
+            rebalance();
+        } catch (RuntimeException ex) {
+            log.warn("Shard rebalancing failed", ex);
+        }
+    }
+
+    /**
+     * Moves buckets from the shard owning the most to the one owning the
+     * fewest until they differ by at most one.
+     *
+     * @return the number of buckets this call moved
+     */
+    public int rebalance() {
+
+        int moved = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+
+            router.refresh();
+            List<List<Integer>> ownership = router.ownership();
+
+            int most = 0;
+            int fewest = 0;
+            for (int shard = 1; shard < ownership.size(); shard++) {
+                if (ownership.get(shard).size() > ownership.get(most).size()) {
+                    most = shard;
+                }
+                if (ownership.get(shard).size() < ownership.get(fewest).size()) {
+                    fewest = shard;
+                }
+            }
+            if (ownership.get(most).size() - ownership.get(fewest).size() <= 1) {
+                return moved;
+            }
+
+            int bucket = ownership.get(most).getLast();
+            if (move(bucket, router.shards().get(most), router.shards().get(fewest))) {
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * @return false when another node moved the bucket first
+     */
+    boolean move(int bucket, Shard source, Shard target) {
+
+        long copied = sync(bucket, source, target);
+        if (copied < 0) {
+            return false;
+        }
+
+        Long delta = source.transactions().execute(sourceTx -> {
+            if (source.jdbc().update("DELETE FROM shard_buckets WHERE bucket = ?", bucket) == 0) {
+                return null;
+            }
+            return target.transactions().execute(targetTx -> {
+                long rows = sync(bucket, source, target);
+                if (rows < 0) {
+                    throw new IllegalStateException(target + " owns bucket " + bucket + " while " + source + " does");
+                }
+                target.jdbc().update(target.dialect().claimBucket(), bucket);
+                source.jdbc().update("DELETE FROM shard_devices WHERE bucket = ?", bucket);
+                return rows;
+            });
+        });
+
+        router.refresh();
+        if (delta == null) {
+            return false;
+        }
+
+        movedBuckets.increment();
+        movedRows.increment(copied + delta);
+        log.info("Moved bucket {} from {} to {} ({} rows, {} copied again)", bucket, source, target, copied + delta, delta);
+        return true;
+    }
+
+    // Makes the target's rows of the bucket match the source's, writing only
+    // the rows whose version differs. Runs in a target transaction, joining
+    // the current one if there is one.
+    private long sync(int bucket, Shard source, Shard target) {
+        Long written = target.transactions().execute(targetTx -> {
+
+            target.jdbc().queryForList("SELECT buckets FROM shard_settings FOR UPDATE", Integer.class);
+            Integer owned = target.jdbc().queryForObject(
+                    "SELECT count(*) FROM shard_buckets WHERE bucket = ?", Integer.class, bucket);
+            if (owned != null && owned > 0) {
+                return -1L;
+            }
+
+            Map<UUID, Long> present = new HashMap<>();
+            target.jdbc().query("SELECT id, version FROM shard_devices WHERE bucket = ?",
+                    rs -> { present.put(rs.getObject(1, UUID.class), rs.getLong(2)); }, bucket);
+
+            Set<UUID> seen = new HashSet<>();
+            List<Object[]> changed = new ArrayList<>();
+            long[] count = {0};
+
+            source.jdbc().query("SELECT " + ShardDialect.COLUMNS + " FROM shard_devices WHERE bucket = ?", rs -> {
+                UUID id = rs.getObject(1, UUID.class);
+                long version = rs.getLong(9);
+                seen.add(id);
+                if (Objects.equals(present.get(id), version)) {
+                    return;
+                }
+                changed.add(new Object[] {
+                        id,
+                        rs.getInt(2),
+                        rs.getString(3),
+                        rs.getString(4),
+                        rs.getString(5),
+                        rs.getShort(6),
+                        rs.getObject(7, OffsetDateTime.class),
+                        rs.getObject(8, OffsetDateTime.class),
+                        version
+                });
+                if (changed.size() >= properties.batchSize()) {
+                    count[0] += upsert(target, changed);
+                }
+            }, bucket);
+            count[0] += upsert(target, changed);
+
+            List<Object[]> gone = present.keySet().stream()
+                    .filter(id -> !seen.contains(id))
+                    .map(id -> new Object[] {id})
+                    .toList();
+            if (!gone.isEmpty()) {
+                target.jdbc().batchUpdate("DELETE FROM shard_devices WHERE id = ?", gone);
+            }
+            return count[0];
+        });
+        return written == null ? -1 : written;
+    }
+
+    private static int upsert(Shard target, List<Object[]> rows) {
+        int count = rows.size();
+        if (count > 0) {
+            target.jdbc().batchUpdate(target.dialect().upsertDevice(), rows);
+            rows.clear();
+        }
+        return count;
+    }
+}
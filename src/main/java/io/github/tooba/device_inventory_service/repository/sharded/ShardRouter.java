@@ -0,0 +1,195 @@
+package io.github.tooba.device_inventory_service.repository.sharded;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Maps device ids to the shard that owns them.
+ * <p>
+ * An id hashes to one of a fixed number of buckets, and each shard records
+ * the buckets it owns in its {@code shard_buckets} table. Only that table is
+ * authoritative; the router caches the combined map and reloads it whenever
+ * a shard turns out not to own a bucket any more. A bucket that briefly shows
+ * up on two shards is being moved; the router keeps routing it to the shard
+ * it knew until the move has committed.
+ * <p>
+ * On a fresh set of shards the buckets are dealt out round-robin. Shards
+ * added later start empty and receive buckets from the
+ * {@link ShardRebalancer}.
+ */
+public class ShardRouter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRouter.class);
+
+    private static final int UNOWNED = -1;
+
+    private static final List<String> SCHEMA = List.of(
+            """
+            CREATE TABLE IF NOT EXISTS shard_devices (
+                id UUID PRIMARY KEY,
+                bucket INTEGER NOT NULL,
+                name VARCHAR(255) NOT NULL,
+                brand VARCHAR(255) NOT NULL,
+                brand_canonical VARCHAR(255) NOT NULL,
+                state SMALLINT NOT NULL,
+                creation_time TIMESTAMP WITH TIME ZONE NOT NULL,
+                lease_expires_at TIMESTAMP WITH TIME ZONE,
+                version BIGINT NOT NULL
+            )
+            """,
+            "CREATE INDEX IF NOT EXISTS shard_devices_bucket_idx ON shard_devices (bucket)",
+            "CREATE INDEX IF NOT EXISTS shard_devices_brand_state_idx ON shard_devices (brand_canonical, state)",
+            "CREATE INDEX IF NOT EXISTS shard_devices_creation_time_idx ON shard_devices (creation_time)",
+            "CREATE INDEX IF NOT EXISTS shard_devices_lease_idx ON shard_devices (state, lease_expires_at)",
+            "CREATE TABLE IF NOT EXISTS shard_buckets (bucket INTEGER PRIMARY KEY)",
+            "CREATE TABLE IF NOT EXISTS shard_settings (buckets INTEGER NOT NULL)"
+    );
+
+    private final List<Shard> shards;
+    private final int buckets;
+
+    private volatile int[] owners;
+
+    public ShardRouter(List<Shard> shards, int buckets) {
+
+        if (shards.isEmpty()) {
+            throw new IllegalStateException("device.sharding.shards lists no databases");
+        }
+        if (buckets < 1) {
+            throw new IllegalStateException("device.sharding.buckets must be positive");
+        }
+
+        this.shards = List.copyOf(shards);
+        this.buckets = buckets;
+
+        this.shards.forEach(this::initialize);
+        dealOutIfNew();
+        this.owners = load(null);
+    }
+
+    public List<Shard> shards() {
+        return shards;
+    }
+
+    public int buckets() {
+        return buckets;
+    }
+
+    public int bucket(UUID id) {
+        return Math.floorMod(id.hashCode(), buckets);
+    }
+
+    public Shard owner(UUID id) {
+        return owner(bucket(id));
+    }
+
+    public Shard owner(int bucket) {
+
+        int owner = owners[bucket];
+        if (owner == UNOWNED) {
+            refresh();
+            owner = owners[bucket];
+        }
+        if (owner == UNOWNED) {
+            throw new DataAccessResourceFailureException(
+                    "No shard owns bucket " + bucket + "; is a shard missing from device.sharding.shards?");
+        }
+        return shards.get(owner);
+    }
+
+    /**
+     * Reloads ownership after {@code stale} was found not to own
+     * {@code bucket}, unless another thread already did.
+     *
+     * @return whether the bucket is now routed elsewhere
+     */
+    public synchronized boolean reroute(int bucket, Shard stale) {
+        if (owners[bucket] == stale.index()) {
+            owners = load(owners);
+        }
+        return owners[bucket] != stale.index();
+    }
+
+    public synchronized void refresh() {
+        owners = load(owners);
+    }
+
+    /**
+     * Buckets owned by each shard, as of the last refresh.
+     */
+    public List<List<Integer>> ownership() {
+
+        List<List<Integer>> owned = new ArrayList<>();
+        shards.forEach(shard -> owned.add(new ArrayList<>()));
+
+        int[] current = owners;
+        for (int bucket = 0; bucket < current.length; bucket++) {
+            if (current[bucket] != UNOWNED) {
+                owned.get(current[bucket]).add(bucket);
+            }
+        }
+        return owned;
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(Shard::close);
+    }
+
+    private void initialize(Shard shard) {
+
+        SCHEMA.forEach(shard.jdbc()::execute);
+
+        List<Integer> recorded = shard.jdbc().queryForList("SELECT buckets FROM shard_settings", Integer.class);
+        if (recorded.isEmpty()) {
+            shard.jdbc().update("INSERT INTO shard_settings (buckets) VALUES (?)", buckets);
+        } else if (recorded.stream().anyMatch(count -> count != buckets)) {
+            throw new IllegalStateException(
+                    shard + " was initialized with " + recorded.getFirst() + " buckets, not " + buckets);
+        }
+    }
+
+    // Every node starting on the same fresh shards deals out the same way,
+    // so concurrent starts agree.
+    private void dealOutIfNew() {
+
+        boolean fresh = shards.stream().allMatch(shard ->
+                shard.jdbc().queryForObject("SELECT count(*) FROM shard_buckets", Long.class) == 0);
+        if (!fresh) {
+            return;
+        }
+
+        for (Shard shard : shards) {
+            List<Object[]> owned = new ArrayList<>();
+            for (int bucket = shard.index(); bucket < buckets; bucket += shards.size()) {
+                owned.add(new Object[] {bucket});
+            }
+            shard.jdbc().batchUpdate(shard.dialect().claimBucket(), owned);
+        }
+        log.info("Dealt {} buckets out over {} new shards", buckets, shards.size());
+    }
+
+    private int[] load(int[] previous) {
+
+        int[] next = new int[buckets];
+        Arrays.fill(next, UNOWNED);
+
+        for (Shard shard : shards) {
+            for (int bucket : shard.jdbc().queryForList("SELECT bucket FROM shard_buckets", Integer.class)) {
+                if (next[bucket] == UNOWNED) {
+                    next[bucket] = shard.index();
+                } else if (previous != null && previous[bucket] == shard.index()) {
+                    // Both shards own it while a move commits.
+                    next[bucket] = shard.index();
+                }
+            }
+        }
+        return next;
+    }
+}
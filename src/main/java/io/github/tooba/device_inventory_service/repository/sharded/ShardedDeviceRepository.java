@@ -0,0 +1,147 @@
+package io.github.tooba.device_inventory_service.repository.sharded;
+
+import io.github.tooba.device_inventory_service.constant.DeviceField;
+import io.github.tooba.device_inventory_service.entity.Device;
+import io.github.tooba.device_inventory_service.repository.DeviceStore;
+import io.github.tooba.device_inventory_service.repository.LeaseExpiry;
+import io.github.tooba.device_inventory_service.repository.inmemory.DeviceTuple;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilterSpecification;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * {@link DeviceStore} backed by {@link ShardedDeviceStore}.
+ * <p>
+ * Filters are translated from {@link DeviceFilterSpecification#filter()}.
+ * Sorting accepts the same properties as the JPA repository.
+ */
+public class ShardedDeviceRepository implements DeviceStore {
+
+    private static final DeviceFilter UNFILTERED = DeviceFilter.of(null, null);
+
+    private final ShardedDeviceStore store;
+
+    public ShardedDeviceRepository(ShardedDeviceStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public <S extends Device> S save(S entity) {
+        return store.save(entity);
+    }
+
+    @Override
+    public Optional<Device> findById(UUID id) {
+        return Optional.ofNullable(store.find(id));
+    }
+
+    @Override
+    public List<Device> findAllById(Iterable<UUID> ids) {
+        List<UUID> list = new ArrayList<>();
+        ids.forEach(list::add);
+        return store.findAll(list);
+    }
+
+    @Override
+    public List<Device> findAllInOrder(List<UUID> ids) {
+        Map<UUID, Device> found = store.findAll(ids).stream()
+                .collect(Collectors.toMap(Device::getId, Function.identity()));
+        List<Device> devices = new ArrayList<>(ids.size());
+        ids.forEach(id -> devices.add(found.get(id)));
+        return devices;
+    }
+
+    @Override
+    public void delete(Device entity) {
+        store.delete(entity.getId());
+    }
+
+    @Override
+    public Page<Device> findAll(DeviceFilterSpecification spec, Pageable pageable) {
+
+        if (pageable.isUnpaged()) {
+            List<Device> all = store.scan(spec.filter(), pageable.getSort(), 0, -1);
+            return PageableExecutionUtils.getPage(all, pageable, all::size);
+        }
+
+        List<Device> content = store.scan(
+                spec.filter(), pageable.getSort(), pageable.getOffset(), pageable.getPageSize());
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public long count(DeviceFilterSpecification spec) {
+        return store.count(spec.filter());
+    }
+
+    @Override
+    public Slice<Device> findSlice(DeviceFilterSpecification spec, Pageable pageable) {
+
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(store.scan(spec.filter(), pageable.getSort(), 0, -1), pageable, false);
+        }
+
+        List<Device> rows = store.scan(
+                spec.filter(), pageable.getSort(), pageable.getOffset(), pageable.getPageSize() + 1);
+
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<Device> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    public Slice<Tuple> findProjectedSlice(DeviceFilterSpecification spec, Pageable pageable, Set<DeviceField> fields) {
+        return findSlice(spec, pageable).map(device -> new DeviceTuple(device, fields));
+    }
+
+    @Override
+    public Optional<Tuple> findProjectedById(UUID id, Set<DeviceField> fields) {
+        return findById(id).map(device -> new DeviceTuple(device, fields));
+    }
+
+    @Override
+    public List<Device> lockClaimable(DeviceFilterSpecification spec, int limit) {
+        return store.lockMatching(spec.filter(), limit);
+    }
+
+    @Override
+    public List<Device> lockExpiredLeases(Collection<UUID> ids, Instant now) {
+        return store.lockExpiredLeases(ids, now);
+    }
+
+    @Override
+    public List<Device> lockExpiredLeases(Instant now, int limit) {
+        return store.lockExpiredLeases(now, limit);
+    }
+
+    @Override
+    public List<LeaseExpiry> findLeasesExpiringBefore(Instant deadline, int limit) {
+        return store.findLeasesExpiringBefore(deadline, limit);
+    }
+
+    // Only the unfiltered count has cheap statistics; filtered counts fall
+    // back to the exact scatter-gather count.
+    @Override
+    public OptionalLong estimateCount(DeviceFilter filter) {
+        return filter.equals(UNFILTERED) ? store.estimateCount() : OptionalLong.empty();
+    }
+}
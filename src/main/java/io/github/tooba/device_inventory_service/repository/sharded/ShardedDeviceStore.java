@@ -0,0 +1,925 @@
+package io.github.tooba.device_inventory_service.repository.sharded;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.Brand;
+import io.github.tooba.device_inventory_service.entity.Device;
+import io.github.tooba.device_inventory_service.repository.LeaseExpiry;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.data.core.PropertyReferenceException;
+import org.springframework.data.core.TypeInformation;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.HeuristicCompletionException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Devices spread over the shards of a {@link ShardRouter}.
+ * <p>
+ * A transaction works like a persistence context: loaded devices are
+ * tracked, and changes are written when the transaction commits or before it
+ * queries across shards, much like a JPA flush. Every write first takes a
+ * shared lock on the ownership row of its bucket on the shard it goes to, so
+ * a bucket cannot move away underneath it; a write whose bucket has moved is
+ * sent to the new owner instead. Updates and deletes check the row version
+ * they were loaded with, so a device changed by another transaction in the
+ * meantime fails the commit, as in the in-memory store.
+ * <p>
+ * Listings run on all shards in parallel, each returning its first
+ * {@code offset + limit} matches in the requested order with the id as
+ * tie-breaker, and are merge-sorted into one page. Counts are summed.
+ * <p>
+ * Each shard commits its part on its own connection, one after the other.
+ * A transaction is atomic per shard only: when a later shard fails to commit
+ * after an earlier one did, the commit fails with a mixed
+ * {@link HeuristicCompletionException}.
+ */
+public class ShardedDeviceStore implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedDeviceStore.class);
+
+    // Keeps bind parameters and the IN-list size of a single query bounded.
+    private static final int LOOKUP_CHUNK_SIZE = 500;
+
+    // Buckets being moved while a flush routes its writes.
+    private static final int MAX_REROUTES = 5;
+
+    private static final String SELECT =
+            "SELECT d.id, d.bucket, d.name, d.brand, d.state, d.creation_time, d.lease_expires_at, d.version"
+                    + " FROM shard_devices d";
+
+    private static final String OWNED = "d.bucket IN (SELECT bucket FROM shard_buckets)";
+
+    private static final String INSERT =
+            "INSERT INTO shard_devices (" + ShardDialect.COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE =
+            "UPDATE shard_devices SET name = ?, brand = ?, brand_canonical = ?, state = ?,"
+                    + " lease_expires_at = ?, version = ? WHERE id = ? AND version = ?";
+
+    private static final String DELETE = "DELETE FROM shard_devices WHERE id = ? AND version = ?";
+
+    private final ShardRouter router;
+    private final ShardDialect dialect;
+    private final ExecutorService scatter = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ShardedDeviceStore(ShardRouter router) {
+        this.router = router;
+        this.dialect = router.shards().getFirst().dialect();
+        if (router.shards().stream().anyMatch(shard -> shard.dialect() != dialect)) {
+            throw new IllegalStateException("All shards must run on the same database product");
+        }
+    }
+
+    /**
+     * A stored device with the bucket it hashes to and the version it was
+     * read or written at.
+     */
+    record Row(
+            UUID id,
+            int bucket,
+            String name,
+            String brand,
+            short state,
+            Instant creationTime,
+            Instant leaseExpiresAt,
+            long version
+    ) {
+
+        static Row of(Device device, int bucket, long version) {
+            return new Row(
+                    device.getId(),
+                    bucket,
+                    device.getName(),
+                    device.getBrand(),
+                    device.getState().code(),
+                    device.getCreationTime(),
+                    device.getLeaseExpiresAt(),
+                    version
+            );
+        }
+
+        static Row read(ResultSet rs) throws SQLException {
+            OffsetDateTime lease = rs.getObject(7, OffsetDateTime.class);
+            return new Row(
+                    rs.getObject(1, UUID.class),
+                    rs.getInt(2),
+                    rs.getString(3),
+                    rs.getString(4),
+                    rs.getShort(5),
+                    rs.getObject(6, OffsetDateTime.class).toInstant(),
+                    lease == null ? null : lease.toInstant(),
+                    rs.getLong(8)
+            );
+        }
+
+        Device toDevice() {
+            return Device.restore(id, name, brand, DeviceState.fromCode(state), creationTime, leaseExpiresAt);
+        }
+
+        boolean sameContent(Row other) {
+            return name.equals(other.name)
+                    && brand.equals(other.brand)
+                    && state == other.state
+                    && creationTime.equals(other.creationTime)
+                    && Objects.equals(leaseExpiresAt, other.leaseExpiresAt);
+        }
+    }
+
+    /**
+     * Per-transaction state: one connection per shard touched, loaded and new
+     * devices, the row each was last read or written as, and removed ids.
+     */
+    static final class Transaction {
+
+        private final boolean readOnly;
+        private final Map<Integer, Connection> connections = new TreeMap<>();
+        private final Map<UUID, Device> managed = new LinkedHashMap<>();
+        private final Map<UUID, Row> stored = new HashMap<>();
+        private final Set<UUID> removed = new HashSet<>();
+        private boolean rollbackOnly;
+
+        Transaction(boolean readOnly) {
+            this.readOnly = readOnly;
+        }
+
+        boolean isRollbackOnly() {
+            return rollbackOnly;
+        }
+
+        void setRollbackOnly() {
+            rollbackOnly = true;
+        }
+    }
+
+    private enum Operation { INSERT, UPDATE, DELETE }
+
+    private record Write(Operation operation, Row row, long expectedVersion) {}
+
+    private record Where(String sql, List<Object> args) {}
+
+    @FunctionalInterface
+    private interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    Transaction begin(boolean readOnly) {
+        return new Transaction(readOnly);
+    }
+
+    Transaction current() {
+        return (Transaction) TransactionSynchronizationManager.getResource(this);
+    }
+
+    Device find(UUID id) {
+        return run(true, tx -> {
+            if (tx.removed.contains(id)) {
+                return null;
+            }
+            Device device = tx.managed.get(id);
+            if (device != null) {
+                return device;
+            }
+            Row row = fetch(tx, id);
+            return row == null ? null : manage(tx, row);
+        });
+    }
+
+    /**
+     * The stored devices among {@code ids}, in no particular order. Every
+     * shard is asked once per chunk of ids it owns.
+     */
+    List<Device> findAll(Collection<UUID> ids) {
+        return run(true, tx -> {
+
+            Map<UUID, Device> found = new HashMap<>();
+            Map<Shard, List<UUID>> byShard = new TreeMap<>(Comparator.comparingInt(Shard::index));
+            for (UUID id : new LinkedHashSet<>(ids)) {
+                if (tx.removed.contains(id)) {
+                    continue;
+                }
+                Device device = tx.managed.get(id);
+                if (device != null) {
+                    found.put(id, device);
+                } else {
+                    byShard.computeIfAbsent(router.owner(id), shard -> new ArrayList<>()).add(id);
+                }
+            }
+
+            byShard.forEach((shard, shardIds) -> {
+                for (int from = 0; from < shardIds.size(); from += LOOKUP_CHUNK_SIZE) {
+                    List<UUID> chunk = shardIds.subList(from, Math.min(shardIds.size(), from + LOOKUP_CHUNK_SIZE));
+                    String sql = SELECT + " WHERE d.id IN (" + placeholders(chunk.size()) + ") AND " + OWNED;
+                    query(tx, shard, sql, new ArrayList<>(chunk), Row::read)
+                            .forEach(row -> found.put(row.id(), manage(tx, row)));
+                }
+                // A miss may be a bucket that moved since the router last looked.
+                shardIds.stream()
+                        .filter(id -> !found.containsKey(id))
+                        .forEach(id -> {
+                            Row row = fetch(tx, id);
+                            if (row != null) {
+                                found.put(id, manage(tx, row));
+                            }
+                        });
+            });
+
+            return new ArrayList<>(found.values());
+        });
+    }
+
+    /**
+     * Matches of {@code filter} in {@code sort} order, skipping {@code offset}
+     * and returning at most {@code limit}, or all when {@code limit} is negative.
+     */
+    List<Device> scan(DeviceFilter filter, Sort sort, long offset, int limit) {
+        return run(true, tx -> {
+
+            flush(tx);
+
+            Where where = where(filter);
+            List<Object> args = new ArrayList<>(where.args());
+            String sql = SELECT + " WHERE " + where.sql() + " ORDER BY " + orderBy(sort);
+            if (limit >= 0) {
+                sql += " LIMIT ?";
+                args.add(offset + limit);
+            }
+
+            String statement = sql;
+            List<List<Row>> perShard = scatter(tx, shard -> query(tx, shard, statement, args, Row::read));
+
+            List<Device> page = new ArrayList<>();
+            long skipped = 0;
+            for (Row row : merge(perShard, comparator(sort))) {
+                if (limit >= 0 && page.size() == limit) {
+                    break;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                Device device = manage(tx, row);
+                if (device != null) {
+                    page.add(device);
+                }
+            }
+            return page;
+        });
+    }
+
+    long count(DeviceFilter filter) {
+        return run(true, tx -> {
+            flush(tx);
+            Where where = where(filter);
+            String sql = "SELECT count(*) FROM shard_devices d WHERE " + where.sql();
+            return scatter(tx, shard -> query(tx, shard, sql, where.args(), rs -> rs.getLong(1)).getFirst())
+                    .stream()
+                    .mapToLong(Long::longValue)
+                    .sum();
+        });
+    }
+
+    /**
+     * Postgres' planner statistics summed over all shards. They include rows
+     * a bucket move left behind, so this is an estimate in every sense.
+     */
+    OptionalLong estimateCount() {
+
+        if (dialect != ShardDialect.POSTGRES) {
+            return OptionalLong.empty();
+        }
+
+        long total = 0;
+        for (Shard shard : router.shards()) {
+            Long reltuples = shard.jdbc().queryForObject(
+                    "SELECT reltuples::bigint FROM pg_class WHERE oid = 'shard_devices'::regclass", Long.class);
+            // -1 means the table has never been vacuumed or analyzed.
+            if (reltuples == null || reltuples < 0) {
+                return OptionalLong.empty();
+            }
+            total += reltuples;
+        }
+        return OptionalLong.of(total);
+    }
+
+    /**
+     * Locks up to {@code limit} matches of {@code filter} that no other
+     * transaction holds, visiting the shards from a random one on so that
+     * concurrent claimers spread out.
+     */
+    List<Device> lockMatching(DeviceFilter filter, int limit) {
+        return run(false, tx -> {
+
+            flush(tx);
+
+            Where where = where(filter);
+            String sql = SELECT + " WHERE " + where.sql() + " LIMIT ? FOR UPDATE SKIP LOCKED";
+
+            List<Shard> shards = router.shards();
+            int start = ThreadLocalRandom.current().nextInt(shards.size());
+            List<Device> locked = new ArrayList<>();
+
+            for (int i = 0; i < shards.size() && locked.size() < limit; i++) {
+                List<Object> args = new ArrayList<>(where.args());
+                args.add(limit - locked.size());
+                query(tx, shards.get((start + i) % shards.size()), sql, args, Row::read).stream()
+                        .map(row -> manage(tx, row))
+                        .filter(device -> device != null)
+                        .forEach(locked::add);
+            }
+            return locked;
+        });
+    }
+
+    List<Device> lockExpiredLeases(Collection<UUID> ids, Instant now) {
+        return run(false, tx -> {
+
+            flush(tx);
+
+            Map<Shard, List<UUID>> byShard = ids.stream()
+                    .distinct()
+                    .collect(Collectors.groupingBy(
+                            router::owner,
+                            () -> new TreeMap<>(Comparator.comparingInt(Shard::index)),
+                            Collectors.toList()
+                    ));
+
+            List<Device> locked = new ArrayList<>();
+            byShard.forEach((shard, shardIds) -> {
+                for (int from = 0; from < shardIds.size(); from += LOOKUP_CHUNK_SIZE) {
+                    List<UUID> chunk = shardIds.subList(from, Math.min(shardIds.size(), from + LOOKUP_CHUNK_SIZE));
+                    List<Object> args = new ArrayList<>(chunk);
+                    args.add(DeviceState.IN_USE.code());
+                    args.add(now);
+                    String sql = SELECT + " WHERE d.id IN (" + placeholders(chunk.size()) + ")"
+                            + " AND d.state = ? AND d.lease_expires_at <= ? AND " + OWNED
+                            + " FOR UPDATE SKIP LOCKED";
+                    query(tx, shard, sql, args, Row::read).stream()
+                            .map(row -> manage(tx, row))
+                            .filter(device -> device != null)
+                            .forEach(locked::add);
+                }
+            });
+            return locked;
+        });
+    }
+
+    // Shard by shard, each in expiry order; the sweeper only needs them all
+    // expired eventually, not globally in order.
+    List<Device> lockExpiredLeases(Instant now, int limit) {
+        return run(false, tx -> {
+
+            flush(tx);
+
+            String sql = SELECT + " WHERE d.state = ? AND d.lease_expires_at <= ? AND " + OWNED
+                    + " ORDER BY d.lease_expires_at LIMIT ? FOR UPDATE SKIP LOCKED";
+
+            List<Device> locked = new ArrayList<>();
+            for (Shard shard : router.shards()) {
+                if (locked.size() >= limit) {
+                    break;
+                }
+                List<Object> args = List.of(DeviceState.IN_USE.code(), now, limit - locked.size());
+                query(tx, shard, sql, args, Row::read).stream()
+                        .map(row -> manage(tx, row))
+                        .filter(device -> device != null)
+                        .forEach(locked::add);
+            }
+            return locked;
+        });
+    }
+
+    List<LeaseExpiry> findLeasesExpiringBefore(Instant deadline, int limit) {
+        return run(true, tx -> {
+
+            flush(tx);
+
+            String sql = "SELECT d.id, d.lease_expires_at FROM shard_devices d"
+                    + " WHERE d.state = ? AND d.lease_expires_at < ? AND " + OWNED
+                    + " ORDER BY d.lease_expires_at LIMIT ?";
+            List<Object> args = List.of(DeviceState.IN_USE.code(), deadline, limit);
+
+            List<List<LeaseExpiry>> perShard = scatter(tx, shard -> query(tx, shard, sql, args, rs ->
+                    new LeaseExpiry(rs.getObject(1, UUID.class), rs.getObject(2, OffsetDateTime.class).toInstant())));
+
+            return merge(perShard, Comparator.comparing(LeaseExpiry::expiresAt)).stream()
+                    .limit(limit)
+                    .toList();
+        });
+    }
+
+    <S extends Device> S save(S entity) {
+
+        boolean generated = entity.getId() == null;
+        S device = generated ? withIdentity(entity) : entity;
+        UUID id = device.getId();
+
+        return run(false, tx -> {
+            tx.removed.remove(id);
+            if (tx.managed.get(id) != device) {
+                if (!generated && !tx.managed.containsKey(id) && !tx.stored.containsKey(id)) {
+                    // Detached instance of a stored device: written as is,
+                    // as long as nobody changes the row before commit.
+                    Row current = fetch(tx, id);
+                    if (current != null) {
+                        tx.stored.put(id, current);
+                    }
+                }
+                tx.managed.put(id, device);
+            }
+            return device;
+        });
+    }
+
+    void delete(UUID id) {
+        run(false, tx -> {
+            tx.managed.remove(id);
+            if (!tx.stored.containsKey(id)) {
+                Row current = fetch(tx, id);
+                if (current == null) {
+                    return null;
+                }
+                tx.stored.put(id, current);
+            }
+            tx.removed.add(id);
+            return null;
+        });
+    }
+
+    /**
+     * Writes the remaining changes and commits every shard the transaction
+     * touched, in shard order.
+     */
+    void commit(Transaction tx) {
+
+        flush(tx);
+
+        boolean committedAny = false;
+        for (Map.Entry<Integer, Connection> entry : new ArrayList<>(tx.connections.entrySet())) {
+            Shard shard = router.shards().get(entry.getKey());
+            try {
+                entry.getValue().commit();
+            } catch (SQLException ex) {
+                DataAccessException failure = shard.translate("Commit", null, ex);
+                if (!committedAny) {
+                    throw failure;
+                }
+                throw new HeuristicCompletionException(HeuristicCompletionException.STATE_MIXED, failure);
+            }
+            committedAny = true;
+            tx.connections.remove(entry.getKey());
+            close(shard, entry.getValue(), false);
+        }
+    }
+
+    /**
+     * Rolls back whatever the transaction has not committed and returns its
+     * connections.
+     */
+    void end(Transaction tx) {
+        tx.connections.forEach((index, connection) -> close(router.shards().get(index), connection, true));
+        tx.connections.clear();
+    }
+
+    @Override
+    public void close() {
+        scatter.shutdownNow();
+    }
+
+    // Runs in the current transaction, or in one of its own that commits
+    // right away, as a JPA repository call outside a transaction would.
+    private <T> T run(boolean readOnly, Function<Transaction, T> work) {
+
+        Transaction tx = current();
+        if (tx != null) {
+            return work.apply(tx);
+        }
+
+        tx = begin(readOnly);
+        try {
+            T result = work.apply(tx);
+            commit(tx);
+            return result;
+        } finally {
+            end(tx);
+        }
+    }
+
+    private Device manage(Transaction tx, Row row) {
+
+        if (tx.removed.contains(row.id())) {
+            return null;
+        }
+        Device device = tx.managed.get(row.id());
+        if (device != null) {
+            return device;
+        }
+        device = row.toDevice();
+        tx.managed.put(row.id(), device);
+        tx.stored.put(row.id(), row);
+        return device;
+    }
+
+    // The left join tells a missing device on an owned bucket apart from a
+    // bucket this shard no longer owns.
+    private Row fetch(Transaction tx, UUID id) {
+
+        int bucket = router.bucket(id);
+        String sql = "SELECT d.id, d.bucket, d.name, d.brand, d.state, d.creation_time, d.lease_expires_at, d.version"
+                + " FROM shard_buckets b LEFT JOIN shard_devices d ON d.id = ? WHERE b.bucket = ?";
+
+        for (int attempt = 0; attempt <= MAX_REROUTES; attempt++) {
+            Shard shard = router.owner(bucket);
+            List<Optional<Row>> rows = query(tx, shard, sql, List.<Object>of(id, bucket), rs ->
+                    rs.getObject(1) == null ? Optional.empty() : Optional.of(Row.read(rs)));
+            if (!rows.isEmpty()) {
+                return rows.getFirst().orElse(null);
+            }
+            if (!router.reroute(bucket, shard)) {
+                return null;
+            }
+        }
+        throw moving(bucket);
+    }
+
+    private void flush(Transaction tx) {
+
+        if (tx.readOnly || tx.rollbackOnly) {
+            return;
+        }
+
+        List<Write> pending = new ArrayList<>();
+        tx.managed.forEach((id, device) -> {
+            Row stored = tx.stored.get(id);
+            Row written = Row.of(device, router.bucket(id), stored == null ? 0 : stored.version() + 1);
+            if (stored == null) {
+                pending.add(new Write(Operation.INSERT, written, -1));
+            } else if (!stored.sameContent(written)) {
+                pending.add(new Write(Operation.UPDATE, written, stored.version()));
+            }
+        });
+        tx.removed.forEach(id -> {
+            Row stored = tx.stored.get(id);
+            pending.add(new Write(Operation.DELETE, stored, stored.version()));
+        });
+
+        for (int attempt = 0; !pending.isEmpty(); attempt++) {
+            if (attempt > MAX_REROUTES) {
+                throw moving(pending.getFirst().row().bucket());
+            }
+
+            Map<Shard, List<Write>> byShard = pending.stream().collect(Collectors.groupingBy(
+                    write -> router.owner(write.row().bucket()),
+                    () -> new TreeMap<>(Comparator.comparingInt(Shard::index)),
+                    Collectors.toList()
+            ));
+
+            List<Write> rerouted = new ArrayList<>();
+            byShard.forEach((shard, writes) -> {
+                Set<Integer> owned = lockBuckets(tx, shard, writes);
+                List<Write> here = new ArrayList<>();
+                Set<Integer> moved = new TreeSet<>();
+                for (Write write : writes) {
+                    if (owned.contains(write.row().bucket())) {
+                        here.add(write);
+                    } else {
+                        rerouted.add(write);
+                        moved.add(write.row().bucket());
+                    }
+                }
+                moved.forEach(bucket -> router.reroute(bucket, shard));
+                execute(tx, shard, here);
+            });
+            pending.clear();
+            pending.addAll(rerouted);
+        }
+    }
+
+    // Ascending bucket order, so concurrent writers on H2, where this lock
+    // is exclusive, cannot deadlock on each other.
+    private Set<Integer> lockBuckets(Transaction tx, Shard shard, List<Write> writes) {
+
+        List<Object> buckets = new ArrayList<Object>(new TreeSet<>(writes.stream().map(write -> write.row().bucket()).toList()));
+        String sql = "SELECT bucket FROM shard_buckets WHERE bucket IN (" + placeholders(buckets.size()) + ")"
+                + " ORDER BY bucket" + dialect.shareLock();
+        return new HashSet<>(query(tx, shard, sql, buckets, rs -> rs.getInt(1)));
+    }
+
+    private void execute(Transaction tx, Shard shard, List<Write> writes) {
+
+        Connection connection = connection(tx, shard);
+        Map<Operation, List<Write>> byOperation = writes.stream().collect(Collectors.groupingBy(Write::operation));
+
+        List<Write> inserts = byOperation.getOrDefault(Operation.INSERT, List.of());
+        batch(shard, connection, INSERT, inserts, (ps, write) -> {
+            Row row = write.row();
+            bind(ps, List.<Object>of(row.id(), row.bucket(), row.name(), row.brand(), Brand.canonical(row.brand()),
+                    row.state(), row.creationTime()));
+            setInstant(ps, 8, row.leaseExpiresAt());
+            ps.setLong(9, row.version());
+        });
+
+        List<Write> updates = byOperation.getOrDefault(Operation.UPDATE, List.of());
+        batch(shard, connection, UPDATE, updates, (ps, write) -> {
+            Row row = write.row();
+            bind(ps, List.<Object>of(row.name(), row.brand(), Brand.canonical(row.brand()), row.state()));
+            setInstant(ps, 5, row.leaseExpiresAt());
+            ps.setLong(6, row.version());
+            ps.setObject(7, row.id());
+            ps.setLong(8, write.expectedVersion());
+        });
+
+        List<Write> deletes = byOperation.getOrDefault(Operation.DELETE, List.of());
+        batch(shard, connection, DELETE, deletes, (ps, write) -> {
+            ps.setObject(1, write.row().id());
+            ps.setLong(2, write.expectedVersion());
+        });
+
+        inserts.forEach(write -> tx.stored.put(write.row().id(), write.row()));
+        updates.forEach(write -> tx.stored.put(write.row().id(), write.row()));
+        deletes.forEach(write -> {
+            tx.stored.remove(write.row().id());
+            tx.removed.remove(write.row().id());
+        });
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement ps, Write write) throws SQLException;
+    }
+
+    private static void batch(Shard shard, Connection connection, String sql, List<Write> writes, Binder binder) {
+
+        if (writes.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (Write write : writes) {
+                binder.bind(ps, write);
+                ps.addBatch();
+            }
+            int[] counts = ps.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    throw new ObjectOptimisticLockingFailureException(Device.class, writes.get(i).row().id());
+                }
+            }
+        } catch (SQLException ex) {
+            throw shard.translate("Writing devices", sql, ex);
+        }
+    }
+
+    private <T> List<T> query(Transaction tx, Shard shard, String sql, List<Object> args, RowMapper<T> mapper) {
+
+        try (PreparedStatement ps = connection(tx, shard).prepareStatement(sql)) {
+            bind(ps, args);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<T> rows = new ArrayList<>();
+                while (rs.next()) {
+                    rows.add(mapper.map(rs));
+                }
+                return rows;
+            }
+        } catch (SQLException ex) {
+            throw shard.translate("Reading devices", sql, ex);
+        }
+    }
+
+    // Runs work on every shard at once. Connections are opened up front,
+    // since the transaction itself is not shared between threads.
+    private <T> List<T> scatter(Transaction tx, Function<Shard, T> work) {
+
+        List<Shard> shards = router.shards();
+        shards.forEach(shard -> connection(tx, shard));
+
+        if (shards.size() == 1) {
+            return List.of(work.apply(shards.getFirst()));
+        }
+
+        List<Future<T>> futures = shards.stream()
+                .map(shard -> scatter.submit(() -> work.apply(shard)))
+                .toList();
+
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException(ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                futures.forEach(pending -> pending.cancel(true));
+                throw new TransientDataAccessResourceException("Interrupted while reading shards", ex);
+            }
+        }
+        return results;
+    }
+
+    private Connection connection(Transaction tx, Shard shard) {
+        Connection connection = tx.connections.get(shard.index());
+        if (connection == null) {
+            connection = shard.open();
+            tx.connections.put(shard.index(), connection);
+        }
+        return connection;
+    }
+
+    private static void close(Shard shard, Connection connection, boolean rollback) {
+        try (connection) {
+            if (rollback) {
+                connection.rollback();
+            }
+        } catch (SQLException ex) {
+            log.warn("Failed to release connection to {}", shard, ex);
+        }
+    }
+
+    // Each list is already sorted; duplicates of a row seen on two shards
+    // while its bucket moves come out next to each other and are dropped.
+    private static <T> List<T> merge(List<List<T>> sorted, Comparator<? super T> order) {
+
+        record Cursor<T>(List<T> rows, int position) {
+            T head() {
+                return rows.get(position);
+            }
+        }
+
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>((a, b) -> order.compare(a.head(), b.head()));
+        sorted.stream().filter(rows -> !rows.isEmpty()).forEach(rows -> heads.add(new Cursor<>(rows, 0)));
+
+        List<T> merged = new ArrayList<>();
+        while (!heads.isEmpty()) {
+            Cursor<T> cursor = heads.poll();
+            T head = cursor.head();
+            if (merged.isEmpty() || !sameRow(merged.getLast(), head)) {
+                merged.add(head);
+            }
+            if (cursor.position() + 1 < cursor.rows().size()) {
+                heads.add(new Cursor<>(cursor.rows(), cursor.position() + 1));
+            }
+        }
+        return merged;
+    }
+
+    private static boolean sameRow(Object previous, Object next) {
+        if (previous instanceof Row left && next instanceof Row right) {
+            return left.id().equals(right.id());
+        }
+        return previous.equals(next);
+    }
+
+    private static Where where(DeviceFilter filter) {
+
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        conditions.add(OWNED);
+
+        if (filter.brand() != null) {
+            conditions.add("d.brand_canonical = ?");
+            args.add(Brand.canonical(filter.brand()));
+        }
+        if (filter.state() != null) {
+            conditions.add("d.state = ?");
+            args.add(filter.state().code());
+        }
+        if (filter.createdFrom() != null) {
+            conditions.add("d.creation_time >= ?");
+            args.add(filter.createdFrom());
+        }
+        if (filter.createdTo() != null) {
+            conditions.add("d.creation_time < ?");
+            args.add(filter.createdTo());
+        }
+        return new Where(String.join(" AND ", conditions), args);
+    }
+
+    // The id breaks ties, so every shard and the merge agree on one order.
+    private String orderBy(Sort sort) {
+
+        List<String> keys = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            keys.add(column(order.getProperty()) + (order.isDescending() ? " DESC" : " ASC"));
+        }
+        keys.add("d.id ASC");
+        return String.join(", ", keys);
+    }
+
+    private String column(String property) {
+        return switch (property) {
+            case "id" -> "d.id";
+            case "name" -> dialect.text("d.name");
+            case "brand", "brand.name" -> dialect.text("d.brand");
+            case "state" -> "d.state";
+            case "creationTime" -> "d.creation_time";
+            default -> throw new PropertyReferenceException(property, TypeInformation.of(Device.class), List.of());
+        };
+    }
+
+    private Comparator<Row> comparator(Sort sort) {
+
+        Comparator<Row> comparator = Comparator.comparing(Row::id, ShardedDeviceStore::compareUnsigned);
+        List<Comparator<Row>> keys = new ArrayList<>();
+
+        for (Sort.Order order : sort) {
+            Comparator<Row> key = switch (order.getProperty()) {
+                case "id" -> Comparator.comparing(Row::id, ShardedDeviceStore::compareUnsigned);
+                case "name" -> Comparator.comparing(Row::name, dialect.textOrder());
+                case "brand", "brand.name" -> Comparator.comparing(Row::brand, dialect.textOrder());
+                case "state" -> Comparator.comparingInt(Row::state);
+                case "creationTime" -> Comparator.comparing(Row::creationTime);
+                default -> throw new PropertyReferenceException(
+                        order.getProperty(), TypeInformation.of(Device.class), List.of());
+            };
+            keys.add(order.isDescending() ? key.reversed() : key);
+        }
+
+        return keys.stream()
+                .reduce(Comparator::thenComparing)
+                .map(key -> key.thenComparing(comparator))
+                .orElse(comparator);
+    }
+
+    // Both databases order uuids as unsigned bytes.
+    private static int compareUnsigned(UUID left, UUID right) {
+        int high = Long.compareUnsigned(left.getMostSignificantBits(), right.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(left.getLeastSignificantBits(), right.getLeastSignificantBits());
+    }
+
+    private static void bind(PreparedStatement ps, List<Object> args) throws SQLException {
+        for (int i = 0; i < args.size(); i++) {
+            Object arg = args.get(i);
+            if (arg instanceof Instant instant) {
+                setInstant(ps, i + 1, instant);
+            } else {
+                ps.setObject(i + 1, arg);
+            }
+        }
+    }
+
+    private static void setInstant(PreparedStatement ps, int index, Instant instant) throws SQLException {
+        ps.setObject(index, instant == null ? null : instant.atOffset(ZoneOffset.UTC));
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static TransientDataAccessResourceException moving(int bucket) {
+        return new TransientDataAccessResourceException("Bucket " + bucket + " kept moving between shards");
+    }
+
+    // What the id generator and @PrePersist do for JPA. Creation times keep
+    // the microsecond precision of the database column.
+    @SuppressWarnings("unchecked")
+    private static <S extends Device> S withIdentity(S device) {
+        return (S) Device.restore(
+                UUID.randomUUID(),
+                device.getName(),
+                device.getBrand(),
+                device.getState() == null ? DeviceState.AVAILABLE : device.getState(),
+                Instant.now().truncatedTo(ChronoUnit.MICROS),
+                device.getLeaseExpiresAt()
+        );
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.tooba.device_inventory_service.repository.sharded;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transaction manager for {@link ShardedDeviceStore}. Each transaction holds
+ * one connection per shard it touches; commit writes the pending changes and
+ * commits those connections, rollback discards both.
+ * Transaction synchronization works as with JPA, so after-commit listeners
+ * run unchanged.
+ */
+public class ShardedTransactionManager extends AbstractPlatformTransactionManager {
+
+    private final ShardedDeviceStore store;
+
+    public ShardedTransactionManager(ShardedDeviceStore store) {
+        this.store = store;
+    }
+
+    @Override
+    protected Object doGetTransaction() {
+        return new TransactionObject(store.current());
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((TransactionObject) transaction).transaction != null;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        ShardedDeviceStore.Transaction tx = store.begin(definition.isReadOnly());
+        ((TransactionObject) transaction).transaction = tx;
+        TransactionSynchronizationManager.bindResource(store, tx);
+    }
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        ((TransactionObject) transaction).transaction = null;
+        return TransactionSynchronizationManager.unbindResource(store);
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        TransactionSynchronizationManager.bindResource(store, suspendedResources);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        store.commit(((TransactionObject) status.getTransaction()).transaction);
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        // The connections roll back as they are released.
+    }
+
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        ((TransactionObject) status.getTransaction()).transaction.setRollbackOnly();
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        ShardedDeviceStore.Transaction tx = ((TransactionObject) transaction).transaction;
+        if (tx != null) {
+            store.end(tx);
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(store);
+    }
+
+    private static final class TransactionObject implements SmartTransactionObject {
+
+        private ShardedDeviceStore.Transaction transaction;
+
+        TransactionObject(ShardedDeviceStore.Transaction transaction) {
+            this.transaction = transaction;
+        }
+
+        @Override
+        public boolean isRollbackOnly() {
+            return transaction != null && transaction.isRollbackOnly();
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
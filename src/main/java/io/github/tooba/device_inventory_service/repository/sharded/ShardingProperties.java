@@ -0,0 +1,43 @@
+package io.github.tooba.device_inventory_service.repository.sharded;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Databases of the sharded storage engine.
+ * <p>
+ * Devices are hashed by id into {@code buckets}, and every bucket is owned by
+ * exactly one shard. The bucket count is fixed when the first shard is
+ * initialized and cannot change afterwards; it bounds how evenly devices can
+ * spread, so it should stay well above the largest expected shard count.
+ * A shard is added by appending it to {@code shards} on every node; the
+ * rebalancer then moves buckets onto it in the background.
+ */
+@ConfigurationProperties("device.sharding")
+public record ShardingProperties(
+        @DefaultValue List<Database> shards,
+        @DefaultValue("256") int buckets,
+        @DefaultValue Rebalance rebalance
+) {
+
+    public record Database(
+            String url,
+            String username,
+            String password,
+            @DefaultValue("10") int poolSize
+    ) {}
+
+    /**
+     * Moves buckets from the shard owning the most to the one owning the
+     * fewest, copying {@code batchSize} rows per statement batch, until no two
+     * shards differ by more than one bucket.
+     */
+    public record Rebalance(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("30s") Duration interval,
+            @DefaultValue("500") int batchSize
+    ) {}
+}
@@ -0,0 +1,43 @@
+package io.github.tooba.device_inventory_service.repository.specification;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.Device;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Listing filter. Every field is optional. {@code createdFrom} is inclusive
+ * and {@code createdTo} exclusive, matching the monthly partition bounds so
+ * that a creation-time range lets the planner prune partitions.
+ */
+public record DeviceFilter(
+        String brand,
+        DeviceState state,
+        Instant createdFrom,
+        Instant createdTo
+) {
+
+    public static DeviceFilter of(String brand, DeviceState state) {
+        return new DeviceFilter(brand, state, null, null);
+    }
+
+    public DeviceFilterSpecification toSpecification() {
+        return new DeviceFilterSpecification(this, Specification
+                .where(DeviceSpecifications.hasBrand(brand))
+                .and(DeviceSpecifications.hasState(state))
+                .and(DeviceSpecifications.createdBetween(createdFrom, createdTo)));
+    }
+
+    /**
+     * Same filter, with {@code brand} already resolved to its dictionary keys
+     * ({@code null} when no brand is given).
+     */
+    public DeviceFilterSpecification toSpecification(Collection<Integer> brandKeys) {
+        return new DeviceFilterSpecification(this, Specification
+                .where(DeviceSpecifications.hasBrandKeyIn(brandKeys))
+                .and(DeviceSpecifications.hasState(state))
+                .and(DeviceSpecifications.createdBetween(createdFrom, createdTo)));
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.tooba.device_inventory_service.repository.specification;
+
+import io.github.tooba.device_inventory_service.entity.Brand;
+import io.github.tooba.device_inventory_service.entity.Device;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Specification built from a {@link DeviceFilter}. Besides the JPA criteria it
+ * can be evaluated against a device directly, which is how storage without a
+ * query engine applies the same filter.
+ */
+public final class DeviceFilterSpecification implements Specification<Device> {
+
+    private final DeviceFilter filter;
+    private final Specification<Device> criteria;
+
+    DeviceFilterSpecification(DeviceFilter filter, Specification<Device> criteria) {
+        this.filter = filter;
+        this.criteria = criteria;
+    }
+
+    public DeviceFilter filter() {
+        return filter;
+    }
+
+    @Override
+    public Predicate toPredicate(Root<Device> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        return criteria.toPredicate(root, query, cb);
+    }
+
+    public boolean matches(Device device) {
+
+        if (filter.brand() != null
+                && !Brand.canonical(device.getBrand()).equals(Brand.canonical(filter.brand()))) {
+            return false;
+        }
+        if (filter.state() != null && device.getState() != filter.state()) {
+            return false;
+        }
+        if (filter.createdFrom() != null && device.getCreationTime().isBefore(filter.createdFrom())) {
+            return false;
+        }
+        return filter.createdTo() == null || device.getCreationTime().isBefore(filter.createdTo());
+    }
+}
@@ -1,15 +1,44 @@
 package io.github.tooba.device_inventory_service.repository.specification;
 
 import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.Brand;
 import io.github.tooba.device_inventory_service.entity.Device;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.time.Instant;
+import java.util.Collection;
+
 public class DeviceSpecifications {
 
     public static Specification<Device> hasBrand(String brand) {
-        return (root, query, cb) ->
-                brand == null ? null :
-                        cb.equal(cb.lower(root.get("brand")), brand.toLowerCase());
+        return (root, query, cb) -> {
+            if (brand == null) {
+                return null;
+            }
+            Subquery<Integer> keys = query.subquery(Integer.class);
+            Root<Brand> entry = keys.from(Brand.class);
+            keys.select(entry.get("id"))
+                    .where(cb.equal(entry.get("canonical"), Brand.canonical(brand)));
+            return root.get("brand").get("id").in(keys);
+        };
+    }
+
+    /**
+     * Brand filter on already resolved dictionary keys. {@code null} means no
+     * filter; an empty collection matches nothing.
+     */
+    public static Specification<Device> hasBrandKeyIn(Collection<Integer> keys) {
+        return (root, query, cb) -> {
+            if (keys == null) {
+                return null;
+            }
+            if (keys.isEmpty()) {
+                return cb.disjunction();
+            }
+            return root.get("brand").get("id").in(keys);
+        };
     }
 
     public static Specification<Device> hasState(DeviceState state) {
@@ -17,4 +46,22 @@ public class DeviceSpecifications {
                 state == null ? null :
                         cb.equal(root.get("state"), state);
     }
-}
\ No newline at end of file
+
+    public static Specification<Device> createdBetween(Instant from, Instant to) {
+        return (root, query, cb) -> {
+            if (from == null && to == null) {
+                return null;
+            }
+            if (to == null) {
+                return cb.greaterThanOrEqualTo(root.get("creationTime"), from);
+            }
+            if (from == null) {
+                return cb.lessThan(root.get("creationTime"), to);
+            }
+            return cb.and(
+                    cb.greaterThanOrEqualTo(root.get("creationTime"), from),
+                    cb.lessThan(root.get("creationTime"), to)
+            );
+        };
+    }
+}
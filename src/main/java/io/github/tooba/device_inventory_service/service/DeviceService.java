@@ -1,29 +1,106 @@
 package io.github.tooba.device_inventory_service.service;
 
+import io.github.tooba.device_inventory_service.constant.CountMode;
+import io.github.tooba.device_inventory_service.constant.DeviceField;
 import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.degraded.StaleReads;
+import io.github.tooba.device_inventory_service.entity.Brand;
 import io.github.tooba.device_inventory_service.entity.Device;
-import io.github.tooba.device_inventory_service.repository.DeviceRepository;
+import io.github.tooba.device_inventory_service.entity.DeviceRuleViolation;
+import io.github.tooba.device_inventory_service.entity.DeviceRules;
+import io.github.tooba.device_inventory_service.history.DeviceHistory;
+import io.github.tooba.device_inventory_service.index.BitmapIndexPage;
+import io.github.tooba.device_inventory_service.index.DeviceBitmapIndex;
+import io.github.tooba.device_inventory_service.lease.DeviceLeases;
+import io.github.tooba.device_inventory_service.repository.BrandRepository;
+import io.github.tooba.device_inventory_service.repository.DeviceStore;
+import io.github.tooba.device_inventory_service.service.batch.PatchGroupCommitter;
+import io.github.tooba.device_inventory_service.service.coalescing.ReadCoalescer;
 import io.github.tooba.device_inventory_service.service.command.CreateDeviceCommand;
 import io.github.tooba.device_inventory_service.service.command.PatchDeviceCommand;
 import io.github.tooba.device_inventory_service.service.command.UpdateDeviceCommand;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangedEvent;
+import io.github.tooba.device_inventory_service.service.event.DeviceLeaseRenewedEvent;
 import io.github.tooba.device_inventory_service.service.exception.DeviceNotFoundException;
+import io.github.tooba.device_inventory_service.service.result.DeviceClaimResult;
+import io.github.tooba.device_inventory_service.service.result.DeviceHistoryResult;
+import io.github.tooba.device_inventory_service.service.result.DeviceLeaseResult;
+import io.github.tooba.device_inventory_service.service.result.DeviceLookupResult;
+import io.github.tooba.device_inventory_service.service.result.DevicePatchResult;
+import io.github.tooba.device_inventory_service.service.result.DeviceReleaseResult;
 import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import io.github.tooba.device_inventory_service.service.result.DeviceUtilizationResult;
+import io.github.tooba.device_inventory_service.utilization.DeviceUtilization;
+import io.github.tooba.device_inventory_service.utilization.UtilizationResolution;
+import jakarta.persistence.Tuple;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import io.github.tooba.device_inventory_service.repository.specification.DeviceSpecifications;
+import org.springframework.transaction.support.TransactionOperations;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilterSpecification;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 public class DeviceService {
 
-    private final DeviceRepository repo;
+    private final DeviceStore repo;
+    private final BrandRepository brands;
+    private final ApplicationEventPublisher events;
+    private final ReadCoalescer reads;
+    private final PatchGroupCommitter patchCommitter;
+    private final TransactionOperations transactions;
+    private final DeviceBitmapIndex bitmapIndex;
+    private final DeviceLeases leases;
+    private final DeviceHistory history;
+    private final DeviceUtilization utilization;
+    private final StaleReads staleReads;
 
-    public DeviceService(DeviceRepository repo) {
+    public DeviceService(
+            DeviceStore repo,
+            BrandRepository brands,
+            ApplicationEventPublisher events,
+            ReadCoalescer reads,
+            PatchGroupCommitter patchCommitter,
+            TransactionOperations transactions,
+            DeviceBitmapIndex bitmapIndex,
+            DeviceLeases leases,
+            DeviceHistory history,
+            DeviceUtilization utilization,
+            StaleReads staleReads
+    ) {
         this.repo = repo;
+        this.brands = brands;
+        this.events = events;
+        this.reads = reads;
+        this.patchCommitter = patchCommitter;
+        this.transactions = transactions;
+        this.bitmapIndex = bitmapIndex;
+        this.leases = leases;
+        this.history = history;
+        this.utilization = utilization;
+        this.staleReads = staleReads;
     }
 
     @Transactional
@@ -34,16 +111,20 @@ public class DeviceService {
                 command.normalizedBrand(),
                 command.state()
         );
+        device.resolveBrand(brands::resolve);
 
         var saved = repo.save(device);
 
-        return new DeviceResult(
+        var result = new DeviceResult(
                 saved.getId(),
                 saved.getName(),
                 saved.getBrand(),
                 saved.getState(),
                 saved.getCreationTime()
         );
+
+        events.publishEvent(DeviceChangedEvent.created(result));
+        return result;
     }
 
     @Transactional
@@ -56,24 +137,269 @@ public class DeviceService {
                         )
                 );
 
+        DeviceResult previous = DeviceResult.from(device);
+
         device.update(
                 command.normalizedName(),
                 command.normalizedBrand(),
                 command.state()
         );
+        device.resolveBrand(brands::resolve);
 
         Device saved = repo.save(device);
 
-        return new DeviceResult(
+        var result = new DeviceResult(
                 saved.getId(),
                 saved.getName(),
                 saved.getBrand(),
                 saved.getState(),
                 saved.getCreationTime()
         );
+
+        events.publishEvent(DeviceChangedEvent.updated(previous, result));
+        return result;
     }
-    @Transactional(readOnly = true)
+    // Reads run in the repository's own read-only transaction so that callers
+    // waiting on a coalesced query do not hold a connection while they wait.
     public DeviceResult getById(UUID id) {
+        return staleReads.read(
+                StaleReads.GET_BY_ID,
+                id,
+                () -> reads.execute("getById", id, () -> loadById(id))
+        );
+    }
+
+    // A field selection reads only the requested columns and bypasses the
+    // entity cache; null or all fields take the regular path.
+    public DeviceResult getById(UUID id, Set<DeviceField> fields) {
+
+        Set<DeviceField> projection = projection(fields);
+        if (projection == null) {
+            return getById(id);
+        }
+
+        var key = new StaleReads.Fields(id, projection);
+        return staleReads.read(
+                StaleReads.GET_BY_ID_FIELDS,
+                key,
+                () -> reads.execute(
+                        "getById",
+                        key,
+                        () -> repo.findProjectedById(id, projection)
+                                .map(tuple -> toResult(tuple, projection))
+                                .orElseThrow(() ->
+                                        new DeviceNotFoundException(
+                                                "Device not found with id: " + id
+                                        )
+                                )
+                )
+        );
+    }
+
+    public Page<DeviceResult> getAll(
+            String brand,
+            DeviceState state,
+            Pageable pageable
+    ) {
+        return (Page<DeviceResult>) getAll(DeviceFilter.of(brand, state), pageable, CountMode.EXACT);
+    }
+
+    public Slice<DeviceResult> getAll(
+            DeviceFilter filter,
+            Pageable pageable,
+            CountMode count
+    ) {
+        Pageable storagePageable = toStorageSort(pageable);
+        var query = new ListQuery(filter, storagePageable, count, null);
+
+        return staleReads.read("getAll", query, () -> reads.execute(
+                "getAll",
+                query,
+                () -> loadFromIndex(filter, storagePageable, count, null)
+                        .orElseGet(() -> count == CountMode.EXACT
+                                ? loadAll(filter, storagePageable)
+                                : loadSlice(filter, storagePageable, count))
+        ));
+    }
+
+    public Slice<DeviceResult> getAll(
+            DeviceFilter filter,
+            Pageable pageable,
+            CountMode count,
+            Set<DeviceField> fields
+    ) {
+
+        Set<DeviceField> projection = projection(fields);
+        if (projection == null) {
+            return getAll(filter, pageable, count);
+        }
+
+        Pageable storagePageable = toStorageSort(pageable);
+        var query = new ListQuery(filter, storagePageable, count, projection);
+
+        return staleReads.read("getAll", query, () -> reads.execute(
+                "getAll",
+                query,
+                () -> loadFromIndex(filter, storagePageable, count, projection)
+                        .orElseGet(() -> loadProjected(filter, storagePageable, count, projection))
+        ));
+    }
+
+    /**
+     * The devices as they were at {@code asOf}, from the change history,
+     * ordered by id. The filter applies to the state at that instant.
+     */
+    @Transactional(readOnly = true)
+    public Slice<DeviceResult> getAsOf(
+            DeviceFilter filter,
+            Instant asOf,
+            Pageable pageable,
+            Set<DeviceField> fields
+    ) {
+
+        Collection<Integer> brandKeys = filter.brand() == null
+                ? null
+                : brands.findKeysByCanonical(Brand.canonical(filter.brand()));
+
+        Set<DeviceField> projection = projection(fields);
+        return history.findAsOf(asOf, filter, brandKeys, pageable)
+                .map(result -> mask(result, projection));
+    }
+
+    // Deleted devices keep their history, so an unknown id is simply empty.
+    @Transactional(readOnly = true)
+    public Slice<DeviceHistoryResult> getHistory(UUID id, Instant from, Instant to, Pageable pageable) {
+        return history.findByDevice(id, from, to, pageable);
+    }
+
+    public DeviceUtilizationResult getUtilization(
+            String brand,
+            Instant from,
+            Instant to,
+            UtilizationResolution resolution
+    ) {
+        return utilization.query(brand, from, to, resolution);
+    }
+
+    @Transactional(readOnly = true)
+    public DeviceLookupResult lookup(Collection<UUID> ids) {
+
+        List<UUID> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        List<Device> loaded = repo.findAllInOrder(distinct);
+
+        List<DeviceResult> found = new ArrayList<>(distinct.size());
+        List<UUID> missing = new ArrayList<>();
+
+        for (int i = 0; i < distinct.size(); i++) {
+            Device device = loaded.get(i);
+            if (device == null) {
+                missing.add(distinct.get(i));
+            } else {
+                found.add(DeviceResult.from(device));
+            }
+        }
+
+        return new DeviceLookupResult(found, missing);
+    }
+
+    // Selecting and transitioning happen in one transaction over rows locked
+    // with SKIP LOCKED: concurrent claimers never wait on each other and never
+    // get the same device. Fewer devices than requested means no more were free.
+    @Transactional
+    public DeviceClaimResult claim(String brand, int count, Duration lease) {
+
+        Instant leaseExpiresAt = leaseExpiry(lease);
+
+        List<Device> candidates = repo.lockClaimable(
+                specification(DeviceFilter.of(brand, DeviceState.AVAILABLE)),
+                count
+        );
+
+        List<DeviceResult> claimed = new ArrayList<>(candidates.size());
+        for (Device device : candidates) {
+            DeviceResult previous = DeviceResult.from(device);
+            if (device.tryPatch(null, null, DeviceState.IN_USE) != null) {
+                continue;
+            }
+            if (leaseExpiresAt != null) {
+                device.tryLease(leaseExpiresAt);
+            }
+            DeviceResult result = DeviceResult.from(device);
+            events.publishEvent(DeviceChangedEvent.updated(previous, result));
+            claimed.add(result);
+        }
+
+        return new DeviceClaimResult(claimed, leaseExpiresAt);
+    }
+
+    @Transactional
+    public DeviceLeaseResult renewLease(UUID id, Duration lease) {
+
+        Instant leaseExpiresAt = leaseExpiry(lease);
+        if (leaseExpiresAt == null) {
+            throw new IllegalStateException("Device leases are not enabled");
+        }
+
+        Device device = repo.findById(id)
+                .orElseThrow(() ->
+                        new DeviceNotFoundException(
+                                "Device not found with id: " + id
+                        )
+                );
+
+        DeviceRuleViolation violation = device.tryLease(leaseExpiresAt);
+        if (violation != null) {
+            throw violation.exception();
+        }
+
+        events.publishEvent(new DeviceLeaseRenewedEvent(id, leaseExpiresAt));
+        return new DeviceLeaseResult(id, leaseExpiresAt);
+    }
+
+    // null when leases are off; asking for a duration then is an error.
+    private Instant leaseExpiry(Duration requested) {
+
+        if (!leases.isEnabled()) {
+            if (requested != null) {
+                throw new IllegalStateException("Device leases are not enabled");
+            }
+            return null;
+        }
+
+        return leases.expiry(Instant.now(), requested);
+    }
+
+    // Only IN_USE devices go back to AVAILABLE; anything else, including ids
+    // that do not exist, is reported instead of failing the whole request.
+    @Transactional
+    public DeviceReleaseResult release(Collection<UUID> ids) {
+
+        List<UUID> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        List<Device> loaded = repo.findAllInOrder(distinct);
+
+        List<DeviceResult> released = new ArrayList<>(distinct.size());
+        List<UUID> notReleased = new ArrayList<>();
+
+        for (int i = 0; i < distinct.size(); i++) {
+            Device device = loaded.get(i);
+            if (device == null || device.getState() != DeviceState.IN_USE) {
+                notReleased.add(distinct.get(i));
+                continue;
+            }
+            DeviceResult previous = DeviceResult.from(device);
+            if (device.tryPatch(null, null, DeviceState.AVAILABLE) != null) {
+                notReleased.add(distinct.get(i));
+                continue;
+            }
+            DeviceResult result = DeviceResult.from(device);
+            events.publishEvent(DeviceChangedEvent.updated(previous, result));
+            released.add(result);
+        }
+
+        return new DeviceReleaseResult(released, notReleased);
+    }
+
+    private DeviceResult loadById(UUID id) {
 
         Device device = repo.findById(id)
                 .orElseThrow(() ->
@@ -91,18 +417,12 @@ public class DeviceService {
         );
     }
 
-    @Transactional(readOnly = true)
-    public Page<DeviceResult> getAll(
-            String brand,
-            DeviceState state,
+    private Page<DeviceResult> loadAll(
+            DeviceFilter filter,
             Pageable pageable
     ) {
 
-        Specification<Device> spec = Specification
-                .where(DeviceSpecifications.hasBrand(brand))
-                .and(DeviceSpecifications.hasState(state));
-
-        Page<Device> devices = repo.findAll(spec, pageable);
+        Page<Device> devices = repo.findAll(specification(filter), pageable);
 
         return devices.map(device ->
                 new DeviceResult(
@@ -114,9 +434,203 @@ public class DeviceService {
                 )
         );
     }
-    @Transactional
+
+    private Slice<DeviceResult> loadSlice(
+            DeviceFilter filter,
+            Pageable pageable,
+            CountMode count
+    ) {
+
+        DeviceFilterSpecification spec = specification(filter);
+
+        Slice<DeviceResult> slice = repo.findSlice(spec, pageable)
+                .map(DeviceResult::from);
+
+        return withTotal(slice, spec, filter, pageable, count);
+    }
+
+    private Slice<DeviceResult> loadProjected(
+            DeviceFilter filter,
+            Pageable pageable,
+            CountMode count,
+            Set<DeviceField> projection
+    ) {
+
+        DeviceFilterSpecification spec = specification(filter);
+
+        Slice<DeviceResult> slice = repo.findProjectedSlice(spec, pageable, projection)
+                .map(tuple -> toResult(tuple, projection));
+
+        return withTotal(slice, spec, filter, pageable, count);
+    }
+
+    // Unsorted brand/state listings are answered by the bitmap index: it gives
+    // the exact total and the page ids, and only those rows are read.
+    private Optional<Slice<DeviceResult>> loadFromIndex(
+            DeviceFilter filter,
+            Pageable pageable,
+            CountMode count,
+            Set<DeviceField> projection
+    ) {
+
+        if (!bitmapIndex.isEnabled()
+                || pageable.isUnpaged()
+                || pageable.getSort().isSorted()
+                || filter.createdFrom() != null
+                || filter.createdTo() != null) {
+            return Optional.empty();
+        }
+
+        Optional<BitmapIndexPage> page = bitmapIndex.find(
+                filter.brand(),
+                filter.state(),
+                pageable.getOffset(),
+                pageable.getPageSize()
+        );
+        if (page.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<UUID> ids = page.get().ids();
+        List<DeviceResult> content = ids.isEmpty()
+                ? List.of()
+                : transactions.execute(status -> repo.findAllInOrder(ids)).stream()
+                        // Deleted after the index was read.
+                        .filter(Objects::nonNull)
+                        .map(device -> mask(DeviceResult.from(device), projection))
+                        .toList();
+
+        long total = page.get().total();
+        if (count == CountMode.NONE) {
+            boolean hasNext = pageable.getOffset() + ids.size() < total;
+            return Optional.of(new SliceImpl<>(content, pageable, hasNext));
+        }
+
+        return Optional.of(new PageImpl<>(content, pageable, total));
+    }
+
+    // NONE skips the count query entirely; APPROX pairs the slice with a
+    // planner estimate, which is never allowed to contradict the page itself.
+    private Slice<DeviceResult> withTotal(
+            Slice<DeviceResult> slice,
+            DeviceFilterSpecification spec,
+            DeviceFilter filter,
+            Pageable pageable,
+            CountMode count
+    ) {
+
+        if (count == CountMode.NONE) {
+            return slice;
+        }
+
+        if (count == CountMode.EXACT) {
+            return PageableExecutionUtils.getPage(
+                    slice.getContent(),
+                    pageable,
+                    () -> repo.count(spec)
+            );
+        }
+
+        long seen = pageable.isPaged()
+                ? pageable.getOffset() + slice.getNumberOfElements()
+                : slice.getNumberOfElements();
+
+        // The last slice proves the exact total.
+        if (!slice.hasNext()) {
+            return new PageImpl<>(slice.getContent(), pageable, seen);
+        }
+        long lowerBound = seen + 1;
+
+        long estimate = repo.estimateCount(filter)
+                .orElseGet(() -> repo.count(spec));
+
+        return new PageImpl<>(slice.getContent(), pageable, Math.max(estimate, lowerBound));
+    }
+
+    // The brand filter is resolved to dictionary keys once, so the query
+    // compares small integers instead of running lower() over every row.
+    private DeviceFilterSpecification specification(DeviceFilter filter) {
+        return filter.toSpecification(
+                filter.brand() == null
+                        ? null
+                        : brands.findKeysByCanonical(Brand.canonical(filter.brand()))
+        );
+    }
+
+    // brand is stored as a dictionary key; sort by the spelling instead.
+    private static Pageable toStorageSort(Pageable pageable) {
+
+        if (pageable.isUnpaged() || pageable.getSort().getOrderFor("brand") == null) {
+            return pageable;
+        }
+
+        Sort sort = Sort.by(pageable.getSort().stream()
+                .map(order -> order.getProperty().equals("brand")
+                        ? order.withProperty("brand.name")
+                        : order)
+                .toList());
+
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
+
+    private static Set<DeviceField> projection(Set<DeviceField> fields) {
+
+        if (fields == null || fields.isEmpty()) {
+            return null;
+        }
+
+        // The id is always returned so that results stay addressable.
+        Set<DeviceField> projection = EnumSet.copyOf(fields);
+        projection.add(DeviceField.ID);
+
+        return projection.size() == DeviceField.values().length ? null : projection;
+    }
+
+    private static DeviceResult mask(DeviceResult result, Set<DeviceField> fields) {
+
+        if (fields == null) {
+            return result;
+        }
+
+        return new DeviceResult(
+                result.id(),
+                fields.contains(DeviceField.NAME) ? result.name() : null,
+                fields.contains(DeviceField.BRAND) ? result.brand() : null,
+                fields.contains(DeviceField.STATE) ? result.state() : null,
+                fields.contains(DeviceField.CREATION_TIME) ? result.creationTime() : null
+        );
+    }
+
+    private static DeviceResult toResult(Tuple tuple, Set<DeviceField> fields) {
+        return new DeviceResult(
+                tuple.get(DeviceField.ID.attribute(), UUID.class),
+                fields.contains(DeviceField.NAME)
+                        ? tuple.get(DeviceField.NAME.attribute(), String.class) : null,
+                fields.contains(DeviceField.BRAND)
+                        ? tuple.get(DeviceField.BRAND.attribute(), String.class) : null,
+                fields.contains(DeviceField.STATE)
+                        ? tuple.get(DeviceField.STATE.attribute(), DeviceState.class) : null,
+                fields.contains(DeviceField.CREATION_TIME)
+                        ? tuple.get(DeviceField.CREATION_TIME.attribute(), Instant.class) : null
+        );
+    }
+
+    // Not @Transactional: with group commit enabled the caller only waits for
+    // the batch, and must not hold a transaction of its own while doing so.
     public DeviceResult patch(PatchDeviceCommand command) {
 
+        if (patchCommitter.isEnabled()) {
+            DeviceResult batched = patchCommitter.submit(command);
+            if (batched != null) {
+                return batched;
+            }
+        }
+
+        return transactions.execute(status -> applyPatch(command));
+    }
+
+    private DeviceResult applyPatch(PatchDeviceCommand command) {
+
         Device device = repo.findById(command.id())
                 .orElseThrow(() ->
                         new DeviceNotFoundException(
@@ -124,22 +638,81 @@ public class DeviceService {
                         )
                 );
 
+        DeviceResult previous = DeviceResult.from(device);
+
         device.patch(
                 command.name(),
                 command.brand(),
                 command.state()
         );
+        device.resolveBrand(brands::resolve);
 
         Device saved = repo.save(device);
 
-        return new DeviceResult(
+        var result = new DeviceResult(
                 saved.getId(),
                 saved.getName(),
                 saved.getBrand(),
                 saved.getState(),
                 saved.getCreationTime()
         );
+
+        events.publishEvent(DeviceChangedEvent.updated(previous, result));
+        return result;
+    }
+
+    // All targets are loaded with one query and patched in one transaction;
+    // the dirty devices are flushed as JDBC batches on commit. A missing
+    // device or a rule violation rolls the whole request back unless partial
+    // is set, in which case only that patch is skipped. Patches to the same
+    // device apply in request order.
+    public DevicePatchResult patchAll(List<PatchDeviceCommand> commands, boolean partial) {
+        return transactions.execute(status -> {
+
+            List<UUID> ids = commands.stream().map(PatchDeviceCommand::id).distinct().toList();
+            List<Device> loaded = repo.findAllInOrder(ids);
+
+            Map<UUID, Device> devices = new HashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                if (loaded.get(i) != null) {
+                    devices.put(ids.get(i), loaded.get(i));
+                }
+            }
+
+            List<DevicePatchResult.Item> items = new ArrayList<>(commands.size());
+            List<DeviceChangedEvent> changes = new ArrayList<>(commands.size());
+
+            for (PatchDeviceCommand command : commands) {
+                Device device = devices.get(command.id());
+                if (device == null) {
+                    items.add(DevicePatchResult.Item.notFound(command.id()));
+                    continue;
+                }
+
+                DeviceResult previous = DeviceResult.from(device);
+                DeviceRuleViolation violation = device.tryPatch(command.name(), command.brand(), command.state());
+                if (violation != null) {
+                    items.add(DevicePatchResult.Item.rejected(command.id(), violation.message()));
+                    continue;
+                }
+                device.resolveBrand(brands::resolve);
+
+                DeviceResult result = DeviceResult.from(device);
+                changes.add(DeviceChangedEvent.updated(previous, result));
+                items.add(DevicePatchResult.Item.patched(result));
+            }
+
+            DevicePatchResult result = new DevicePatchResult(items);
+            if (!partial && !result.allPatched()) {
+                status.setRollbackOnly();
+                return new DevicePatchResult(items.stream().map(DevicePatchResult.Item::rolledBack).toList());
+            }
+
+            changes.forEach(events::publishEvent);
+            return result;
+        });
     }
+
     @Transactional
     public void delete(UUID id) {
 
@@ -150,12 +723,24 @@ public class DeviceService {
                         )
                 );
 
-        if (device.getState() == DeviceState.IN_USE) {
-            throw new IllegalStateException(
-                    "In-use devices cannot be deleted"
-            );
+        DeviceRuleViolation violation = DeviceRules.checkDelete(device);
+        if (violation != null) {
+            throw violation.exception();
         }
 
         repo.delete(device);
+
+        events.publishEvent(DeviceChangedEvent.deleted(
+                new DeviceResult(
+                        device.getId(),
+                        device.getName(),
+                        device.getBrand(),
+                        device.getState(),
+                        device.getCreationTime()
+                )
+        ));
     }
+
+    private record ListQuery(DeviceFilter filter, Pageable pageable, CountMode count, Set<DeviceField> fields) {}
+
 }
\ No newline at end of file
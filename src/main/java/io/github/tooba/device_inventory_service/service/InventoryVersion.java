@@ -0,0 +1,67 @@
+package io.github.tooba.device_inventory_service.service;
+
+import io.github.tooba.device_inventory_service.entity.Brand;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangedEvent;
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic counter bumped after every committed device write on this node.
+ * <p>
+ * Each canonical brand also has its own counter, bumped by writes to a
+ * device of that brand before or after the change. A listing filtered by
+ * brand only has to follow that one.
+ */
+@Component
+public class InventoryVersion {
+
+    private final AtomicLong version = new AtomicLong();
+    private final Map<String, AtomicLong> brandVersions = new ConcurrentHashMap<>();
+
+    public long current() {
+        return version.get();
+    }
+
+    public long current(String brand) {
+        if (brand == null) {
+            return current();
+        }
+        AtomicLong brandVersion = brandVersions.get(Brand.canonical(brand));
+        return brandVersion == null ? 0 : brandVersion.get();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        if (event != null) {
+            bumpBrands(event);
+        }
+        version.incrementAndGet();
+    }
+
+    private void bumpBrands(DeviceChangedEvent event) {
+
+        String before = canonicalBrand(event.previous());
+        String after = canonicalBrand(event.device());
+
+        if (before != null) {
+            bump(before);
+        }
+        if (after != null && !after.equals(before)) {
+            bump(after);
+        }
+    }
+
+    private void bump(String canonicalBrand) {
+        brandVersions.computeIfAbsent(canonicalBrand, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static String canonicalBrand(DeviceResult device) {
+        return device == null || device.brand() == null ? null : Brand.canonical(device.brand());
+    }
+}
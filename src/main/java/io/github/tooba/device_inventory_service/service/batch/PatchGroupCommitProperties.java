@@ -0,0 +1,24 @@
+package io.github.tooba.device_inventory_service.service.batch;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Group commit for {@code PATCH /devices/{id}}.
+ * <p>
+ * A patch waits at most {@code maxWait} for companions before its batch is
+ * committed, so the added latency is bounded by {@code maxWait} plus one
+ * batch transaction. When {@code queueCapacity} is exhausted, patches fall
+ * back to their own transaction, as do patches that were not taken into a
+ * batch within {@code resultTimeout} or were still queued at shutdown.
+ */
+@ConfigurationProperties("device.patch.group-commit")
+public record PatchGroupCommitProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("128") int maxBatchSize,
+        @DefaultValue("500us") Duration maxWait,
+        @DefaultValue("4096") int queueCapacity,
+        @DefaultValue("5s") Duration resultTimeout
+) {}
@@ -0,0 +1,336 @@
+package io.github.tooba.device_inventory_service.service.batch;
+
+import io.github.tooba.device_inventory_service.entity.Device;
+import io.github.tooba.device_inventory_service.entity.DeviceRuleViolation;
+import io.github.tooba.device_inventory_service.repository.BrandRepository;
+import io.github.tooba.device_inventory_service.repository.DeviceStore;
+import io.github.tooba.device_inventory_service.service.command.PatchDeviceCommand;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangedEvent;
+import io.github.tooba.device_inventory_service.service.exception.DeviceNotFoundException;
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies concurrently submitted patch commands in shared transactions.
+ * <p>
+ * A single worker drains the queue into batches bounded by size and wait
+ * time, loads all targets with one query, applies {@link Device#patch} to
+ * each and commits once; Hibernate flushes the dirty rows as a JDBC batch.
+ * Every caller is completed with its own result or domain error.
+ * <p>
+ * A patch belongs either to its caller or to the worker, whichever takes it
+ * first. A caller that waited {@code resultTimeout}, or whose patch was
+ * still queued when the worker stopped, takes it back and applies it in its
+ * own transaction; a patch the worker took is always completed.
+ */
+public class PatchGroupCommitter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PatchGroupCommitter.class);
+
+    private final PatchGroupCommitProperties properties;
+    private final DeviceStore repo;
+    private final BrandRepository brands;
+    private final TransactionOperations transactions;
+    private final ApplicationEventPublisher events;
+    private final BlockingQueue<PendingPatch> queue;
+
+    private final DistributionSummary batchSize;
+    private final DistributionSummary queueDepth;
+    private final Timer queueWait;
+
+    private volatile Thread worker;
+    private volatile boolean running;
+
+    public PatchGroupCommitter(
+            PatchGroupCommitProperties properties,
+            DeviceStore repo,
+            BrandRepository brands,
+            TransactionOperations transactions,
+            ApplicationEventPublisher events,
+            MeterRegistry meterRegistry
+    ) {
+        this.properties = properties;
+        this.repo = repo;
+        this.brands = brands;
+        this.transactions = transactions;
+        this.events = events;
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+
+        this.batchSize = DistributionSummary.builder("device.patch.batch.size")
+                .description("Patch commands applied per group commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("device.patch.queue.wait")
+                .description("Time a patch waited before its batch was committed")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueDepth = DistributionSummary.builder("device.patch.queue.depth")
+                .description("Patch commands still queued when a batch was committed")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled() && running;
+    }
+
+    /**
+     * Queues the command and waits for its batch to commit.
+     *
+     * @return the patched device, or {@code null} when the patch was not
+     * committed in a batch (queue full, committer stopped, or no batch within
+     * {@code resultTimeout}) and the caller should apply it in its own
+     * transaction
+     */
+    public DeviceResult submit(PatchDeviceCommand command) {
+
+        if (!running) {
+            return null;
+        }
+
+        var pending = new PendingPatch(command, System.nanoTime(), new AtomicBoolean(), new CompletableFuture<>());
+
+        if (!queue.offer(pending)) {
+            return null;
+        }
+        // The worker may have exited between the check above and the offer.
+        if (!running && pending.take()) {
+            return null;
+        }
+
+        try {
+            return await(pending);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(ex);
+        }
+    }
+
+    private DeviceResult await(PendingPatch pending) throws ExecutionException, InterruptedException {
+        try {
+            return pending.result().get(properties.resultTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            if (pending.take()) {
+                return null;
+            }
+            // The worker is committing it and completes it either way.
+            return pending.result().get();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        running = true;
+        worker = Thread.ofPlatform()
+                .name("device-patch-group-commit")
+                .daemon(true)
+                .start(this::runLoop);
+    }
+
+    // Never interrupts the worker, which may be inside a transaction; it
+    // notices within one poll, commits what it already took and hands the
+    // rest back to the callers.
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = worker;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.join(properties.resultTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runLoop() {
+
+        List<PendingPatch> batch = new ArrayList<>(properties.maxBatchSize());
+
+        try {
+            while (running) {
+                collect(batch);
+                if (!batch.isEmpty()) {
+                    commit(batch);
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running = false;
+            queue.drainTo(batch);
+            batch.forEach(PatchGroupCommitter::release);
+        }
+    }
+
+    // Hands a patch nobody applied back to its caller: a null result sends
+    // it to its own transaction. A patch the worker took into a batch that
+    // did not finish may or may not have been committed, so it fails.
+    private static void release(PendingPatch pending) {
+        if (pending.take()) {
+            pending.result().complete(null);
+        } else {
+            pending.result().completeExceptionally(
+                    new RejectedExecutionException("Group commit stopped before the patch was committed"));
+        }
+    }
+
+    private void collect(List<PendingPatch> batch) throws InterruptedException {
+
+        PendingPatch first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+
+        long deadline = System.nanoTime() + properties.maxWait().toNanos();
+
+        while (batch.size() < properties.maxBatchSize()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            PendingPatch next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            queue.drainTo(batch, properties.maxBatchSize() - batch.size());
+        }
+    }
+
+    private void commit(List<PendingPatch> batch) {
+
+        // Callers that gave up waiting apply their patch themselves.
+        batch.removeIf(pending -> !pending.take());
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        batchSize.record(batch.size());
+        queueDepth.record(queue.size());
+
+        List<Outcome> outcomes;
+        try {
+            outcomes = transactions.execute(status -> apply(batch));
+        } catch (RuntimeException ex) {
+            log.warn("Group commit of {} patches failed", batch.size(), ex);
+            batch.forEach(pending -> pending.result().completeExceptionally(ex));
+            return;
+        }
+
+        long now = System.nanoTime();
+        for (int i = 0; i < batch.size(); i++) {
+            PendingPatch pending = batch.get(i);
+            Outcome outcome = outcomes.get(i);
+
+            queueWait.record(now - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+
+            if (outcome.error() != null) {
+                pending.result().completeExceptionally(outcome.error());
+            } else {
+                pending.result().complete(outcome.result());
+            }
+        }
+    }
+
+    private List<Outcome> apply(List<PendingPatch> batch) {
+
+        var ids = new HashSet<UUID>();
+        batch.forEach(pending -> ids.add(pending.command().id()));
+
+        Map<UUID, Device> devices = repo.findAllById(ids).stream()
+                .collect(Collectors.toMap(Device::getId, Function.identity()));
+
+        List<Outcome> outcomes = new ArrayList<>(batch.size());
+
+        for (PendingPatch pending : batch) {
+            PatchDeviceCommand command = pending.command();
+            Device device = devices.get(command.id());
+
+            if (device == null) {
+                outcomes.add(Outcome.failed(new DeviceNotFoundException(
+                        "Device not found with id: " + command.id()
+                )));
+                continue;
+            }
+
+            DeviceResult previous = DeviceResult.from(device);
+            DeviceRuleViolation violation = device.tryPatch(command.name(), command.brand(), command.state());
+            if (violation != null) {
+                outcomes.add(Outcome.failed(violation.exception()));
+                continue;
+            }
+            device.resolveBrand(brands::resolve);
+
+            var result = DeviceResult.from(device);
+            events.publishEvent(DeviceChangedEvent.updated(previous, result));
+            outcomes.add(Outcome.succeeded(result));
+        }
+
+        return outcomes;
+    }
+
+    private record PendingPatch(
+            PatchDeviceCommand command,
+            long enqueuedAt,
+            AtomicBoolean taken,
+            CompletableFuture<DeviceResult> result
+    ) {
+
+        // True for whichever of caller and worker gets here first.
+        boolean take() {
+            return taken.compareAndSet(false, true);
+        }
+    }
+
+    private record Outcome(DeviceResult result, RuntimeException error) {
+
+        static Outcome succeeded(DeviceResult result) {
+            return new Outcome(result, null);
+        }
+
+        static Outcome failed(RuntimeException error) {
+            return new Outcome(null, error);
+        }
+    }
+}
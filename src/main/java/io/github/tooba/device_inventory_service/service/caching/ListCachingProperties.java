@@ -0,0 +1,23 @@
+package io.github.tooba.device_inventory_service.service.caching;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Weak ETags for {@code GET /devices}, derived from the inventory version.
+ * <p>
+ * The version only counts writes committed on this node, so a validator
+ * is also retired every {@code validatorLifetime}; that bounds how long a
+ * write made through another node can go unnoticed. Zero keeps validators
+ * until the next local write, for single-node deployments. With
+ * {@code perBrand}, a listing filtered by brand follows only the writes to
+ * that brand.
+ */
+@ConfigurationProperties("device.list-caching")
+public record ListCachingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("true") boolean perBrand,
+        @DefaultValue("30s") Duration validatorLifetime
+) {}
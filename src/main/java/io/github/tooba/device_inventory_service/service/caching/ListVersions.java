@@ -0,0 +1,75 @@
+package io.github.tooba.device_inventory_service.service.caching;
+
+import io.github.tooba.device_inventory_service.constant.CountMode;
+import io.github.tooba.device_inventory_service.constant.DeviceField;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
+import io.github.tooba.device_inventory_service.service.InventoryVersion;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Weak ETags for device listings.
+ * <p>
+ * A tag combines a random epoch chosen at startup, the current validator
+ * period, the inventory version the listing depends on and a hash of the
+ * query. It is taken before the query runs, so a write committed while the
+ * query is in flight makes the tag older than the body, never newer: the
+ * next revalidation gets a full response.
+ */
+public class ListVersions {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final ListCachingProperties properties;
+    private final InventoryVersion inventoryVersion;
+    private final Clock clock;
+    private final String epoch;
+
+    public ListVersions(ListCachingProperties properties, InventoryVersion inventoryVersion, Clock clock) {
+        this.properties = properties;
+        this.inventoryVersion = inventoryVersion;
+        this.clock = clock;
+        this.epoch = HEX.toHexDigits(new SecureRandom().nextInt());
+    }
+
+    /**
+     * The weak ETag of a listing, or {@code null} when list caching is off.
+     */
+    public String etag(DeviceFilter filter, Pageable pageable, CountMode count, Set<DeviceField> fields) {
+
+        if (!properties.enabled()) {
+            return null;
+        }
+
+        long version = properties.perBrand()
+                ? inventoryVersion.current(filter.brand())
+                : inventoryVersion.current();
+
+        long lifetime = properties.validatorLifetime().toMillis();
+        long period = lifetime > 0 ? clock.millis() / lifetime : 0;
+
+        return "W/\"" + epoch + "-" + Long.toHexString(period) + "-" + Long.toHexString(version)
+                + "-" + queryHash(filter, pageable, count, fields) + "\"";
+    }
+
+    private static String queryHash(DeviceFilter filter, Pageable pageable, CountMode count, Set<DeviceField> fields) {
+
+        String query = filter + "|" + pageable + "|" + count + "|"
+                + (fields == null ? "" : new TreeSet<>(fields));
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(query.getBytes(StandardCharsets.UTF_8));
+            return HEX.formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
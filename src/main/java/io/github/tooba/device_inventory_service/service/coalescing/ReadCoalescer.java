@@ -0,0 +1,115 @@
+package io.github.tooba.device_inventory_service.service.coalescing;
+
+import io.github.tooba.device_inventory_service.service.InventoryVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of identical concurrent reads.
+ * <p>
+ * The first caller for a key runs the query; callers arriving while it is in
+ * flight wait for and share its result. A caller only joins a flight that
+ * started after the latest committed write, so nobody is handed data that
+ * predates a write they have already seen complete.
+ */
+@Component
+public class ReadCoalescer {
+
+    private final ConcurrentMap<Object, Flight> flights = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+    private final InventoryVersion inventoryVersion;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    public ReadCoalescer(
+            InventoryVersion inventoryVersion,
+            MeterRegistry meterRegistry,
+            @Value("${device.read-coalescing.enabled:true}") boolean enabled
+    ) {
+        this.inventoryVersion = inventoryVersion;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Object key, Supplier<T> loader) {
+
+        if (!enabled) {
+            return loader.get();
+        }
+
+        var flightKey = new FlightKey(operation, key);
+        long version = inventoryVersion.current();
+        var candidate = new Flight(version);
+
+        Flight flight = flights.compute(flightKey, (k, existing) ->
+                existing != null && existing.version >= version ? existing : candidate
+        );
+
+        if (flight != candidate) {
+            counters(operation).coalesced().increment();
+            return (T) await(flight.result);
+        }
+
+        counters(operation).executed().increment();
+        try {
+            T value = loader.get();
+            flight.result.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            flight.result.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            flights.remove(flightKey, flight);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    // Registered once per operation; reads only look them up.
+    private Counters counters(String operation) {
+        return counters.computeIfAbsent(operation, op -> new Counters(
+                counter(op, "executed"),
+                counter(op, "coalesced")
+        ));
+    }
+
+    private Counter counter(String operation, String outcome) {
+        return Counter.builder("device.reads")
+                .description("Device reads by coalescing outcome")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record FlightKey(String operation, Object key) {}
+
+    private record Counters(Counter executed, Counter coalesced) {}
+
+    private static final class Flight {
+
+        private final long version;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Flight(long version) {
+            this.version = version;
+        }
+    }
+}
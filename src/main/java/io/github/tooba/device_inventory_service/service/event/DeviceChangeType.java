@@ -0,0 +1,27 @@
+package io.github.tooba.device_inventory_service.service.event;
+
+public enum DeviceChangeType {
+    CREATED(1),
+    UPDATED(2),
+    DELETED(3);
+
+    // Stored code in device_history. Never renumber.
+    private final short code;
+
+    DeviceChangeType(int code) {
+        this.code = (short) code;
+    }
+
+    public short code() {
+        return code;
+    }
+
+    public static DeviceChangeType fromCode(short code) {
+        for (DeviceChangeType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown device change type code: " + code);
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.tooba.device_inventory_service.service.event;
+
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+
+/**
+ * Published by {@code DeviceService} inside the write transaction.
+ * Listeners that must only observe committed data use
+ * {@code @TransactionalEventListener(phase = AFTER_COMMIT)}.
+ *
+ * @param device state after the change; the last known state for deletions
+ * @param previous state before the change; {@code null} for creations, the
+ *                 same as {@code device} for deletions
+ */
+public record DeviceChangedEvent(
+        DeviceChangeType type,
+        DeviceResult device,
+        DeviceResult previous
+) {
+
+    public static DeviceChangedEvent created(DeviceResult device) {
+        return new DeviceChangedEvent(DeviceChangeType.CREATED, device, null);
+    }
+
+    public static DeviceChangedEvent updated(DeviceResult previous, DeviceResult device) {
+        return new DeviceChangedEvent(DeviceChangeType.UPDATED, device, previous);
+    }
+
+    public static DeviceChangedEvent deleted(DeviceResult device) {
+        return new DeviceChangedEvent(DeviceChangeType.DELETED, device, device);
+    }
+}
@@ -0,0 +1,14 @@
+package io.github.tooba.device_inventory_service.service.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published by {@code DeviceService} inside the transaction that renews the
+ * lease of an IN_USE device. Nothing else about the device changes, so no
+ * {@link DeviceChangedEvent} is published for a renewal.
+ *
+ * @param id the device whose lease was renewed
+ * @param leaseExpiresAt the new expiry
+ */
+public record DeviceLeaseRenewedEvent(UUID id, Instant leaseExpiresAt) {}
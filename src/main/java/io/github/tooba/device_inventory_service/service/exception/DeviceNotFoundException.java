@@ -1,8 +1,12 @@
 package io.github.tooba.device_inventory_service.service.exception;
 
+/**
+ * Carries no stack trace: it is an expected outcome, mapped straight to 404,
+ * and probing for unknown ids should not pay for a stack walk.
+ */
 public class DeviceNotFoundException extends RuntimeException {
 
     public DeviceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
-}
\ No newline at end of file
+}
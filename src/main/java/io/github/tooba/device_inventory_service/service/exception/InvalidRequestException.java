@@ -0,0 +1,20 @@
+package io.github.tooba.device_inventory_service.service.exception;
+
+/**
+ * A request parameter that is well-formed but cannot be served, such as an
+ * empty time range. Mapped to 400 with the offending parameter; like
+ * {@link DeviceNotFoundException}, it carries no stack trace.
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    private final String parameter;
+
+    public InvalidRequestException(String parameter, String message) {
+        super(message, null, false, false);
+        this.parameter = parameter;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+}
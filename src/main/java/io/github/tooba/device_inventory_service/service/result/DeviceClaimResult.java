@@ -0,0 +1,13 @@
+package io.github.tooba.device_inventory_service.service.result;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * @param leaseExpiresAt when the lease on the claimed devices runs out;
+ *                       {@code null} when leases are disabled
+ */
+public record DeviceClaimResult(
+        List<DeviceResult> devices,
+        Instant leaseExpiresAt
+) {}
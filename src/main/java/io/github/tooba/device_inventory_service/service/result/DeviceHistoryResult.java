@@ -0,0 +1,29 @@
+package io.github.tooba.device_inventory_service.service.result;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.DeviceHistoryEntry;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangeType;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record DeviceHistoryResult(
+        UUID deviceId,
+        Instant recordedAt,
+        DeviceChangeType change,
+        String name,
+        String brand,
+        DeviceState state
+) {
+
+    public static DeviceHistoryResult from(DeviceHistoryEntry entry) {
+        return new DeviceHistoryResult(
+                entry.getDeviceId(),
+                entry.getRecordedAt(),
+                entry.getChange(),
+                entry.getName(),
+                entry.getBrand(),
+                entry.getState()
+        );
+    }
+}
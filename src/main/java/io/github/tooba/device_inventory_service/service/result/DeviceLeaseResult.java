@@ -0,0 +1,9 @@
+package io.github.tooba.device_inventory_service.service.result;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record DeviceLeaseResult(
+        UUID id,
+        Instant expiresAt
+) {}
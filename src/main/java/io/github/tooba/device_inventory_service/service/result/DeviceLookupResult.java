@@ -0,0 +1,9 @@
+package io.github.tooba.device_inventory_service.service.result;
+
+import java.util.List;
+import java.util.UUID;
+
+public record DeviceLookupResult(
+        List<DeviceResult> devices,
+        List<UUID> missing
+) {}
@@ -0,0 +1,49 @@
+package io.github.tooba.device_inventory_service.service.result;
+
+import io.github.tooba.device_inventory_service.constant.DevicePatchStatus;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * @param items one outcome per patch, in request order
+ */
+public record DevicePatchResult(
+        List<Item> items
+) {
+
+    public boolean allPatched() {
+        return items.stream().allMatch(item -> item.status() == DevicePatchStatus.PATCHED);
+    }
+
+    /**
+     * @param device  the device after the patch; only set when {@code PATCHED}
+     * @param message why the patch was refused; only set when {@code REJECTED}
+     */
+    public record Item(
+            UUID id,
+            DevicePatchStatus status,
+            DeviceResult device,
+            String message
+    ) {
+
+        public static Item patched(DeviceResult device) {
+            return new Item(device.id(), DevicePatchStatus.PATCHED, device, null);
+        }
+
+        public static Item notFound(UUID id) {
+            return new Item(id, DevicePatchStatus.NOT_FOUND, null, null);
+        }
+
+        public static Item rejected(UUID id, String message) {
+            return new Item(id, DevicePatchStatus.REJECTED, null, message);
+        }
+
+        // A patch that succeeded but was rolled back with the rest.
+        public Item rolledBack() {
+            return status == DevicePatchStatus.PATCHED
+                    ? new Item(id, DevicePatchStatus.NOT_APPLIED, null, null)
+                    : this;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package io.github.tooba.device_inventory_service.service.result;
 
 
 import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.Device;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -12,4 +13,15 @@ public record DeviceResult(
         String brand,
         DeviceState state,
         Instant creationTime
-) {}
\ No newline at end of file
+) {
+
+    public static DeviceResult from(Device device) {
+        return new DeviceResult(
+                device.getId(),
+                device.getName(),
+                device.getBrand(),
+                device.getState(),
+                device.getCreationTime()
+        );
+    }
+}
@@ -0,0 +1,10 @@
+package io.github.tooba.device_inventory_service.service.result;
+
+import io.github.tooba.device_inventory_service.utilization.UtilizationResolution;
+
+import java.util.List;
+
+public record DeviceUtilizationResult(
+        UtilizationResolution resolution,
+        List<UtilizationBucket> buckets
+) {}
@@ -0,0 +1,18 @@
+package io.github.tooba.device_inventory_service.service.result;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Device time one brand spent in each state during {@code [start, end)},
+ * and the IN_USE share of it. A bucket that is still running ends now.
+ */
+public record UtilizationBucket(
+        String brand,
+        Instant start,
+        Instant end,
+        Map<DeviceState, Long> seconds,
+        double utilization
+) {}
@@ -0,0 +1,27 @@
+package io.github.tooba.device_inventory_service.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Opens a span around every {@code DeviceService} call. Runs outside the
+ * transaction, so the statements flushed at commit are its children.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DeviceServiceTracing {
+
+    private final DeviceTracer tracer;
+
+    public DeviceServiceTracing(DeviceTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Around("execution(public * io.github.tooba.device_inventory_service.service.DeviceService.*(..))")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        return Spans.inSpan(tracer, "DeviceService." + joinPoint.getSignature().getName(), joinPoint::proceed);
+    }
+}
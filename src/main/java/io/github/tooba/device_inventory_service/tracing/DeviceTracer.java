@@ -0,0 +1,176 @@
+package io.github.tooba.device_inventory_service.tracing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Starts spans and decides which traces are kept.
+ * <p>
+ * A trace is kept when the caller asked for it with a sampled W3C
+ * {@code traceparent}, when it falls in {@code sample-ratio}, or — decided
+ * once the request is over — when it took at least {@code slow-threshold} or
+ * failed with a server error. With a slow threshold every request is
+ * recorded in memory until that decision; with {@code slow-threshold: 0}
+ * only head-sampled requests are.
+ * <p>
+ * The current span is tracked per thread. Work handed to another thread
+ * (group commit, coalesced reads served to followers) is not traced.
+ */
+public class DeviceTracer {
+
+    private static final Pattern TRACEPARENT =
+            Pattern.compile("00-([0-9a-f]{32})-([0-9a-f]{16})-([0-9a-f]{2})");
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final TracingProperties properties;
+    private final TraceExporter exporter;
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+
+    private final Counter sampled;
+    private final Counter slow;
+    private final Counter failed;
+
+    public DeviceTracer(TracingProperties properties, TraceExporter exporter, MeterRegistry meterRegistry) {
+        if (properties.sampleRatio() < 0 || properties.sampleRatio() > 1) {
+            throw new IllegalArgumentException("device.tracing.sample-ratio must be between 0 and 1");
+        }
+        this.properties = properties;
+        this.exporter = exporter;
+        this.sampled = exportedCounter(meterRegistry, "sampled");
+        this.slow = exportedCounter(meterRegistry, "slow");
+        this.failed = exportedCounter(meterRegistry, "error");
+    }
+
+    private static Counter exportedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("device.tracing.exported")
+                .description("Traces handed to the exporter")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the root span of a request and makes it current. Continues the
+     * caller's trace when {@code traceparent} is a valid W3C header.
+     */
+    public Span startRequest(String name, String traceparent) {
+
+        String traceId = null;
+        String parentId = null;
+        boolean sample = false;
+
+        Matcher matcher = traceparent == null ? null : TRACEPARENT.matcher(traceparent.trim());
+        if (matcher != null && matcher.matches()) {
+            traceId = matcher.group(1);
+            parentId = matcher.group(2);
+            sample = (Integer.parseInt(matcher.group(3), 16) & 1) == 1;
+        }
+        if (traceId == null) {
+            traceId = randomHex(16);
+        }
+        sample = sample || ThreadLocalRandom.current().nextDouble() < properties.sampleRatio();
+
+        if (!sample && properties.slowThreshold().isZero()) {
+            current.set(Span.NOOP);
+            return Span.NOOP;
+        }
+
+        Trace trace = new Trace(traceId, parentId, sample, properties.maxSpansPerTrace(), this::complete);
+        Span root = new Span(trace, null, randomHex(8), name, SpanKind.SERVER);
+        trace.root(root);
+        current.set(root);
+        return root;
+    }
+
+    /**
+     * Starts a child of the current span without making it current.
+     */
+    public Span startSpan(String name, SpanKind kind) {
+        Span parent = current.get();
+        if (parent == null || !parent.isRecording()) {
+            return Span.NOOP;
+        }
+        return new Span(parent.trace(), parent, randomHex(8), name, kind);
+    }
+
+    /**
+     * Starts the span of one JDBC statement, a child of the current span.
+     */
+    public Span startStatement(String sql) {
+        Span span = startSpan(sql == null ? "db.query" : operation(sql), SpanKind.CLIENT);
+        if (span.isRecording() && sql != null) {
+            span.setAttribute("db.operation.name", operation(sql));
+            span.setAttribute("db.query.text", sql.length() <= properties.maxStatementLength()
+                    ? sql
+                    : sql.substring(0, properties.maxStatementLength()));
+        }
+        return span;
+    }
+
+    private static String operation(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? "db.query" : trimmed.substring(0, end).toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Makes {@code span} current and returns the span to hand back to
+     * {@link #restore}.
+     */
+    public Span makeCurrent(Span span) {
+        Span previous = current.get();
+        current.set(span);
+        return previous;
+    }
+
+    public void restore(Span previous) {
+        if (previous == null) {
+            current.remove();
+        } else {
+            current.set(previous);
+        }
+    }
+
+    /**
+     * The {@code traceresponse} header value for a root span, so a caller can
+     * look up the trace of a slow response.
+     */
+    public String traceresponse(Span root) {
+        if (!root.isRecording()) {
+            return null;
+        }
+        return "00-" + root.trace().traceId() + "-" + root.spanId() + "-" + (root.trace().isSampled() ? "01" : "00");
+    }
+
+    private void complete(Trace trace) {
+
+        Span root = trace.root();
+        Counter reason;
+        if (trace.isSampled()) {
+            reason = sampled;
+        } else if (root.isError()) {
+            reason = failed;
+        } else if (root.durationNanos() >= properties.slowThreshold().toNanos()) {
+            reason = slow;
+        } else {
+            return;
+        }
+
+        reason.increment();
+        exporter.export(trace);
+    }
+
+    private static String randomHex(int bytes) {
+        byte[] id = new byte[bytes];
+        ThreadLocalRandom.current().nextBytes(id);
+        return HEX.formatHex(id);
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.tooba.device_inventory_service.tracing;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes a trace as one line of OTLP/JSON ({@code ExportTraceServiceRequest}),
+ * the format the OpenTelemetry Collector's {@code otlpjsonfile} receiver and
+ * most tracing backends import.
+ */
+class OtlpJsonEncoder {
+
+    private static final int STATUS_OK = 1;
+    private static final int STATUS_ERROR = 2;
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+    private final String serviceName;
+
+    OtlpJsonEncoder(String serviceName) {
+        this.serviceName = serviceName;
+    }
+
+    String encode(Trace trace) {
+
+        List<Map<String, Object>> spans = new ArrayList<>();
+        for (Span span : trace.spans()) {
+            Map<String, Object> attributes = span.attributes();
+            if (span == trace.root() && trace.droppedSpans() > 0) {
+                attributes.put("trace.dropped_spans", trace.droppedSpans());
+            }
+
+            Map<String, Object> encoded = new LinkedHashMap<>();
+            encoded.put("traceId", trace.traceId());
+            encoded.put("spanId", span.spanId());
+            String parentId = span.parent() == null ? trace.remoteParentId() : span.parent().spanId();
+            if (parentId != null) {
+                encoded.put("parentSpanId", parentId);
+            }
+            encoded.put("name", span.name());
+            encoded.put("kind", span.kind().otlp());
+            encoded.put("startTimeUnixNano", Long.toString(span.startEpochNanos()));
+            encoded.put("endTimeUnixNano", Long.toString(span.endEpochNanos()));
+            encoded.put("attributes", attributes(attributes));
+            encoded.put("status", Map.of("code", span.isError() ? STATUS_ERROR : STATUS_OK));
+            spans.add(encoded);
+        }
+
+        Map<String, Object> resource = Map.of("attributes", attributes(Map.of("service.name", serviceName)));
+        Map<String, Object> scopeSpans = Map.of("scope", Map.of("name", serviceName), "spans", spans);
+
+        return mapper.writeValueAsString(Map.of(
+                "resourceSpans", List.of(Map.of("resource", resource, "scopeSpans", List.of(scopeSpans)))
+        ));
+    }
+
+    private static List<Map<String, Object>> attributes(Map<String, Object> attributes) {
+        List<Map<String, Object>> encoded = new ArrayList<>(attributes.size());
+        attributes.forEach((key, value) -> encoded.add(Map.of("key", key, "value", value(value))));
+        return encoded;
+    }
+
+    private static Map<String, Object> value(Object value) {
+        return switch (value) {
+            case Boolean b -> Map.of("boolValue", b);
+            case Integer i -> Map.of("intValue", Long.toString(i));
+            case Long l -> Map.of("intValue", Long.toString(l));
+            case Double d -> Map.of("doubleValue", d);
+            default -> Map.of("stringValue", value.toString());
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.tooba.device_inventory_service.tracing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryProxyPostProcessor;
+
+import java.util.function.Supplier;
+
+/**
+ * Adds a span around every call on a Spring Data repository proxy, named
+ * after the repository interface and method.
+ */
+public class RepositoryTracing implements RepositoryProxyPostProcessor {
+
+    private final Supplier<DeviceTracer> tracer;
+
+    public RepositoryTracing(Supplier<DeviceTracer> tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public void postProcess(ProxyFactory factory, RepositoryInformation repositoryInformation) {
+        String repository = repositoryInformation.getRepositoryInterface().getSimpleName();
+        factory.addAdvice((MethodInterceptor) invocation -> Spans.inSpan(
+                tracer.get(),
+                repository + "." + invocation.getMethod().getName(),
+                invocation::proceed
+        ));
+    }
+}
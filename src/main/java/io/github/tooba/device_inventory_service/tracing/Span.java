@@ -0,0 +1,119 @@
+package io.github.tooba.device_inventory_service.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One timed operation of a trace. Spans of a trace that is not being
+ * recorded are {@link #NOOP}, so callers never need to check.
+ */
+public final class Span {
+
+    public static final Span NOOP = new Span(null, null, null, null, SpanKind.INTERNAL);
+
+    private final Trace trace;
+    private final Span parent;
+    private final String spanId;
+    private final String name;
+    private final SpanKind kind;
+    private final long startEpochNanos;
+    private final long startNanos;
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+    private long endEpochNanos;
+    private boolean error;
+    private boolean ended;
+
+    Span(Trace trace, Span parent, String spanId, String name, SpanKind kind) {
+        this.trace = trace;
+        this.parent = parent;
+        this.spanId = spanId;
+        this.name = name;
+        this.kind = kind;
+        this.startNanos = System.nanoTime();
+        this.startEpochNanos = trace == null ? 0 : trace.epochNanos(startNanos);
+    }
+
+    public boolean isRecording() {
+        return trace != null;
+    }
+
+    public Span setAttribute(String key, Object value) {
+        if (trace != null && value != null) {
+            synchronized (this) {
+                attributes.put(key, value);
+            }
+        }
+        return this;
+    }
+
+    public Span recordException(Throwable ex) {
+        if (trace != null) {
+            setAttribute("exception.type", ex.getClass().getName());
+            setAttribute("exception.message", ex.getMessage());
+            setError();
+        }
+        return this;
+    }
+
+    public Span setError() {
+        if (trace != null) {
+            error = true;
+        }
+        return this;
+    }
+
+    public void end() {
+        if (trace == null) {
+            return;
+        }
+        synchronized (this) {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            endEpochNanos = startEpochNanos + (System.nanoTime() - startNanos);
+        }
+        trace.ended(this);
+    }
+
+    Trace trace() {
+        return trace;
+    }
+
+    Span parent() {
+        return parent;
+    }
+
+    String spanId() {
+        return spanId;
+    }
+
+    String name() {
+        return name;
+    }
+
+    SpanKind kind() {
+        return kind;
+    }
+
+    long startEpochNanos() {
+        return startEpochNanos;
+    }
+
+    long endEpochNanos() {
+        return endEpochNanos;
+    }
+
+    long durationNanos() {
+        return endEpochNanos - startEpochNanos;
+    }
+
+    boolean isError() {
+        return error;
+    }
+
+    synchronized Map<String, Object> attributes() {
+        return new LinkedHashMap<>(attributes);
+    }
+}
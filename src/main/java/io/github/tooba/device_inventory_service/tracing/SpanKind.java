@@ -0,0 +1,21 @@
+package io.github.tooba.device_inventory_service.tracing;
+
+/**
+ * Span kinds with their OTLP enum values.
+ */
+public enum SpanKind {
+
+    INTERNAL(1),
+    SERVER(2),
+    CLIENT(3);
+
+    private final int otlp;
+
+    SpanKind(int otlp) {
+        this.otlp = otlp;
+    }
+
+    public int otlp() {
+        return otlp;
+    }
+}
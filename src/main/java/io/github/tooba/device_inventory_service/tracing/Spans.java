@@ -0,0 +1,51 @@
+package io.github.tooba.device_inventory_service.tracing;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Runs a call inside a new current span and records its outcome.
+ */
+final class Spans {
+
+    private Spans() {
+    }
+
+    interface Call {
+        Object proceed() throws Throwable;
+    }
+
+    static Object inSpan(DeviceTracer tracer, String name, Call call) throws Throwable {
+
+        Span span = tracer.startSpan(name, SpanKind.INTERNAL);
+        if (!span.isRecording()) {
+            return call.proceed();
+        }
+
+        Span previous = tracer.makeCurrent(span);
+        try {
+            Object result = call.proceed();
+            span.setAttribute("outcome", "success");
+            span.setAttribute("result.count", count(result));
+            return result;
+        } catch (Throwable ex) {
+            span.setAttribute("outcome", "error");
+            span.recordException(ex);
+            throw ex;
+        } finally {
+            tracer.restore(previous);
+            span.end();
+        }
+    }
+
+    private static Integer count(Object result) {
+        return switch (result) {
+            case Slice<?> slice -> slice.getNumberOfElements();
+            case Collection<?> collection -> collection.size();
+            case Optional<?> optional -> optional.isPresent() ? 1 : 0;
+            case null, default -> null;
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.tooba.device_inventory_service.tracing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The spans of one request, collected until its root span ends.
+ */
+final class Trace {
+
+    private final String traceId;
+    private final String remoteParentId;
+    private final boolean sampled;
+    private final int maxSpans;
+    private final Consumer<Trace> onComplete;
+
+    // Span timestamps come from nanoTime, anchored to the wall clock once.
+    private final long epochNanosBase;
+    private final long nanoTimeBase;
+
+    private final List<Span> spans = new ArrayList<>();
+    private Span root;
+    private int droppedSpans;
+    private boolean complete;
+
+    Trace(String traceId, String remoteParentId, boolean sampled, int maxSpans, Consumer<Trace> onComplete) {
+        this.traceId = traceId;
+        this.remoteParentId = remoteParentId;
+        this.sampled = sampled;
+        this.maxSpans = maxSpans;
+        this.onComplete = onComplete;
+
+        Instant now = Instant.now();
+        this.nanoTimeBase = System.nanoTime();
+        this.epochNanosBase = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    void root(Span root) {
+        this.root = root;
+    }
+
+    long epochNanos(long nanoTime) {
+        return epochNanosBase + (nanoTime - nanoTimeBase);
+    }
+
+    void ended(Span span) {
+        synchronized (this) {
+            if (complete) {
+                return;
+            }
+            if (span != root) {
+                if (spans.size() < maxSpans) {
+                    spans.add(span);
+                } else {
+                    droppedSpans++;
+                }
+                return;
+            }
+            spans.add(span);
+            complete = true;
+        }
+        onComplete.accept(this);
+    }
+
+    String traceId() {
+        return traceId;
+    }
+
+    String remoteParentId() {
+        return remoteParentId;
+    }
+
+    boolean isSampled() {
+        return sampled;
+    }
+
+    Span root() {
+        return root;
+    }
+
+    synchronized List<Span> spans() {
+        return List.copyOf(spans);
+    }
+
+    synchronized int droppedSpans() {
+        return droppedSpans;
+    }
+}
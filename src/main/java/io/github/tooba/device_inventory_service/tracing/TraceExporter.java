@@ -0,0 +1,142 @@
+package io.github.tooba.device_inventory_service.tracing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes kept traces, one OTLP/JSON line each, to the {@code device.traces}
+ * logger or to a file, without a collector.
+ * <p>
+ * Encoding and writing happen on a background thread. When the queue is
+ * full, traces are dropped and counted rather than slowing down requests.
+ */
+public class TraceExporter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TraceExporter.class);
+    private static final Logger traces = LoggerFactory.getLogger("device.traces");
+
+    private final TracingProperties properties;
+    private final OtlpJsonEncoder encoder;
+    private final BlockingQueue<Trace> queue;
+    private final Counter dropped;
+
+    private Thread worker;
+    private BufferedWriter file;
+    private volatile boolean running;
+
+    public TraceExporter(TracingProperties properties, String serviceName, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.encoder = new OtlpJsonEncoder(serviceName);
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        this.dropped = Counter.builder("device.tracing.dropped")
+                .description("Traces dropped because the export queue was full")
+                .register(meterRegistry);
+    }
+
+    void export(Trace trace) {
+        if (!running || !queue.offer(trace)) {
+            dropped.increment();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        if (properties.export() == TracingProperties.Export.FILE) {
+            try {
+                Path path = properties.file().toAbsolutePath();
+                Files.createDirectories(path.getParent());
+                file = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to open trace file " + properties.file(), ex);
+            }
+        }
+
+        running = true;
+        worker = Thread.ofPlatform()
+                .name("device-trace-exporter")
+                .daemon(true)
+                .start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Trace> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        write(remaining);
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException ex) {
+                log.warn("Failed to close trace file {}", properties.file(), ex);
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        List<Trace> batch = new ArrayList<>();
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException ex) {
+                return;
+            }
+            queue.drainTo(batch);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Trace> batch) {
+        try {
+            for (Trace trace : batch) {
+                String line = encoder.encode(trace);
+                if (file == null) {
+                    traces.info(line);
+                } else {
+                    file.write(line);
+                    file.newLine();
+                }
+            }
+            if (file != null) {
+                file.flush();
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Failed to export {} traces", batch.size(), ex);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.tooba.device_inventory_service.tracing;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Opens the server span of each request and closes it once the response
+ * is complete. The root span carries the route and status; the
+ * {@code traceresponse} header names the trace so a slow response can be
+ * found in the export.
+ */
+public class TracingInterceptor implements HandlerInterceptor {
+
+    private static final String SPAN_ATTRIBUTE = TracingInterceptor.class.getName() + ".span";
+
+    private final DeviceTracer tracer;
+
+    public TracingInterceptor(DeviceTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern == null ? request.getRequestURI() : pattern.toString();
+
+        Span span = tracer.startRequest(request.getMethod() + " " + route, request.getHeader("traceparent"))
+                .setAttribute("http.request.method", request.getMethod())
+                .setAttribute("http.route", route)
+                .setAttribute("url.path", request.getRequestURI())
+                .setAttribute("url.query", request.getQueryString());
+
+        String traceresponse = tracer.traceresponse(span);
+        if (traceresponse != null) {
+            response.setHeader("traceresponse", traceresponse);
+        }
+        request.setAttribute(SPAN_ATTRIBUTE, span);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Object handler,
+            Exception ex
+    ) {
+        if (!(request.getAttribute(SPAN_ATTRIBUTE) instanceof Span span)) {
+            return;
+        }
+
+        int status = response.getStatus();
+        span.setAttribute("http.response.status_code", status);
+        if (ex != null) {
+            span.recordException(ex);
+        } else if (status >= 500) {
+            span.setError();
+        }
+
+        tracer.restore(null);
+        span.end();
+    }
+}
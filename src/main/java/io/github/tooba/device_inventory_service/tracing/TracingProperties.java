@@ -0,0 +1,25 @@
+package io.github.tooba.device_inventory_service.tracing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties("device.tracing")
+public record TracingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("0.01") double sampleRatio,
+        @DefaultValue("1s") Duration slowThreshold,
+        @DefaultValue("log") Export export,
+        @DefaultValue("traces/traces.jsonl") Path file,
+        @DefaultValue("1000") int queueCapacity,
+        @DefaultValue("500") int maxSpansPerTrace,
+        @DefaultValue("1000") int maxStatementLength
+) {
+
+    public enum Export {
+        LOG,
+        FILE
+    }
+}
@@ -0,0 +1,367 @@
+package io.github.tooba.device_inventory_service.utilization;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.Brand;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangeType;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangedEvent;
+import io.github.tooba.device_inventory_service.service.exception.InvalidRequestException;
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import io.github.tooba.device_inventory_service.service.result.DeviceUtilizationResult;
+import io.github.tooba.device_inventory_service.service.result.UtilizationBucket;
+import io.github.tooba.device_inventory_service.utilization.UtilizationRollups.BrandState;
+import io.github.tooba.device_inventory_service.utilization.UtilizationRollups.Increment;
+import io.github.tooba.device_inventory_service.utilization.UtilizationRollups.Key;
+import io.github.tooba.device_inventory_service.utilization.UtilizationRollups.Row;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utilization per brand, from rollups maintained as devices change state.
+ * <p>
+ * Each committed change that moves a device between brand/state pairs is
+ * added, for every {@link UtilizationResolution}, to the bucket it falls
+ * in. Increments are summed in memory and written every
+ * {@code flushInterval}, so the write path never touches the rollup rows.
+ * A query reads one row per bucket and state, plus the earlier weekly
+ * rows that give the device counts at its start; a 90-day daily query
+ * reads a few hundred rows per brand however many devices changed.
+ * <p>
+ * When the rollups are first enabled, the current devices are counted
+ * once as entering their state at that moment. Increments still in memory
+ * when a node dies are lost; the rollups only cover changes from then on.
+ */
+public class DeviceUtilization implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceUtilization.class);
+
+    private static final Duration PRUNE_INTERVAL = Duration.ofHours(1);
+
+    private final DeviceUtilizationProperties properties;
+    private final UtilizationRollups rollups;
+    private final TransactionOperations transactions;
+    private final Clock clock;
+
+    private final Map<Key, Increment> pending = new ConcurrentHashMap<>();
+
+    private volatile ScheduledExecutorService executor;
+
+    // Owned by the flusher thread.
+    private boolean seeded;
+    private Instant nextPrune = Instant.MIN;
+
+    public DeviceUtilization(
+            DeviceUtilizationProperties properties,
+            JdbcTemplate jdbc,
+            TransactionOperations transactions,
+            Clock clock
+    ) {
+        this.properties = properties;
+        this.rollups = new UtilizationRollups(jdbc);
+        this.transactions = transactions;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        rollups.createTable();
+        executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("device-utilization-flusher").daemon(true).factory()
+        );
+        long intervalMillis = Math.max(1, properties.flushInterval().toMillis());
+        executor.scheduleWithFixedDelay(this::tick, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService running = executor;
+        if (running == null) {
+            return;
+        }
+        executor = null;
+        running.shutdown();
+        try {
+            if (running.awaitTermination(5, TimeUnit.SECONDS)) {
+                flush();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+
+        if (!properties.enabled()) {
+            return;
+        }
+
+        DeviceResult before = event.type() == DeviceChangeType.CREATED ? null : event.previous();
+        DeviceResult after = event.type() == DeviceChangeType.DELETED ? null : event.device();
+        if (before == null && event.type() != DeviceChangeType.CREATED) {
+            return;
+        }
+
+        BrandState left = before == null ? null : brandState(before);
+        BrandState entered = after == null ? null : brandState(after);
+        if (Objects.equals(left, entered)) {
+            return;
+        }
+
+        Instant now = clock.instant();
+        if (left != null) {
+            record(left, -1, now);
+        }
+        if (entered != null) {
+            record(entered, 1, now);
+        }
+    }
+
+    /**
+     * Utilization of one brand, or of every brand, over the buckets that
+     * overlap {@code [from, to)}. Without a resolution, the finest one
+     * that covers the range in at most {@code maxBuckets} buckets is used.
+     */
+    public DeviceUtilizationResult query(
+            String brand,
+            Instant from,
+            Instant to,
+            UtilizationResolution resolution
+    ) {
+
+        if (!properties.enabled()) {
+            throw new IllegalStateException("Device utilization rollups are not enabled");
+        }
+        if (!from.isBefore(to)) {
+            throw new InvalidRequestException("from", "must be before to");
+        }
+
+        Instant now = clock.instant();
+        UtilizationResolution chosen = resolution != null ? resolution : choose(from, to, now);
+        if (bucketCount(chosen, from, to) > properties.maxBuckets()) {
+            throw new InvalidRequestException("resolution", "More than " + properties.maxBuckets()
+                    + " " + chosen + " buckets requested; use a coarser resolution");
+        }
+        if (!isRetained(chosen, from, now)) {
+            throw new IllegalStateException(chosen + " buckets are not kept that far back");
+        }
+
+        String canonical = brand == null ? null : Brand.canonical(brand);
+        Instant start = chosen.bucketStart(from);
+        Instant end = to.isAfter(now) ? now : to;
+
+        Map<BrandState, Long> counts = new HashMap<>(rollups.netChangeBefore(chosen, start, canonical));
+        Map<String, Map<Instant, Map<DeviceState, Increment>>> rows = new TreeMap<>();
+        for (Row row : rollups.find(chosen, start, end, canonical)) {
+            rows.computeIfAbsent(row.key().brand(), key -> new HashMap<>())
+                    .computeIfAbsent(row.bucketStart(), key -> new EnumMap<>(DeviceState.class))
+                    .put(row.key().state(), row.increment());
+        }
+        counts.keySet().forEach(key -> rows.computeIfAbsent(key.brand(), k -> new HashMap<>()));
+
+        List<UtilizationBucket> buckets = new ArrayList<>();
+        rows.forEach((brandName, byBucket) ->
+                walk(brandName, byBucket, counts, chosen, start, end, now, buckets));
+
+        return new DeviceUtilizationResult(chosen, buckets);
+    }
+
+    private void walk(
+            String brand,
+            Map<Instant, Map<DeviceState, Increment>> byBucket,
+            Map<BrandState, Long> counts,
+            UtilizationResolution resolution,
+            Instant start,
+            Instant end,
+            Instant now,
+            List<UtilizationBucket> out
+    ) {
+
+        Map<DeviceState, Long> devices = new EnumMap<>(DeviceState.class);
+        for (DeviceState state : DeviceState.values()) {
+            devices.put(state, counts.getOrDefault(new BrandState(brand, state), 0L));
+        }
+
+        for (Instant bucket = start; bucket.isBefore(end); bucket = resolution.bucketEnd(bucket)) {
+
+            Instant bucketEnd = resolution.bucketEnd(bucket);
+            Instant until = bucketEnd.isAfter(now) ? now : bucketEnd;
+            long elapsed = Duration.between(bucket, until).toMillis();
+            long notElapsed = Duration.between(until, bucketEnd).toMillis();
+            Map<DeviceState, Increment> changes = byBucket.getOrDefault(bucket, Map.of());
+
+            Map<DeviceState, Long> millis = new EnumMap<>(DeviceState.class);
+            for (DeviceState state : DeviceState.values()) {
+                Increment change = changes.getOrDefault(state, Increment.NONE);
+                // Changes are stored as if every bucket ran to its end.
+                millis.put(state, devices.get(state) * elapsed + change.changeMillis() - change.netChange() * notElapsed);
+                devices.merge(state, change.netChange(), Long::sum);
+            }
+
+            long totalMillis = millis.values().stream().mapToLong(Long::longValue).sum();
+            if (totalMillis > 0) {
+                Map<DeviceState, Long> seconds = new EnumMap<>(DeviceState.class);
+                millis.forEach((state, value) -> seconds.put(state, value / 1000));
+                out.add(new UtilizationBucket(
+                        brand,
+                        bucket,
+                        until,
+                        seconds,
+                        (double) millis.get(DeviceState.IN_USE) / totalMillis
+                ));
+            }
+        }
+    }
+
+    private UtilizationResolution choose(Instant from, Instant to, Instant now) {
+        for (UtilizationResolution resolution : UtilizationResolution.values()) {
+            if (isRetained(resolution, from, now) && bucketCount(resolution, from, to) <= properties.maxBuckets()) {
+                return resolution;
+            }
+        }
+        return UtilizationResolution.WEEK;
+    }
+
+    private boolean isRetained(UtilizationResolution resolution, Instant from, Instant now) {
+        return switch (resolution) {
+            case HOUR -> !from.isBefore(now.minus(properties.hourlyRetention()));
+            case DAY -> !from.isBefore(now.minus(properties.dailyRetention()));
+            case WEEK -> true;
+        };
+    }
+
+    private static long bucketCount(UtilizationResolution resolution, Instant from, Instant to) {
+        Duration span = Duration.between(resolution.bucketStart(from), to);
+        return (span.toMillis() + resolution.length().toMillis() - 1) / resolution.length().toMillis();
+    }
+
+    private void record(BrandState key, long delta, Instant at) {
+        for (UtilizationResolution resolution : UtilizationResolution.values()) {
+            Instant bucket = resolution.bucketStart(at);
+            long toEnd = Duration.between(at, resolution.bucketEnd(bucket)).toMillis();
+            pending.merge(
+                    new Key(resolution, bucket, key.brand(), key.state()),
+                    new Increment(delta, delta * toEnd),
+                    Increment::plus
+            );
+        }
+    }
+
+    private void tick() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.warn("Device utilization flush failed", ex);
+        }
+    }
+
+    /**
+     * Writes the increments accumulated so far, seeding the rollups first
+     * if nobody has. Increments that fail to write are kept for the next
+     * flush.
+     */
+    void flush() {
+
+        if (!seeded) {
+            try {
+                seeded = Boolean.TRUE.equals(transactions.execute(status -> seed()));
+            } catch (DuplicateKeyException ex) {
+                log.debug("Device utilization rollups were seeded by another node");
+                seeded = true;
+            }
+            if (!seeded) {
+                return;
+            }
+        }
+
+        Map<Key, Increment> batch = new HashMap<>();
+        for (Key key : List.copyOf(pending.keySet())) {
+            Increment increment = pending.remove(key);
+            if (increment != null && !increment.equals(Increment.NONE)) {
+                batch.put(key, increment);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            try {
+                transactions.executeWithoutResult(status -> rollups.add(batch));
+            } catch (RuntimeException ex) {
+                batch.forEach((key, increment) -> pending.merge(key, increment, Increment::plus));
+                throw ex;
+            }
+        }
+
+        Instant now = clock.instant();
+        if (!now.isBefore(nextPrune)) {
+            nextPrune = now.plus(PRUNE_INTERVAL);
+            rollups.prune(UtilizationResolution.HOUR, now.minus(properties.hourlyRetention()));
+            rollups.prune(UtilizationResolution.DAY, now.minus(properties.dailyRetention()));
+        }
+    }
+
+    // Every node seeds before its first flush. Changes seen before the count
+    // are already part of it. Of nodes that count at the same time, only the
+    // first to insert the marker commits; the others roll back.
+    private boolean seed() {
+
+        if (rollups.isSeeded()) {
+            return true;
+        }
+
+        pending.clear();
+        Instant now = clock.instant();
+        Map<BrandState, Long> devices = rollups.countDevices();
+        if (devices.isEmpty()) {
+            return false;
+        }
+        rollups.markSeeded(now);
+
+        Map<Key, Increment> initial = new HashMap<>();
+        devices.forEach((key, count) -> {
+            for (UtilizationResolution resolution : UtilizationResolution.values()) {
+                Instant bucket = resolution.bucketStart(now);
+                long toEnd = Duration.between(now, resolution.bucketEnd(bucket)).toMillis();
+                initial.put(new Key(resolution, bucket, key.brand(), key.state()), new Increment(count, count * toEnd));
+            }
+        });
+        rollups.add(initial);
+        log.info("Seeded device utilization rollups with {} brand/state counts", devices.size());
+        return true;
+    }
+
+    private static BrandState brandState(DeviceResult device) {
+        return new BrandState(Brand.canonical(device.brand()), device.state());
+    }
+}
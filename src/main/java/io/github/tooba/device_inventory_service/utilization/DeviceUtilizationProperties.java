@@ -0,0 +1,24 @@
+package io.github.tooba.device_inventory_service.utilization;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Per-brand utilization rollups in {@code device_utilization}.
+ * <p>
+ * Committed state changes are accumulated in memory and added to the
+ * hourly, daily and weekly rollups every {@code flushInterval}. Hourly
+ * buckets are kept for {@code hourlyRetention} and daily ones for
+ * {@code dailyRetention}; weekly buckets are kept forever. A query
+ * returns at most {@code maxBuckets} buckets per brand.
+ */
+@ConfigurationProperties("device.utilization")
+public record DeviceUtilizationProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("5s") Duration flushInterval,
+        @DefaultValue("31d") Duration hourlyRetention,
+        @DefaultValue("730d") Duration dailyRetention,
+        @DefaultValue("500") int maxBuckets
+) {}
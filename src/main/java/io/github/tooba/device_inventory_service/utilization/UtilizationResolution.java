@@ -0,0 +1,60 @@
+package io.github.tooba.device_inventory_service.utilization;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Bucket sizes of the utilization rollups, in UTC. Every coarser bucket is
+ * an exact union of finer ones: weeks start on Monday.
+ */
+public enum UtilizationResolution {
+    HOUR(1, Duration.ofHours(1)),
+    DAY(2, Duration.ofDays(1)),
+    WEEK(3, Duration.ofDays(7));
+
+    // Stored code. Never renumber.
+    private final short code;
+    private final Duration length;
+
+    UtilizationResolution(int code, Duration length) {
+        this.code = (short) code;
+        this.length = length;
+    }
+
+    public short code() {
+        return code;
+    }
+
+    public Duration length() {
+        return length;
+    }
+
+    public Instant bucketStart(Instant instant) {
+        return switch (this) {
+            case HOUR -> instant.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> instant.truncatedTo(ChronoUnit.DAYS);
+            case WEEK -> instant.atOffset(ZoneOffset.UTC)
+                    .toLocalDate()
+                    .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                    .atStartOfDay()
+                    .toInstant(ZoneOffset.UTC);
+        };
+    }
+
+    public Instant bucketEnd(Instant bucketStart) {
+        return bucketStart.plus(length);
+    }
+
+    public static UtilizationResolution fromCode(short code) {
+        for (UtilizationResolution resolution : values()) {
+            if (resolution.code == code) {
+                return resolution;
+            }
+        }
+        throw new IllegalArgumentException("Unknown utilization resolution code: " + code);
+    }
+}
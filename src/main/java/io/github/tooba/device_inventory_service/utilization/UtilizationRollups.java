@@ -0,0 +1,227 @@
+package io.github.tooba.device_inventory_service.utilization;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL access to {@code device_utilization}.
+ * <p>
+ * A row holds, for one brand, state and bucket, the net number of devices
+ * that entered the state during the bucket and the sum of
+ * {@code delta * (bucketEnd - changedAt)} in milliseconds. Both are plain
+ * sums, so increments from any number of nodes simply add up. The device
+ * count at the start of a bucket is the sum of all earlier net changes;
+ * time spent in the state during the bucket follows from that count and
+ * the row.
+ */
+class UtilizationRollups {
+
+    private static final String CREATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS device_utilization (
+                resolution    smallint                    NOT NULL,
+                brand         varchar(255)                NOT NULL,
+                bucket_start  timestamp(6) with time zone NOT NULL,
+                state         smallint                    NOT NULL,
+                net_change    bigint                      NOT NULL,
+                change_millis bigint                      NOT NULL,
+                PRIMARY KEY (resolution, brand, bucket_start, state)
+            )
+            """;
+
+    private static final String CREATE_INDEX = """
+            CREATE INDEX IF NOT EXISTS device_utilization_bucket_idx
+            ON device_utilization (resolution, bucket_start)
+            """;
+
+    // One row once the current devices have been counted. Its primary key
+    // serializes nodes that seed at the same time: the second insert waits
+    // for the first transaction and fails with a duplicate key if it commits.
+    private static final String CREATE_SEED_TABLE = """
+            CREATE TABLE IF NOT EXISTS device_utilization_seed (
+                id        smallint                    PRIMARY KEY,
+                seeded_at timestamp(6) with time zone NOT NULL
+            )
+            """;
+
+    private static final String UPDATE = """
+            UPDATE device_utilization
+            SET net_change = net_change + ?, change_millis = change_millis + ?
+            WHERE resolution = ? AND brand = ? AND bucket_start = ? AND state = ?
+            """;
+
+    private static final String INSERT = """
+            INSERT INTO device_utilization (net_change, change_millis, resolution, brand, bucket_start, state)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String DEVICE_COUNTS = """
+            SELECT b.canonical, d.state, count(*)
+            FROM devices d JOIN brands b ON b.id = d.brand_id
+            GROUP BY b.canonical, d.state
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    UtilizationRollups(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    void createTable() {
+        jdbc.execute(CREATE_TABLE);
+        jdbc.execute(CREATE_INDEX);
+        jdbc.execute(CREATE_SEED_TABLE);
+    }
+
+    /**
+     * Whether the current devices have been counted. Rollups written before
+     * the marker existed count as seeded too.
+     */
+    boolean isSeeded() {
+        return Boolean.TRUE.equals(jdbc.queryForObject("""
+                SELECT EXISTS (SELECT 1 FROM device_utilization_seed)
+                    OR EXISTS (SELECT 1 FROM device_utilization)
+                """, Boolean.class));
+    }
+
+    /**
+     * Claims the seed; must run in the transaction that adds the initial
+     * counts. Throws {@link org.springframework.dao.DuplicateKeyException}
+     * when another node has seeded.
+     */
+    void markSeeded(Instant now) {
+        jdbc.update("INSERT INTO device_utilization_seed (id, seeded_at) VALUES (1, ?)", Timestamp.from(now));
+    }
+
+    /**
+     * Current number of devices per canonical brand and state.
+     */
+    Map<BrandState, Long> countDevices() {
+        Map<BrandState, Long> counts = new HashMap<>();
+        jdbc.query(DEVICE_COUNTS, rs -> {
+            counts.put(new BrandState(rs.getString(1), DeviceState.fromCode(rs.getShort(2))), rs.getLong(3));
+        });
+        return counts;
+    }
+
+    /**
+     * Adds the increments; must run in a transaction. A row that another
+     * node inserts at the same time fails the transaction with a duplicate
+     * key, and the caller retries.
+     */
+    void add(Map<Key, Increment> increments) {
+
+        List<Object[]> args = new ArrayList<>(increments.size());
+        increments.forEach((key, increment) -> args.add(new Object[]{
+                increment.netChange(),
+                increment.changeMillis(),
+                key.resolution().code(),
+                key.brand(),
+                Timestamp.from(key.bucketStart()),
+                key.state().code()
+        }));
+
+        int[] updated = jdbc.batchUpdate(UPDATE, args);
+
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(args.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbc.batchUpdate(INSERT, missing);
+        }
+    }
+
+    /**
+     * Net change per brand and state over every bucket that ends at or
+     * before {@code until}: weekly buckets up to the week containing it,
+     * then {@code resolution} buckets within that week.
+     */
+    Map<BrandState, Long> netChangeBefore(UtilizationResolution resolution, Instant until, String brand) {
+
+        Instant weekStart = UtilizationResolution.WEEK.bucketStart(until);
+
+        StringBuilder sql = new StringBuilder("""
+                SELECT brand, state, sum(net_change) FROM device_utilization
+                WHERE ((resolution = ? AND bucket_start < ?)
+                    OR (resolution = ? AND bucket_start >= ? AND bucket_start < ?))
+                """);
+        List<Object> args = new ArrayList<>(List.of(
+                UtilizationResolution.WEEK.code(), Timestamp.from(weekStart),
+                resolution.code(), Timestamp.from(weekStart), Timestamp.from(until)
+        ));
+        if (brand != null) {
+            sql.append(" AND brand = ?");
+            args.add(brand);
+        }
+        sql.append(" GROUP BY brand, state");
+
+        Map<BrandState, Long> sums = new HashMap<>();
+        jdbc.query(sql.toString(), rs -> {
+            sums.put(new BrandState(rs.getString(1), DeviceState.fromCode(rs.getShort(2))), rs.getLong(3));
+        }, args.toArray());
+        return sums;
+    }
+
+    /**
+     * Rows of {@code resolution} with a bucket in {@code [from, to)}.
+     */
+    List<Row> find(UtilizationResolution resolution, Instant from, Instant to, String brand) {
+
+        StringBuilder sql = new StringBuilder("""
+                SELECT brand, state, bucket_start, net_change, change_millis FROM device_utilization
+                WHERE resolution = ? AND bucket_start >= ? AND bucket_start < ?
+                """);
+        List<Object> args = new ArrayList<>(List.of(resolution.code(), Timestamp.from(from), Timestamp.from(to)));
+        if (brand != null) {
+            sql.append(" AND brand = ?");
+            args.add(brand);
+        }
+
+        return jdbc.query(sql.toString(), UtilizationRollups::row, args.toArray());
+    }
+
+    /**
+     * Deletes {@code resolution} buckets that started before {@code before}.
+     */
+    int prune(UtilizationResolution resolution, Instant before) {
+        return jdbc.update(
+                "DELETE FROM device_utilization WHERE resolution = ? AND bucket_start < ?",
+                resolution.code(),
+                Timestamp.from(before)
+        );
+    }
+
+    private static Row row(ResultSet rs, int rowNum) throws SQLException {
+        return new Row(
+                new BrandState(rs.getString(1), DeviceState.fromCode(rs.getShort(2))),
+                rs.getTimestamp(3).toInstant(),
+                new Increment(rs.getLong(4), rs.getLong(5))
+        );
+    }
+
+    record BrandState(String brand, DeviceState state) {}
+
+    record Key(UtilizationResolution resolution, Instant bucketStart, String brand, DeviceState state) {}
+
+    record Increment(long netChange, long changeMillis) {
+
+        static final Increment NONE = new Increment(0, 0);
+
+        Increment plus(Increment other) {
+            return new Increment(netChange + other.netChange, changeMillis + other.changeMillis);
+        }
+    }
+
+    record Row(BrandState key, Instant bucketStart, Increment increment) {}
+}
@@ -0,0 +1,54 @@
+-- Moves devices to the compact layout: brand as a key into the brands
+-- dictionary, state as a smallint code (see DeviceState#code).
+--
+-- Run once, with the application stopped, before deploying the version
+-- that maps Device.brand to the brands table. If devices is also going
+-- to be partitioned, run this script first and partition-devices.sql after.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS brands (
+    id        integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name      varchar(255) NOT NULL UNIQUE,
+    canonical varchar(255) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS brands_canonical_idx ON brands (canonical);
+
+INSERT INTO brands (name, canonical)
+SELECT DISTINCT brand, lower(brand)
+FROM devices
+ON CONFLICT (name) DO NOTHING;
+
+ALTER TABLE devices
+    ADD COLUMN brand_id   integer,
+    ADD COLUMN state_code smallint;
+
+UPDATE devices d
+SET brand_id   = b.id,
+    state_code = CASE d.state
+                     WHEN 'AVAILABLE' THEN 1
+                     WHEN 'IN_USE' THEN 2
+                     WHEN 'INACTIVE' THEN 3
+                 END
+FROM brands b
+WHERE b.name = d.brand;
+
+ALTER TABLE devices
+    ALTER COLUMN brand_id SET NOT NULL,
+    ALTER COLUMN state_code SET NOT NULL,
+    DROP COLUMN brand,
+    DROP COLUMN state;
+
+ALTER TABLE devices RENAME COLUMN state_code TO state;
+
+ALTER TABLE devices
+    ADD CONSTRAINT devices_state_check CHECK (state IN (1, 2, 3)),
+    ADD CONSTRAINT devices_brand_fk FOREIGN KEY (brand_id) REFERENCES brands (id);
+
+CREATE INDEX devices_brand_state_idx ON devices (brand_id, state);
+CREATE INDEX devices_state_id_idx ON devices (state, id);
+
+COMMIT;
+
+-- Dropped columns keep their space until the table is rewritten.
+VACUUM FULL ANALYZE devices;
@@ -0,0 +1,66 @@
+-- Converts devices into a table range-partitioned by month of creation_time.
+--
+-- Run once, during a maintenance window, with the application stopped. After
+-- that, start the service with device.partitioning.enabled=true so that
+-- future partitions keep being created. Old partitions are only archived
+-- when device.partitioning.retention-months is set.
+--
+-- The primary key has to include the partition key, so it becomes
+-- (id, creation_time). Two consequences:
+--   * a lookup by id alone no longer prunes partitions; it probes the
+--     primary key index of every partition;
+--   * the database no longer enforces that an id is unique across
+--     partitions, only the (id, creation_time) pair. Ids are random UUIDs
+--     generated by the service, so a clash is not expected, but nothing
+--     rejects one.
+--
+-- Expects the compact layout (db/compact-layout/compact-devices.sql).
+
+BEGIN;
+
+ALTER TABLE devices RENAME TO devices_unpartitioned;
+
+CREATE TABLE devices (
+    id               uuid                        NOT NULL,
+    name             varchar(255)                NOT NULL,
+    brand_id         integer                     NOT NULL REFERENCES brands (id),
+    state            smallint                    NOT NULL CHECK (state IN (1, 2, 3)),
+    creation_time    timestamp(6) with time zone NOT NULL,
+    lease_expires_at timestamp(6) with time zone,
+    PRIMARY KEY (id, creation_time)
+) PARTITION BY RANGE (creation_time);
+
+-- One partition per month from the oldest row up to three months ahead.
+DO $$
+DECLARE
+    first_month date := date_trunc('month', coalesce(
+            (SELECT min(creation_time) FROM devices_unpartitioned), now()) AT TIME ZONE 'UTC');
+    last_month  date := date_trunc('month', now() AT TIME ZONE 'UTC') + interval '3 months';
+    month       date;
+BEGIN
+    month := first_month;
+    WHILE month <= last_month LOOP
+        EXECUTE format(
+                'CREATE TABLE %I PARTITION OF devices FOR VALUES FROM (%L) TO (%L)',
+                'devices_p' || to_char(month, 'YYYY_MM'),
+                month::timestamp AT TIME ZONE 'UTC',
+                (month + interval '1 month')::timestamp AT TIME ZONE 'UTC');
+        month := month + interval '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO devices (id, name, brand_id, state, creation_time, lease_expires_at)
+SELECT id, name, brand_id, state, creation_time, lease_expires_at
+FROM devices_unpartitioned;
+
+-- Created on the parent, so every future partition gets it too.
+CREATE INDEX devices_brand_state_idx ON devices (brand_id, state);
+CREATE INDEX devices_state_id_idx ON devices (state, id);
+CREATE INDEX devices_lease_expires_idx ON devices (lease_expires_at);
+
+ANALYZE devices;
+
+COMMIT;
+
+-- Once the service has been verified against the new table:
+-- DROP TABLE devices_unpartitioned;
@@ -0,0 +1,77 @@
+package io.github.tooba.device_inventory_service.concurrency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    @DisplayName("rejects once in-flight requests reach the limit")
+    void shouldRejectAboveLimit() {
+
+        var limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.2, 1.5);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release(1_000_000, false);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    @DisplayName("shrinks the limit when latency rises above the baseline")
+    void shouldShrinkWhenLatencyGrows() {
+
+        var limiter = new AdaptiveConcurrencyLimiter(50, 1, 100, 0.5, 1.0);
+
+        for (int i = 0; i < 20; i++) {
+            cycle(limiter, 1_000_000);
+        }
+        int baseline = limiter.getLimit();
+
+        cycle(limiter, 50_000_000);
+
+        assertThat(limiter.getLimit()).isLessThan(baseline);
+    }
+
+    @Test
+    @DisplayName("backs off multiplicatively on dropped requests")
+    void shouldBackOffOnDrop() {
+
+        var limiter = new AdaptiveConcurrencyLimiter(100, 1, 200, 0.2, 1.5);
+
+        limiter.tryAcquire();
+        limiter.release(1_000_000, true);
+
+        assertThat(limiter.getLimit()).isEqualTo(90);
+    }
+
+    @Test
+    @DisplayName("never drops below the configured minimum")
+    void shouldRespectMinimum() {
+
+        var limiter = new AdaptiveConcurrencyLimiter(5, 4, 10, 0.2, 1.5);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(1_000_000, true);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    // Keeps the limiter fully utilised so samples are not ignored as app-limited.
+    private void cycle(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int admitted = 0;
+        while (limiter.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limiter.release(rttNanos, false);
+        }
+    }
+}
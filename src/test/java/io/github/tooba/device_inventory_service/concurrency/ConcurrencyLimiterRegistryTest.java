@@ -0,0 +1,70 @@
+package io.github.tooba.device_inventory_service.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterRegistryTest {
+
+    private final AtomicLong nanos = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final ConcurrencyLimiterRegistry registry = new ConcurrencyLimiterRegistry(
+            new ConcurrencyLimitProperties(true, 20, 4, 200, 0.2, 1.5,
+                    Duration.ofSeconds(1), Duration.ofSeconds(10), 0.2, 5),
+            new SimpleMeterRegistry(),
+            nanos::get
+    );
+
+    @Test
+    @DisplayName("a single rejection does not report shedding")
+    void shouldIgnoreSingleRejection() {
+
+        registry.reject(EndpointClass.READ);
+
+        assertThat(registry.isShedding()).isFalse();
+    }
+
+    @Test
+    @DisplayName("reports shedding while rejections are a sustained share of requests")
+    void shouldReportSustainedRejections() {
+
+        for (int second = 0; second < 5; second++) {
+            for (int i = 0; i < 8; i++) {
+                registry.admit(EndpointClass.READ);
+            }
+            registry.reject(EndpointClass.READ);
+            registry.reject(EndpointClass.WRITE);
+            advance(Duration.ofSeconds(1));
+        }
+
+        assertThat(registry.rejectionRatio()).isEqualTo(0.2);
+        assertThat(registry.isShedding()).isTrue();
+
+        advance(Duration.ofSeconds(10));
+
+        assertThat(registry.isShedding()).isFalse();
+    }
+
+    @Test
+    @DisplayName("many rejections among far more admissions do not report shedding")
+    void shouldIgnoreLowRejectionRatio() {
+
+        for (int i = 0; i < 1_000; i++) {
+            registry.admit(EndpointClass.READ);
+        }
+        for (int i = 0; i < 50; i++) {
+            registry.reject(EndpointClass.READ);
+        }
+
+        assertThat(registry.isShedding()).isFalse();
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+}
@@ -1,22 +1,42 @@
 package io.github.tooba.device_inventory_service.controller;
 
+import io.github.tooba.device_inventory_service.constant.DevicePatchStatus;
 import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.controller.requestDto.ClaimDevicesRequest;
 import io.github.tooba.device_inventory_service.controller.requestDto.CreateDeviceRequest;
+import io.github.tooba.device_inventory_service.controller.requestDto.LookupDevicesRequest;
+import io.github.tooba.device_inventory_service.controller.requestDto.PatchDevicesRequest;
+import io.github.tooba.device_inventory_service.controller.requestDto.ReleaseDevicesRequest;
+import io.github.tooba.device_inventory_service.controller.responseDto.DeviceClaimResponse;
 import io.github.tooba.device_inventory_service.controller.requestDto.UpdateDeviceRequest;
+import io.github.tooba.device_inventory_service.controller.responseDto.DevicePatchResponse;
+import io.github.tooba.device_inventory_service.controller.responseDto.DeviceReleaseResponse;
 import io.github.tooba.device_inventory_service.controller.responseDto.DeviceResponse;
-import io.github.tooba.device_inventory_service.repository.DeviceRepository;
+import io.github.tooba.device_inventory_service.repository.DeviceStore;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
 import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -29,11 +49,16 @@ class DeviceControllerIT {
     private RestClient client;
 
     @Autowired
-    DeviceRepository deviceRepository;
+    DeviceStore deviceStore;
+
+    // Absent without a database (in-memory and sharded profiles).
+    @Autowired
+    ObjectProvider<JdbcTemplate> jdbc;
 
     @BeforeEach
     void setUp() {
-        deviceRepository.deleteAll();
+        deviceStore.findAll(DeviceFilter.of(null, null).toSpecification(), Pageable.unpaged())
+                .forEach(deviceStore::delete);
         this.client = RestClient.builder()
                 .baseUrl("http://localhost:" + port)
                 .build();
@@ -172,6 +197,254 @@ class DeviceControllerIT {
         assertThat(first.get("name").asText()).isEqualTo("iPhone");
         assertThat(first.get("brand").asText()).isEqualTo("Apple");
     }
+
+    @Test
+    @DisplayName("GET /devices?brand= → matches every spelling and sorts by brand name")
+    void shouldFilterAndSortByDictionaryBrand() throws Exception {
+
+        for (String brand : new String[]{"Samsung", "APPLE", "Apple"}) {
+            client.post()
+                    .uri("/devices")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(createRequest("Device", brand, DeviceState.AVAILABLE))
+                    .retrieve()
+                    .body(DeviceResponse.class);
+        }
+
+        String filtered = client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/devices")
+                        .queryParam("brand", "apple")
+                        .queryParam("sort", "brand,desc")
+                        .build())
+                .retrieve()
+                .body(String.class);
+
+        var content = new ObjectMapper().readTree(filtered).get("content");
+        assertThat(content.size()).isEqualTo(2);
+        assertThat(content.get(0).get("brand").asText()).isEqualTo("Apple");
+        assertThat(content.get(1).get("brand").asText()).isEqualTo("APPLE");
+
+        String sorted = client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/devices")
+                        .queryParam("sort", "brand,asc")
+                        .build())
+                .retrieve()
+                .body(String.class);
+
+        var all = new ObjectMapper().readTree(sorted).get("content");
+        assertThat(all.get(0).get("brand").asText()).isEqualTo("APPLE");
+        assertThat(all.get(2).get("brand").asText()).isEqualTo("Samsung");
+    }
+
+    @Test
+    @DisplayName("GET /devices?count=none → returns a slice without totals")
+    void shouldListDevicesWithoutCount() throws Exception {
+
+        client.post()
+                .uri("/devices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(createRequest("iPhone", "Apple", DeviceState.AVAILABLE))
+                .retrieve()
+                .body(DeviceResponse.class);
+
+        client.post()
+                .uri("/devices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(createRequest("iPad", "Apple", DeviceState.AVAILABLE))
+                .retrieve()
+                .body(DeviceResponse.class);
+
+        String response = client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/devices")
+                        .queryParam("count", "none")
+                        .queryParam("page", 0)
+                        .queryParam("size", 1)
+                        .build())
+                .retrieve()
+                .body(String.class);
+
+        var json = new ObjectMapper().readTree(response);
+
+        assertThat(json.get("content").size()).isEqualTo(1);
+        assertThat(json.get("last").asBoolean()).isFalse();
+        assertThat(json.has("totalElements")).isFalse();
+    }
+
+    @Test
+    @DisplayName("GET /devices?fields=id,state → returns only the selected fields")
+    void shouldListOnlySelectedFields() throws Exception {
+
+        client.post()
+                .uri("/devices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(createRequest("iPhone", "Apple", DeviceState.IN_USE))
+                .retrieve()
+                .body(DeviceResponse.class);
+
+        String response = client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/devices")
+                        .queryParam("state", "IN_USE")
+                        .queryParam("fields", "id,state")
+                        .build())
+                .retrieve()
+                .body(String.class);
+
+        var json = new ObjectMapper().readTree(response);
+
+        assertThat(json.get("totalElements").asInt()).isEqualTo(1);
+
+        var first = json.get("content").get(0);
+        assertThat(first.get("state").asText()).isEqualTo("IN_USE");
+        assertThat(first.has("id")).isTrue();
+        assertThat(first.has("name")).isFalse();
+        assertThat(first.has("brand")).isFalse();
+        assertThat(first.has("creationTime")).isFalse();
+    }
+
+    @Test
+    @DisplayName("POST /devices/lookup → returns found devices and missing ids")
+    void shouldLookupDevicesById() throws Exception {
+
+        DeviceResponse created = client.post()
+                .uri("/devices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(createRequest("iPhone", "Apple", DeviceState.AVAILABLE))
+                .retrieve()
+                .body(DeviceResponse.class);
+
+        UUID missing = UUID.randomUUID();
+
+        String response = client.post()
+                .uri("/devices/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new LookupDevicesRequest(List.of(missing, created.id())))
+                .retrieve()
+                .body(String.class);
+
+        var json = new ObjectMapper().readTree(response);
+
+        assertThat(json.get("devices").size()).isEqualTo(1);
+        assertThat(json.get("devices").get(0).get("id").asText()).isEqualTo(created.id().toString());
+        assertThat(json.get("devices").get(0).get("name").asText()).isEqualTo("iPhone");
+        assertThat(json.get("missing").size()).isEqualTo(1);
+        assertThat(json.get("missing").get(0).asText()).isEqualTo(missing.toString());
+    }
+
+    @Test
+    @DisplayName("POST /devices/claim → concurrent claimers never get the same device")
+    void concurrentClaimsDoNotOverlap() {
+
+        for (int i = 0; i < 10; i++) {
+            client.post()
+                    .uri("/devices")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(createRequest("iPhone " + i, "Apple", DeviceState.AVAILABLE))
+                    .retrieve()
+                    .toBodilessEntity();
+        }
+        client.post()
+                .uri("/devices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(createRequest("Pixel", "Google", DeviceState.AVAILABLE))
+                .retrieve()
+                .toBodilessEntity();
+
+        List<CompletableFuture<DeviceClaimResponse>> claims = IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> client.post()
+                        .uri("/devices/claim")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(new ClaimDevicesRequest("apple", 2, null))
+                        .retrieve()
+                        .body(DeviceClaimResponse.class)))
+                .toList();
+
+        List<UUID> claimed = new ArrayList<>();
+        for (CompletableFuture<DeviceClaimResponse> claim : claims) {
+            for (DeviceResponse device : claim.join().devices()) {
+                assertThat(device.brand()).isEqualTo("Apple");
+                assertThat(device.state()).isEqualTo(DeviceState.IN_USE);
+                claimed.add(device.id());
+            }
+        }
+
+        Set<UUID> distinct = new HashSet<>(claimed);
+        assertThat(distinct).hasSameSizeAs(claimed);
+        assertThat(distinct.size()).isLessThanOrEqualTo(10);
+
+        DeviceReleaseResponse released = client.post()
+                .uri("/devices/release")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ReleaseDevicesRequest(List.copyOf(distinct)))
+                .retrieve()
+                .body(DeviceReleaseResponse.class);
+
+        assertThat(released.released()).hasSize(distinct.size())
+                .allSatisfy(device -> assertThat(device.state()).isEqualTo(DeviceState.AVAILABLE));
+        assertThat(released.notReleased()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("PATCH /devices → applies all patches or none, unless partial")
+    void patchesSeveralDevices() {
+
+        DeviceResponse available = client.post()
+                .uri("/devices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(createRequest("iPhone", "Apple", DeviceState.AVAILABLE))
+                .retrieve()
+                .body(DeviceResponse.class);
+        DeviceResponse inUse = client.post()
+                .uri("/devices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(createRequest("Pixel", "Google", DeviceState.IN_USE))
+                .retrieve()
+                .body(DeviceResponse.class);
+
+        List<PatchDevicesRequest.Item> patches = List.of(
+                new PatchDevicesRequest.Item(available.id(), null, "Fairphone", DeviceState.INACTIVE),
+                new PatchDevicesRequest.Item(inUse.id(), null, "Fairphone", null)
+        );
+
+        var rejected = org.junit.jupiter.api.Assertions.assertThrows(
+                HttpClientErrorException.UnprocessableContent.class,
+                () -> client.patch()
+                        .uri("/devices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(new PatchDevicesRequest(patches, false))
+                        .retrieve()
+                        .toBodilessEntity()
+        );
+
+        DevicePatchResponse atomic = rejected.getResponseBodyAs(DevicePatchResponse.class);
+        assertThat(atomic.results()).extracting(DevicePatchResponse.Item::status)
+                .containsExactly(DevicePatchStatus.NOT_APPLIED, DevicePatchStatus.REJECTED);
+        // The new spelling was registered by the rolled back transaction.
+        jdbc.ifAvailable(template -> assertThat(
+                template.queryForObject("SELECT count(*) FROM brands WHERE name = ?", Integer.class, "Fairphone")
+        ).isZero());
+        assertThat(client.get().uri("/devices/{id}", available.id()).retrieve().body(DeviceResponse.class).brand())
+                .isEqualTo("Apple");
+
+        DevicePatchResponse partial = client.patch()
+                .uri("/devices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new PatchDevicesRequest(patches, true))
+                .retrieve()
+                .body(DevicePatchResponse.class);
+
+        assertThat(partial.results()).extracting(DevicePatchResponse.Item::status)
+                .containsExactly(DevicePatchStatus.PATCHED, DevicePatchStatus.REJECTED);
+        assertThat(partial.results().getFirst().device())
+                .extracting(DeviceResponse::brand, DeviceResponse::state)
+                .containsExactly("Fairphone", DeviceState.INACTIVE);
+        assertThat(client.get().uri("/devices/{id}", available.id()).retrieve().body(DeviceResponse.class).brand())
+                .isEqualTo("Fairphone");
+    }
+
     @Test
     void shouldPartiallyUpdateDevice() {
 
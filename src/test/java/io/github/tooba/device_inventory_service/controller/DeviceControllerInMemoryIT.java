@@ -0,0 +1,10 @@
+package io.github.tooba.device_inventory_service.controller;
+
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Runs every {@link DeviceControllerIT} scenario against the in-memory storage engine.
+ */
+@ActiveProfiles("in-memory")
+class DeviceControllerInMemoryIT extends DeviceControllerIT {
+}
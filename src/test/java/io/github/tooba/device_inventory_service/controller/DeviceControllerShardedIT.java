@@ -0,0 +1,19 @@
+package io.github.tooba.device_inventory_service.controller;
+
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs every {@link DeviceControllerIT} scenario against three H2 shards.
+ */
+@ActiveProfiles("sharded")
+@TestPropertySource(properties = {
+        "device.sharding.shards[0].url=jdbc:h2:mem:shard-0;DB_CLOSE_DELAY=-1",
+        "device.sharding.shards[0].username=sa",
+        "device.sharding.shards[1].url=jdbc:h2:mem:shard-1;DB_CLOSE_DELAY=-1",
+        "device.sharding.shards[1].username=sa",
+        "device.sharding.shards[2].url=jdbc:h2:mem:shard-2;DB_CLOSE_DELAY=-1",
+        "device.sharding.shards[2].username=sa"
+})
+class DeviceControllerShardedIT extends DeviceControllerIT {
+}
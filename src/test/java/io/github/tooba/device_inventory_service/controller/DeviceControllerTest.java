@@ -1,10 +1,21 @@
 package io.github.tooba.device_inventory_service.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.tooba.device_inventory_service.concurrency.ConcurrencyLimitExceededException;
+import io.github.tooba.device_inventory_service.concurrency.EndpointClass;
+import io.github.tooba.device_inventory_service.constant.DeviceField;
 import io.github.tooba.device_inventory_service.constant.DeviceState;
 import io.github.tooba.device_inventory_service.controller.requestDto.CreateDeviceRequest;
+import io.github.tooba.device_inventory_service.controller.requestDto.ClaimDevicesRequest;
+import io.github.tooba.device_inventory_service.controller.requestDto.LookupDevicesRequest;
 import io.github.tooba.device_inventory_service.service.DeviceService;
+import io.github.tooba.device_inventory_service.service.caching.ListVersions;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangeType;
 import io.github.tooba.device_inventory_service.service.exception.DeviceNotFoundException;
+import io.github.tooba.device_inventory_service.service.exception.InvalidRequestException;
+import io.github.tooba.device_inventory_service.service.result.DeviceClaimResult;
+import io.github.tooba.device_inventory_service.service.result.DeviceHistoryResult;
+import io.github.tooba.device_inventory_service.service.result.DeviceLookupResult;
 import io.github.tooba.device_inventory_service.service.result.DeviceResult;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -12,12 +23,20 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -33,6 +52,9 @@ class DeviceControllerTest {
     @MockitoBean
     private DeviceService service;
 
+    @MockitoBean
+    private ListVersions listVersions;
+
     @Nested
     @DisplayName("POST /devices")
     class CreateDeviceTests {
@@ -282,7 +304,7 @@ class DeviceControllerTest {
 
             UUID id = UUID.randomUUID();
 
-            Mockito.when(service.getById(id))
+            Mockito.when(service.getById(id, null))
                     .thenReturn(new DeviceResult(
                             id,
                             "iPhone",
@@ -304,13 +326,299 @@ class DeviceControllerTest {
 
             UUID id = UUID.randomUUID();
 
-            Mockito.when(service.getById(id))
+            Mockito.when(service.getById(id, null))
                     .thenThrow(new DeviceNotFoundException("Not found"));
 
             mockMvc.perform(get("/devices/{id}", id))
                     .andExpect(status().isNotFound())
                     .andExpect(jsonPath("$.code").value("RESOURCE_NOT_FOUND"));
         }
+
+        @Test
+        @DisplayName("→ 503 Service Unavailable (load shedding)")
+        void shouldReturn503WhenOverloaded() throws Exception {
+
+            UUID id = UUID.randomUUID();
+
+            Mockito.when(service.getById(id, null))
+                    .thenThrow(new ConcurrencyLimitExceededException(EndpointClass.READ, Duration.ofSeconds(2)));
+
+            mockMvc.perform(get("/devices/{id}", id))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "2"))
+                    .andExpect(jsonPath("$.code").value("SERVICE_OVERLOADED"))
+                    .andExpect(jsonPath("$.status").value(503));
+        }
+
+        @Test
+        @DisplayName("?fields=state → 200 OK with only the selected fields")
+        void shouldReturnOnlySelectedFields() throws Exception {
+
+            UUID id = UUID.randomUUID();
+
+            Mockito.when(service.getById(id, Set.of(DeviceField.STATE)))
+                    .thenReturn(new DeviceResult(id, null, null, DeviceState.IN_USE, null));
+
+            mockMvc.perform(get("/devices/{id}", id).param("fields", "state"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(id.toString()))
+                    .andExpect(jsonPath("$.state").value("IN_USE"))
+                    .andExpect(jsonPath("$.name").doesNotExist())
+                    .andExpect(jsonPath("$.creationTime").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("?fields=unknown → 400 Bad Request")
+        void shouldRejectUnknownField() throws Exception {
+
+            mockMvc.perform(get("/devices/{id}", UUID.randomUUID()).param("fields", "serial"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.code").value("VALIDATION_ERROR"))
+                    .andExpect(jsonPath("$.validationErrors.fields").exists());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /devices")
+    class ListDevicesTests {
+
+        @Test
+        @DisplayName("→ 200 OK with the page fields Spring Data writes")
+        void shouldReturnPageEnvelope() throws Exception {
+
+            UUID id = UUID.randomUUID();
+            var projected = new DeviceResult(id, null, null, DeviceState.IN_USE, null);
+
+            Mockito.when(service.getAll(any(), any(), any(), any()))
+                    .thenReturn(new PageImpl<>(List.of(projected), PageRequest.of(1, 1), 3));
+
+            mockMvc.perform(get("/devices").param("fields", "state").param("page", "1").param("size", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].id").value(id.toString()))
+                    .andExpect(jsonPath("$.content[0].state").value("IN_USE"))
+                    .andExpect(jsonPath("$.content[0].name").doesNotExist())
+                    .andExpect(jsonPath("$.number").value(1))
+                    .andExpect(jsonPath("$.size").value(1))
+                    .andExpect(jsonPath("$.first").value(false))
+                    .andExpect(jsonPath("$.last").value(false))
+                    .andExpect(jsonPath("$.totalElements").value(3))
+                    .andExpect(jsonPath("$.totalPages").value(3))
+                    .andExpect(jsonPath("$.empty").value(false))
+                    .andExpect(jsonPath("$.pageable.pageNumber").value(1))
+                    .andExpect(jsonPath("$.pageable.offset").value(1))
+                    .andExpect(jsonPath("$.sort.sorted").value(false));
+        }
+
+        @Test
+        @DisplayName("→ 200 OK with every item written exactly as GET /devices/{id} writes it")
+        void shouldWriteItemsLikeDeviceResponse() throws Exception {
+
+            List<DeviceResult> devices = List.of(
+                    new DeviceResult(UUID.randomUUID(), "Tab \"S9\"", "Samsung", DeviceState.IN_USE,
+                            Instant.parse("2025-06-01T10:15:30.000123Z")),
+                    new DeviceResult(UUID.randomUUID(), null, null, DeviceState.AVAILABLE, null)
+            );
+            Mockito.when(service.getAll(any(), any(), any(), any()))
+                    .thenReturn(new SliceImpl<>(devices, PageRequest.of(0, 20), false));
+
+            var page = objectMapper.readTree(mockMvc.perform(get("/devices"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+
+            for (int i = 0; i < devices.size(); i++) {
+                DeviceResult device = devices.get(i);
+                Mockito.when(service.getById(device.id(), null)).thenReturn(device);
+
+                var single = objectMapper.readTree(mockMvc.perform(get("/devices/{id}", device.id()))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString());
+
+                assertThat(page.get("content").get(i)).isEqualTo(single);
+            }
+        }
+
+        @Test
+        @DisplayName("→ 200 OK without totals for an uncounted slice")
+        void shouldOmitTotalsForSlice() throws Exception {
+
+            Mockito.when(service.getAll(any(), any(), any(), any()))
+                    .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 20), false));
+
+            mockMvc.perform(get("/devices").param("count", "none"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content").isEmpty())
+                    .andExpect(jsonPath("$.last").value(true))
+                    .andExpect(jsonPath("$.totalElements").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("→ 304 Not Modified without running the query when the ETag still matches")
+        void shouldAnswerNotModified() throws Exception {
+
+            String etag = "W/\"5f3a-0-7-1c2d\"";
+            Mockito.when(listVersions.etag(any(), any(), any(), any())).thenReturn(etag);
+            Mockito.when(service.getAll(any(), any(), any(), any()))
+                    .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 20), false));
+
+            mockMvc.perform(get("/devices"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", etag))
+                    .andExpect(header().string("Cache-Control", "no-cache"));
+
+            mockMvc.perform(get("/devices").header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", etag))
+                    .andExpect(content().string(""));
+
+            verify(service, Mockito.times(1)).getAll(any(), any(), any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("POST /devices/lookup")
+    class LookupDevicesTests {
+
+        @Test
+        @DisplayName("→ 200 OK with found devices and missing ids")
+        void shouldLookupDevices() throws Exception {
+
+            UUID foundId = UUID.randomUUID();
+            UUID missingId = UUID.randomUUID();
+
+            Mockito.when(service.lookup(List.of(foundId, missingId)))
+                    .thenReturn(new DeviceLookupResult(
+                            List.of(new DeviceResult(foundId, "iPhone", "Apple", DeviceState.AVAILABLE, Instant.now())),
+                            List.of(missingId)
+                    ));
+
+            mockMvc.perform(post("/devices/lookup")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(
+                                    new LookupDevicesRequest(List.of(foundId, missingId)))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.devices[0].id").value(foundId.toString()))
+                    .andExpect(jsonPath("$.missing[0]").value(missingId.toString()));
+        }
+
+        @Test
+        @DisplayName("→ 400 Bad Request when the id list is empty or too long")
+        void shouldRejectInvalidIdList() throws Exception {
+
+            mockMvc.perform(post("/devices/lookup")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new LookupDevicesRequest(List.of()))))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.code").value("VALIDATION_ERROR"));
+
+            List<UUID> tooMany = Stream.generate(UUID::randomUUID)
+                    .limit(LookupDevicesRequest.MAX_IDS + 1)
+                    .toList();
+
+            mockMvc.perform(post("/devices/lookup")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new LookupDevicesRequest(tooMany))))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.validationErrors.ids").exists());
+
+            Mockito.verifyNoInteractions(service);
+        }
+    }
+
+    @Nested
+    @DisplayName("POST /devices/claim")
+    class ClaimDevicesTests {
+
+        @Test
+        @DisplayName("→ 200 OK with the claimed devices")
+        void shouldClaimDevices() throws Exception {
+
+            UUID id = UUID.randomUUID();
+
+            Mockito.when(service.claim("Apple", 2, null))
+                    .thenReturn(new DeviceClaimResult(
+                            List.of(new DeviceResult(id, "iPhone", "Apple", DeviceState.IN_USE, Instant.now())),
+                            null
+                    ));
+
+            mockMvc.perform(post("/devices/claim")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new ClaimDevicesRequest("Apple", 2, null))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.devices[0].id").value(id.toString()))
+                    .andExpect(jsonPath("$.devices[0].state").value("IN_USE"));
+        }
+
+        @Test
+        @DisplayName("→ 400 Bad Request when the count is out of range")
+        void shouldRejectInvalidCount() throws Exception {
+
+            mockMvc.perform(post("/devices/claim")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(
+                                    new ClaimDevicesRequest(null, ClaimDevicesRequest.MAX_COUNT + 1, null))))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.validationErrors.count").exists());
+
+            Mockito.verifyNoInteractions(service);
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /devices/utilization")
+    class DeviceUtilizationTests {
+
+        @Test
+        @DisplayName("→ 400 Bad Request when the range is empty")
+        void shouldReturn400ForEmptyRange() throws Exception {
+
+            Mockito.when(service.getUtilization(any(), any(), any(), any()))
+                    .thenThrow(new InvalidRequestException("from", "must be before to"));
+
+            mockMvc.perform(get("/devices/utilization")
+                            .param("from", "2026-01-02T00:00:00Z")
+                            .param("to", "2026-01-01T00:00:00Z"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.code").value("VALIDATION_ERROR"))
+                    .andExpect(jsonPath("$.validationErrors.from").value("must be before to"));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /devices/{id}/history")
+    class DeviceHistoryTests {
+
+        @Test
+        @DisplayName("→ 200 OK with the recorded changes")
+        void shouldReturnHistory() throws Exception {
+
+            UUID id = UUID.randomUUID();
+
+            Mockito.when(service.getHistory(Mockito.eq(id), Mockito.isNull(), Mockito.isNull(), any()))
+                    .thenReturn(new SliceImpl<>(List.of(new DeviceHistoryResult(
+                            id, Instant.now(), DeviceChangeType.CREATED, "iPhone", "Apple", DeviceState.AVAILABLE
+                    ))));
+
+            mockMvc.perform(get("/devices/{id}/history", id))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].change").value("CREATED"))
+                    .andExpect(jsonPath("$.content[0].state").value("AVAILABLE"))
+                    .andExpect(jsonPath("$.number").value(0))
+                    .andExpect(jsonPath("$.last").value(true))
+                    .andExpect(jsonPath("$.totalElements").doesNotExist())
+                    .andExpect(jsonPath("$.pageable").doesNotExist())
+                    .andExpect(jsonPath("$.sort").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("→ 422 Unprocessable Entity when history is disabled")
+        void shouldReturn422WhenDisabled() throws Exception {
+
+            Mockito.when(service.getAsOf(any(), any(), any(), any()))
+                    .thenThrow(new IllegalStateException("Device history is not enabled"));
+
+            mockMvc.perform(get("/devices").param("asOf", "2026-01-01T00:00:00Z"))
+                    .andExpect(status().is(422));
+        }
     }
 
     @Nested
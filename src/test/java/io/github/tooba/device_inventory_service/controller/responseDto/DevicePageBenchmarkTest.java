@@ -0,0 +1,112 @@
+package io.github.tooba.device_inventory_service.controller.responseDto;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes written and bytes allocated per serialized page of devices:
+ * <ul>
+ *     <li>the page mapped to {@link DeviceResponse}s and written as Spring
+ *     Data's {@link PageImpl}, as before;</li>
+ *     <li>the {@link DevicePageResponse} envelope, written from the results.</li>
+ * </ul>
+ * Excluded from the regular build; run with
+ * {@code mvn test -Dgroups=benchmark -DexcludedGroups=none -Dtest=DevicePageBenchmarkTest}.
+ */
+@Tag("benchmark")
+class DevicePageBenchmarkTest {
+
+    private static final int PAGE_SIZE = 1_000;
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 5_000;
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+    private final Page<DeviceResult> page = page();
+
+    @Test
+    @DisplayName("page serialization: PageImpl<DeviceResponse> vs streamed envelope")
+    void pageSerialization() {
+
+        Result pageImpl = measure(out -> mapper.writeValue(out, page.map(DeviceResponse::from)));
+        Result envelope = measure(out -> mapper.writeValue(out, DevicePageResponse.from(page)));
+
+        System.out.printf("PageImpl<DeviceResponse>: %8d bytes/page %10d bytes allocated/page %8.1f us/page%n",
+                pageImpl.bytes(), pageImpl.allocated(), pageImpl.micros());
+        System.out.printf("DevicePageResponse      : %8d bytes/page %10d bytes allocated/page %8.1f us/page%n",
+                envelope.bytes(), envelope.allocated(), envelope.micros());
+
+        assertThat(mapper.writeValueAsString(DevicePageResponse.from(page)))
+                .isEqualTo(mapper.writeValueAsString(page.map(DeviceResponse::from)));
+
+        assertThat(envelope.bytes()).isEqualTo(pageImpl.bytes());
+        assertThat(envelope.allocated()).isLessThan(pageImpl.allocated());
+    }
+
+    private static Page<DeviceResult> page() {
+        List<DeviceResult> devices = new ArrayList<>(PAGE_SIZE);
+        Instant created = Instant.parse("2025-06-01T10:15:30.123456Z");
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            devices.add(new DeviceResult(
+                    UUID.randomUUID(), "Device " + i, i % 2 == 0 ? "Apple" : "Samsung",
+                    DeviceState.values()[i % 3], created.plusSeconds(i)
+            ));
+        }
+        return new PageImpl<>(devices, PageRequest.of(3, PAGE_SIZE), 50_000);
+    }
+
+    private static Result measure(Consumer<OutputStream> write) {
+
+        CountingOutputStream out = new CountingOutputStream();
+        for (int i = 0; i < WARMUP; i++) {
+            write.accept(out);
+        }
+
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+
+        out.count = 0;
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            write.accept(out);
+        }
+        long elapsed = System.nanoTime() - started;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        return new Result(out.count / ITERATIONS, allocated / ITERATIONS, elapsed / 1_000.0 / ITERATIONS);
+    }
+
+    private record Result(long bytes, long allocated, double micros) {}
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
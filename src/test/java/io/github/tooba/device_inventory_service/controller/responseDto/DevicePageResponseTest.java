@@ -0,0 +1,48 @@
+package io.github.tooba.device_inventory_service.controller.responseDto;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DevicePageResponseTest {
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    @Test
+    @DisplayName("writes the same JSON as a page of DeviceResponse")
+    void matchesDeviceResponse() {
+
+        List<DeviceResult> devices = List.of(
+                new DeviceResult(UUID.randomUUID(), "iPhone", "Apple", DeviceState.AVAILABLE,
+                        Instant.parse("2025-06-01T10:15:30Z")),
+                new DeviceResult(new UUID(0, 1), "Tab \"S9\"", "Samsung", DeviceState.IN_USE,
+                        Instant.parse("2025-06-01T10:15:30.120Z")),
+                new DeviceResult(new UUID(-1, -1), "Pixel", "Google", DeviceState.INACTIVE,
+                        Instant.parse("1970-01-01T00:00:00.000123Z")),
+                new DeviceResult(UUID.randomUUID(), null, null, DeviceState.IN_USE,
+                        Instant.parse("2024-02-29T23:59:59.999999999Z")),
+                new DeviceResult(UUID.randomUUID(), "Future", "Acme", null,
+                        Instant.parse("+12025-01-01T00:00:00Z"))
+        );
+
+        var slice = new SliceImpl<>(devices, PageRequest.of(0, 5), true);
+        var page = new PageImpl<>(devices, PageRequest.of(2, 5, Sort.by("name")), 42);
+
+        assertThat(mapper.writeValueAsString(DevicePageResponse.from(slice)))
+                .isEqualTo(mapper.writeValueAsString(slice.map(DeviceResponse::from)));
+        assertThat(mapper.writeValueAsString(DevicePageResponse.from(page)))
+                .isEqualTo(mapper.writeValueAsString(page.map(DeviceResponse::from)));
+    }
+}
@@ -0,0 +1,188 @@
+package io.github.tooba.device_inventory_service.degraded;
+
+import io.github.tooba.device_inventory_service.constant.DeviceField;
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangedEvent;
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StaleReadsTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-10-19T12:00:00Z"));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StaleReads staleReads = new StaleReads(
+            new DegradedReadProperties(true, Duration.ofMillis(200), Duration.ofMinutes(5), 100, Duration.ZERO),
+            meterRegistry,
+            clock
+    );
+
+    @AfterEach
+    void tearDown() {
+        staleReads.stop();
+        StaleReads.reset();
+    }
+
+    @Test
+    @DisplayName("serves the last result when the database cannot be reached")
+    void shouldServeLastResultWhenUnavailable() {
+
+        assertThat(staleReads.read("getById", "key", () -> "fresh")).isEqualTo("fresh");
+        assertThat(StaleReads.servedSince()).isNull();
+
+        Instant loadedAt = clock.instant();
+        clock.advance(Duration.ofSeconds(30));
+
+        String value = staleReads.read("getById", "key", () -> {
+            throw new CannotCreateTransactionException("connection refused");
+        });
+
+        assertThat(value).isEqualTo("fresh");
+        assertThat(StaleReads.servedSince()).isEqualTo(loadedAt);
+        assertThat(staleReads.isDegraded()).isTrue();
+        assertThat(meterRegistry.get("device.reads.stale").tag("operation", "getById").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("rethrows when nothing usable is remembered or the failure is not about availability")
+    void shouldRethrowOtherwise() {
+
+        assertThatThrownBy(() -> staleReads.read("getById", "unknown", () -> {
+            throw new DataAccessResourceFailureException("down");
+        })).isInstanceOf(DataAccessResourceFailureException.class);
+
+        staleReads.read("getById", "key", () -> "fresh");
+        clock.advance(Duration.ofMinutes(6));
+
+        assertThatThrownBy(() -> staleReads.read("getById", "key", () -> {
+            throw new DataAccessResourceFailureException("down");
+        })).isInstanceOf(DataAccessResourceFailureException.class);
+
+        staleReads.read("getAll", "page", () -> "fresh");
+
+        assertThatThrownBy(() -> staleReads.read("getAll", "page", () -> {
+            throw new IllegalArgumentException("bad sort");
+        })).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("serves a field selection until this node writes the device")
+    void shouldDropFieldSelectionsAfterOwnWrite() {
+
+        UUID id = UUID.randomUUID();
+        var key = new StaleReads.Fields(id, Set.of(DeviceField.ID, DeviceField.STATE));
+        var selected = new DeviceResult(id, null, null, DeviceState.AVAILABLE, null);
+
+        staleReads.read(StaleReads.GET_BY_ID_FIELDS, key, () -> selected);
+        clock.advance(Duration.ofSeconds(30));
+
+        assertThat(staleReads.<DeviceResult>read(StaleReads.GET_BY_ID_FIELDS, key, () -> {
+            throw new CannotCreateTransactionException("connection refused");
+        })).isEqualTo(selected);
+
+        clock.advance(Duration.ofSeconds(1));
+        staleReads.onDeviceChanged(DeviceChangedEvent.updated(
+                selected,
+                new DeviceResult(id, "iPhone", "Apple", DeviceState.IN_USE, Instant.EPOCH)
+        ));
+
+        assertThatThrownBy(() -> staleReads.read(StaleReads.GET_BY_ID_FIELDS, key, () -> {
+            throw new CannotCreateTransactionException("connection refused");
+        })).isInstanceOf(CannotCreateTransactionException.class);
+    }
+
+    @Test
+    @DisplayName("a slow read degrades, later reads are served stale and revalidated in the background")
+    void shouldRevalidateInBackground() throws Exception {
+
+        staleReads.start();
+
+        staleReads.read("getAll", "page", () -> {
+            sleep(300);
+            return "slow";
+        });
+        assertThat(staleReads.isDegraded()).isTrue();
+
+        var loads = new AtomicInteger();
+        var revalidated = new CountDownLatch(1);
+
+        String served = staleReads.read("getAll", "page", () -> {
+            loads.incrementAndGet();
+            revalidated.countDown();
+            return "recovered";
+        });
+
+        assertThat(served).isEqualTo("slow");
+        assertThat(revalidated.await(5, TimeUnit.SECONDS)).isTrue();
+        waitUntil(() -> !staleReads.isDegraded());
+
+        StaleReads.reset();
+        assertThat(staleReads.read("getAll", "page", () -> "fresh")).isEqualTo("fresh");
+        assertThat(StaleReads.servedSince()).isNull();
+        assertThat(loads).hasValue(1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.tooba.device_inventory_service.entity;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.fixture.DeviceTestDataFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of rejecting a rename of an in-use device, thrown from below a stack
+ * about as deep as a Spring MVC request:
+ * <ul>
+ *     <li>a new {@link IllegalStateException}, as before;</li>
+ *     <li>the preallocated, stackless {@link DeviceRuleViolationException};</li>
+ *     <li>the returned {@link DeviceRuleViolation}, without throwing.</li>
+ * </ul>
+ * Excluded from the regular build; run with
+ * {@code mvn test -Dgroups=benchmark -DexcludedGroups=none -Dtest=DeviceRejectionBenchmarkTest}.
+ */
+@Tag("benchmark")
+class DeviceRejectionBenchmarkTest {
+
+    private static final int STACK_DEPTH = 120;
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    private final Device device = DeviceTestDataFactory.builder().withState(DeviceState.IN_USE).build();
+
+    private long sink;
+
+    @Test
+    @DisplayName("rejection path: new exception vs stackless exception vs result")
+    void rejectionPath() {
+
+        double allocated = measure(() -> atDepth(STACK_DEPTH, this::rejectWithNewException));
+        double stackless = measure(() -> atDepth(STACK_DEPTH, this::rejectWithStacklessException));
+        double result = measure(() -> atDepth(STACK_DEPTH, this::rejectWithResult));
+
+        System.out.printf("new IllegalStateException : %8.1f ns/op%n", allocated);
+        System.out.printf("stackless, preallocated   : %8.1f ns/op%n", stackless);
+        System.out.printf("DeviceRuleViolation result: %8.1f ns/op%n", result);
+
+        assertThat(stackless).isLessThan(allocated);
+        assertThat(result).isLessThan(allocated);
+    }
+
+    private int rejectWithNewException() {
+        try {
+            if (device.getState() == DeviceState.IN_USE) {
+                throw new IllegalStateException("Name and brand cannot be updated while device is in use");
+            }
+            return 0;
+        } catch (IllegalStateException ex) {
+            return ex.getMessage().length();
+        }
+    }
+
+    private int rejectWithStacklessException() {
+        try {
+            device.update("Renamed", device.getBrand(), DeviceState.IN_USE);
+            return 0;
+        } catch (DeviceRuleViolationException ex) {
+            return ex.getMessage().length();
+        }
+    }
+
+    private int rejectWithResult() {
+        DeviceRuleViolation violation = device.tryUpdate("Renamed", device.getBrand(), DeviceState.IN_USE);
+        return violation == null ? 0 : violation.message().length();
+    }
+
+    private double measure(Supplier<Integer> rejection) {
+
+        for (int i = 0; i < WARMUP; i++) {
+            sink += rejection.get();
+        }
+
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += rejection.get();
+        }
+        return (System.nanoTime() - started) / (double) ITERATIONS;
+    }
+
+    private static int atDepth(int depth, Supplier<Integer> rejection) {
+        return depth == 0 ? rejection.get() : atDepth(depth - 1, rejection);
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.tooba.device_inventory_service.entity;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.fixture.DeviceTestDataFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeviceRulesTest {
+
+    @Test
+    @DisplayName("returns the violation and leaves an in-use device unchanged")
+    void returnsViolationWithoutThrowing() {
+
+        Device device = DeviceTestDataFactory.builder().withState(DeviceState.IN_USE).build();
+
+        assertThat(device.tryPatch(null, "Samsung", DeviceState.AVAILABLE))
+                .isEqualTo(DeviceRuleViolation.BRAND_LOCKED);
+        assertThat(device.tryUpdate("Galaxy", device.getBrand(), DeviceState.IN_USE))
+                .isEqualTo(DeviceRuleViolation.NAME_AND_BRAND_LOCKED);
+        assertThat(DeviceRules.checkDelete(device)).isEqualTo(DeviceRuleViolation.DELETE_IN_USE);
+
+        assertThat(device.getBrand()).isEqualTo("Apple");
+        assertThat(device.getState()).isEqualTo(DeviceState.IN_USE);
+    }
+
+    @Test
+    @DisplayName("applies an allowed change and returns no violation")
+    void appliesAllowedChange() {
+
+        Device device = DeviceTestDataFactory.builder().withState(DeviceState.IN_USE).build();
+
+        assertThat(device.tryPatch(null, null, DeviceState.AVAILABLE)).isNull();
+        assertThat(device.getState()).isEqualTo(DeviceState.AVAILABLE);
+        assertThat(DeviceRules.checkDelete(device)).isNull();
+    }
+
+    @Test
+    @DisplayName("throws one shared exception per violation, without a stack trace")
+    void throwsPreallocatedStacklessException() {
+
+        Device device = DeviceTestDataFactory.builder().withState(DeviceState.IN_USE).build();
+
+        assertThatThrownBy(() -> device.patch("Galaxy", null, null))
+                .isSameAs(DeviceRuleViolation.NAME_LOCKED.exception())
+                .isInstanceOf(DeviceRuleViolationException.class)
+                .hasMessage("Name cannot be updated while device is in use");
+        assertThat(DeviceRuleViolation.NAME_LOCKED.exception().getStackTrace()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("the shared exception cannot collect suppressed exceptions or a cause")
+    void sharedExceptionStaysImmutable() {
+
+        DeviceRuleViolationException shared = DeviceRuleViolation.BRAND_LOCKED.exception();
+
+        shared.addSuppressed(new RuntimeException("rollback failed"));
+
+        assertThat(shared.getSuppressed()).isEmpty();
+        assertThatThrownBy(() -> shared.initCause(new RuntimeException("cause")))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(shared.getCause()).isNull();
+    }
+}
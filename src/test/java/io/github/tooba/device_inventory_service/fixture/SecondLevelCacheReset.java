@@ -0,0 +1,24 @@
+package io.github.tooba.device_inventory_service.fixture;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+
+/**
+ * Empties the second-level cache before each test class.
+ * <p>
+ * Every test context gets the same JCache manager, so cached entries outlive
+ * the database they were read from: {@code create-drop} rebuilds the schema
+ * for each new context, and {@code @DataJpaTest} runs on a database of its
+ * own. Brand keys restart at 1 in each of them.
+ */
+public class SecondLevelCacheReset extends AbstractTestExecutionListener {
+
+    @Override
+    public void beforeTestClass(TestContext testContext) {
+        testContext.getApplicationContext()
+                .getBeanProvider(EntityManagerFactory.class)
+                .ifAvailable(factory -> factory.unwrap(SessionFactory.class).getCache().evictAllRegions());
+    }
+}
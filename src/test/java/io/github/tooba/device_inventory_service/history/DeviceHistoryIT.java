@@ -0,0 +1,149 @@
+package io.github.tooba.device_inventory_service.history;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.repository.DeviceRepository;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
+import io.github.tooba.device_inventory_service.service.DeviceService;
+import io.github.tooba.device_inventory_service.service.command.CreateDeviceCommand;
+import io.github.tooba.device_inventory_service.service.command.PatchDeviceCommand;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangeType;
+import io.github.tooba.device_inventory_service.service.result.DeviceHistoryResult;
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = "device.history.enabled=true")
+@ActiveProfiles("test")
+class DeviceHistoryIT {
+
+    @Autowired
+    private DeviceService service;
+
+    @Autowired
+    private DeviceRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private DeviceHistory history;
+
+    @BeforeEach
+    void clean() {
+        repository.deleteAll();
+        jdbc.update("DELETE FROM device_history");
+    }
+
+    @Test
+    @DisplayName("records create, state change and delete in order, and keeps them after the delete")
+    void recordsChanges() throws InterruptedException {
+
+        DeviceResult created = service.create(new CreateDeviceCommand("iPhone", "Apple", DeviceState.AVAILABLE));
+        service.patch(new PatchDeviceCommand(created.id(), null, null, DeviceState.INACTIVE));
+        Instant beforeDelete = pause();
+        service.delete(created.id());
+
+        Slice<DeviceHistoryResult> history = service.getHistory(created.id(), null, null, PageRequest.of(0, 10));
+
+        assertThat(history.getContent())
+                .extracting(DeviceHistoryResult::change, DeviceHistoryResult::state)
+                .containsExactly(
+                        tuple(DeviceChangeType.CREATED, DeviceState.AVAILABLE),
+                        tuple(DeviceChangeType.UPDATED, DeviceState.INACTIVE),
+                        tuple(DeviceChangeType.DELETED, DeviceState.INACTIVE)
+                );
+        assertThat(history.hasNext()).isFalse();
+
+        assertThat(service.getHistory(created.id(), beforeDelete, null, PageRequest.of(0, 10)).getContent())
+                .extracting(DeviceHistoryResult::change)
+                .containsExactly(DeviceChangeType.DELETED);
+        assertThat(service.getHistory(created.id(), null, null, PageRequest.of(0, 2)).hasNext()).isTrue();
+    }
+
+    @Test
+    @DisplayName("lists devices as they were at a past instant, filtered on the state they had then")
+    void listsAsOf() throws InterruptedException {
+
+        DeviceResult phone = service.create(new CreateDeviceCommand("iPhone", "Apple", DeviceState.AVAILABLE));
+        DeviceResult tablet = service.create(new CreateDeviceCommand("Tab", "Samsung", DeviceState.AVAILABLE));
+        Instant before = pause();
+
+        service.patch(new PatchDeviceCommand(phone.id(), "iPhone 15", null, DeviceState.IN_USE));
+        service.delete(tablet.id());
+        DeviceResult later = service.create(new CreateDeviceCommand("Pixel", "Google", DeviceState.AVAILABLE));
+
+        List<DeviceResult> then = service.getAsOf(DeviceFilter.of(null, null), before, PageRequest.of(0, 10), null)
+                .getContent();
+        assertThat(then)
+                .extracting(DeviceResult::id, DeviceResult::name, DeviceResult::state)
+                .containsExactlyInAnyOrder(
+                        tuple(phone.id(), "iPhone", DeviceState.AVAILABLE),
+                        tuple(tablet.id(), "Tab", DeviceState.AVAILABLE)
+                );
+
+        List<DeviceResult> now = service.getAsOf(DeviceFilter.of(null, null), Instant.now(), PageRequest.of(0, 10), null)
+                .getContent();
+        assertThat(now)
+                .extracting(DeviceResult::id, DeviceResult::state)
+                .containsExactlyInAnyOrder(
+                        tuple(phone.id(), DeviceState.IN_USE),
+                        tuple(later.id(), DeviceState.AVAILABLE)
+                );
+
+        assertThat(service.getAsOf(DeviceFilter.of("apple", DeviceState.AVAILABLE), before, PageRequest.of(0, 10), null)
+                .getContent())
+                .extracting(DeviceResult::id)
+                .containsExactly(phone.id());
+        assertThat(service.getAsOf(DeviceFilter.of("apple", DeviceState.AVAILABLE), Instant.now(), PageRequest.of(0, 10), null)
+                .getContent())
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("records the existing devices once when history is first enabled, and rejects earlier instants")
+    void seedsExistingDevices() throws InterruptedException {
+
+        DeviceResult phone = service.create(new CreateDeviceCommand("iPhone", "Apple", DeviceState.IN_USE));
+        DeviceResult tablet = service.create(new CreateDeviceCommand("Tab", "Samsung", DeviceState.AVAILABLE));
+        jdbc.update("DELETE FROM device_history");
+        Instant beforeSeed = pause();
+
+        history.onStartup();
+        history.onStartup();
+
+        assertThat(service.getHistory(phone.id(), null, null, PageRequest.of(0, 10)).getContent())
+                .extracting(DeviceHistoryResult::change, DeviceHistoryResult::state)
+                .containsExactly(tuple(DeviceChangeType.CREATED, DeviceState.IN_USE));
+        assertThat(service.getAsOf(DeviceFilter.of(null, null), Instant.now(), PageRequest.of(0, 10), null)
+                .getContent())
+                .extracting(DeviceResult::id, DeviceResult::brand)
+                .containsExactlyInAnyOrder(tuple(phone.id(), "Apple"), tuple(tablet.id(), "Samsung"));
+
+        assertThatThrownBy(() -> service.getAsOf(
+                DeviceFilter.of(null, null), beforeSeed.minusSeconds(3600), PageRequest.of(0, 10), null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("starts at");
+    }
+
+    // Separates entries recorded before and after the returned instant.
+    private static Instant pause() throws InterruptedException {
+        Thread.sleep(5);
+        Instant instant = Instant.now();
+        Thread.sleep(5);
+        return instant;
+    }
+}
@@ -0,0 +1,219 @@
+package io.github.tooba.device_inventory_service.index;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangeType;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangedEvent;
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class DeviceBitmapIndexTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+    private final UUID third = UUID.randomUUID();
+
+    // What reading a single device back returns.
+    private final Map<UUID, ResultSet> table = new HashMap<>();
+
+    private DeviceBitmapIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new DeviceBitmapIndex(new DeviceBitmapIndexProperties(true, 100), jdbc);
+        doAnswer(invocation -> {
+            RowMapper<?> mapper = invocation.getArgument(1);
+            ResultSet row = table.get((UUID) invocation.getArgument(2));
+            return row == null ? List.of() : List.of(mapper.mapRow(row, 0));
+        }).when(jdbc).query(anyString(), any(RowMapper.class), any(UUID.class));
+    }
+
+    @Test
+    @DisplayName("is not ready and answers nothing before the first rebuild")
+    void notReadyBeforeRebuild() {
+
+        index.onDeviceChanged(event(DeviceChangeType.CREATED, first, "Apple", DeviceState.AVAILABLE));
+
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.find(null, null, 0, 10)).isEmpty();
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    @DisplayName("intersects brand and state, ignoring brand spelling")
+    void intersectsBrandAndState() throws Exception {
+
+        givenRows(
+                row(first, DeviceState.AVAILABLE, "apple"),
+                row(second, DeviceState.IN_USE, "apple"),
+                row(third, DeviceState.AVAILABLE, "samsung")
+        );
+        assertThat(index.rebuild()).isTrue();
+
+        assertThat(index.find(" APPLE ", DeviceState.AVAILABLE, 0, 10))
+                .contains(new BitmapIndexPage(1, List.of(first)));
+        assertThat(index.find(null, DeviceState.AVAILABLE, 0, 10))
+                .contains(new BitmapIndexPage(2, List.of(first, third)));
+        assertThat(index.find("Nokia", null, 0, 10))
+                .contains(new BitmapIndexPage(0, List.of()));
+    }
+
+    @Test
+    @DisplayName("pages by offset and limit while reporting the full count")
+    void pagesMatches() throws Exception {
+
+        givenRows(
+                row(first, DeviceState.AVAILABLE, "apple"),
+                row(second, DeviceState.AVAILABLE, "apple"),
+                row(third, DeviceState.AVAILABLE, "apple")
+        );
+        index.rebuild();
+
+        assertThat(index.find("Apple", null, 1, 1)).contains(new BitmapIndexPage(3, List.of(second)));
+        assertThat(index.find("Apple", null, 3, 1)).contains(new BitmapIndexPage(3, List.of()));
+    }
+
+    @Test
+    @DisplayName("follows committed creates, updates and deletes")
+    void appliesChanges() throws Exception {
+
+        givenRows(row(first, DeviceState.AVAILABLE, "apple"));
+        index.rebuild();
+
+        table.put(second, row(second, DeviceState.AVAILABLE, "samsung"));
+        index.onDeviceChanged(event(DeviceChangeType.CREATED, second, "Samsung", DeviceState.AVAILABLE));
+        table.put(first, row(first, DeviceState.IN_USE, "apple"));
+        index.onDeviceChanged(event(DeviceChangeType.UPDATED, first, "Apple", DeviceState.IN_USE));
+        table.remove(second);
+        index.onDeviceChanged(event(DeviceChangeType.DELETED, second, "Samsung", DeviceState.AVAILABLE));
+
+        assertThat(index.find(null, DeviceState.AVAILABLE, 0, 10)).contains(new BitmapIndexPage(0, List.of()));
+        assertThat(index.find("apple", DeviceState.IN_USE, 0, 10)).contains(new BitmapIndexPage(1, List.of(first)));
+        assertThat(index.stats().devices()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("keeps the committed state when events arrive out of commit order")
+    void readsBackCommittedState() throws Exception {
+
+        givenRows(row(first, DeviceState.AVAILABLE, "apple"));
+        index.rebuild();
+
+        // Two transactions committed AVAILABLE -> IN_USE -> INACTIVE; the
+        // listener of the first runs last.
+        table.put(first, row(first, DeviceState.INACTIVE, "apple"));
+        index.onDeviceChanged(event(DeviceChangeType.UPDATED, first, "Apple", DeviceState.INACTIVE));
+        index.onDeviceChanged(event(DeviceChangeType.UPDATED, first, "Apple", DeviceState.IN_USE));
+
+        assertThat(index.find(null, DeviceState.INACTIVE, 0, 10)).contains(new BitmapIndexPage(1, List.of(first)));
+        assertThat(index.find(null, DeviceState.IN_USE, 0, 10)).contains(new BitmapIndexPage(0, List.of()));
+    }
+
+    @Test
+    @DisplayName("replays changes committed while the table is being read")
+    void replaysChangesDuringRebuild() throws Exception {
+
+        doAnswer(invocation -> {
+            // Committed after the scan has already passed these rows.
+            table.remove(first);
+            table.put(third, row(third, DeviceState.AVAILABLE, "apple"));
+            index.onDeviceChanged(event(DeviceChangeType.DELETED, first, "Apple", DeviceState.AVAILABLE));
+            index.onDeviceChanged(event(DeviceChangeType.CREATED, third, "Apple", DeviceState.AVAILABLE));
+
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row(first, DeviceState.AVAILABLE, "apple"));
+            handler.processRow(row(second, DeviceState.AVAILABLE, "apple"));
+            return null;
+        }).when(jdbc).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        index.rebuild();
+
+        assertThat(index.find("Apple", null, 0, 10)).contains(new BitmapIndexPage(2, List.of(second, third)));
+    }
+
+    @Test
+    @DisplayName("rebuilds after partitions were archived")
+    void rebuildsAfterArchiving() throws Exception {
+
+        givenRows(row(first, DeviceState.AVAILABLE, "apple"), row(second, DeviceState.AVAILABLE, "apple"));
+        index.rebuild();
+
+        // second was in a partition that has been detached.
+        givenRows(row(first, DeviceState.AVAILABLE, "apple"));
+        index.onPartitionsArchived();
+
+        assertThat(index.find("Apple", null, 0, 10)).contains(new BitmapIndexPage(1, List.of(first)));
+    }
+
+    @Test
+    @DisplayName("reports memory footprint and rebuild time")
+    void reportsStats() throws Exception {
+
+        givenRows(row(first, DeviceState.AVAILABLE, "apple"), row(second, DeviceState.IN_USE, "samsung"));
+        index.rebuild();
+
+        DeviceBitmapIndex.Stats stats = index.stats();
+
+        assertThat(stats.ready()).isTrue();
+        assertThat(stats.devices()).isEqualTo(2);
+        assertThat(stats.brands()).isEqualTo(2);
+        assertThat(stats.memoryBytes()).isPositive();
+        assertThat(stats.memoryBytesPerMillionDevices()).isEqualTo(stats.memoryBytes() * 500_000);
+        assertThat(stats.lastRebuildMillis()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("does nothing while disabled")
+    void disabled() {
+
+        index = new DeviceBitmapIndex(new DeviceBitmapIndexProperties(false, 100), jdbc);
+
+        assertThat(index.rebuild()).isFalse();
+        verifyNoInteractions(jdbc);
+    }
+
+    private void givenRows(ResultSet... rows) throws Exception {
+        table.clear();
+        for (ResultSet row : rows) {
+            table.put(row.getObject(1, UUID.class), row);
+        }
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (ResultSet row : rows) {
+                handler.processRow(row);
+            }
+            return null;
+        }).when(jdbc).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private static ResultSet row(UUID id, DeviceState state, String canonicalBrand) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject(1, UUID.class)).thenReturn(id);
+        when(rs.getShort(2)).thenReturn(state.code());
+        when(rs.getString(3)).thenReturn(canonicalBrand);
+        return rs;
+    }
+
+    private static DeviceChangedEvent event(DeviceChangeType type, UUID id, String brand, DeviceState state) {
+        return new DeviceChangedEvent(type, new DeviceResult(id, "device", brand, state, Instant.now()), null);
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.tooba.device_inventory_service.instrumentation;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.controller.requestDto.CreateDeviceRequest;
+import io.github.tooba.device_inventory_service.controller.responseDto.DeviceResponse;
+import io.github.tooba.device_inventory_service.repository.DeviceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestClient;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "device.db-instrumentation.server-timing=true"
+)
+@ActiveProfiles("test")
+class JdbcInstrumentationIT {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ConnectionHoldersEndpoint endpoint;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private DeviceRepository repository;
+
+    private RestClient client;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        client = RestClient.builder().baseUrl("http://localhost:" + port).build();
+    }
+
+    @Test
+    @DisplayName("times JDBC work per endpoint and service method and reports it in Server-Timing")
+    void attributesJdbcTime() {
+
+        ResponseEntity<DeviceResponse> created = client.post()
+                .uri("/devices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new CreateDeviceRequest("iPhone", "Apple", DeviceState.AVAILABLE))
+                .retrieve()
+                .toEntity(DeviceResponse.class);
+
+        assertThat(created.getHeaders().getFirst("Server-Timing"))
+                .contains("db-acquire;dur=", "db-query;dur=", "db-mapping;dur=");
+
+        Timer query = meterRegistry.find(JdbcInstrumentation.QUERY)
+                .tags("endpoint", "POST /devices", "method", "DeviceService.create")
+                .timer();
+        assertThat(query).isNotNull();
+        assertThat(query.count()).isPositive();
+        assertThat(meterRegistry.find(JdbcInstrumentation.ACQUIRE).tags("endpoint", "POST /devices").timer())
+                .isNotNull();
+
+        // Bodiless responses get the header from the interceptor.
+        ResponseEntity<Void> deleted = client.delete()
+                .uri("/devices/{id}", created.getBody().id())
+                .retrieve()
+                .toBodilessEntity();
+
+        assertThat(deleted.getHeaders().getFirst("Server-Timing")).contains("db-query;dur=");
+        assertThat(meterRegistry.find(JdbcInstrumentation.QUERY)
+                .tags("endpoint", "DELETE /devices/{id}", "method", "DeviceService.delete")
+                .timer())
+                .isNotNull();
+    }
+
+    @Test
+    @DisplayName("lists connection holders until they give the connection back")
+    void listsConnectionHolders() throws Exception {
+
+        String thread = Thread.currentThread().getName();
+
+        try (Connection ignored = dataSource.getConnection()) {
+            Thread.sleep(20);
+            assertThat(endpoint.holders().holders())
+                    .filteredOn(holder -> holder.thread().equals(thread))
+                    .singleElement()
+                    .satisfies(holder -> {
+                        assertThat(holder.endpoint()).isEqualTo(JdbcTimings.NONE);
+                        assertThat(holder.heldMillis()).isGreaterThanOrEqualTo(20);
+                    });
+        }
+
+        assertThat(endpoint.holders().holders())
+                .noneMatch(holder -> holder.thread().equals(thread));
+    }
+}
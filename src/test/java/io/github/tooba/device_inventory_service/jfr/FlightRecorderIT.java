@@ -0,0 +1,106 @@
+package io.github.tooba.device_inventory_service.jfr;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.service.DeviceService;
+import io.github.tooba.device_inventory_service.service.command.CreateDeviceCommand;
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.io.Resource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "device.flight-recorder.enabled=true",
+                "device.flight-recorder.dump-directory=target/flight-recorder-it"
+        }
+)
+@ActiveProfiles("test")
+class FlightRecorderIT {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    private FlightRecorderEndpoint endpoint;
+
+    @Autowired
+    private DeviceService service;
+
+    @AfterEach
+    void closeRecordings() {
+        endpoint.recordings().forEach(recording -> endpoint.close(recording.name()));
+    }
+
+    @Test
+    @DisplayName("records device operations and rejections in an on-demand recording")
+    void recordsDeviceEvents() throws Exception {
+
+        endpoint.start("it", null);
+
+        DeviceResult created = service.create(new CreateDeviceCommand("iPhone", "Apple", DeviceState.AVAILABLE));
+        service.getById(created.id());
+        UUID missing = UUID.randomUUID();
+        assertThatThrownBy(() -> RestClient.create("http://localhost:" + port)
+                .get()
+                .uri("/devices/{id}", missing)
+                .retrieve()
+                .toBodilessEntity())
+                .isInstanceOf(HttpClientErrorException.NotFound.class);
+
+        assertThat(endpoint.stop("it").state()).isEqualTo("STOPPED");
+        Resource dump = endpoint.dump("it");
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump.getFilePath());
+
+        List<RecordedEvent> operations = events.stream()
+                .filter(event -> event.getEventType().getName().equals("io.github.tooba.device.Operation"))
+                .toList();
+        assertThat(operations)
+                .anySatisfy(event -> {
+                    assertThat(event.getString("operation")).isEqualTo("create");
+                    assertThat(event.getString("outcome")).isEqualTo("success");
+                    assertThat(event.getInt("rows")).isEqualTo(1);
+                })
+                .anySatisfy(event -> {
+                    assertThat(event.getString("operation")).isEqualTo("getById");
+                    assertThat(event.getString("outcome")).isEqualTo("DeviceNotFoundException");
+                    assertThat(event.getLong("deviceIdHash")).isNotZero();
+                });
+
+        assertThat(events)
+                .filteredOn(event -> event.getEventType().getName().equals("io.github.tooba.device.Rejection"))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getString("code")).isEqualTo("RESOURCE_NOT_FOUND");
+                    assertThat(event.getInt("status")).isEqualTo(404);
+                    assertThat(event.getString("path")).isEqualTo("/devices/" + missing);
+                });
+    }
+
+    @Test
+    @DisplayName("rejects duplicate and malformed recording names")
+    void rejectsInvalidRecordings() {
+
+        endpoint.start("dup", null);
+
+        assertThatThrownBy(() -> endpoint.start("dup", null)).isInstanceOf(InvalidEndpointRequestException.class);
+        assertThatThrownBy(() -> endpoint.start("../etc", null)).isInstanceOf(InvalidEndpointRequestException.class);
+        assertThat(endpoint.stop("unknown")).isNull();
+    }
+}
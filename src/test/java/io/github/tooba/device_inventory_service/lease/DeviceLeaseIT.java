@@ -0,0 +1,102 @@
+package io.github.tooba.device_inventory_service.lease;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.Device;
+import io.github.tooba.device_inventory_service.repository.DeviceRepository;
+import io.github.tooba.device_inventory_service.service.DeviceService;
+import io.github.tooba.device_inventory_service.service.command.CreateDeviceCommand;
+import io.github.tooba.device_inventory_service.service.command.PatchDeviceCommand;
+import io.github.tooba.device_inventory_service.service.result.DeviceClaimResult;
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "device.lease.enabled=true",
+        "device.lease.default-duration=10m",
+        "device.lease.tick=100ms",
+        "device.lease.refill-interval=1s"
+})
+@ActiveProfiles("test")
+class DeviceLeaseIT {
+
+    @Autowired
+    private DeviceService service;
+
+    @Autowired
+    private DeviceRepository repository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void clean() {
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("gives devices that become IN_USE the default lease, and drops it when they leave")
+    void grantsDefaultLease() {
+
+        DeviceResult created = service.create(new CreateDeviceCommand("iPhone", "Apple", DeviceState.IN_USE));
+
+        Instant expiresAt = repository.findById(created.id()).orElseThrow().getLeaseExpiresAt();
+        assertThat(expiresAt).isBetween(Instant.now().plusSeconds(590), Instant.now().plusSeconds(600));
+
+        service.patch(new PatchDeviceCommand(created.id(), null, null, DeviceState.INACTIVE));
+
+        assertThat(repository.findById(created.id()).orElseThrow().getLeaseExpiresAt()).isNull();
+    }
+
+    @Test
+    @DisplayName("returns a claimed device to AVAILABLE once its lease runs out")
+    void expiresClaimedDevice() throws InterruptedException {
+
+        service.create(new CreateDeviceCommand("iPhone", "Apple", DeviceState.AVAILABLE));
+        double expiredBefore = meterRegistry.get("device.lease.expired").counter().count();
+
+        DeviceClaimResult claim = service.claim("Apple", 1, Duration.ofSeconds(1));
+        UUID id = claim.devices().getFirst().id();
+        assertThat(claim.leaseExpiresAt()).isNotNull();
+
+        assertThat(awaitState(id, DeviceState.AVAILABLE, Duration.ofSeconds(5))).isTrue();
+        assertThat(repository.findById(id).orElseThrow().getLeaseExpiresAt()).isNull();
+        assertThat(meterRegistry.get("device.lease.expired").counter().count()).isGreaterThan(expiredBefore);
+        assertThat(meterRegistry.get("device.lease.sweep.lag").timer().count()).isPositive();
+    }
+
+    @Test
+    @DisplayName("keeps a renewed device IN_USE past its original expiry")
+    void renewalExtendsLease() throws InterruptedException {
+
+        service.create(new CreateDeviceCommand("iPhone", "Apple", DeviceState.AVAILABLE));
+        UUID id = service.claim("Apple", 1, Duration.ofSeconds(1)).devices().getFirst().id();
+
+        service.renewLease(id, Duration.ofMinutes(5));
+
+        assertThat(awaitState(id, DeviceState.AVAILABLE, Duration.ofSeconds(2))).isFalse();
+    }
+
+    private boolean awaitState(UUID id, DeviceState state, Duration timeout) throws InterruptedException {
+        Instant deadline = Instant.now().plus(timeout);
+        while (Instant.now().isBefore(deadline)) {
+            Device device = repository.findById(id).orElseThrow();
+            if (device.getState() == state) {
+                return true;
+            }
+            Thread.sleep(100);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.tooba.device_inventory_service.lease;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final Instant START = Instant.parse("2030-01-01T00:00:00Z");
+
+    private final TimingWheel<String> wheel = new TimingWheel<>(Duration.ofSeconds(1), START);
+
+    @Test
+    @DisplayName("returns an entry on the first tick at or after its deadline")
+    void firesAtDeadline() {
+
+        wheel.schedule("soon", START.plusMillis(2500));
+
+        assertThat(wheel.advance(START.plusSeconds(2))).isEmpty();
+        assertThat(wheel.advance(START.plusSeconds(3))).containsExactly("soon");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("cascades far deadlines down the levels without firing early")
+    void cascadesFarDeadlines() {
+
+        wheel.schedule("minutes", START.plusSeconds(100));
+        wheel.schedule("hours", START.plusSeconds(5_000));
+        wheel.schedule("days", START.plusSeconds(300_000));
+
+        assertThat(wheel.advance(START.plusSeconds(99))).isEmpty();
+        assertThat(wheel.advance(START.plusSeconds(100))).containsExactly("minutes");
+        assertThat(wheel.advance(START.plusSeconds(4_999))).isEmpty();
+        assertThat(wheel.advance(START.plusSeconds(5_000))).containsExactly("hours");
+        assertThat(wheel.advance(START.plusSeconds(299_999))).isEmpty();
+        assertThat(wheel.advance(START.plusSeconds(300_000))).containsExactly("days");
+    }
+
+    @Test
+    @DisplayName("returns past deadlines on the next advance and refuses ones beyond its range")
+    void handlesPastAndOutOfRangeDeadlines() {
+
+        assertThat(wheel.schedule("late", START.minusSeconds(10))).isTrue();
+        assertThat(wheel.schedule("too far", START.plus(Duration.ofDays(365)))).isFalse();
+
+        assertThat(wheel.advance(START)).containsExactly("late");
+        assertThat(wheel.size()).isZero();
+    }
+}
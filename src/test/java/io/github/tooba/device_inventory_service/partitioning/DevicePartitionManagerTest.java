@@ -0,0 +1,160 @@
+package io.github.tooba.device_inventory_service.partitioning;
+
+import io.github.tooba.device_inventory_service.entity.Device;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DevicePartitionManagerTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+    private final Cache cache = mock(Cache.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+
+    private DevicePartitionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        manager = manager(24);
+    }
+
+    @Test
+    @DisplayName("creates the current month and the configured months ahead")
+    void createsFuturePartitions() throws Exception {
+
+        givenPartitioned(true);
+        givenPartitions();
+
+        manager.maintain();
+
+        verify(jdbc).execute("CREATE TABLE IF NOT EXISTS devices_p2026_10 PARTITION OF devices "
+                + "FOR VALUES FROM ('2026-10-01T00:00:00Z') TO ('2026-11-01T00:00:00Z')");
+        verify(jdbc).execute(startsWith("CREATE TABLE IF NOT EXISTS devices_p2026_11 "));
+        verify(jdbc).execute(startsWith("CREATE TABLE IF NOT EXISTS devices_p2026_12 "));
+        verify(jdbc).execute(startsWith("CREATE TABLE IF NOT EXISTS devices_p2027_01 "));
+        verify(jdbc, never()).execute(startsWith("CREATE TABLE IF NOT EXISTS devices_p2027_02 "));
+        verifyNoInteractions(cache, events);
+    }
+
+    @Test
+    @DisplayName("archives partitions older than the retention and finishes interrupted detaches")
+    void archivesExpiredPartitions() throws Exception {
+
+        givenPartitioned(true);
+        givenPartitions(
+                new Object[]{"devices_p2023_01", true},
+                new Object[]{"devices_p2024_09", false},
+                new Object[]{"devices_p2024_10", false}
+        );
+
+        manager.maintain();
+
+        verify(jdbc).execute("ALTER TABLE devices DETACH PARTITION devices_p2023_01 FINALIZE");
+        verify(jdbc).execute("ALTER TABLE devices DETACH PARTITION devices_p2024_09 CONCURRENTLY");
+        verify(jdbc).execute("ALTER TABLE devices_p2024_09 SET SCHEMA device_archive");
+        verify(jdbc, never()).execute(contains("devices_p2024_10 CONCURRENTLY"));
+        verify(cache).evict(Device.class);
+        verify(events).publishEvent(new DevicePartitionsArchivedEvent(List.of("devices_p2023_01", "devices_p2024_09")));
+    }
+
+    @Test
+    @DisplayName("archives nothing unless a retention is set")
+    void keepsPartitionsWithoutRetention() throws Exception {
+
+        givenPartitioned(true);
+        givenPartitions(new Object[]{"devices_p2014_01", false});
+
+        manager(null).maintain();
+
+        verify(jdbc, never()).execute(contains("DETACH PARTITION"));
+        verify(jdbc, never()).execute(contains("SET SCHEMA"));
+        verifyNoInteractions(cache, events);
+    }
+
+    @Test
+    @DisplayName("keeps partitions of a partitioned history table ahead without archiving them")
+    void createsHistoryPartitions() throws Exception {
+
+        givenPartitioned(true);
+        givenPartitions(new Object[]{"devices_p2024_09", false});
+
+        manager.maintain();
+
+        verify(jdbc).execute("CREATE TABLE IF NOT EXISTS device_history_p2026_10 PARTITION OF device_history "
+                + "FOR VALUES FROM ('2026-10-01T00:00:00Z') TO ('2026-11-01T00:00:00Z')");
+        verify(jdbc).execute(startsWith("CREATE TABLE IF NOT EXISTS device_history_p2027_01 "));
+        verify(jdbc, never()).execute(contains("ALTER TABLE device_history"));
+    }
+
+    @Test
+    @DisplayName("does nothing while the table is not partitioned")
+    void skipsUnpartitionedTable() {
+
+        givenPartitioned(false);
+
+        manager.maintain();
+
+        verify(jdbc, never()).execute(anyString());
+    }
+
+    @Test
+    @DisplayName("partition names round-trip and bound a half-open UTC month")
+    void partitionNaming() {
+
+        MonthlyPartition partition = new MonthlyPartition(YearMonth.of(2026, 2));
+
+        assertThat(partition.name()).isEqualTo("devices_p2026_02");
+        assertThat(partition.from()).isEqualTo(Instant.parse("2026-02-01T00:00:00Z"));
+        assertThat(partition.to()).isEqualTo(Instant.parse("2026-03-01T00:00:00Z"));
+        assertThat(MonthlyPartition.parse("devices_p2026_02")).contains(partition);
+        assertThat(MonthlyPartition.parse("devices_unpartitioned")).isEmpty();
+    }
+
+    private DevicePartitionManager manager(Integer retentionMonths) {
+        return new DevicePartitionManager(
+                new DevicePartitioningProperties(true, 3, retentionMonths, "device_archive", "0 0 3 * * *"),
+                jdbc,
+                entityManagerFactory,
+                events,
+                Clock.fixed(Instant.parse("2026-10-15T12:00:00Z"), ZoneOffset.UTC)
+        );
+    }
+
+    private void givenPartitioned(boolean partitioned) {
+        when(jdbc.queryForObject(contains("pg_partitioned_table"), eq(Boolean.class))).thenReturn(partitioned);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenPartitions(Object[]... rows) throws Exception {
+        when(jdbc.query(contains("pg_inherits"), any(RowMapper.class))).thenAnswer(invocation -> {
+            RowMapper<Object> mapper = invocation.getArgument(1);
+            List<Object> mapped = new ArrayList<>();
+            for (int i = 0; i < rows.length; i++) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(1)).thenReturn((String) rows[i][0]);
+                when(rs.getBoolean(2)).thenReturn((Boolean) rows[i][1]);
+                mapped.add(mapper.mapRow(rs, i));
+            }
+            return mapped;
+        });
+    }
+}
@@ -0,0 +1,158 @@
+package io.github.tooba.device_inventory_service.repository;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.Device;
+import io.github.tooba.device_inventory_service.service.DeviceService;
+import io.github.tooba.device_inventory_service.service.command.CreateDeviceCommand;
+import io.github.tooba.device_inventory_service.service.command.PatchDeviceCommand;
+import io.github.tooba.device_inventory_service.service.command.UpdateDeviceCommand;
+import io.github.tooba.device_inventory_service.service.exception.DeviceNotFoundException;
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "device.cache.entity-cache.enabled=true",
+        "device.cache.query-cache.enabled=true",
+        "device.cache.statistics.enabled=true"
+})
+@ActiveProfiles("test")
+class DeviceSecondLevelCacheIT {
+
+    @Autowired
+    private DeviceService service;
+
+    @Autowired
+    private DeviceRepository repository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void clean() {
+        repository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    @DisplayName("caches devices after the first read")
+    void cachesOnRead() {
+
+        DeviceResult created = create("iPhone", "Apple", DeviceState.AVAILABLE);
+        entityManagerFactory.getCache().evictAll();
+
+        service.getById(created.id());
+
+        assertThat(entityManagerFactory.getCache().contains(Device.class, created.id())).isTrue();
+        assertThat(meterRegistry.get("device.cache.region.puts")
+                .tag("region", Device.class.getName())
+                .functionCounter().count()).isPositive();
+        assertThat(meterRegistry.get("device.cache.region.evictions")
+                .tag("region", Device.class.getName())
+                .functionCounter().count()).isNotNaN();
+    }
+
+    @Test
+    @DisplayName("batch lookup serves cached devices and queries only the rest")
+    void lookupUsesCache() {
+
+        DeviceResult cached = create("iPhone", "Apple", DeviceState.AVAILABLE);
+        DeviceResult uncached = create("Galaxy", "Samsung", DeviceState.AVAILABLE);
+        entityManagerFactory.getCache().evictAll();
+        service.getById(cached.id());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long hitsBefore = statistics.getSecondLevelCacheHitCount();
+
+        var result = service.lookup(List.of(cached.id(), uncached.id()));
+
+        assertThat(result.devices()).extracting(DeviceResult::id)
+                .containsExactly(cached.id(), uncached.id());
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(hitsBefore);
+        assertThat(entityManagerFactory.getCache().contains(Device.class, uncached.id())).isTrue();
+    }
+
+    @Test
+    @DisplayName("update never leaves a stale cached device")
+    void updateRefreshesCache() {
+
+        DeviceResult created = create("iPhone", "Apple", DeviceState.AVAILABLE);
+        service.getById(created.id());
+
+        service.update(new UpdateDeviceCommand(created.id(), "Galaxy", "Samsung", DeviceState.IN_USE));
+
+        DeviceResult reloaded = service.getById(created.id());
+        assertThat(reloaded.name()).isEqualTo("Galaxy");
+        assertThat(reloaded.brand()).isEqualTo("Samsung");
+        assertThat(reloaded.state()).isEqualTo(DeviceState.IN_USE);
+    }
+
+    @Test
+    @DisplayName("patch never leaves a stale cached device")
+    void patchRefreshesCache() {
+
+        DeviceResult created = create("iPhone", "Apple", DeviceState.AVAILABLE);
+        service.getById(created.id());
+
+        service.patch(new PatchDeviceCommand(created.id(), null, null, DeviceState.INACTIVE));
+
+        assertThat(service.getById(created.id()).state()).isEqualTo(DeviceState.INACTIVE);
+    }
+
+    @Test
+    @DisplayName("delete never leaves a readable cached device")
+    void deleteEvictsCache() {
+
+        DeviceResult created = create("iPhone", "Apple", DeviceState.AVAILABLE);
+        service.getById(created.id());
+
+        service.delete(created.id());
+
+        // READ_WRITE keeps a soft lock in place of the entry, so only check
+        // that nothing can be read back.
+        assertThat(repository.findById(created.id())).isEmpty();
+        assertThatThrownBy(() -> service.getById(created.id()))
+                .isInstanceOf(DeviceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("cached list queries are invalidated by writes")
+    void listQueriesSeeWrites() {
+
+        DeviceResult created = create("iPhone", "Apple", DeviceState.AVAILABLE);
+        create("Galaxy", "Samsung", DeviceState.AVAILABLE);
+
+        var available = service.getAll("apple", DeviceState.AVAILABLE, PageRequest.of(0, 10));
+        assertThat(available.getTotalElements()).isEqualTo(1);
+
+        service.patch(new PatchDeviceCommand(created.id(), null, null, DeviceState.IN_USE));
+
+        assertThat(service.getAll("apple", DeviceState.AVAILABLE, PageRequest.of(0, 10))
+                .getTotalElements()).isZero();
+        assertThat(service.getAll("apple", DeviceState.IN_USE, PageRequest.of(0, 10))
+                .getContent())
+                .extracting(DeviceResult::state)
+                .containsExactly(DeviceState.IN_USE);
+    }
+
+    private DeviceResult create(String name, String brand, DeviceState state) {
+        return service.create(new CreateDeviceCommand(name, brand, state));
+    }
+}
@@ -13,6 +13,9 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
@@ -22,6 +25,9 @@ class DeviceSpecificationIT {
     @Autowired
     private DeviceRepository repository;
 
+    @Autowired
+    private BrandRepository brands;
+
     @BeforeEach
     void clean() {
         repository.deleteAll();
@@ -31,8 +37,8 @@ class DeviceSpecificationIT {
     @DisplayName("filters by brand only (case-insensitive)")
     void filtersByBrandOnly() {
 
-        repository.save(Device.create("iPhone", "Apple", DeviceState.AVAILABLE));
-        repository.save(Device.create("Galaxy", "Samsung", DeviceState.AVAILABLE));
+        save(Device.create("iPhone", "Apple", DeviceState.AVAILABLE));
+        save(Device.create("Galaxy", "Samsung", DeviceState.AVAILABLE));
 
         Specification<Device> spec =
                 Specification.where(DeviceSpecifications.hasBrand("apple"))
@@ -49,8 +55,8 @@ class DeviceSpecificationIT {
     @DisplayName("filters by state only")
     void filtersByStateOnly() {
 
-        repository.save(Device.create("iPhone", "Apple", DeviceState.AVAILABLE));
-        repository.save(Device.create("Galaxy", "Samsung", DeviceState.IN_USE));
+        save(Device.create("iPhone", "Apple", DeviceState.AVAILABLE));
+        save(Device.create("Galaxy", "Samsung", DeviceState.IN_USE));
 
         Specification<Device> spec =
                 Specification.where(DeviceSpecifications.hasBrand(null))
@@ -68,9 +74,9 @@ class DeviceSpecificationIT {
     @DisplayName("filters by brand and state together")
     void filtersByBrandAndState() {
 
-        repository.save(Device.create("iPhone", "Apple", DeviceState.AVAILABLE));
-        repository.save(Device.create("iPhone 15", "Apple", DeviceState.IN_USE));
-        repository.save(Device.create("Galaxy", "Samsung", DeviceState.AVAILABLE));
+        save(Device.create("iPhone", "Apple", DeviceState.AVAILABLE));
+        save(Device.create("iPhone 15", "Apple", DeviceState.IN_USE));
+        save(Device.create("Galaxy", "Samsung", DeviceState.AVAILABLE));
 
         Specification<Device> spec =
                 Specification.where(DeviceSpecifications.hasBrand("Apple"))
@@ -83,4 +89,31 @@ class DeviceSpecificationIT {
         assertThat(result.getContent().get(0).getName())
                 .isEqualTo("iPhone 15");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("filters by creation-time range (from inclusive, to exclusive)")
+    void filtersByCreationTimeRange() {
+
+        Device saved = save(Device.create("iPhone", "Apple", DeviceState.AVAILABLE));
+        // The database keeps microseconds only, so stay clear of the exact instant.
+        Instant created = saved.getCreationTime();
+
+        Page<Device> inRange = repository.findAll(
+                DeviceSpecifications.createdBetween(created.minusSeconds(1), created.plus(1, ChronoUnit.HOURS)),
+                PageRequest.of(0, 10)
+        );
+        Page<Device> beforeCreation = repository.findAll(
+                DeviceSpecifications.createdBetween(null, created.minusSeconds(1)),
+                PageRequest.of(0, 10)
+        );
+
+        assertThat(inRange.getTotalElements()).isEqualTo(1);
+        assertThat(beforeCreation.getTotalElements()).isZero();
+    }
+
+    // Brands are bound to their dictionary entries by the service layer.
+    private Device save(Device device) {
+        device.resolveBrand(brands::resolve);
+        return repository.save(device);
+    }
+}
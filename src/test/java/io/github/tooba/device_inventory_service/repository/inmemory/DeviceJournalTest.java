@@ -0,0 +1,263 @@
+package io.github.tooba.device_inventory_service.repository.inmemory;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeviceJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("cuts off a failed append, so later appends survive replay")
+    void discardsFailedAppend() throws Exception {
+
+        Path file = directory.resolve("journal-0.log");
+        var channel = new FailingChannel(open(file));
+        var first = row("iPhone", 1);
+        var second = row("Galaxy", 2);
+        var third = row("Pixel", 3);
+
+        try (var journal = new DeviceJournal(channel, false)) {
+            journal.append(Map.of(first.id(), first));
+
+            channel.failNextWrite = true;
+            assertThatThrownBy(() -> journal.append(Map.of(second.id(), second)))
+                    .isInstanceOf(UncheckedIOException.class);
+
+            journal.append(Map.of(third.id(), third));
+        }
+
+        List<Map<UUID, InMemoryDeviceStore.Row>> replayed = new ArrayList<>();
+        long size = Files.size(file);
+
+        assertThat(DeviceJournal.replay(file, replayed::add)).isEqualTo(2);
+        assertThat(replayed).containsExactly(Map.of(first.id(), first), Map.of(third.id(), third));
+        assertThat(Files.size(file)).isEqualTo(size);
+    }
+
+    @Test
+    @DisplayName("refuses further appends when a failed append cannot be cut off")
+    void turnsReadOnlyWhenCutOffFails() throws Exception {
+
+        Path file = directory.resolve("journal-0.log");
+        var channel = new FailingChannel(open(file));
+        var row = row("iPhone", 1);
+
+        try (var journal = new DeviceJournal(channel, false)) {
+            channel.failNextWrite = true;
+            channel.failTruncate = true;
+            assertThatThrownBy(() -> journal.append(Map.of(row.id(), row)))
+                    .isInstanceOf(UncheckedIOException.class);
+
+            channel.failTruncate = false;
+            assertThatThrownBy(() -> journal.append(Map.of(row.id(), row)))
+                    .isInstanceOf(UncheckedIOException.class)
+                    .hasMessageContaining("read-only");
+        }
+    }
+
+    @Test
+    @DisplayName("syncs the appends queued behind a running sync with one force")
+    void groupsQueuedAppendsIntoOneSync() throws Exception {
+
+        Path file = directory.resolve("journal-0.log");
+        var channel = new FailingChannel(open(file));
+        channel.forceGate = new CountDownLatch(1);
+        List<InMemoryDeviceStore.Row> rows = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            rows.add(row("iPhone " + i, i + 1));
+        }
+
+        try (var journal = new DeviceJournal(channel, true)) {
+            Thread first = Thread.ofPlatform().start(() -> journal.append(Map.of(rows.get(0).id(), rows.get(0))));
+            waitUntil(() -> channel.forces.get() == 1);
+
+            List<Thread> queued = new ArrayList<>();
+            for (var row : rows.subList(1, rows.size())) {
+                queued.add(Thread.ofPlatform().start(() -> journal.append(Map.of(row.id(), row))));
+            }
+            waitUntil(() -> queued.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING));
+
+            channel.forceGate.countDown();
+            first.join();
+            for (Thread thread : queued) {
+                thread.join();
+            }
+        }
+
+        List<Map<UUID, InMemoryDeviceStore.Row>> replayed = new ArrayList<>();
+
+        assertThat(channel.forces).hasValue(2);
+        assertThat(DeviceJournal.replay(file, replayed::add)).isEqualTo(8);
+        assertThat(replayed).containsExactlyInAnyOrderElementsOf(
+                rows.stream().map(row -> Map.of(row.id(), row)).toList()
+        );
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private static InMemoryDeviceStore.Row row(String name, long sequence) {
+        return new InMemoryDeviceStore.Row(
+                UUID.randomUUID(), name, "Apple", (short) 1, 1_750_000_000_000_000L,
+                InMemoryDeviceStore.Row.NO_LEASE, sequence, 0
+        );
+    }
+
+    /**
+     * Writes half of the next record and then fails, like a full disk.
+     * Counts forces, and holds the first one until the gate opens.
+     */
+    private static final class FailingChannel extends FileChannel {
+
+        private final FileChannel delegate;
+        private final AtomicInteger forces = new AtomicInteger();
+
+        private boolean failNextWrite;
+        private boolean failTruncate;
+        private volatile CountDownLatch forceGate;
+
+        FailingChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (failNextWrite) {
+                failNextWrite = false;
+                ByteBuffer half = src.slice(src.position(), src.remaining() / 2);
+                int written = delegate.write(half);
+                src.position(src.position() + written);
+                throw new IOException("No space left on device");
+            }
+            return delegate.write(src);
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if (failTruncate) {
+                throw new IOException("Input/output error");
+            }
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (forces.incrementAndGet() == 1 && forceGate != null) {
+                try {
+                    forceGate.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(ex);
+                }
+            }
+            delegate.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
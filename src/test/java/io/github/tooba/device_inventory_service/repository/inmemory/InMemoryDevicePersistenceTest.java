@@ -0,0 +1,203 @@
+package io.github.tooba.device_inventory_service.repository.inmemory;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.Device;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryDevicePersistenceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("restores devices from the journal alone")
+    void replaysJournal() {
+
+        Node node = start();
+        UUID kept = node.repository.save(Device.create("iPhone", "Apple", DeviceState.AVAILABLE)).getId();
+        UUID deleted = node.repository.save(Device.create("Galaxy", "Samsung", DeviceState.AVAILABLE)).getId();
+        node.transactions.executeWithoutResult(status ->
+                node.repository.findById(kept).orElseThrow().patch(null, null, DeviceState.IN_USE));
+        node.repository.delete(node.repository.findById(deleted).orElseThrow());
+        node.crash();
+
+        Node restarted = start();
+
+        assertThat(restarted.devices()).singleElement()
+                .extracting(Device::getId, Device::getState)
+                .containsExactly(kept, DeviceState.IN_USE);
+    }
+
+    @Test
+    @DisplayName("restores a snapshot plus the changes journaled after it")
+    void loadsSnapshotThenJournal() throws Exception {
+
+        Node node = start();
+        Device first = node.repository.save(Device.create("iPhone", "Apple", DeviceState.AVAILABLE));
+        node.persistence.snapshot();
+        node.repository.save(Device.create("Galaxy", "Samsung", DeviceState.INACTIVE));
+        node.crash();
+
+        assertThat(directory.resolve("snapshot-1.bin")).exists();
+        assertThat(directory.resolve("journal-0.log")).doesNotExist();
+
+        Node restarted = start();
+
+        assertThat(restarted.devices())
+                .extracting(Device::getName)
+                .containsExactly("iPhone", "Galaxy");
+        assertThat(restarted.repository.findById(first.getId())).get()
+                .extracting(Device::getCreationTime)
+                .isEqualTo(first.getCreationTime());
+
+        // New devices keep sorting after the restored ones.
+        restarted.repository.save(Device.create("Pixel", "Google", DeviceState.AVAILABLE));
+        assertThat(restarted.devices()).last().extracting(Device::getName).isEqualTo("Pixel");
+    }
+
+    @Test
+    @DisplayName("keeps lease expiries in snapshots and in the journal")
+    void restoresLeases() throws Exception {
+
+        Instant snapshotted = Instant.parse("2030-01-01T00:00:00.123456Z");
+        Instant journaled = Instant.parse("2030-01-01T00:05:00Z");
+
+        Node node = start();
+        UUID first = node.repository.save(Device.create("iPhone", "Apple", DeviceState.IN_USE)).getId();
+        UUID second = node.repository.save(Device.create("Galaxy", "Samsung", DeviceState.IN_USE)).getId();
+        node.transactions.executeWithoutResult(status ->
+                node.repository.findById(first).orElseThrow().tryLease(snapshotted));
+        node.persistence.snapshot();
+        node.transactions.executeWithoutResult(status ->
+                node.repository.findById(second).orElseThrow().tryLease(journaled));
+        node.crash();
+
+        Node restarted = start();
+
+        assertThat(restarted.repository.findById(first)).get()
+                .extracting(Device::getLeaseExpiresAt).isEqualTo(snapshotted);
+        assertThat(restarted.repository.findById(second)).get()
+                .extracting(Device::getLeaseExpiresAt).isEqualTo(journaled);
+    }
+
+    @Test
+    @DisplayName("restores snapshots and journal records larger than one read chunk")
+    void readsAcrossChunks() throws Exception {
+
+        String longName = "x".repeat(2 * ChunkedFileReader.CHUNK_SIZE);
+
+        Node node = start();
+        for (int i = 0; i < 20_000; i++) {
+            node.repository.save(Device.create("iPhone " + i, "Apple", DeviceState.AVAILABLE));
+        }
+        node.repository.save(Device.create(longName, "Apple", DeviceState.AVAILABLE));
+        node.persistence.snapshot();
+        node.repository.save(Device.create("Galaxy", "Samsung", DeviceState.AVAILABLE));
+        node.repository.save(Device.create(longName, "Google", DeviceState.AVAILABLE));
+        node.crash();
+
+        Node restarted = start();
+
+        assertThat(restarted.devices()).hasSize(20_003)
+                .filteredOn(device -> device.getName().equals(longName))
+                .extracting(Device::getBrand)
+                .containsExactly("Apple", "Google");
+    }
+
+    @Test
+    @DisplayName("writes a snapshot on shutdown")
+    void snapshotsOnStop() {
+
+        Node node = start();
+        node.repository.save(Device.create("iPhone", "Apple", DeviceState.AVAILABLE));
+        node.persistence.stop();
+
+        assertThat(directory.resolve("snapshot-1.bin")).exists();
+        assertThat(start().devices()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("drops a torn journal record and keeps the intact ones")
+    void dropsTornRecord() throws Exception {
+
+        Node node = start();
+        node.repository.save(Device.create("iPhone", "Apple", DeviceState.AVAILABLE));
+        node.repository.save(Device.create("Galaxy", "Samsung", DeviceState.AVAILABLE));
+        node.crash();
+
+        Path journal = directory.resolve("journal-0.log");
+        long intact = Files.size(journal);
+        try (RandomAccessFile file = new RandomAccessFile(journal.toFile(), "rw")) {
+            file.setLength(intact - 3);
+        }
+
+        Node restarted = start();
+
+        assertThat(restarted.devices()).extracting(Device::getName).containsExactly("iPhone");
+        assertThat(Files.size(journal)).isLessThan(intact - 3);
+    }
+
+    @Test
+    @DisplayName("refuses to start from a corrupted snapshot")
+    void rejectsCorruptSnapshot() throws Exception {
+
+        Node node = start();
+        node.repository.save(Device.create("iPhone", "Apple", DeviceState.AVAILABLE));
+        node.persistence.stop();
+
+        Path snapshot = directory.resolve("snapshot-1.bin");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[20] ^= 1;
+        Files.write(snapshot, bytes);
+
+        assertThatThrownBy(this::start)
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessageContaining("Failed to load devices");
+    }
+
+    private Node start() {
+        InMemoryDeviceStore store = new InMemoryDeviceStore();
+        InMemoryDevicePersistence persistence = new InMemoryDevicePersistence(
+                new InMemoryPersistenceProperties(true, directory, Duration.ofHours(1), false),
+                store
+        );
+        persistence.start();
+        return new Node(
+                persistence,
+                new InMemoryDeviceRepository(store),
+                new TransactionTemplate(new InMemoryTransactionManager(store))
+        );
+    }
+
+    private record Node(
+            InMemoryDevicePersistence persistence,
+            InMemoryDeviceRepository repository,
+            TransactionTemplate transactions
+    ) {
+
+        // Like a killed process: no final snapshot, only what was journaled.
+        void crash() {
+        }
+
+        List<Device> devices() {
+            return repository.findAll(DeviceFilter.of(null, null).toSpecification(), Pageable.unpaged()).getContent();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package io.github.tooba.device_inventory_service.repository.inmemory;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.Device;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.core.PropertyReferenceException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryDeviceRepositoryTest {
+
+    private InMemoryDeviceRepository repository;
+    private TransactionTemplate transactions;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryDeviceStore store = new InMemoryDeviceStore();
+        repository = new InMemoryDeviceRepository(store);
+        transactions = new TransactionTemplate(new InMemoryTransactionManager(store));
+    }
+
+    @Test
+    @DisplayName("assigns id, creation time and default state on insert")
+    void assignsIdentity() {
+
+        Device saved = repository.save(Device.create("iPhone", "Apple", null));
+
+        assertThat(saved.getId()).isNotNull();
+        assertThat(saved.getCreationTime()).isNotNull();
+        assertThat(saved.getState()).isEqualTo(DeviceState.AVAILABLE);
+        assertThat(repository.findById(saved.getId())).get()
+                .extracting(Device::getName)
+                .isEqualTo("iPhone");
+    }
+
+    @Test
+    @DisplayName("filters by canonical brand and state, sorts and pages")
+    void filtersSortsAndPages() {
+
+        repository.save(Device.create("b", "Samsung", DeviceState.AVAILABLE));
+        repository.save(Device.create("c", "APPLE", DeviceState.AVAILABLE));
+        repository.save(Device.create("a", "Apple", DeviceState.AVAILABLE));
+        repository.save(Device.create("d", "apple", DeviceState.IN_USE));
+
+        Page<Device> page = repository.findAll(
+                DeviceFilter.of("apple", DeviceState.AVAILABLE).toSpecification(),
+                PageRequest.of(0, 1, Sort.by("name"))
+        );
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(Device::getName).containsExactly("a");
+
+        Slice<Device> slice = repository.findSlice(
+                DeviceFilter.of(null, null).toSpecification(),
+                PageRequest.of(1, 2, Sort.by(Sort.Order.desc("brand.name")))
+        );
+
+        assertThat(slice.getContent()).extracting(Device::getBrand).containsExactly("Apple", "APPLE");
+        assertThat(slice.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("rejects unknown sort properties like the JPA repository")
+    void rejectsUnknownSortProperty() {
+
+        assertThatThrownBy(() -> repository.findSlice(
+                DeviceFilter.of(null, null).toSpecification(),
+                Pageable.unpaged(Sort.by("color"))
+        ))
+                .isInstanceOf(PropertyReferenceException.class);
+    }
+
+    @Test
+    @DisplayName("writes changes to loaded devices on commit only")
+    void writesLoadedDevicesOnCommit() {
+
+        UUID id = repository.save(Device.create("iPhone", "Apple", DeviceState.AVAILABLE)).getId();
+
+        transactions.executeWithoutResult(status -> {
+            repository.findAllById(List.of(id)).getFirst().patch("iPhone 15", null, DeviceState.IN_USE);
+            assertThat(repository.findById(id)).get().extracting(Device::getName).isEqualTo("iPhone 15");
+            status.setRollbackOnly();
+        });
+
+        assertThat(repository.findById(id)).get().extracting(Device::getName).isEqualTo("iPhone");
+
+        transactions.executeWithoutResult(status ->
+                repository.findById(id).orElseThrow().patch("iPhone 15", null, DeviceState.IN_USE));
+
+        assertThat(repository.findById(id)).get().extracting(Device::getState).isEqualTo(DeviceState.IN_USE);
+    }
+
+    @Test
+    @DisplayName("fails a commit whose device changed after it was read")
+    void rejectsConcurrentChange() {
+
+        UUID id = repository.save(Device.create("iPhone", "Apple", DeviceState.AVAILABLE)).getId();
+
+        assertThatThrownBy(() -> transactions.executeWithoutResult(status -> {
+            Device device = repository.findById(id).orElseThrow();
+
+            // Another request puts the device in use after this one checked the rules.
+            Device other = Device.restore(id, "iPhone", "Apple", DeviceState.IN_USE, device.getCreationTime());
+            CompletableFuture.runAsync(() -> repository.save(other)).join();
+
+            device.update("Galaxy", "Samsung", DeviceState.AVAILABLE);
+            repository.save(device);
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(repository.findById(id)).get()
+                .extracting(Device::getName, Device::getState)
+                .containsExactly("iPhone", DeviceState.IN_USE);
+    }
+
+    @Test
+    @DisplayName("deletes are visible in the transaction and applied on commit")
+    void deletesOnCommit() {
+
+        UUID id = repository.save(Device.create("iPhone", "Apple", DeviceState.AVAILABLE)).getId();
+
+        transactions.executeWithoutResult(status -> {
+            repository.delete(repository.findById(id).orElseThrow());
+            assertThat(repository.count(DeviceFilter.of(null, null).toSpecification())).isZero();
+            assertThat(repository.findAllInOrder(List.of(id))).containsExactly((Device) null);
+        });
+
+        assertThat(repository.findById(id)).isEmpty();
+    }
+}
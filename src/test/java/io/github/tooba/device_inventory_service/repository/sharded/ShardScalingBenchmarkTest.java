@@ -0,0 +1,155 @@
+package io.github.tooba.device_inventory_service.repository.sharded;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.Device;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Write throughput of the sharded storage engine on 1, 2 and 4 Postgres
+ * shards, each its own container. Every writer thread creates a device and
+ * then patches a device it created earlier, each in its own transaction, so
+ * the mix has one insert and one read-modify-write per pair. A scatter-gather
+ * page read is timed alongside.
+ * <p>
+ * All containers share this machine's CPUs and disk, so the figures show how
+ * far the engine itself lets writes scale, not what separate database hosts
+ * would reach. Excluded from the regular build; run with
+ * {@code mvn test -Dgroups=benchmark -DexcludedGroups=none -Dtest=ShardScalingBenchmarkTest}.
+ */
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class ShardScalingBenchmarkTest {
+
+    private static final int WRITERS = 32;
+    private static final long WARMUP_MILLIS = 5_000;
+    private static final long MEASURE_MILLIS = 20_000;
+    private static final int BUCKETS = 256;
+
+    private static final List<PostgreSQLContainer> containers = new ArrayList<>();
+
+    @BeforeAll
+    static void startContainers() {
+        for (int i = 0; i < 4; i++) {
+            PostgreSQLContainer container = new PostgreSQLContainer(DockerImageName.parse("postgres:16"));
+            container.start();
+            containers.add(container);
+        }
+    }
+
+    @AfterAll
+    static void stopContainers() {
+        containers.forEach(PostgreSQLContainer::stop);
+    }
+
+    @Test
+    @DisplayName("write throughput on 1, 2 and 4 shards")
+    void throughputScaling() throws Exception {
+
+        List<Double> throughput = new ArrayList<>();
+        for (int shards : new int[] {1, 2, 4}) {
+            Result result = run(shards);
+            throughput.add(result.writesPerSecond());
+            System.out.printf("%d shard(s): %10.0f writes/s %8.2f ms per page of 100 across shards%n",
+                    shards, result.writesPerSecond(), result.pageMillis());
+        }
+
+        assertThat(throughput).allSatisfy(writes -> assertThat(writes).isPositive());
+    }
+
+    private Result run(int shardCount) throws Exception {
+
+        List<Shard> shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            PostgreSQLContainer container = containers.get(i);
+            shards.add(new Shard(i, new ShardingProperties.Database(
+                    container.getJdbcUrl(), container.getUsername(), container.getPassword(), WRITERS
+            ), UnaryOperator.identity()));
+        }
+        shards.forEach(shard -> shard.jdbc().execute(
+                "DROP TABLE IF EXISTS shard_devices, shard_buckets, shard_settings"));
+
+        try (ShardRouter router = new ShardRouter(shards, BUCKETS);
+             ShardedDeviceStore store = new ShardedDeviceStore(router)) {
+
+            ShardedDeviceRepository repository = new ShardedDeviceRepository(store);
+            TransactionTemplate transactions = new TransactionTemplate(new ShardedTransactionManager(store));
+
+            AtomicLong writes = new AtomicLong();
+            long warmupEnds = System.currentTimeMillis() + WARMUP_MILLIS;
+            long measureEnds = warmupEnds + MEASURE_MILLIS;
+
+            ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+            for (int i = 0; i < WRITERS; i++) {
+                writers.execute(() -> write(repository, transactions, writes, warmupEnds, measureEnds));
+            }
+            writers.shutdown();
+            assertThat(writers.awaitTermination(WARMUP_MILLIS + MEASURE_MILLIS + 60_000, TimeUnit.MILLISECONDS))
+                    .isTrue();
+
+            long started = System.nanoTime();
+            int pages = 50;
+            for (int page = 0; page < pages; page++) {
+                repository.findSlice(
+                        DeviceFilter.of(null, DeviceState.AVAILABLE).toSpecification(),
+                        PageRequest.of(page, 100, Sort.by("name")));
+            }
+            double pageMillis = (System.nanoTime() - started) / 1_000_000.0 / pages;
+
+            return new Result(writes.get() * 1_000.0 / MEASURE_MILLIS, pageMillis);
+        }
+    }
+
+    private static void write(
+            ShardedDeviceRepository repository,
+            TransactionTemplate transactions,
+            AtomicLong writes,
+            long warmupEnds,
+            long measureEnds
+    ) {
+        Deque<UUID> created = new ArrayDeque<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        for (long now; (now = System.currentTimeMillis()) < measureEnds; ) {
+
+            Device device = transactions.execute(status -> repository.save(Device.create(
+                    "device-" + random.nextInt(1_000_000), "Brand " + random.nextInt(50), null)));
+            created.add(device.getId());
+
+            UUID target = created.poll();
+            transactions.executeWithoutResult(status -> repository.findById(target)
+                    .ifPresent(found -> found.patch("patched-" + random.nextInt(1_000_000), null, null)));
+            created.add(target);
+
+            if (now >= warmupEnds) {
+                writes.addAndGet(2);
+            }
+        }
+    }
+
+    private record Result(double writesPerSecond, double pageMillis) {}
+}
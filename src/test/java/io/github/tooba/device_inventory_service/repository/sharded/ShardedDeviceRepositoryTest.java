@@ -0,0 +1,240 @@
+package io.github.tooba.device_inventory_service.repository.sharded;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.Device;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardedDeviceRepositoryTest {
+
+    private static final int BUCKETS = 16;
+
+    private final String cluster = UUID.randomUUID().toString();
+    private final List<ShardRouter> routers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        routers.getFirst().shards().forEach(shard -> shard.jdbc().execute("SHUTDOWN"));
+        routers.forEach(ShardRouter::close);
+    }
+
+    @Test
+    @DisplayName("spreads devices over the shards and reads, updates and deletes them by id")
+    void storesDevicesAcrossShards() {
+
+        Node node = node(3);
+
+        List<Device> saved = IntStream.range(0, 30)
+                .mapToObj(i -> node.repository.save(Device.create("device-" + i, "Apple", null)))
+                .toList();
+
+        assertThat(node.router.shards())
+                .allSatisfy(shard -> assertThat(rows(shard)).isPositive());
+        assertThat(node.repository.count(DeviceFilter.of(null, null).toSpecification())).isEqualTo(30);
+
+        Device first = saved.getFirst();
+        node.transactions.executeWithoutResult(status -> node.repository.findById(first.getId())
+                .orElseThrow()
+                .patch("renamed", null, DeviceState.IN_USE));
+
+        assertThat(node.repository.findById(first.getId())).get()
+                .satisfies(device -> {
+                    assertThat(device.getName()).isEqualTo("renamed");
+                    assertThat(device.getState()).isEqualTo(DeviceState.IN_USE);
+                    assertThat(device.getCreationTime()).isEqualTo(first.getCreationTime());
+                });
+
+        node.repository.delete(saved.get(1));
+
+        assertThat(node.repository.findById(saved.get(1).getId())).isEmpty();
+        assertThat(node.repository.findAllInOrder(List.of(saved.get(2).getId(), saved.get(1).getId())))
+                .extracting(device -> device == null ? null : device.getName())
+                .containsExactly("device-2", null);
+    }
+
+    @Test
+    @DisplayName("merges the shards' pages into the same order a single table would give")
+    void mergesPagesInGlobalOrder() {
+
+        Node node = node(3);
+
+        List<Device> saved = IntStream.range(0, 45)
+                .mapToObj(i -> node.repository.save(Device.create(
+                        "device-" + (i % 7), i % 3 == 0 ? "Samsung" : "Apple", DeviceState.values()[i % 3])))
+                .toList();
+
+        List<Device> expected = saved.stream()
+                .sorted(Comparator.comparing(Device::getName).reversed()
+                        .thenComparing(device -> device.getId().toString()))
+                .toList();
+
+        List<UUID> paged = new ArrayList<>();
+        Slice<Device> slice;
+        int page = 0;
+        do {
+            slice = node.repository.findSlice(
+                    DeviceFilter.of(null, null).toSpecification(),
+                    PageRequest.of(page++, 10, Sort.by(Sort.Order.desc("name"))));
+            slice.forEach(device -> paged.add(device.getId()));
+        } while (slice.hasNext());
+
+        assertThat(paged).containsExactlyElementsOf(expected.stream().map(Device::getId).toList());
+
+        Page<Device> samsung = node.repository.findAll(
+                DeviceFilter.of("SAMSUNG", null).toSpecification(),
+                PageRequest.of(1, 4, Sort.by("creationTime")));
+
+        assertThat(samsung.getTotalElements()).isEqualTo(15);
+        assertThat(samsung.getContent()).extracting(Device::getId).containsExactlyElementsOf(saved.stream()
+                .filter(device -> device.getBrand().equals("Samsung"))
+                .sorted(Comparator.comparing(Device::getCreationTime)
+                        .thenComparing(device -> device.getId().toString()))
+                .skip(4)
+                .limit(4)
+                .map(Device::getId)
+                .toList());
+    }
+
+    @Test
+    @DisplayName("concurrent claims lock disjoint devices and a stale write fails")
+    void claimsDisjointDevicesAndDetectsConflicts() throws Exception {
+
+        Node node = node(2);
+        IntStream.range(0, 10).forEach(i -> node.repository.save(Device.create("device-" + i, "Apple", null)));
+
+        var claimedFirst = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        CompletableFuture<List<UUID>> first = CompletableFuture.supplyAsync(() ->
+                node.transactions.execute(status -> {
+                    List<UUID> ids = claim(node, 6);
+                    claimedFirst.countDown();
+                    await(release);
+                    return ids;
+                }));
+
+        assertThat(claimedFirst.await(5, TimeUnit.SECONDS)).isTrue();
+        List<UUID> second = node.transactions.execute(status -> claim(node, 6));
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).hasSize(6).doesNotContainAnyElementsOf(second);
+        assertThat(second).hasSize(4);
+        assertThat(node.repository.count(DeviceFilter.of(null, DeviceState.IN_USE).toSpecification()))
+                .isEqualTo(10);
+
+        UUID id = second.getFirst();
+        assertThatThrownBy(() -> node.transactions.executeWithoutResult(status -> {
+            node.repository.findById(id).orElseThrow().patch(null, null, DeviceState.AVAILABLE);
+            CompletableFuture.runAsync(() -> node.transactions.executeWithoutResult(other ->
+                    node.repository.findById(id).orElseThrow().patch(null, null, DeviceState.INACTIVE)
+            )).join();
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(node.repository.findById(id)).get()
+                .extracting(Device::getState)
+                .isEqualTo(DeviceState.INACTIVE);
+    }
+
+    @Test
+    @DisplayName("moves buckets onto an added shard while writes keep reaching their devices")
+    void rebalancesOntoAddedShard() {
+
+        Node before = node(2);
+        List<UUID> ids = IntStream.range(0, 60)
+                .mapToObj(i -> before.repository.save(Device.create("device-" + i, "Apple", null)).getId())
+                .toList();
+
+        // Two nodes that both know the new shard; one moves buckets while
+        // the other still routes by what it loaded before the moves.
+        Node stale = node(3);
+        Node mover = node(3);
+
+        int moved = new ShardRebalancer(
+                new ShardingProperties.Rebalance(true, Duration.ofSeconds(30), 7),
+                mover.router,
+                new SimpleMeterRegistry()
+        ).rebalance();
+
+        assertThat(moved).isPositive();
+        assertThat(mover.router.ownership()).allSatisfy(owned -> assertThat(owned.size()).isBetween(5, 6));
+        assertThat(rows(mover.router.shards().get(2))).isPositive();
+        assertThat(mover.router.shards().stream().mapToLong(ShardedDeviceRepositoryTest::rows).sum())
+                .isEqualTo(60);
+
+        stale.transactions.executeWithoutResult(status -> stale.repository.findAllInOrder(ids)
+                .forEach(device -> device.patch(device.getName() + "-patched", null, null)));
+
+        assertThat(mover.repository.findAllInOrder(ids))
+                .allSatisfy(device -> assertThat(device.getName()).endsWith("-patched"));
+        assertThat(stale.repository.count(DeviceFilter.of(null, null).toSpecification())).isEqualTo(60);
+        assertThat(stale.repository.findAll(
+                DeviceFilter.of(null, null).toSpecification(),
+                Pageable.unpaged(Sort.by("name"))
+        )).hasSize(60);
+    }
+
+    private List<UUID> claim(Node node, int count) {
+        List<Device> devices = node.repository.lockClaimable(
+                DeviceFilter.of(null, DeviceState.AVAILABLE).toSpecification(), count);
+        devices.forEach(device -> device.patch(null, null, DeviceState.IN_USE));
+        return devices.stream().map(Device::getId).toList();
+    }
+
+    private Node node(int shardCount) {
+
+        List<Shard> shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new Shard(i, new ShardingProperties.Database(
+                    "jdbc:h2:mem:" + cluster + "-" + i + ";DB_CLOSE_DELAY=-1", "sa", "", 4
+            ), UnaryOperator.identity()));
+        }
+
+        ShardRouter router = new ShardRouter(shards, BUCKETS);
+        routers.add(router);
+
+        ShardedDeviceStore store = new ShardedDeviceStore(router);
+        return new Node(
+                router,
+                new ShardedDeviceRepository(store),
+                new TransactionTemplate(new ShardedTransactionManager(store))
+        );
+    }
+
+    private static long rows(Shard shard) {
+        return shard.jdbc().queryForObject("SELECT count(*) FROM shard_devices", Long.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Node(ShardRouter router, ShardedDeviceRepository repository, TransactionTemplate transactions) {}
+}
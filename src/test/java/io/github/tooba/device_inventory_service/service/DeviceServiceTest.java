@@ -1,14 +1,37 @@
 package io.github.tooba.device_inventory_service.service;
 
+import io.github.tooba.device_inventory_service.constant.CountMode;
+import io.github.tooba.device_inventory_service.constant.DeviceField;
+import io.github.tooba.device_inventory_service.constant.DevicePatchStatus;
 import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.degraded.DegradedReadProperties;
+import io.github.tooba.device_inventory_service.degraded.StaleReads;
+import io.github.tooba.device_inventory_service.entity.Brand;
 import io.github.tooba.device_inventory_service.entity.Device;
+import io.github.tooba.device_inventory_service.entity.DeviceRuleViolationException;
 import io.github.tooba.device_inventory_service.fixture.DeviceTestDataFactory;
-import io.github.tooba.device_inventory_service.repository.DeviceRepository;
+import io.github.tooba.device_inventory_service.index.BitmapIndexPage;
+import io.github.tooba.device_inventory_service.index.DeviceBitmapIndex;
+import io.github.tooba.device_inventory_service.lease.DeviceLeases;
+import io.github.tooba.device_inventory_service.repository.BrandRepository;
+import io.github.tooba.device_inventory_service.repository.DeviceStore;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilterSpecification;
+import io.github.tooba.device_inventory_service.service.batch.PatchGroupCommitter;
+import io.github.tooba.device_inventory_service.service.coalescing.ReadCoalescer;
 import io.github.tooba.device_inventory_service.service.command.CreateDeviceCommand;
 import io.github.tooba.device_inventory_service.service.command.PatchDeviceCommand;
 import io.github.tooba.device_inventory_service.service.command.UpdateDeviceCommand;
 import io.github.tooba.device_inventory_service.service.exception.DeviceNotFoundException;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangedEvent;
+import io.github.tooba.device_inventory_service.service.event.DeviceLeaseRenewedEvent;
+import io.github.tooba.device_inventory_service.service.result.DeviceClaimResult;
+import io.github.tooba.device_inventory_service.service.result.DeviceLookupResult;
+import io.github.tooba.device_inventory_service.service.result.DevicePatchResult;
+import io.github.tooba.device_inventory_service.service.result.DeviceReleaseResult;
 import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Root;
@@ -17,16 +40,27 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
@@ -36,14 +70,42 @@ import static org.mockito.Mockito.*;
 class DeviceServiceTest {
 
     @Mock
-    private DeviceRepository repository;
+    private DeviceStore repository;
+
+    @Mock
+    private BrandRepository brandRepository;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Spy
+    private ReadCoalescer readCoalescer =
+            new ReadCoalescer(new InventoryVersion(), new SimpleMeterRegistry(), true);
+
+    @Mock
+    private PatchGroupCommitter patchCommitter;
+
+    @Spy
+    private TransactionOperations transactions = TransactionOperations.withoutTransaction();
+
+    @Mock
+    private DeviceBitmapIndex bitmapIndex;
+
+    @Mock
+    private DeviceLeases leases;
+
+    @Spy
+    private StaleReads staleReads = new StaleReads(
+            new DegradedReadProperties(false, Duration.ZERO, Duration.ZERO, 0, Duration.ZERO),
+            new SimpleMeterRegistry(),
+            Clock.systemUTC()
+    );
 
     @InjectMocks
     private DeviceService service;
 
-    @SuppressWarnings("unchecked")
-    ArgumentCaptor<Specification<Device>> specCaptor =
-            ArgumentCaptor.forClass((Class) Specification.class);
+    ArgumentCaptor<DeviceFilterSpecification> specCaptor =
+            ArgumentCaptor.forClass(DeviceFilterSpecification.class);
 
     @SuppressWarnings("unchecked")
     Root<Device> root = mock(Root.class);
@@ -53,6 +115,8 @@ class DeviceServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(brandRepository.resolve(anyString()))
+                .thenAnswer(invocation -> Brand.named(invocation.getArgument(0)));
     }
 
     @Nested
@@ -86,6 +150,7 @@ class DeviceServiceTest {
             assertThat(result.state()).isEqualTo(DeviceState.AVAILABLE);
 
             verify(repository).save(any(Device.class));
+            verify(events).publishEvent(any(Object.class));
         }
 
         @Test
@@ -182,7 +247,7 @@ class DeviceServiceTest {
                     new UpdateDeviceCommand(id, "Galaxy", "Samsung", DeviceState.IN_USE);
 
             assertThatThrownBy(() -> service.update(command))
-                    .isInstanceOf(IllegalStateException.class)
+                    .isInstanceOf(DeviceRuleViolationException.class)
                     .hasMessageContaining("cannot be updated");
 
             verify(repository, never()).save(any());
@@ -270,7 +335,7 @@ class DeviceServiceTest {
             Page<Device> repoPage =
                     new PageImpl<>(List.of(device), pageable, 1);
 
-            when(repository.findAll(any(Specification.class), eq(pageable)))
+            when(repository.findAll(any(DeviceFilterSpecification.class), eq(pageable)))
                     .thenReturn(repoPage);
 
             Page<DeviceResult> result =
@@ -284,9 +349,313 @@ class DeviceServiceTest {
             assertThat(first.brand()).isEqualTo("Apple");
             assertThat(first.state()).isEqualTo(DeviceState.AVAILABLE);
 
-            verify(repository).findAll(any(Specification.class), eq(pageable));
+            verify(repository).findAll(any(DeviceFilterSpecification.class), eq(pageable));
+        }
+
+        @Test
+        @DisplayName("count=none should read a slice without counting")
+        void shouldSkipCountWhenCountModeIsNone() {
+
+            Pageable pageable = PageRequest.of(0, 1);
+
+            Device device = DeviceTestDataFactory.builder().build();
+
+            when(repository.findSlice(any(DeviceFilterSpecification.class), eq(pageable)))
+                    .thenReturn(new SliceImpl<>(List.of(device), pageable, true));
+
+            Slice<DeviceResult> result =
+                    service.getAll(DeviceFilter.of(null, null), pageable, CountMode.NONE);
+
+            assertThat(result).isNotInstanceOf(Page.class);
+            assertThat(result.hasNext()).isTrue();
+            assertThat(result.getContent()).hasSize(1);
+
+            verify(repository, never()).findAll(any(DeviceFilterSpecification.class), any(Pageable.class));
+            verify(repository, never()).count(any(DeviceFilterSpecification.class));
+            verify(repository, never()).estimateCount(any());
+        }
+
+        @Test
+        @DisplayName("fields should read a projection instead of entities")
+        void shouldReadProjectionWhenFieldsAreSelected() {
+
+            Pageable pageable = PageRequest.of(0, 10);
+            UUID id = UUID.randomUUID();
+
+            Tuple tuple = mock(Tuple.class);
+            when(tuple.get("id", UUID.class)).thenReturn(id);
+            when(tuple.get("state", DeviceState.class)).thenReturn(DeviceState.IN_USE);
+
+            when(repository.findProjectedSlice(
+                    any(DeviceFilterSpecification.class),
+                    eq(pageable),
+                    eq(EnumSet.of(DeviceField.ID, DeviceField.STATE))
+            )).thenReturn(new SliceImpl<>(List.of(tuple), pageable, false));
+
+            Slice<DeviceResult> result = service.getAll(
+                    DeviceFilter.of(null, DeviceState.IN_USE),
+                    pageable,
+                    CountMode.NONE,
+                    Set.of(DeviceField.STATE)
+            );
+
+            assertThat(result.getContent())
+                    .containsExactly(new DeviceResult(id, null, null, DeviceState.IN_USE, null));
+            verify(repository, never()).findSlice(any(DeviceFilterSpecification.class), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("count=approx should use the planner estimate")
+        void shouldUseEstimateWhenCountModeIsApprox() {
+
+            Pageable pageable = PageRequest.of(0, 1);
+
+            Device device = DeviceTestDataFactory.builder().build();
+
+            when(repository.findSlice(any(DeviceFilterSpecification.class), eq(pageable)))
+                    .thenReturn(new SliceImpl<>(List.of(device), pageable, true));
+            when(repository.estimateCount(DeviceFilter.of("Apple", null)))
+                    .thenReturn(OptionalLong.of(1200));
+
+            Page<DeviceResult> result = (Page<DeviceResult>)
+                    service.getAll(DeviceFilter.of("Apple", null), pageable, CountMode.APPROX);
+
+            assertThat(result.getTotalElements()).isEqualTo(1200);
+            verify(repository, never()).count(any(DeviceFilterSpecification.class));
+        }
+
+        @Test
+        @DisplayName("count=approx should never report fewer rows than the page shows")
+        void shouldRaiseEstimateToWhatThePageShows() {
+
+            Pageable pageable = PageRequest.of(2, 1);
+
+            Device device = DeviceTestDataFactory.builder().build();
+
+            when(repository.findSlice(any(DeviceFilterSpecification.class), eq(pageable)))
+                    .thenReturn(new SliceImpl<>(List.of(device), pageable, true));
+            when(repository.estimateCount(DeviceFilter.of(null, null)))
+                    .thenReturn(OptionalLong.of(0));
+
+            Page<DeviceResult> result = (Page<DeviceResult>)
+                    service.getAll(DeviceFilter.of(null, null), pageable, CountMode.APPROX);
+
+            assertThat(result.getTotalElements()).isEqualTo(4);
+            assertThat(result.hasNext()).isTrue();
+        }
+
+        @Test
+        @DisplayName("count=approx should report the rows seen on the last slice, whatever the estimate")
+        void shouldUseRowsSeenOnLastSlice() {
+
+            Pageable pageable = PageRequest.of(2, 10);
+
+            Device device = DeviceTestDataFactory.builder().build();
+
+            when(repository.findSlice(any(DeviceFilterSpecification.class), eq(pageable)))
+                    .thenReturn(new SliceImpl<>(List.of(device, device), pageable, false));
+            when(repository.estimateCount(DeviceFilter.of(null, null)))
+                    .thenReturn(OptionalLong.of(500));
+
+            Page<DeviceResult> result = (Page<DeviceResult>)
+                    service.getAll(DeviceFilter.of(null, null), pageable, CountMode.APPROX);
+
+            assertThat(result.getTotalElements()).isEqualTo(22);
+            assertThat(result.isLast()).isTrue();
+            verify(repository, never()).estimateCount(any());
+        }
+
+        @Test
+        @DisplayName("count=approx should fall back to an exact count without planner statistics")
+        void shouldFallBackToExactCountWithoutEstimate() {
+
+            Pageable pageable = PageRequest.of(0, 1);
+
+            Device device = DeviceTestDataFactory.builder().withState(DeviceState.IN_USE).build();
+
+            when(repository.findSlice(any(DeviceFilterSpecification.class), eq(pageable)))
+                    .thenReturn(new SliceImpl<>(List.of(device), pageable, true));
+            when(repository.estimateCount(DeviceFilter.of(null, DeviceState.IN_USE)))
+                    .thenReturn(OptionalLong.empty());
+            when(repository.count(any(DeviceFilterSpecification.class))).thenReturn(5L);
+
+            Page<DeviceResult> result = (Page<DeviceResult>)
+                    service.getAll(DeviceFilter.of(null, DeviceState.IN_USE), pageable, CountMode.APPROX);
+
+            assertThat(result.getTotalElements()).isEqualTo(5);
+            verify(repository).count(any(DeviceFilterSpecification.class));
+        }
+
+        @Test
+        @DisplayName("should take ids and total from the bitmap index when it is ready")
+        void shouldAnswerFromBitmapIndex() {
+
+            Pageable pageable = PageRequest.of(1, 2);
+            Device device = DeviceTestDataFactory.builder().withBrand("Apple").build();
+
+            when(bitmapIndex.isEnabled()).thenReturn(true);
+            when(bitmapIndex.find("Apple", DeviceState.AVAILABLE, 2, 2))
+                    .thenReturn(Optional.of(new BitmapIndexPage(3, List.of(device.getId()))));
+            when(repository.findAllInOrder(List.of(device.getId()))).thenReturn(List.of(device));
+
+            Page<DeviceResult> result = (Page<DeviceResult>) service.getAll(
+                    DeviceFilter.of("Apple", DeviceState.AVAILABLE),
+                    pageable,
+                    CountMode.EXACT
+            );
+
+            assertThat(result.getTotalElements()).isEqualTo(3);
+            assertThat(result.getContent()).extracting(DeviceResult::id).containsExactly(device.getId());
+            verify(repository, never()).findAll(any(DeviceFilterSpecification.class), any(Pageable.class));
+            verify(repository, never()).count(any(DeviceFilterSpecification.class));
+        }
+
+        @Test
+        @DisplayName("should not touch the database for an empty intersection")
+        void shouldShortCircuitEmptyIndexMatch() {
+
+            Pageable pageable = PageRequest.of(0, 10);
+
+            when(bitmapIndex.isEnabled()).thenReturn(true);
+            when(bitmapIndex.find("Nokia", DeviceState.IN_USE, 0, 10))
+                    .thenReturn(Optional.of(new BitmapIndexPage(0, List.of())));
+
+            Slice<DeviceResult> result = service.getAll(
+                    DeviceFilter.of("Nokia", DeviceState.IN_USE),
+                    pageable,
+                    CountMode.NONE
+            );
+
+            assertThat(result.getContent()).isEmpty();
+            assertThat(result.hasNext()).isFalse();
+            verifyNoInteractions(repository, brandRepository);
+        }
+    }
+    @Nested
+    @DisplayName("lookup()")
+    class LookupDevicesServiceTests {
+
+        @Test
+        @DisplayName("should split found devices and missing ids, once per id")
+        void shouldReturnFoundAndMissing() {
+
+            UUID foundId = UUID.randomUUID();
+            UUID missingId = UUID.randomUUID();
+
+            Device found = DeviceTestDataFactory.builder()
+                    .withId(foundId)
+                    .build();
+
+            when(repository.findAllInOrder(List.of(missingId, foundId)))
+                    .thenReturn(Arrays.asList(null, found));
+
+            DeviceLookupResult result =
+                    service.lookup(List.of(missingId, foundId, missingId));
+
+            assertThat(result.devices()).extracting(DeviceResult::id).containsExactly(foundId);
+            assertThat(result.missing()).containsExactly(missingId);
+        }
+    }
+
+    @Nested
+    @DisplayName("claim() / release()")
+    class ClaimDevicesServiceTests {
+
+        @Test
+        @DisplayName("should move the locked devices to IN_USE")
+        void shouldClaimLockedDevices() {
+
+            Device first = DeviceTestDataFactory.builder().withState(DeviceState.AVAILABLE).build();
+            Device second = DeviceTestDataFactory.builder().withState(DeviceState.AVAILABLE).build();
+
+            when(brandRepository.findKeysByCanonical("apple")).thenReturn(List.of(1));
+            when(repository.lockClaimable(any(), eq(2))).thenReturn(List.of(first, second));
+
+            DeviceClaimResult claimed = service.claim("Apple", 2, null);
+
+            assertThat(claimed.devices()).extracting(DeviceResult::state)
+                    .containsExactly(DeviceState.IN_USE, DeviceState.IN_USE);
+            assertThat(claimed.leaseExpiresAt()).isNull();
+            assertThat(first.getState()).isEqualTo(DeviceState.IN_USE);
+            verify(events, times(2)).publishEvent(any(Object.class));
+        }
+
+        @Test
+        @DisplayName("should lease claimed devices when leases are enabled")
+        void shouldLeaseClaimedDevices() {
+
+            Device device = DeviceTestDataFactory.builder().withState(DeviceState.AVAILABLE).build();
+            Instant expiry = Instant.parse("2030-01-01T00:10:00Z");
+
+            when(leases.isEnabled()).thenReturn(true);
+            when(leases.expiry(any(), eq(Duration.ofMinutes(10)))).thenReturn(expiry);
+            when(repository.lockClaimable(any(), eq(1))).thenReturn(List.of(device));
+
+            DeviceClaimResult claimed = service.claim(null, 1, Duration.ofMinutes(10));
+
+            assertThat(claimed.leaseExpiresAt()).isEqualTo(expiry);
+            assertThat(device.getLeaseExpiresAt()).isEqualTo(expiry);
+        }
+
+        @Test
+        @DisplayName("should publish only a lease event when a lease is renewed")
+        void shouldPublishLeaseEventOnRenewal() {
+
+            UUID id = UUID.randomUUID();
+            Device device = DeviceTestDataFactory.builder()
+                    .withId(id)
+                    .withState(DeviceState.IN_USE)
+                    .build();
+            Instant expiry = Instant.parse("2030-01-01T00:10:00Z");
+
+            when(leases.isEnabled()).thenReturn(true);
+            when(leases.expiry(any(), eq(Duration.ofMinutes(10)))).thenReturn(expiry);
+            when(repository.findById(id)).thenReturn(Optional.of(device));
+
+            service.renewLease(id, Duration.ofMinutes(10));
+
+            assertThat(device.getLeaseExpiresAt()).isEqualTo(expiry);
+            verify(events).publishEvent(new DeviceLeaseRenewedEvent(id, expiry));
+            verify(events, never()).publishEvent(any(DeviceChangedEvent.class));
+        }
+
+        @Test
+        @DisplayName("should reject a lease duration when leases are disabled")
+        void shouldRejectLeaseWhenDisabled() {
+
+            assertThatThrownBy(() -> service.claim(null, 1, Duration.ofMinutes(10)))
+                    .isInstanceOf(IllegalStateException.class);
+            verifyNoInteractions(repository);
+        }
+
+        @Test
+        @DisplayName("should release only IN_USE devices and report the rest")
+        void shouldReleaseInUseDevicesOnly() {
+
+            UUID inUseId = UUID.randomUUID();
+            UUID availableId = UUID.randomUUID();
+            UUID missingId = UUID.randomUUID();
+
+            Device inUse = DeviceTestDataFactory.builder()
+                    .withId(inUseId)
+                    .withState(DeviceState.IN_USE)
+                    .build();
+            Device available = DeviceTestDataFactory.builder()
+                    .withId(availableId)
+                    .withState(DeviceState.AVAILABLE)
+                    .build();
+
+            when(repository.findAllInOrder(List.of(inUseId, availableId, missingId)))
+                    .thenReturn(Arrays.asList(inUse, available, null));
+
+            DeviceReleaseResult result = service.release(List.of(inUseId, availableId, missingId));
+
+            assertThat(result.released()).extracting(DeviceResult::id).containsExactly(inUseId);
+            assertThat(result.notReleased()).containsExactly(availableId, missingId);
+            assertThat(inUse.getState()).isEqualTo(DeviceState.AVAILABLE);
         }
     }
+
     @Nested
     @DisplayName("patch()")
     class PatchDeviceServiceTests {
@@ -340,7 +709,124 @@ class DeviceServiceTest {
 
             assertThatThrownBy(() ->
                     service.patch(new PatchDeviceCommand(id, "New", null, null)))
-                    .isInstanceOf(IllegalStateException.class);
+                    .isInstanceOf(DeviceRuleViolationException.class);
+        }
+
+        @Test
+        @DisplayName("should hand the command to group commit when enabled")
+        void shouldUseGroupCommitWhenEnabled() {
+
+            UUID id = UUID.randomUUID();
+            PatchDeviceCommand command = new PatchDeviceCommand(id, null, null, DeviceState.IN_USE);
+            DeviceResult batched = new DeviceResult(id, "iPhone", "Apple", DeviceState.IN_USE, Instant.now());
+
+            when(patchCommitter.isEnabled()).thenReturn(true);
+            when(patchCommitter.submit(command)).thenReturn(batched);
+
+            assertThat(service.patch(command)).isEqualTo(batched);
+
+            verify(repository, never()).findById(any());
+        }
+
+        @Test
+        @DisplayName("should fall back to its own transaction when the group commit queue is full")
+        void shouldFallBackWhenQueueFull() {
+
+            UUID id = UUID.randomUUID();
+
+            Device existing = DeviceTestDataFactory.builder()
+                    .withId(id)
+                    .withState(DeviceState.AVAILABLE)
+                    .build();
+
+            when(patchCommitter.isEnabled()).thenReturn(true);
+            when(patchCommitter.submit(any())).thenReturn(null);
+            when(repository.findById(id)).thenReturn(Optional.of(existing));
+            when(repository.save(existing)).thenReturn(existing);
+
+            DeviceResult result = service.patch(new PatchDeviceCommand(id, null, null, DeviceState.IN_USE));
+
+            assertThat(result.state()).isEqualTo(DeviceState.IN_USE);
+            verify(repository).save(existing);
+        }
+    }
+
+    @Nested
+    @DisplayName("patchAll()")
+    class PatchAllDevicesServiceTests {
+
+        private final UUID availableId = UUID.randomUUID();
+        private final UUID inUseId = UUID.randomUUID();
+        private final UUID missingId = UUID.randomUUID();
+
+        private Device available;
+        private Device inUse;
+
+        @BeforeEach
+        void loadDevices() {
+            available = DeviceTestDataFactory.builder()
+                    .withId(availableId)
+                    .withName("iPhone")
+                    .withState(DeviceState.AVAILABLE)
+                    .build();
+            inUse = DeviceTestDataFactory.builder()
+                    .withId(inUseId)
+                    .withName("Pixel")
+                    .withState(DeviceState.IN_USE)
+                    .build();
+
+            when(repository.findAllInOrder(List.of(availableId, inUseId, missingId)))
+                    .thenReturn(Arrays.asList(available, inUse, null));
+        }
+
+        private List<PatchDeviceCommand> commands() {
+            return List.of(
+                    new PatchDeviceCommand(availableId, "Galaxy", null, null),
+                    new PatchDeviceCommand(inUseId, "Renamed", null, null),
+                    new PatchDeviceCommand(missingId, null, null, DeviceState.INACTIVE),
+                    new PatchDeviceCommand(availableId, null, null, DeviceState.INACTIVE)
+            );
+        }
+
+        @Test
+        @DisplayName("should load all targets once and roll back every patch when one fails")
+        void shouldRollBackWhenAnyPatchFails() {
+
+            var status = new SimpleTransactionStatus();
+            doAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(status))
+                    .when(transactions).execute(any());
+
+            DevicePatchResult result = service.patchAll(commands(), false);
+
+            assertThat(result.items()).extracting(DevicePatchResult.Item::status).containsExactly(
+                    DevicePatchStatus.NOT_APPLIED,
+                    DevicePatchStatus.REJECTED,
+                    DevicePatchStatus.NOT_FOUND,
+                    DevicePatchStatus.NOT_APPLIED
+            );
+            assertThat(result.items().get(1).message()).isEqualTo("Name cannot be updated while device is in use");
+            assertThat(status.isRollbackOnly()).isTrue();
+            verify(repository, times(1)).findAllInOrder(any());
+            verifyNoInteractions(events);
+        }
+
+        @Test
+        @DisplayName("partial should commit the patches that succeed and report the rest")
+        void shouldApplyPatchesThatSucceedWhenPartial() {
+
+            DevicePatchResult result = service.patchAll(commands(), true);
+
+            assertThat(result.items()).extracting(DevicePatchResult.Item::status).containsExactly(
+                    DevicePatchStatus.PATCHED,
+                    DevicePatchStatus.REJECTED,
+                    DevicePatchStatus.NOT_FOUND,
+                    DevicePatchStatus.PATCHED
+            );
+            assertThat(result.items().getLast().device())
+                    .extracting(DeviceResult::name, DeviceResult::state)
+                    .containsExactly("Galaxy", DeviceState.INACTIVE);
+            assertThat(inUse.getName()).isEqualTo("Pixel");
+            verify(events, times(2)).publishEvent(any(Object.class));
         }
     }
     @Nested
@@ -390,7 +876,7 @@ class DeviceServiceTest {
             when(repository.findById(id)).thenReturn(Optional.of(existing));
 
             assertThatThrownBy(() -> service.delete(id))
-                    .isInstanceOf(IllegalStateException.class)
+                    .isInstanceOf(DeviceRuleViolationException.class)
                     .hasMessageContaining("cannot be deleted");
 
             verify(repository, never()).delete((Device) any());
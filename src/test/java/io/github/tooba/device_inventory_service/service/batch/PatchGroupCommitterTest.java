@@ -0,0 +1,183 @@
+package io.github.tooba.device_inventory_service.service.batch;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.entity.Device;
+import io.github.tooba.device_inventory_service.entity.DeviceRuleViolationException;
+import io.github.tooba.device_inventory_service.fixture.DeviceTestDataFactory;
+import io.github.tooba.device_inventory_service.repository.DeviceStore;
+import io.github.tooba.device_inventory_service.repository.inmemory.InMemoryBrandRepository;
+import io.github.tooba.device_inventory_service.service.command.PatchDeviceCommand;
+import io.github.tooba.device_inventory_service.service.exception.DeviceNotFoundException;
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PatchGroupCommitterTest {
+
+    private final DeviceStore repository = mock(DeviceStore.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PatchGroupCommitter committer;
+
+    @AfterEach
+    void tearDown() {
+        if (committer != null) {
+            committer.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("applies concurrent patches in shared batches")
+    void shouldBatchConcurrentPatches() throws Exception {
+
+        List<Device> devices = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            devices.add(DeviceTestDataFactory.builder().withId(UUID.randomUUID()).build());
+        }
+        stubFindAllById(devices);
+
+        committer = start(Duration.ofMillis(50));
+
+        List<CompletableFuture<DeviceResult>> results = devices.stream()
+                .map(device -> CompletableFuture.supplyAsync(() -> committer.submit(
+                        new PatchDeviceCommand(device.getId(), null, null, DeviceState.IN_USE))))
+                .toList();
+
+        for (var result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS).state()).isEqualTo(DeviceState.IN_USE);
+        }
+
+        var batches = meterRegistry.get("device.patch.batch.size").summary();
+        assertThat(batches.count()).isLessThan(devices.size());
+        assertThat(batches.totalAmount()).isEqualTo(devices.size());
+        verify(events, times(devices.size())).publishEvent(any(Object.class));
+        assertThat(meterRegistry.get("device.patch.queue.depth").summary().count()).isEqualTo(batches.count());
+    }
+
+    @Test
+    @DisplayName("completes each caller with its own domain error")
+    void shouldReportPerItemErrors() {
+
+        Device inUse = DeviceTestDataFactory.builder()
+                .withId(UUID.randomUUID())
+                .withState(DeviceState.IN_USE)
+                .build();
+        stubFindAllById(List.of(inUse));
+
+        committer = start(Duration.ofMillis(1));
+
+        assertThatThrownBy(() -> committer.submit(
+                new PatchDeviceCommand(inUse.getId(), "Renamed", null, null)))
+                .isInstanceOf(DeviceRuleViolationException.class)
+                .hasMessageContaining("Name cannot be updated");
+
+        assertThatThrownBy(() -> committer.submit(
+                new PatchDeviceCommand(UUID.randomUUID(), "Renamed", null, null)))
+                .isInstanceOf(DeviceNotFoundException.class);
+
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("hands patches back to their callers once stopped")
+    void shouldFallBackAfterStop() {
+
+        Device device = DeviceTestDataFactory.builder().withId(UUID.randomUUID()).build();
+        stubFindAllById(List.of(device));
+
+        committer = start(Duration.ofMillis(1));
+        committer.stop();
+
+        assertThat(committer.submit(new PatchDeviceCommand(device.getId(), null, null, DeviceState.IN_USE)))
+                .isNull();
+        verify(repository, never()).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("hands a patch back when no batch takes it within the result timeout")
+    void shouldFallBackAfterResultTimeout() throws Exception {
+
+        Device slow = DeviceTestDataFactory.builder().withId(UUID.randomUUID()).build();
+        Device waiting = DeviceTestDataFactory.builder().withId(UUID.randomUUID()).build();
+        var release = new CountDownLatch(1);
+        when(repository.findAllById(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            Collection<UUID> ids = invocation.getArgument(0);
+            return List.of(slow, waiting).stream().filter(device -> ids.contains(device.getId())).toList();
+        });
+
+        committer = start(Duration.ofMillis(1), Duration.ofMillis(200));
+
+        var first = CompletableFuture.supplyAsync(() -> committer.submit(
+                new PatchDeviceCommand(slow.getId(), null, null, DeviceState.IN_USE)));
+        verify(repository, timeout(1_000)).findAllById(any());
+
+        assertThat(committer.submit(new PatchDeviceCommand(waiting.getId(), null, null, DeviceState.IN_USE)))
+                .isNull();
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).state()).isEqualTo(DeviceState.IN_USE);
+        assertThat(waiting.getState()).isEqualTo(DeviceState.AVAILABLE);
+    }
+
+    @Test
+    @DisplayName("is disabled unless configured")
+    void shouldStayDisabledByDefault() {
+
+        var disabled = new PatchGroupCommitter(
+                new PatchGroupCommitProperties(false, 128, Duration.ofMillis(1), 16, Duration.ofSeconds(5)),
+                repository,
+                new InMemoryBrandRepository(),
+                TransactionOperations.withoutTransaction(),
+                events,
+                meterRegistry
+        );
+        disabled.start();
+
+        assertThat(disabled.isEnabled()).isFalse();
+    }
+
+    private PatchGroupCommitter start(Duration maxWait) {
+        return start(maxWait, Duration.ofSeconds(5));
+    }
+
+    private PatchGroupCommitter start(Duration maxWait, Duration resultTimeout) {
+        var started = new PatchGroupCommitter(
+                new PatchGroupCommitProperties(true, 128, maxWait, 1024, resultTimeout),
+                repository,
+                new InMemoryBrandRepository(),
+                TransactionOperations.withoutTransaction(),
+                events,
+                meterRegistry
+        );
+        started.start();
+        return started;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubFindAllById(List<Device> devices) {
+        when(repository.findAllById(any())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            return devices.stream().filter(device -> ids.contains(device.getId())).toList();
+        });
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.tooba.device_inventory_service.service.caching;
+
+import io.github.tooba.device_inventory_service.constant.CountMode;
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.repository.specification.DeviceFilter;
+import io.github.tooba.device_inventory_service.service.InventoryVersion;
+import io.github.tooba.device_inventory_service.service.event.DeviceChangedEvent;
+import io.github.tooba.device_inventory_service.service.result.DeviceResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ListVersionsTest {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+
+    private final InventoryVersion inventoryVersion = new InventoryVersion();
+    private final Clock clock = Clock.fixed(Instant.parse("2026-10-19T12:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    @DisplayName("a brand-filtered listing only changes with writes to that brand")
+    void shouldFollowBrandVersion() {
+
+        var versions = new ListVersions(new ListCachingProperties(true, true, Duration.ZERO), inventoryVersion, clock);
+        DeviceFilter apple = DeviceFilter.of("Apple", null);
+        DeviceFilter all = DeviceFilter.of(null, null);
+
+        String appleTag = versions.etag(apple, FIRST_PAGE, CountMode.EXACT, null);
+        String allTag = versions.etag(all, FIRST_PAGE, CountMode.EXACT, null);
+
+        assertThat(appleTag).startsWith("W/\"").isNotEqualTo(allTag);
+        assertThat(versions.etag(apple, FIRST_PAGE, CountMode.EXACT, null)).isEqualTo(appleTag);
+        assertThat(versions.etag(apple, PageRequest.of(1, 20), CountMode.EXACT, null)).isNotEqualTo(appleTag);
+
+        DeviceResult pixel = device("Google");
+        inventoryVersion.onDeviceChanged(DeviceChangedEvent.created(pixel));
+
+        assertThat(versions.etag(apple, FIRST_PAGE, CountMode.EXACT, null)).isEqualTo(appleTag);
+        assertThat(versions.etag(all, FIRST_PAGE, CountMode.EXACT, null)).isNotEqualTo(allTag);
+
+        // Moving a device to another brand changes both brands.
+        inventoryVersion.onDeviceChanged(DeviceChangedEvent.updated(pixel, device(" apple ")));
+
+        assertThat(versions.etag(apple, FIRST_PAGE, CountMode.EXACT, null)).isNotEqualTo(appleTag);
+    }
+
+    @Test
+    @DisplayName("no ETag when list caching is off, and validators expire with their lifetime")
+    void shouldRespectProperties() {
+
+        var disabled = new ListVersions(new ListCachingProperties(false, true, Duration.ZERO), inventoryVersion, clock);
+        assertThat(disabled.etag(DeviceFilter.of(null, DeviceState.AVAILABLE), FIRST_PAGE, CountMode.NONE, null))
+                .isNull();
+
+        DeviceFilter filter = DeviceFilter.of(null, DeviceState.AVAILABLE);
+        var now = new ListVersions(new ListCachingProperties(true, true, Duration.ofSeconds(30)), inventoryVersion, clock);
+        var later = new ListVersions(
+                new ListCachingProperties(true, true, Duration.ofSeconds(30)),
+                inventoryVersion,
+                Clock.offset(clock, Duration.ofSeconds(30))
+        );
+
+        String tag = now.etag(filter, FIRST_PAGE, CountMode.NONE, null);
+        assertThat(tag.substring(tag.indexOf('-')))
+                .isNotEqualTo(later.etag(filter, FIRST_PAGE, CountMode.NONE, null).substring(tag.indexOf('-')));
+    }
+
+    private static DeviceResult device(String brand) {
+        return new DeviceResult(UUID.randomUUID(), "Device", brand, DeviceState.AVAILABLE, Instant.now());
+    }
+}
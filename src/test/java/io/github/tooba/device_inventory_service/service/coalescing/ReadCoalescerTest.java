@@ -0,0 +1,106 @@
+package io.github.tooba.device_inventory_service.service.coalescing;
+
+import io.github.tooba.device_inventory_service.service.InventoryVersion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReadCoalescerTest {
+
+    private final InventoryVersion version = new InventoryVersion();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReadCoalescer coalescer = new ReadCoalescer(version, meterRegistry, true);
+
+    @Test
+    @DisplayName("concurrent identical reads share a single execution")
+    void shouldShareInFlightResult() throws Exception {
+
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var executions = new AtomicInteger();
+
+        var leader = CompletableFuture.supplyAsync(() ->
+                coalescer.execute("getById", "key", () -> {
+                    executions.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return "value";
+                }));
+
+        started.await(5, TimeUnit.SECONDS);
+
+        var follower = CompletableFuture.supplyAsync(() ->
+                coalescer.execute("getById", "key", () -> {
+                    executions.incrementAndGet();
+                    return "other";
+                }));
+
+        waitUntilCoalesced();
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("does not join a flight that started before a committed write")
+    void shouldNotShareAcrossWrites() throws Exception {
+
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        var leader = CompletableFuture.supplyAsync(() ->
+                coalescer.execute("getById", "key", () -> {
+                    started.countDown();
+                    await(release);
+                    return "before-write";
+                }));
+
+        started.await(5, TimeUnit.SECONDS);
+        version.onDeviceChanged(null);
+
+        String afterWrite = coalescer.execute("getById", "key", () -> "after-write");
+        release.countDown();
+
+        assertThat(afterWrite).isEqualTo("after-write");
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("before-write");
+    }
+
+    @Test
+    @DisplayName("propagates the loader's exception")
+    void shouldPropagateFailure() {
+
+        assertThatThrownBy(() -> coalescer.execute("getById", "key", () -> {
+            throw new IllegalStateException("boom");
+        }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("boom");
+    }
+
+    private void waitUntilCoalesced() throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            var counter = meterRegistry.find("device.reads").tag("outcome", "coalesced").counter();
+            if (counter != null && counter.count() > 0) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
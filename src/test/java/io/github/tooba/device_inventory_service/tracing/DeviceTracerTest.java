@@ -0,0 +1,82 @@
+package io.github.tooba.device_inventory_service.tracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class DeviceTracerTest {
+
+    private final TraceExporter exporter = mock(TraceExporter.class);
+
+    private DeviceTracer tracer(double sampleRatio, Duration slowThreshold) {
+        TracingProperties properties = new TracingProperties(
+                true, sampleRatio, slowThreshold, TracingProperties.Export.LOG,
+                Path.of("traces.jsonl"), 10, 500, 1000
+        );
+        return new DeviceTracer(properties, exporter, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("records nothing for unsampled requests without a slow threshold")
+    void skipsUnsampled() {
+
+        DeviceTracer tracer = tracer(0, Duration.ZERO);
+
+        Span root = tracer.startRequest("GET /devices", null);
+
+        assertThat(root.isRecording()).isFalse();
+        assertThat(tracer.startStatement("select 1").isRecording()).isFalse();
+        root.end();
+        verify(exporter, never()).export(any());
+    }
+
+    @Test
+    @DisplayName("keeps unsampled requests only when they are slow or fail")
+    void keepsSlowAndFailedRequests() throws InterruptedException {
+
+        DeviceTracer tracer = tracer(0, Duration.ofMillis(20));
+
+        tracer.startRequest("GET /devices/{id}", null).end();
+        verify(exporter, never()).export(any());
+
+        tracer.startRequest("GET /devices", null).setError().end();
+        verify(exporter).export(any());
+
+        Span slow = tracer.startRequest("GET /devices", null);
+        Thread.sleep(30);
+        slow.end();
+        verify(exporter, times(2)).export(any());
+    }
+
+    @Test
+    @DisplayName("continues a sampled W3C trace and nests child spans")
+    void continuesTraceparent() {
+
+        DeviceTracer tracer = tracer(0, Duration.ZERO);
+
+        Span root = tracer.startRequest("GET /devices", "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+        Span service = tracer.startSpan("DeviceService.getAll", SpanKind.INTERNAL);
+        Span previous = tracer.makeCurrent(service);
+        Span statement = tracer.startStatement("  select d.id from devices d");
+        statement.end();
+        tracer.restore(previous);
+        service.end();
+        root.end();
+
+        assertThat(tracer.traceresponse(root)).startsWith("00-4bf92f3577b34da6a3ce929d0e0e4736-").endsWith("-01");
+        assertThat(statement.name()).isEqualTo("SELECT");
+        assertThat(statement.parent()).isSameAs(service);
+        assertThat(root.trace().spans()).containsExactly(statement, service, root);
+        verify(exporter).export(root.trace());
+    }
+}
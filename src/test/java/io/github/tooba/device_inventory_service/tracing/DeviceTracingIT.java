@@ -0,0 +1,128 @@
+package io.github.tooba.device_inventory_service.tracing;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.controller.requestDto.CreateDeviceRequest;
+import io.github.tooba.device_inventory_service.repository.DeviceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestClient;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "device.tracing.enabled=true",
+                "device.tracing.sample-ratio=0",
+                "device.tracing.export=file",
+                "device.tracing.file=target/device-tracing-it/traces.jsonl"
+        }
+)
+@ActiveProfiles("test")
+class DeviceTracingIT {
+
+    private static final Path FILE = Path.of("target/device-tracing-it/traces.jsonl");
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    private DeviceRepository repository;
+
+    private RestClient client;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        client = RestClient.builder().baseUrl("http://localhost:" + port).build();
+    }
+
+    @Test
+    @DisplayName("exports controller, service, repository and statement spans of a sampled request")
+    void exportsSampledTrace() throws Exception {
+
+        // The file outlives the test run, so each run looks for its own trace.
+        String traceId = UUID.randomUUID().toString().replace("-", "");
+
+        client.post()
+                .uri("/devices")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new CreateDeviceRequest("iPhone", "Apple", DeviceState.AVAILABLE))
+                .retrieve()
+                .toBodilessEntity();
+
+        ResponseEntity<String> response = client.get()
+                .uri("/devices?brand=Apple")
+                .header("traceparent", "00-" + traceId + "-00f067aa0ba902b7-01")
+                .retrieve()
+                .toEntity(String.class);
+
+        assertThat(response.getHeaders().getFirst("traceresponse")).startsWith("00-" + traceId + "-");
+
+        List<JsonNode> spans = awaitTrace(traceId);
+        JsonNode root = span(spans, "GET /devices").orElseThrow();
+        assertThat(root.get("parentSpanId").asString()).isEqualTo("00f067aa0ba902b7");
+        assertThat(attribute(root, "http.response.status_code")).isEqualTo("200");
+
+        JsonNode service = span(spans, "DeviceService.getAll").orElseThrow();
+        assertThat(service.get("parentSpanId").asString()).isEqualTo(root.get("spanId").asString());
+        assertThat(attribute(service, "result.count")).isEqualTo("1");
+
+        JsonNode select = spans.stream()
+                .filter(span -> span.get("name").asString().equals("SELECT"))
+                .filter(span -> attribute(span, "db.query.text").contains("devices"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(attribute(select, "db.response.returned_rows")).isEqualTo("1");
+        assertThat(spans).anyMatch(span -> span.get("name").asString().startsWith("DeviceRepository."));
+    }
+
+    private List<JsonNode> awaitTrace(String traceId) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (Files.exists(FILE)) {
+                for (String line : Files.readAllLines(FILE)) {
+                    List<JsonNode> spans = new ArrayList<>();
+                    mapper.readTree(line).at("/resourceSpans/0/scopeSpans/0/spans").forEach(spans::add);
+                    if (!spans.isEmpty() && spans.getFirst().get("traceId").asString().equals(traceId)) {
+                        return spans;
+                    }
+                }
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("trace " + traceId + " was not exported");
+    }
+
+    private static Optional<JsonNode> span(List<JsonNode> spans, String name) {
+        return spans.stream().filter(span -> span.get("name").asString().equals(name)).findFirst();
+    }
+
+    private static String attribute(JsonNode span, String key) {
+        for (JsonNode attribute : span.get("attributes")) {
+            if (attribute.get("key").asString().equals(key)) {
+                JsonNode value = attribute.get("value");
+                return value.properties().iterator().next().getValue().asString();
+            }
+        }
+        return "";
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.tooba.device_inventory_service.utilization;
+
+import io.github.tooba.device_inventory_service.constant.DeviceState;
+import io.github.tooba.device_inventory_service.repository.DeviceRepository;
+import io.github.tooba.device_inventory_service.service.DeviceService;
+import io.github.tooba.device_inventory_service.service.command.CreateDeviceCommand;
+import io.github.tooba.device_inventory_service.service.exception.InvalidRequestException;
+import io.github.tooba.device_inventory_service.service.result.DeviceUtilizationResult;
+import io.github.tooba.device_inventory_service.service.result.UtilizationBucket;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest(properties = {
+        "device.utilization.enabled=true",
+        "device.utilization.flush-interval=1h",
+        "device.utilization.max-buckets=100"
+})
+@ActiveProfiles("test")
+class DeviceUtilizationIT {
+
+    @Autowired
+    private DeviceService service;
+
+    @Autowired
+    private DeviceUtilization utilization;
+
+    @Autowired
+    private DeviceRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private DeviceUtilizationProperties properties;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void clean() {
+        repository.deleteAll();
+        jdbc.update("DELETE FROM device_utilization");
+        jdbc.update("DELETE FROM device_utilization_seed");
+    }
+
+    @Test
+    @DisplayName("reports the IN_USE share per brand, the same at every resolution")
+    void reportsUtilization() throws InterruptedException {
+
+        service.create(new CreateDeviceCommand("iPhone", "Apple", DeviceState.AVAILABLE));
+        service.create(new CreateDeviceCommand("iPad", "apple", DeviceState.AVAILABLE));
+        service.create(new CreateDeviceCommand("Tab", "Samsung", DeviceState.INACTIVE));
+        utilization.flush();
+
+        Thread.sleep(300);
+        service.claim("Apple", 1, null);
+        Thread.sleep(300);
+        utilization.flush();
+
+        Instant from = Instant.now().minus(Duration.ofMinutes(5));
+        Instant to = Instant.now();
+
+        List<UtilizationBucket> hourly = service.getUtilization("APPLE", from, to, UtilizationResolution.HOUR).buckets();
+        assertThat(hourly).isNotEmpty().allSatisfy(bucket -> assertThat(bucket.brand()).isEqualTo("apple"));
+        double share = hourly.getLast().utilization();
+        // One of two devices in use for roughly the last half of the time.
+        assertThat(share).isGreaterThan(0.1).isLessThan(0.4);
+
+        for (UtilizationResolution resolution : List.of(UtilizationResolution.DAY, UtilizationResolution.WEEK)) {
+            DeviceUtilizationResult result = service.getUtilization("apple", from, to, resolution);
+            assertThat(result.buckets().getLast().utilization()).isCloseTo(share, within(0.05));
+        }
+
+        assertThat(service.getUtilization(null, from, to, null).buckets())
+                .extracting(UtilizationBucket::brand)
+                .contains("apple", "samsung");
+    }
+
+    @Test
+    @DisplayName("counts the current devices once when several nodes start")
+    void seedsOnce() {
+
+        service.create(new CreateDeviceCommand("iPhone", "Apple", DeviceState.AVAILABLE));
+        service.create(new CreateDeviceCommand("Tab", "Samsung", DeviceState.INACTIVE));
+
+        node().flush();
+        node().flush();
+
+        Long counted = jdbc.queryForObject(
+                "SELECT sum(net_change) FROM device_utilization WHERE resolution = ?",
+                Long.class,
+                UtilizationResolution.WEEK.code()
+        );
+        assertThat(counted).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("picks the finest resolution that fits and rejects ranges that do not")
+    void choosesResolution() {
+
+        Instant now = Instant.now();
+
+        assertThat(service.getUtilization(null, now.minus(Duration.ofHours(6)), now, null).resolution())
+                .isEqualTo(UtilizationResolution.HOUR);
+        assertThat(service.getUtilization(null, now.minus(Duration.ofDays(90)), now, null).resolution())
+                .isEqualTo(UtilizationResolution.DAY);
+        assertThatThrownBy(() -> service.getUtilization(null, now.minus(Duration.ofDays(30)), now, UtilizationResolution.HOUR))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> service.getUtilization(null, now, now, null))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    private DeviceUtilization node() {
+        return new DeviceUtilization(properties, jdbc, transactionTemplate, Clock.systemUTC());
+    }
+}